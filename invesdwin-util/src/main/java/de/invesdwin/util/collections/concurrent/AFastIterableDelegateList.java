@@ -8,13 +8,13 @@ import javax.annotation.concurrent.NotThreadSafe;
 import de.invesdwin.util.collections.ADelegateList;
 import de.invesdwin.util.collections.iterable.ICloseableIterable;
 import de.invesdwin.util.collections.iterable.ICloseableIterator;
-import de.invesdwin.util.collections.iterable.buffer.BufferingIterator;
+import de.invesdwin.util.collections.iterable.buffer.ChunkedBufferingIterator;
 
 @NotThreadSafe
 public abstract class AFastIterableDelegateList<E> extends ADelegateList<E> implements ICloseableIterable<E> {
 
     //arraylist wins in raw iterator speed compared to bufferingIterator since no remove is needed, though we need protection against concurrent modification
-    private BufferingIterator<E> fastIterable;
+    private ChunkedBufferingIterator<E> fastIterable;
     private E[] array;
     private boolean empty;
     private int size;
@@ -103,7 +103,7 @@ public abstract class AFastIterableDelegateList<E> extends ADelegateList<E> impl
     @Override
     public void clear() {
         super.clear();
-        fastIterable = new BufferingIterator<E>();
+        fastIterable = new ChunkedBufferingIterator<E>();
         array = null;
         empty = true;
         size = 0;
@@ -112,7 +112,7 @@ public abstract class AFastIterableDelegateList<E> extends ADelegateList<E> impl
     @Override
     public ICloseableIterator<E> iterator() {
         if (fastIterable == null) {
-            fastIterable = new BufferingIterator<E>(getDelegate());
+            fastIterable = new ChunkedBufferingIterator<E>(getDelegate());
         }
         return fastIterable.iterator();
     }
@@ -3,28 +3,33 @@ package de.invesdwin.util.collections.concurrent;
 import java.lang.reflect.Array;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 
 import javax.annotation.concurrent.NotThreadSafe;
 
 import de.invesdwin.util.bean.tuple.ImmutableEntry;
 import de.invesdwin.util.collections.ADelegateMap;
-import de.invesdwin.util.collections.iterable.buffer.BufferingIterator;
 
 /**
  * Boosts the iteration speed over the values by keeping a fast iterator instance that only gets modified when changes
  * to the map occur.
  * 
- * The iterator returned from this map is also suitable for concurrent modification during iteration.
+ * The iterator returned from this map is also suitable for concurrent modification during iteration. Modifications
+ * are applied incrementally to the iteration snapshot instead of rebuilding it from the delegate.
  */
 @NotThreadSafe
 public abstract class AFastIterableDelegateMap<K, V> extends ADelegateMap<K, V> {
 
-    //arraylist wins in raw iterator speed compared to bufferingIterator since no remove is needed, though we need protection against concurrent modification
-    private BufferingIterator<Entry<K, V>> fastIterable;
+    /*
+     * an array snapshot instead of a ChunkedBufferingIterator, since replacements and removals need to find the slot of
+     * a key to be applied in place instead of rebuilding everything from the delegate
+     */
+    private FastIterableSnapshot<K, Entry<K, V>> fastIterable;
     private boolean empty;
     private int size;
 
+    //exact size copies that are handed out to callers, thus they can only be rebuilt lazily after modifications
     private Entry<K, V>[] entryArray;
     private K[] keyArray;
     private V[] valueArray;
@@ -47,7 +52,11 @@ public abstract class AFastIterableDelegateMap<K, V> extends ADelegateMap<K, V>
         @Override
         public Iterator<Entry<K, V>> iterator() {
             if (fastIterable == null) {
-                fastIterable = new BufferingIterator<Entry<K, V>>(getDelegate().entrySet());
+                final Map<K, V> delegate = getDelegate();
+                fastIterable = new FastIterableSnapshot<K, Entry<K, V>>(delegate.size());
+                for (final Entry<K, V> e : delegate.entrySet()) {
+                    fastIterable.add(e.getKey(), ImmutableEntry.of(e.getKey(), e.getValue()));
+                }
             }
             return fastIterable.iterator();
         }
@@ -266,14 +275,14 @@ public abstract class AFastIterableDelegateMap<K, V> extends ADelegateMap<K, V>
         if (prev == null) {
             addToFastIterable(key, value);
         } else if (prev != value) {
-            refreshFastIterable();
+            replaceInFastIterable(key, value);
         }
         return prev;
     }
 
     protected void addToFastIterable(final K key, final V value) {
         if (fastIterable != null) {
-            fastIterable.add(ImmutableEntry.of(key, value));
+            fastIterable.add(key, ImmutableEntry.of(key, value));
         }
         entryArray = null;
         keyArray = null;
@@ -282,10 +291,36 @@ public abstract class AFastIterableDelegateMap<K, V> extends ADelegateMap<K, V>
         size++;
     }
 
+    protected void replaceInFastIterable(final K key, final V value) {
+        if (fastIterable != null && !fastIterable.replace(key, ImmutableEntry.of(key, value))) {
+            refreshFastIterable();
+            return;
+        }
+        entryArray = null;
+        valueArray = null;
+    }
+
+    protected void removeFromFastIterable(final Object key) {
+        if (fastIterable != null) {
+            fastIterable.remove(key);
+            if (fastIterable.size() != getDelegate().size()) {
+                refreshFastIterable();
+                return;
+            }
+        }
+        entryArray = null;
+        keyArray = null;
+        valueArray = null;
+        size = getDelegate().size();
+        empty = size == 0;
+    }
+
     @Override
     public void clear() {
         super.clear();
-        fastIterable = new BufferingIterator<Entry<K, V>>();
+        if (fastIterable != null) {
+            fastIterable.clear();
+        }
         entryArray = null;
         keyArray = null;
         valueArray = null;
@@ -297,7 +332,7 @@ public abstract class AFastIterableDelegateMap<K, V> extends ADelegateMap<K, V>
     public V remove(final Object key) {
         final V removed = super.remove(key);
         if (removed != null) {
-            refreshFastIterable();
+            removeFromFastIterable(key);
         }
         return removed;
     }
@@ -318,7 +353,7 @@ public abstract class AFastIterableDelegateMap<K, V> extends ADelegateMap<K, V>
     public boolean remove(final Object key, final Object value) {
         final boolean removed = super.remove(key, value);
         if (removed) {
-            refreshFastIterable();
+            removeFromFastIterable(key);
         }
         return removed;
     }
@@ -2,27 +2,32 @@ package de.invesdwin.util.collections.concurrent;
 
 import java.lang.reflect.Array;
 import java.util.Collection;
+import java.util.Set;
 
 import javax.annotation.concurrent.NotThreadSafe;
 
 import de.invesdwin.util.collections.ADelegateSet;
 import de.invesdwin.util.collections.iterable.ICloseableIterable;
 import de.invesdwin.util.collections.iterable.ICloseableIterator;
-import de.invesdwin.util.collections.iterable.buffer.BufferingIterator;
 
 /**
  * Boosts the iteration speed over the values by keeping a fast iterator instance that only gets modified when changes
  * to the map occur.
  * 
- * The iterator returned from this set is also suitable for concurrent modification during iteration.
+ * The iterator returned from this set is also suitable for concurrent modification during iteration. Modifications
+ * are applied incrementally to the iteration snapshot instead of rebuilding it from the delegate.
  * 
  * http://stackoverflow.com/questions/1006395/fastest-way-to-iterate-an-array-in-java-loop-variable-vs-enhanced-for-statement
  */
 @NotThreadSafe
 public abstract class AFastIterableDelegateSet<E> extends ADelegateSet<E> implements ICloseableIterable<E> {
 
-    //arraylist wins in raw iterator speed compared to bufferingIterator since no remove is needed, though we need protection against concurrent modification
-    private BufferingIterator<E> fastIterable;
+    /*
+     * an array snapshot instead of a ChunkedBufferingIterator, since replacements and removals need to find the slot of
+     * a key to be applied in place instead of rebuilding everything from the delegate
+     */
+    private FastIterableSnapshot<E, E> fastIterable;
+    //exact size copy that is handed out to callers, thus it can only be rebuilt lazily after modifications
     private E[] array;
     private boolean empty;
     private int size;
@@ -42,7 +47,7 @@ public abstract class AFastIterableDelegateSet<E> extends ADelegateSet<E> implem
 
     protected void addToFastIterable(final E e) {
         if (fastIterable != null) {
-            fastIterable.add(e);
+            fastIterable.add(e, e);
         }
         array = null;
         empty = false;
@@ -62,11 +67,24 @@ public abstract class AFastIterableDelegateSet<E> extends ADelegateSet<E> implem
     public boolean remove(final Object o) {
         final boolean removed = super.remove(o);
         if (removed) {
-            refreshFastIterable();
+            removeFromFastIterable(o);
         }
         return removed;
     }
 
+    protected void removeFromFastIterable(final Object o) {
+        if (fastIterable != null) {
+            fastIterable.remove(o);
+            if (fastIterable.size() != getDelegate().size()) {
+                refreshFastIterable();
+                return;
+            }
+        }
+        array = null;
+        size = getDelegate().size();
+        empty = size == 0;
+    }
+
     @Override
     public boolean removeAll(final Collection<?> c) {
         final boolean removed = super.removeAll(c);
@@ -76,6 +94,15 @@ public abstract class AFastIterableDelegateSet<E> extends ADelegateSet<E> implem
         return removed;
     }
 
+    @Override
+    public boolean retainAll(final Collection<?> c) {
+        final boolean removed = super.retainAll(c);
+        if (removed) {
+            refreshFastIterable();
+        }
+        return removed;
+    }
+
     /**
      * protected so it can be used inside addToFastIterable to refresh instead if desired by overriding
      */
@@ -89,7 +116,9 @@ public abstract class AFastIterableDelegateSet<E> extends ADelegateSet<E> implem
     @Override
     public void clear() {
         super.clear();
-        fastIterable = new BufferingIterator<E>();
+        if (fastIterable != null) {
+            fastIterable.clear();
+        }
         array = null;
         empty = true;
         size = 0;
@@ -98,7 +127,11 @@ public abstract class AFastIterableDelegateSet<E> extends ADelegateSet<E> implem
     @Override
     public ICloseableIterator<E> iterator() {
         if (fastIterable == null) {
-            fastIterable = new BufferingIterator<E>(getDelegate());
+            final Set<E> delegate = getDelegate();
+            fastIterable = new FastIterableSnapshot<E, E>(delegate.size());
+            for (final E e : delegate) {
+                fastIterable.add(e, e);
+            }
         }
         return fastIterable.iterator();
     }
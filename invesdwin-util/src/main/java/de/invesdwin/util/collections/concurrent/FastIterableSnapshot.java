@@ -0,0 +1,244 @@
+package de.invesdwin.util.collections.concurrent;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import de.invesdwin.util.collections.iterable.ICloseableIterator;
+import de.invesdwin.util.error.FastNoSuchElementException;
+
+/**
+ * Append friendly array snapshot for the fast iterable delegates. Iterators capture the current array and count, thus
+ * they are unaffected by later modifications.
+ * 
+ * Appends go into the free slots behind the captured counts, so they never need a copy. Replacements and removals
+ * modify the array in place as long as no iterator was handed out since the last copy, otherwise the array gets
+ * copied once (which is amortized by the iteration that caused it). Removals leave tombstones that get compacted
+ * lazily when they make up half of the array.
+ * 
+ * Keys are located via equals/hashCode in an open addressing table with linear probing that only stores slot
+ * positions as ints, so no Integer gets boxed per entry.
+ */
+@NotThreadSafe
+final class FastIterableSnapshot<K, E> {
+
+    private static final int MIN_CAPACITY = 4;
+
+    private Object[] values;
+    //parallel to values, but never handed out to iterators
+    private Object[] keys;
+    //slot + 1 of the key inside values, 0 marks a free bucket
+    private int[] table;
+    private int mask;
+    private int count;
+    private int tombstones;
+    private boolean shared;
+
+    FastIterableSnapshot(final int expectedSize) {
+        final int capacity = Math.max(MIN_CAPACITY, expectedSize);
+        this.values = new Object[capacity];
+        this.keys = new Object[capacity];
+        newTable(capacity);
+    }
+
+    int size() {
+        return count - tombstones;
+    }
+
+    void add(final K key, final E element) {
+        if (replace(key, element)) {
+            return;
+        }
+        if (count == values.length) {
+            //old iterators keep the old array
+            if (tombstones > 0) {
+                compact(values.length * 2);
+            } else {
+                values = Arrays.copyOf(values, values.length * 2);
+                keys = Arrays.copyOf(keys, keys.length * 2);
+                rehash();
+            }
+            shared = false;
+        }
+        values[count] = element;
+        keys[count] = key;
+        insert(key, count);
+        count++;
+    }
+
+    boolean replace(final K key, final E element) {
+        int bucket = indexOf(key);
+        if (bucket < 0) {
+            return false;
+        }
+        if (shared) {
+            unshare();
+            bucket = indexOf(key);
+        }
+        values[table[bucket] - 1] = element;
+        return true;
+    }
+
+    boolean remove(final Object key) {
+        int bucket = indexOf(key);
+        if (bucket < 0) {
+            return false;
+        }
+        if (shared) {
+            unshare();
+            bucket = indexOf(key);
+        }
+        final int slot = table[bucket] - 1;
+        values[slot] = null;
+        keys[slot] = null;
+        deleteBucket(bucket);
+        tombstones++;
+        if (tombstones > MIN_CAPACITY && tombstones * 2 >= count) {
+            compact(values.length);
+        }
+        return true;
+    }
+
+    void clear() {
+        if (shared) {
+            values = new Object[values.length];
+            shared = false;
+        } else {
+            Arrays.fill(values, 0, count, null);
+        }
+        Arrays.fill(keys, 0, count, null);
+        Arrays.fill(table, 0);
+        count = 0;
+        tombstones = 0;
+    }
+
+    ICloseableIterator<E> iterator() {
+        shared = true;
+        final Object[] iteratorValues = values;
+        final int iteratorCount = count;
+        return new ICloseableIterator<E>() {
+
+            private int slot = 0;
+
+            @Override
+            public boolean hasNext() {
+                while (slot < iteratorCount) {
+                    if (iteratorValues[slot] != null) {
+                        return true;
+                    }
+                    slot++;
+                }
+                return false;
+            }
+
+            @SuppressWarnings("unchecked")
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new FastNoSuchElementException("FastIterableSnapshot: hasNext is false");
+                }
+                return (E) iteratorValues[slot++];
+            }
+
+            @Override
+            public void close() {
+                slot = iteratorCount;
+            }
+
+        };
+    }
+
+    private void unshare() {
+        if (tombstones > 0) {
+            compact(values.length);
+        } else {
+            values = values.clone();
+        }
+        shared = false;
+    }
+
+    private void compact(final int capacity) {
+        final int newCapacity = Math.max(MIN_CAPACITY, capacity);
+        final Object[] compactedValues = new Object[newCapacity];
+        final Object[] compactedKeys = new Object[newCapacity];
+        int newCount = 0;
+        for (int slot = 0; slot < count; slot++) {
+            final Object value = values[slot];
+            if (value != null) {
+                compactedValues[newCount] = value;
+                compactedKeys[newCount] = keys[slot];
+                newCount++;
+            }
+        }
+        values = compactedValues;
+        keys = compactedKeys;
+        count = newCount;
+        tombstones = 0;
+        rehash();
+    }
+
+    private void newTable(final int capacity) {
+        //keep the load factor at or below 0.5, which is cheap since only ints are stored
+        table = new int[Integer.highestOneBit(capacity * 2 - 1) << 1];
+        mask = table.length - 1;
+    }
+
+    private void rehash() {
+        newTable(values.length);
+        for (int slot = 0; slot < count; slot++) {
+            if (values[slot] != null) {
+                insert(keys[slot], slot);
+            }
+        }
+    }
+
+    private static int hash(final Object key) {
+        if (key == null) {
+            return 0;
+        }
+        final int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int indexOf(final Object key) {
+        int bucket = hash(key) & mask;
+        while (true) {
+            final int slotPlusOne = table[bucket];
+            if (slotPlusOne == 0) {
+                return -1;
+            }
+            if (Objects.equals(key, keys[slotPlusOne - 1])) {
+                return bucket;
+            }
+            bucket = (bucket + 1) & mask;
+        }
+    }
+
+    private void insert(final Object key, final int slot) {
+        int bucket = hash(key) & mask;
+        while (table[bucket] != 0) {
+            bucket = (bucket + 1) & mask;
+        }
+        table[bucket] = slot + 1;
+    }
+
+    /**
+     * Backward shift deletion, so that no tombstones are needed in the table.
+     */
+    private void deleteBucket(final int bucket) {
+        int free = bucket;
+        int next = (free + 1) & mask;
+        while (table[next] != 0) {
+            final int ideal = hash(keys[table[next] - 1]) & mask;
+            //move the entry back when the free bucket lies between its ideal bucket and its current bucket
+            if (((next - ideal) & mask) >= ((next - free) & mask)) {
+                table[free] = table[next];
+                free = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[free] = 0;
+    }
+
+}
@@ -31,7 +31,7 @@ public class BufferingIterator<E> implements IBufferingIterator<E> {
 
     public BufferingIterator() {}
 
-    public BufferingIterator(final BufferingIterator<E> iterable) {
+    public BufferingIterator(final IBufferingIterator<E> iterable) {
         addAll(iterable);
     }
 
@@ -115,7 +115,7 @@ public class BufferingIterator<E> implements IBufferingIterator<E> {
     }
 
     @Override
-    public boolean addAll(final BufferingIterator<E> iterable) {
+    public boolean addAll(final IBufferingIterator<E> iterable) {
         if (iterable == null) {
             return false;
         } else {
@@ -163,9 +163,9 @@ public class BufferingIterator<E> implements IBufferingIterator<E> {
     public boolean consume(final Iterable<? extends E> iterable) {
         if (iterable == null) {
             return false;
-        } else if (iterable instanceof BufferingIterator) {
+        } else if (iterable instanceof IBufferingIterator) {
             @SuppressWarnings("unchecked")
-            final BufferingIterator<E> cIterable = (BufferingIterator<E>) iterable;
+            final IBufferingIterator<E> cIterable = (IBufferingIterator<E>) iterable;
             return consume(cIterable);
         } else {
             return addAll(iterable.iterator());
@@ -176,9 +176,9 @@ public class BufferingIterator<E> implements IBufferingIterator<E> {
     public boolean consume(final Iterator<? extends E> iterator) {
         if (iterator == null) {
             return false;
-        } else if (iterator instanceof BufferingIterator) {
+        } else if (iterator instanceof IBufferingIterator) {
             @SuppressWarnings("unchecked")
-            final BufferingIterator<E> cIterable = (BufferingIterator<E>) iterator;
+            final IBufferingIterator<E> cIterable = (IBufferingIterator<E>) iterator;
             return consume(cIterable);
         } else {
             return addAll(iterator);
@@ -186,7 +186,19 @@ public class BufferingIterator<E> implements IBufferingIterator<E> {
     }
 
     @Override
-    public boolean consume(final BufferingIterator<E> iterator) {
+    public boolean consume(final IBufferingIterator<E> iterator) {
+        if (!(iterator instanceof BufferingIterator)) {
+            final boolean added = addAll(iterator);
+            iterator.clear();
+            return added;
+        }
+        return consumeNodes((BufferingIterator<E>) iterator);
+    }
+
+    private boolean consumeNodes(final BufferingIterator<E> iterator) {
+        if (iterator.head == null) {
+            return false;
+        }
         final int sizeBefore = size;
         size += iterator.size;
         if (head == null) {
@@ -0,0 +1,422 @@
+package de.invesdwin.util.collections.iterable.buffer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import de.invesdwin.util.collections.Lists;
+import de.invesdwin.util.collections.iterable.ICloseableIterator;
+import de.invesdwin.util.error.FastNoSuchElementException;
+
+/**
+ * Same semantics as BufferingIterator, but stores the elements in linked array chunks instead of one node per element.
+ * This reduces the allocations and pointer chasing when millions of elements are buffered. The chunks grow up to
+ * MAX_CHUNK_SIZE so that small buffers stay small.
+ * 
+ * A consumed chunk gets recycled for the next add as long as no view created via iterator() is still open, since views
+ * might still be positioned on that chunk. A view counts as open until it was closed or iterated to its end.
+ */
+@NotThreadSafe
+public class ChunkedBufferingIterator<E> implements IBufferingIterator<E> {
+
+    public static final int MIN_CHUNK_SIZE = 8;
+    public static final int MAX_CHUNK_SIZE = 1024;
+
+    private Chunk head;
+    private Chunk tail;
+    private Chunk recycled;
+    private int size = 0;
+    private int openViews = 0;
+    /**
+     * views of a cleared instance should not decrement the open views of the new chunks
+     */
+    private int viewsGeneration = 0;
+    /**
+     * views of a consumed instance might still be positioned on the chunks that were taken over
+     */
+    private boolean foreignViews = false;
+
+    public ChunkedBufferingIterator() {}
+
+    public ChunkedBufferingIterator(final IBufferingIterator<E> iterable) {
+        addAll(iterable);
+    }
+
+    public ChunkedBufferingIterator(final Iterator<? extends E> iterator) {
+        addAll(iterator);
+    }
+
+    public ChunkedBufferingIterator(final Iterable<? extends E> iterable) {
+        addAll(iterable);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return size > 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public E next() {
+        if (head == null) {
+            throw new FastNoSuchElementException("ChunkedBufferingIterator: next is null");
+        }
+        final E value = (E) head.values[head.start];
+        if (isViewed()) {
+            head.dirty = true;
+        } else {
+            head.values[head.start] = null;
+        }
+        head.start++;
+        size--;
+        if (head.start == head.end) {
+            final Chunk consumed = head;
+            head = head.next;
+            if (head == null) {
+                tail = null;
+            }
+            recycle(consumed);
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public E getHead() {
+        if (head == null) {
+            return null;
+        } else {
+            return (E) head.values[head.start];
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public E getTail() {
+        if (tail == null) {
+            return null;
+        } else {
+            return (E) tail.values[tail.end - 1];
+        }
+    }
+
+    @Override
+    public void prepend(final E element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+        //views might still be positioned on the consumed slots of the head, thus they may not be reused then
+        if (head == null || head.start == 0 || isViewed() && head.start > head.first) {
+            final Chunk newHead = newChunk();
+            newHead.first = newHead.values.length;
+            newHead.start = newHead.first;
+            newHead.end = newHead.first;
+            newHead.next = head;
+            if (head != null) {
+                //new views should not see the elements that were already consumed from the old head
+                newHead.nextFirst = head.start;
+            } else {
+                tail = newHead;
+            }
+            head = newHead;
+        }
+        head.values[--head.start] = element;
+        if (head.start < head.first) {
+            head.first = head.start;
+        }
+        size++;
+    }
+
+    @Override
+    public void add(final E element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+        if (tail == null || tail.end == tail.values.length) {
+            appendChunk();
+        }
+        tail.values[tail.end++] = element;
+        size++;
+    }
+
+    @Override
+    public boolean addAll(final Iterable<? extends E> iterable) {
+        if (iterable == null) {
+            return false;
+        } else if (iterable instanceof Collection) {
+            return addAllArray(((Collection<? extends E>) iterable).toArray());
+        } else {
+            return addAll(iterable.iterator());
+        }
+    }
+
+    @Override
+    public boolean addAll(final IBufferingIterator<E> iterable) {
+        if (iterable == null) {
+            return false;
+        } else {
+            return addAll(iterable.iterator());
+        }
+    }
+
+    @Override
+    public boolean addAll(final Iterator<? extends E> iterator) {
+        if (iterator == null) {
+            return false;
+        } else {
+            final int sizeBefore = size;
+            try {
+                while (true) {
+                    add(iterator.next());
+                }
+            } catch (final NoSuchElementException e) {
+                if (iterator instanceof Closeable) {
+                    final Closeable cIterator = (Closeable) iterator;
+                    try {
+                        cIterator.close();
+                    } catch (final IOException e1) {
+                        throw new RuntimeException(e1);
+                    }
+                }
+            }
+            return sizeBefore < size;
+        }
+    }
+
+    /**
+     * Copies the array in bulk into the chunks.
+     */
+    private boolean addAllArray(final Object[] array) {
+        final int sizeBefore = size;
+        int offset = 0;
+        while (offset < array.length) {
+            if (tail == null || tail.end == tail.values.length) {
+                appendChunk();
+            }
+            final int length = Math.min(array.length - offset, tail.values.length - tail.end);
+            for (int i = 0; i < length; i++) {
+                if (array[offset + i] == null) {
+                    throw new NullPointerException();
+                }
+            }
+            System.arraycopy(array, offset, tail.values, tail.end, length);
+            tail.end += length;
+            size += length;
+            offset += length;
+        }
+        return sizeBefore < size;
+    }
+
+    @Override
+    public boolean consume(final Iterable<? extends E> iterable) {
+        if (iterable == null) {
+            return false;
+        } else if (iterable instanceof IBufferingIterator) {
+            @SuppressWarnings("unchecked")
+            final IBufferingIterator<E> cIterable = (IBufferingIterator<E>) iterable;
+            return consume(cIterable);
+        } else {
+            return addAll(iterable);
+        }
+    }
+
+    @Override
+    public boolean consume(final Iterator<? extends E> iterator) {
+        if (iterator == null) {
+            return false;
+        } else if (iterator instanceof IBufferingIterator) {
+            @SuppressWarnings("unchecked")
+            final IBufferingIterator<E> cIterator = (IBufferingIterator<E>) iterator;
+            return consume(cIterator);
+        } else {
+            return addAll(iterator);
+        }
+    }
+
+    @Override
+    public boolean consume(final IBufferingIterator<E> iterator) {
+        if (iterator instanceof ChunkedBufferingIterator) {
+            final ChunkedBufferingIterator<E> cIterator = (ChunkedBufferingIterator<E>) iterator;
+            if (cIterator.head == null) {
+                return false;
+            }
+            final Chunk otherHead = cIterator.head;
+            if (cIterator.isViewed()) {
+                //views of the other instance might still need the consumed slots
+                foreignViews = true;
+            } else {
+                //the consumed slots are already nulled
+                otherHead.first = otherHead.start;
+            }
+            size += cIterator.size;
+            if (head == null) {
+                head = otherHead;
+            } else {
+                tail.next = otherHead;
+                //views of this instance should not see the elements that were already consumed from the other one
+                tail.nextFirst = otherHead.start;
+            }
+            tail = cIterator.tail;
+            //the chunks now belong to this instance, thus they may not be recycled by the other one
+            cIterator.head = null;
+            cIterator.tail = null;
+            cIterator.size = 0;
+            return true;
+        } else {
+            final boolean added = addAll(iterator);
+            iterator.clear();
+            return added;
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    @Override
+    public void clear() {
+        head = null;
+        tail = null;
+        size = 0;
+        //old views keep their chunks, new ones start fresh
+        recycled = null;
+        openViews = 0;
+        viewsGeneration++;
+        foreignViews = false;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private void appendChunk() {
+        final Chunk newTail = newChunk();
+        if (tail == null) {
+            head = newTail;
+        } else {
+            tail.next = newTail;
+            tail.nextFirst = newTail.first;
+        }
+        tail = newTail;
+    }
+
+    private Chunk newChunk() {
+        if (recycled != null) {
+            final Chunk chunk = recycled;
+            recycled = null;
+            return chunk;
+        }
+        final int chunkSize = Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, Integer.highestOneBit(size)));
+        return new Chunk(chunkSize);
+    }
+
+    private boolean isViewed() {
+        return openViews > 0 || foreignViews;
+    }
+
+    private void recycle(final Chunk chunk) {
+        if (!isViewed() && !chunk.dirty && recycled == null && chunk.values.length == MAX_CHUNK_SIZE) {
+            //only the consumed part was nulled, the rest is still clean
+            chunk.first = 0;
+            chunk.start = 0;
+            chunk.end = 0;
+            chunk.next = null;
+            chunk.nextFirst = 0;
+            recycled = chunk;
+        }
+    }
+
+    private final class Chunk {
+        private final Object[] values;
+        /**
+         * the start before any element was consumed, the slots before start are kept while views are open
+         */
+        private int first;
+        private int start;
+        private int end;
+        private Chunk next;
+        /**
+         * the index at which views continue in the next chunk, this is the start of the next chunk at the time it got
+         * linked, so that views do not see elements that were consumed before and views that were created earlier
+         * still see the elements that got consumed later
+         */
+        private int nextFirst;
+        /**
+         * true if consumed slots were not nulled because a view was open
+         */
+        private boolean dirty;
+
+        Chunk(final int capacity) {
+            this.values = new Object[capacity];
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(Arrays.copyOfRange(values, start, end));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return Lists.toListWithoutHasNext(iterator()).toString();
+    }
+
+    @Override
+    public ICloseableIterator<E> iterator() {
+        openViews++;
+        final int generation = viewsGeneration;
+        return new ICloseableIterator<E>() {
+
+            private Chunk innerChunk = head;
+            private int innerIndex = head == null ? 0 : head.start;
+            private boolean open = true;
+
+            @Override
+            public boolean hasNext() {
+                while (innerChunk != null) {
+                    if (innerIndex < innerChunk.end) {
+                        return true;
+                    }
+                    innerIndex = innerChunk.nextFirst;
+                    innerChunk = innerChunk.next;
+                }
+                close();
+                return false;
+            }
+
+            @SuppressWarnings("unchecked")
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new FastNoSuchElementException("ChunkedBufferingIterator: hasNext is false");
+                }
+                return (E) innerChunk.values[innerIndex++];
+            }
+
+            @Override
+            public void close() {
+                innerChunk = null;
+                if (open) {
+                    open = false;
+                    if (generation == viewsGeneration) {
+                        openViews--;
+                    }
+                }
+            }
+
+        };
+    }
+
+}
@@ -27,25 +27,25 @@ public interface IBufferingIterator<E> extends ICloseableIterator<E>, ICloseable
 
     boolean addAll(Iterable<? extends E> iterable);
 
-    boolean addAll(BufferingIterator<E> iterable);
+    boolean addAll(IBufferingIterator<E> iterable);
 
     void clear();
 
     int size();
 
     /**
-     * If given a BufferingIterator, it will get added to this one and emptied. This is a lot faster than using addAll.
+     * If given an IBufferingIterator, it will get added to this one and emptied. This is a lot faster than using addAll.
      */
     boolean consume(Iterable<? extends E> iterable);
 
     /**
-     * If given a BufferingIterator, it will get added to this one and emptied. This is a lot faster than using addAll.
+     * If given an IBufferingIterator, it will get added to this one and emptied. This is a lot faster than using addAll.
      */
     boolean consume(Iterator<? extends E> iterator);
 
     /**
-     * If given a BufferingIterator, it will get added to this one and emptied. This is a lot faster than using addAll.
+     * If given an IBufferingIterator, it will get added to this one and emptied. This is a lot faster than using addAll.
      */
-    boolean consume(BufferingIterator<E> iterator);
+    boolean consume(IBufferingIterator<E> iterator);
 
 }
@@ -7,6 +7,7 @@ import javax.annotation.concurrent.ThreadSafe;
 import de.invesdwin.util.collections.loadingcache.internal.GuavaLoadingCache;
 import de.invesdwin.util.collections.loadingcache.internal.LRUMapLoadingCache;
 import de.invesdwin.util.collections.loadingcache.internal.NoCachingLoadingCache;
+import de.invesdwin.util.collections.loadingcache.internal.TinyLfuLoadingCache;
 import de.invesdwin.util.collections.loadingcache.internal.UnlimitedCachingLoadingCache;
 
 @ThreadSafe
@@ -26,11 +27,31 @@ public abstract class ALoadingCache<K, V> extends ADelegateLoadingCache<K, V> {
         return false;
     }
 
+    /**
+     * default is false, bounded caches then use plain LRU eviction. Enable this for caches where long scans over keys
+     * that are only accessed once should not evict the entries that are accessed frequently.
+     */
+    protected boolean isScanResistant() {
+        return false;
+    }
+
+    /**
+     * default is false. When enabled, concurrent requests for the same key share one load while loads of different
+     * keys run in parallel. Only enable this when the loader does not acquire locks that other threads might hold
+     * while accessing this cache, otherwise waiting for the shared load might deadlock.
+     */
+    protected boolean isSingleFlightLoading() {
+        return false;
+    }
+
     public void increaseMaximumSize(final int maximumSize) {
         final ILoadingCache<K, V> delegate = getDelegate();
         if (delegate instanceof LRUMapLoadingCache) {
             final LRUMapLoadingCache<K, V> lru = (LRUMapLoadingCache<K, V>) delegate;
             lru.increaseMaximumSize(maximumSize);
+        } else if (delegate instanceof TinyLfuLoadingCache) {
+            final TinyLfuLoadingCache<K, V> tinyLfu = (TinyLfuLoadingCache<K, V>) delegate;
+            tinyLfu.increaseMaximumSize(maximumSize);
         }
         //else ignore
     }
@@ -49,11 +70,13 @@ public abstract class ALoadingCache<K, V> extends ADelegateLoadingCache<K, V> {
         if (isHighConcurrency()) {
             return new GuavaLoadingCache<K, V>(loadValue, maximumSize);
         } else if (maximumSize == null) {
-            return new UnlimitedCachingLoadingCache<K, V>(loadValue);
+            return new UnlimitedCachingLoadingCache<K, V>(loadValue, isSingleFlightLoading());
         } else if (maximumSize == 0) {
             return new NoCachingLoadingCache<K, V>(loadValue);
+        } else if (isScanResistant()) {
+            return new TinyLfuLoadingCache<K, V>(loadValue, maximumSize, isSingleFlightLoading());
         } else {
-            return new LRUMapLoadingCache<K, V>(loadValue, maximumSize);
+            return new LRUMapLoadingCache<K, V>(loadValue, maximumSize, isSingleFlightLoading());
         }
     }
 
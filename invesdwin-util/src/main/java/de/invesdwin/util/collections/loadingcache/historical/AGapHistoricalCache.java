@@ -1,12 +1,27 @@
 package de.invesdwin.util.collections.loadingcache.historical;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
 import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.bean.tuple.ImmutableEntry;
+import de.invesdwin.util.collections.iterable.ACloseableIterator;
+import de.invesdwin.util.collections.iterable.ICloseableIterable;
+import de.invesdwin.util.collections.iterable.ICloseableIterator;
+import de.invesdwin.util.collections.iterable.WrapperCloseableIterable;
 import de.invesdwin.util.collections.iterable.buffer.BufferingIterator;
+import de.invesdwin.util.collections.iterable.buffer.ChunkedBufferingIterator;
+import de.invesdwin.util.collections.loadingcache.ILoadingCache;
+import de.invesdwin.util.collections.loadingcache.historical.interceptor.AHistoricalCacheRangeQueryInterceptor;
+import de.invesdwin.util.collections.loadingcache.historical.interceptor.IHistoricalCacheRangeQueryInterceptor;
 import de.invesdwin.util.collections.loadingcache.historical.internal.AGapHistoricalCacheMissCounter;
+import de.invesdwin.util.collections.loadingcache.historical.internal.HistoricalCacheKeyIndex;
 import de.invesdwin.util.collections.loadingcache.historical.query.IHistoricalCacheQuery;
+import de.invesdwin.util.error.FastNoSuchElementException;
 import de.invesdwin.util.time.duration.Duration;
 import de.invesdwin.util.time.fdate.FDate;
 import de.invesdwin.util.time.fdate.FDates;
@@ -35,11 +50,21 @@ public abstract class AGapHistoricalCache<V> extends AHistoricalCache<V> {
      * having 2 here helps with queries for elements that are filtered by end time
      */
     private static final int MAX_LAST_VALUES_FROM_LOAD_FURTHER_VALUES = 2;
+    /**
+     * when more keys were requested beyond the end, a live append falls back to clearing everything after the end
+     */
+    private static final int MAX_KEYS_AFTER_MAX_KEY_IN_DB = 1000;
 
     @GuardedBy("this")
-    private final BufferingIterator<V> furtherValues = new BufferingIterator<V>();
+    private final ChunkedBufferingIterator<V> furtherValues = new ChunkedBufferingIterator<V>();
     @GuardedBy("this")
     private final BufferingIterator<V> lastValuesFromFurtherValues = new BufferingIterator<V>();
+    /**
+     * All values that went through furtherValues in ascending order, so that shifts can be resolved via rank/select.
+     * This is limited by the maximum size and like furtherValues not charged to the HistoricalCacheMemoryBudget.
+     */
+    @GuardedBy("this")
+    private final HistoricalCacheKeyIndex<V> keyIndex = new HistoricalCacheKeyIndex<V>(getInitialMaximumSize());
     @GuardedBy("this")
     private final AGapHistoricalCacheMissCounter<V> cacheMissCounter = new AGapHistoricalCacheMissCounter<V>() {
 
@@ -93,13 +118,35 @@ public abstract class AGapHistoricalCache<V> extends AHistoricalCache<V> {
     private FDate maxKey;
     @GuardedBy("this")
     private FDate minKey;
+    /**
+     * Keys that were answered with the last value because they lie beyond maxKeyInDB, these become invalid as soon as
+     * a newer value is appended live.
+     */
+    @GuardedBy("this")
+    private final List<FDate> keysAfterMaxKeyInDB = new ArrayList<FDate>();
+    @GuardedBy("this")
+    private boolean keysAfterMaxKeyInDBOverflow;
 
     private final IHistoricalCacheQuery<V> thisQueryWithFuture = query().withFuture();
 
+    private final IHistoricalCacheRangeQueryInterceptor<V> rangeQueryStreamingInterceptor = new AHistoricalCacheRangeQueryInterceptor<V>(
+            this) {
+        @Override
+        protected ICloseableIterable<Entry<FDate, V>> innerGetEntries(final FDate from, final FDate to) {
+            return new ICloseableIterable<Entry<FDate, V>>() {
+                @Override
+                public ICloseableIterator<Entry<FDate, V>> iterator() {
+                    return new RangeStreamingIterator(from, to);
+                }
+            };
+        }
+    };
+
     @Override
     protected void innerIncreaseMaximumSize(final int maximumSize, final String reason) {
         super.innerIncreaseMaximumSize(maximumSize, reason);
         cacheMissCounter.increaseMaximumSize(maximumSize);
+        keyIndex.setMaximumSize(maximumSize);
     }
 
     /**
@@ -111,6 +158,7 @@ public abstract class AGapHistoricalCache<V> extends AHistoricalCache<V> {
     @Override
     protected final synchronized V loadValue(final FDate key) {
         eventuallyGetMinMaxKeysInDB(key, false);
+        rememberKeyAfterMaxKeyInDB(key);
 
         this.furtherValuesLoaded = false;
         final FDate previousMaxKey = maxKey;
@@ -151,6 +199,18 @@ public abstract class AGapHistoricalCache<V> extends AHistoricalCache<V> {
         return readNewestValueFromDB(key);
     }
 
+    private void rememberKeyAfterMaxKeyInDB(final FDate key) {
+        if (maxKeyInDB == null || !key.isAfter(maxKeyInDB) || keysAfterMaxKeyInDBOverflow) {
+            return;
+        }
+        if (keysAfterMaxKeyInDB.size() >= MAX_KEYS_AFTER_MAX_KEY_IN_DB) {
+            keysAfterMaxKeyInDB.clear();
+            keysAfterMaxKeyInDBOverflow = true;
+        } else {
+            keysAfterMaxKeyInDB.add(key);
+        }
+    }
+
     private boolean isPotentiallyAlreadyEvicted(final FDate key, final V value) {
         final boolean isEvictedBeforeCurrentFurtherValues = (value == null || extractKey(key, value).isAfter(key))
                 && (key.isAfter(minKeyInDB) || key.isAfter(minKeyInDBFromLoadFurtherValues));
@@ -284,7 +344,7 @@ public abstract class AGapHistoricalCache<V> extends AHistoricalCache<V> {
             lastValuesFromFurtherValues.clear();
             FDate curKey = keyForReadAllValues;
             while (true) {
-                final BufferingIterator<V> newFurtherValuesBuffer = new BufferingIterator<V>();
+                final ChunkedBufferingIterator<V> newFurtherValuesBuffer = new ChunkedBufferingIterator<V>();
                 final Iterable<? extends V> newFurtherValues = readAllValuesAscendingFrom(curKey);
                 newFurtherValuesBuffer.consume(newFurtherValues);
                 final boolean furtherValuesEmpty = furtherValues.isEmpty();
@@ -322,6 +382,7 @@ public abstract class AGapHistoricalCache<V> extends AHistoricalCache<V> {
 
             if (!furtherValues.isEmpty()) {
                 assertFurtherValuesSorting(key);
+                keyIndex.reloadFrom(extractKey(key, furtherValues.getHead()));
             }
             return true;
         }
@@ -454,7 +515,38 @@ public abstract class AGapHistoricalCache<V> extends AHistoricalCache<V> {
         while (lastValuesFromFurtherValues.size() >= MAX_LAST_VALUES_FROM_LOAD_FURTHER_VALUES) {
             lastValuesFromFurtherValues.next();
         }
-        lastValuesFromFurtherValues.add(furtherValues.next());
+        final V value = furtherValues.next();
+        keyIndex.append(extractKey(null, value), value);
+        lastValuesFromFurtherValues.add(value);
+    }
+
+    /**
+     * Values that were loaded via readAllValuesAscendingFrom are contiguous, thus a shift can be answered by a rank
+     * lookup in the key index as long as the target is still inside the indexed range. Only used when isIndexedShift
+     * returns true.
+     */
+    @Override
+    protected synchronized Entry<FDate, V> getIndexedShiftedEntry(final FDate valueKey, final int shiftUnits) {
+        if (getShiftKeyProvider().getParent() != this) {
+            //previous/next keys are defined by a different cache
+            return null;
+        }
+        final int index = keyIndex.indexOf(valueKey);
+        if (index < 0) {
+            return null;
+        }
+        final int shiftedIndex = index + shiftUnits;
+        if (shiftedIndex < 0 || shiftedIndex >= keyIndex.size()) {
+            return null;
+        }
+        final FDate shiftedKey = keyIndex.getKey(shiftedIndex);
+        if (shiftUnits > 0) {
+            final FDate highestAllowedKey = getAdjustKeyProvider().getHighestAllowedKey();
+            if (highestAllowedKey != null && shiftedKey.isAfter(highestAllowedKey)) {
+                return null;
+            }
+        }
+        return ImmutableEntry.of(shiftedKey, keyIndex.getValue(shiftedIndex));
     }
 
     /**
@@ -523,14 +615,206 @@ public abstract class AGapHistoricalCache<V> extends AHistoricalCache<V> {
      */
     protected abstract V readLatestValueFor(final FDate key);
 
+    /**
+     * When this returns true, a refresh only invalidates keys at or after the last known maxKeyInDB and appends the new
+     * values to the already loaded ones instead of clearing the whole cache. This is only correct when the underlying
+     * data never changes in the past, which this class assumes anyway.
+     */
+    protected boolean isAppendOnlyRefresh() {
+        return false;
+    }
+
     @Override
     protected synchronized boolean maybeRefresh() {
+        if (isAppendOnlyRefresh() && maxKeyInDB != null) {
+            return maybeRefreshAppendOnly();
+        }
         if (eventuallyGetMinMaxKeysInDB(maxKey(), true)) {
             return super.maybeRefresh();
         }
         return false;
     }
 
+    private boolean maybeRefreshAppendOnly() {
+        final FDate previousMaxKeyInDB = maxKeyInDB;
+        final FDate newMaxKeyInDB = readMaxKeyInDB();
+        if (newMaxKeyInDB == null || !newMaxKeyInDB.isAfter(previousMaxKeyInDB)) {
+            return false;
+        }
+        //keys after the previous end were answered with the previous last value, those need to be loaded again
+        clearFrom(previousMaxKeyInDB);
+        maxKeyInDB = newMaxKeyInDB;
+        extendFurtherValues(previousMaxKeyInDB);
+        return true;
+    }
+
+    private FDate readMaxKeyInDB() {
+        final FDate highestAllowedKey = getAdjustKeyProvider().getHighestAllowedKey();
+        if (highestAllowedKey != null) {
+            return highestAllowedKey;
+        }
+        final V maxValue = readLatestValueFor(maxKey());
+        if (maxValue == null) {
+            return null;
+        }
+        return extractKey(null, maxValue);
+    }
+
+    /**
+     * If the loaded values already reached the previous end, only the new values get appended so that iterating
+     * further does not need to reload what we already have.
+     */
+    private void extendFurtherValues(final FDate previousMaxKeyInDB) {
+        final FDate tailKey = getLoadedTailKey();
+        if (tailKey == null || !tailKey.equals(previousMaxKeyInDB)) {
+            //will be loaded on demand anyway
+            return;
+        }
+        final ChunkedBufferingIterator<V> newFurtherValuesBuffer = new ChunkedBufferingIterator<V>();
+        newFurtherValuesBuffer.consume(readAllValuesAscendingFrom(tailKey.addMilliseconds(1)));
+        while (!newFurtherValuesBuffer.isEmpty()
+                && !extractKey(null, newFurtherValuesBuffer.getHead()).isAfter(tailKey)) {
+            newFurtherValuesBuffer.next();
+        }
+        if (!newFurtherValuesBuffer.isEmpty()) {
+            maxKeyInDBFromLoadFurtherValues = FDates.max(maxKeyInDBFromLoadFurtherValues,
+                    extractKey(null, newFurtherValuesBuffer.getTail()));
+            furtherValues.consume(newFurtherValuesBuffer);
+        }
+    }
+
+    private V getLoadedTail() {
+        if (furtherValues.isEmpty()) {
+            return lastValuesFromFurtherValues.getTail();
+        } else {
+            return furtherValues.getTail();
+        }
+    }
+
+    private FDate getLoadedTailKey() {
+        final V tail = getLoadedTail();
+        if (tail == null) {
+            return null;
+        }
+        return extractKey(null, tail);
+    }
+
+    /**
+     * Appends a value that was just received from a live data stream at the end of this cache. Only keys that were
+     * requested beyond the previous end get invalidated and the value is linked to its predecessor directly, so that
+     * neither the loaded values nor the lookback caches need to be rebuilt. The next call to readAllValuesAscendingFrom
+     * will then also contain this value.
+     * 
+     * Values have to be pushed in ascending order. Pushing the value for the current last key again replaces it.
+     */
+    public void pushLiveValue(final V value) {
+        final FDate key;
+        synchronized (this) {
+            key = extractKey(null, value);
+            eventuallyGetMinMaxKeysInDB(key, false);
+            final FDate previousMaxKeyInDB = maxKeyInDB;
+            if (previousMaxKeyInDB != null && key.isBefore(previousMaxKeyInDB)) {
+                throw new IllegalArgumentException("key [" + key + "] should not be before maxKeyInDB ["
+                        + previousMaxKeyInDB + "] for a live append");
+            }
+            invalidateKeysAfterMaxKeyInDB(previousMaxKeyInDB);
+            if (previousMaxKeyInDB == null) {
+                getValuesMap().put(key, value);
+                maxKeyInDB = key;
+            } else if (key.equals(previousMaxKeyInDB)) {
+                replaceLastLiveValue(key, value);
+            } else {
+                final V previousValue = getPreviousValueForLiveValue(previousMaxKeyInDB);
+                put(key, value, previousMaxKeyInDB, previousValue);
+                maxKeyInDB = key;
+                final FDate tailKey = getLoadedTailKey();
+                if (tailKey != null && tailKey.equals(previousMaxKeyInDB)) {
+                    //continue the contiguous range so that iterating further does not need another query
+                    furtherValues.add(value);
+                    maxKeyInDBFromLoadFurtherValues = FDates.max(maxKeyInDBFromLoadFurtherValues, key);
+                }
+            }
+            maxKey = FDates.max(maxKey, key);
+        }
+        notifyValueAppended(key);
+    }
+
+    /**
+     * The previous/next keys stay the same, but every loaded copy of the old value has to be replaced as well.
+     */
+    private void replaceLastLiveValue(final FDate key, final V value) {
+        getValuesMap().put(key, value);
+        if (!furtherValues.isEmpty() && extractKey(null, furtherValues.getTail()).equals(key)) {
+            //not handed out yet, thus reload them from readAllValuesAscendingFrom when they are needed
+            furtherValues.clear();
+        }
+        final V lastValueFromFurtherValues = lastValuesFromFurtherValues.getTail();
+        if (lastValueFromFurtherValues != null && extractKey(null, lastValueFromFurtherValues).equals(key)) {
+            //rotate the older values so that only the tail gets replaced
+            for (int i = 1; i < lastValuesFromFurtherValues.size(); i++) {
+                lastValuesFromFurtherValues.add(lastValuesFromFurtherValues.next());
+            }
+            lastValuesFromFurtherValues.next();
+            lastValuesFromFurtherValues.add(value);
+        }
+        if (key.equals(keyIndex.getLastKey())) {
+            //appending the last key again replaces it
+            keyIndex.append(key, value);
+        }
+    }
+
+    private V getPreviousValueForLiveValue(final FDate previousMaxKeyInDB) {
+        final V tail = getLoadedTail();
+        if (tail != null && extractKey(null, tail).equals(previousMaxKeyInDB)) {
+            return tail;
+        }
+        //do not trigger a load from the database just for linking the previous key
+        if (getValuesMap().containsKey(previousMaxKeyInDB)) {
+            return getValuesMap().get(previousMaxKeyInDB);
+        }
+        return null;
+    }
+
+    private void invalidateKeysAfterMaxKeyInDB(final FDate previousMaxKeyInDB) {
+        if (keysAfterMaxKeyInDBOverflow) {
+            clearFrom(previousMaxKeyInDB.addMilliseconds(1));
+        } else if (!keysAfterMaxKeyInDB.isEmpty()) {
+            for (int i = 0; i < keysAfterMaxKeyInDB.size(); i++) {
+                final FDate key = keysAfterMaxKeyInDB.get(i);
+                getValuesMap().remove(key);
+                if (getShiftKeyProvider().getParent() == this) {
+                    getShiftKeyProvider().getPreviousKeysCache().remove(key);
+                    getShiftKeyProvider().getNextKeysCache().remove(key);
+                }
+            }
+        }
+        keysAfterMaxKeyInDB.clear();
+        keysAfterMaxKeyInDBOverflow = false;
+    }
+
+    /**
+     * When this returns true, range queries stream over the values that were already loaded and then over
+     * readAllValuesAscendingFrom in bulk instead of doing one next key lookup per element. This is only correct when
+     * the next key of every value is the following value returned by readAllValuesAscendingFrom, which is not the case
+     * when innerCalculateNextKey is implemented with a fixed step that might skip or repeat values.
+     */
+    protected boolean isRangeQueryStreaming() {
+        return false;
+    }
+
+    @Override
+    protected IHistoricalCacheRangeQueryInterceptor<V> getRangeQueryInterceptor() {
+        if (isRangeQueryStreaming() && getShiftKeyProvider().getParent() == this) {
+            return rangeQueryStreamingInterceptor;
+        } else {
+            return super.getRangeQueryInterceptor();
+        }
+    }
+
+    private synchronized boolean isBeforeMaxKeyInDB(final FDate key) {
+        return maxKeyInDB == null || key.isBefore(maxKeyInDB);
+    }
+
     @Override
     public synchronized void clear() {
         super.clear();
@@ -540,6 +824,231 @@ public abstract class AGapHistoricalCache<V> extends AHistoricalCache<V> {
         //a clear forces the list to be completely reloaded next time get is called
         furtherValues.clear();
         lastValuesFromFurtherValues.clear();
+        keyIndex.clear();
+        keysAfterMaxKeyInDB.clear();
+        keysAfterMaxKeyInDBOverflow = false;
+    }
+
+    /**
+     * The first entry is resolved like a normal query would do. After that, batches get copied from the key index and
+     * furtherValues as long as those continue the range without gaps, then from the values that are linked via the next
+     * keys cache. Only when the loaded values are exhausted, readAllValuesAscendingFrom gets iterated. Those values are
+     * put into the cache batch wise together with their previous/next links, so that a repeated range query or shift
+     * does not need to query the db again.
+     */
+    private final class RangeStreamingIterator extends ACloseableIterator<Entry<FDate, V>> {
+
+        private static final int MAX_BATCH_SIZE = ChunkedBufferingIterator.MAX_CHUNK_SIZE;
+
+        private final FDate from;
+        private final FDate to;
+        private final List<V> batch = new ArrayList<V>();
+        private int batchIndex;
+        private ICloseableIterator<? extends V> readAllValues;
+        private FDate lastKeyBeforeReadAllValues;
+        private boolean toReached;
+        private FDate lastKey;
+        private V lastValue;
+        private Entry<FDate, V> next;
+
+        private RangeStreamingIterator(final FDate from, final FDate to) {
+            this.from = from;
+            final FDate highestAllowedKey = getAdjustKeyProvider().getHighestAllowedKey();
+            if (highestAllowedKey != null) {
+                this.to = FDates.min(to, highestAllowedKey);
+            } else {
+                this.to = to;
+            }
+        }
+
+        @Override
+        protected boolean innerHasNext() {
+            if (next == null) {
+                next = readNext();
+            }
+            return next != null;
+        }
+
+        @Override
+        protected Entry<FDate, V> innerNext() {
+            if (!innerHasNext()) {
+                throw new FastNoSuchElementException("RangeStreamingIterator: hasNext is false");
+            }
+            final Entry<FDate, V> current = next;
+            next = null;
+            return current;
+        }
+
+        private Entry<FDate, V> readNext() {
+            if (lastKey == null) {
+                final Entry<FDate, V> firstEntry = query().withFuture().getNextEntry(from, 0);
+                if (firstEntry == null || firstEntry.getKey().isAfter(to)) {
+                    return null;
+                }
+                lastKey = firstEntry.getKey();
+                lastValue = firstEntry.getValue();
+                return firstEntry;
+            }
+            while (true) {
+                final V value = readNextValue();
+                if (value == null) {
+                    return null;
+                }
+                final FDate key = extractKey(null, value);
+                if (key.isAfter(to)) {
+                    return null;
+                }
+                if (key.isAfter(lastKey)) {
+                    lastKey = key;
+                    lastValue = value;
+                    return ImmutableEntry.of(key, value);
+                }
+            }
+        }
+
+        private V readNextValue() {
+            while (true) {
+                if (batchIndex < batch.size()) {
+                    return batch.get(batchIndex++);
+                }
+                if (readAllValues != null) {
+                    if (fillBatchFromReadAllValues()) {
+                        continue;
+                    }
+                    readAllValues.close();
+                    readAllValues = null;
+                    if (lastKey.equals(lastKeyBeforeReadAllValues)) {
+                        //end of data reached
+                        return null;
+                    }
+                }
+                if (toReached || !lastKey.isBefore(to)) {
+                    return null;
+                }
+                if (!fillBatchFromLoadedValues() && !fillBatchFromCachedValues()) {
+                    if (toReached || !isBeforeMaxKeyInDB(lastKey)) {
+                        return null;
+                    }
+                    lastKeyBeforeReadAllValues = lastKey;
+                    readAllValues = WrapperCloseableIterable
+                            .maybeWrap(readAllValuesAscendingFrom(lastKey.addMilliseconds(1)))
+                            .iterator();
+                }
+            }
+        }
+
+        private boolean fillBatchFromLoadedValues() {
+            batch.clear();
+            batchIndex = 0;
+            synchronized (AGapHistoricalCache.this) {
+                final boolean contiguous;
+                final int index = keyIndex.indexOf(lastKey);
+                if (index >= 0) {
+                    for (int i = index + 1; i < keyIndex.size(); i++) {
+                        if (!addToBatch(keyIndex.getValue(i))) {
+                            return true;
+                        }
+                    }
+                    //furtherValues continue where the key index ends
+                    contiguous = true;
+                } else {
+                    final V lastValue = lastValuesFromFurtherValues.getTail();
+                    contiguous = lastValue != null && extractKey(null, lastValue).equals(lastKey);
+                }
+                if (!furtherValues.isEmpty()
+                        && (contiguous || !extractKey(null, furtherValues.getHead()).isAfter(lastKey))) {
+                    final ICloseableIterator<V> furtherValuesIterator = furtherValues.iterator();
+                    try {
+                        while (furtherValuesIterator.hasNext()) {
+                            if (!addToBatch(furtherValuesIterator.next())) {
+                                break;
+                            }
+                        }
+                    } finally {
+                        furtherValuesIterator.close();
+                    }
+                }
+            }
+            return !batch.isEmpty();
+        }
+
+        private boolean fillBatchFromCachedValues() {
+            batch.clear();
+            batchIndex = 0;
+            synchronized (AGapHistoricalCache.this) {
+                final ILoadingCache<FDate, FDate> nextKeysCache = getShiftKeyProvider().getNextKeysCache();
+                final ILoadingCache<FDate, V> valuesMap = getValuesMap();
+                FDate key = lastKey;
+                //containsKey first, since get would load missing entries
+                while (nextKeysCache.containsKey(key)) {
+                    final FDate nextKey = nextKeysCache.get(key);
+                    if (nextKey == null || !nextKey.isAfter(key) || !valuesMap.containsKey(nextKey)) {
+                        break;
+                    }
+                    final V value = valuesMap.get(nextKey);
+                    if (value == null || !extractKey(null, value).equals(nextKey)) {
+                        break;
+                    }
+                    if (!addToBatch(value)) {
+                        break;
+                    }
+                    key = nextKey;
+                }
+            }
+            return !batch.isEmpty();
+        }
+
+        private boolean fillBatchFromReadAllValues() {
+            batch.clear();
+            batchIndex = 0;
+            while (readAllValues.hasNext()) {
+                if (!addToBatch(readAllValues.next())) {
+                    break;
+                }
+            }
+            if (batch.isEmpty()) {
+                return false;
+            }
+            synchronized (AGapHistoricalCache.this) {
+                V prevValue = lastValue;
+                for (int i = 0; i < batch.size(); i++) {
+                    final V value = batch.get(i);
+                    put(value, prevValue);
+                    prevValue = value;
+                }
+            }
+            return true;
+        }
+
+        private boolean addToBatch(final V value) {
+            final FDate key = extractKey(null, value);
+            final FDate batchTailKey;
+            if (batch.isEmpty()) {
+                batchTailKey = lastKey;
+            } else {
+                batchTailKey = extractKey(null, batch.get(batch.size() - 1));
+            }
+            if (!key.isAfter(batchTailKey)) {
+                return true;
+            }
+            if (key.isAfter(to)) {
+                toReached = true;
+                return false;
+            }
+            batch.add(value);
+            return batch.size() < MAX_BATCH_SIZE;
+        }
+
+        @Override
+        protected void innerClose() {
+            if (readAllValues != null) {
+                readAllValues.close();
+                readAllValues = null;
+            }
+            batch.clear();
+            next = null;
+        }
+
     }
 
 }
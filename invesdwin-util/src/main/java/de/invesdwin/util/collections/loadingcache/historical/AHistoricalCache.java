@@ -27,7 +27,12 @@ import de.invesdwin.util.collections.loadingcache.historical.key.internal.Delega
 import de.invesdwin.util.collections.loadingcache.historical.key.internal.IHistoricalCacheExtractKeyProvider;
 import de.invesdwin.util.collections.loadingcache.historical.key.internal.IHistoricalCacheShiftKeyProvider;
 import de.invesdwin.util.collections.loadingcache.historical.listener.IHistoricalCacheOnClearListener;
+import de.invesdwin.util.collections.loadingcache.historical.listener.IHistoricalCacheOnValueAppendedListener;
 import de.invesdwin.util.collections.loadingcache.historical.listener.IHistoricalCacheOnValueLoadedListener;
+import de.invesdwin.util.collections.loadingcache.historical.memory.HistoricalCacheMemoryBudget;
+import de.invesdwin.util.collections.loadingcache.historical.memory.IHistoricalCacheWeigher;
+import de.invesdwin.util.collections.loadingcache.historical.memory.SampledHistoricalCacheWeigher;
+import de.invesdwin.util.collections.loadingcache.historical.memory.WeightedHistoricalCacheValuesMap;
 import de.invesdwin.util.collections.loadingcache.historical.query.IHistoricalCacheQuery;
 import de.invesdwin.util.collections.loadingcache.historical.query.internal.HistoricalCacheQuery;
 import de.invesdwin.util.collections.loadingcache.historical.query.internal.IHistoricalCacheInternalMethods;
@@ -63,6 +68,13 @@ public abstract class AHistoricalCache<V> {
                     return new LinkedHashSet<IHistoricalCacheOnClearListener>();
                 }
             });
+    private final Set<IHistoricalCacheOnValueAppendedListener> onValueAppendedListeners = Collections
+            .synchronizedSet(new AFastIterableDelegateSet<IHistoricalCacheOnValueAppendedListener>() {
+                @Override
+                protected Set<IHistoricalCacheOnValueAppendedListener> newDelegate() {
+                    return new LinkedHashSet<IHistoricalCacheOnValueAppendedListener>();
+                }
+            });
 
     private volatile FDate lastRefresh = HistoricalCacheRefreshManager.getLastRefresh();
     private boolean isPutDisabled = getMaximumSize() != null && getMaximumSize() == 0;
@@ -79,7 +91,7 @@ public abstract class AHistoricalCache<V> {
 
         @Override
         protected ILoadingCache<FDate, V> createDelegate() {
-            return newLoadingCacheProvider(new Function<FDate, V>() {
+            final Function<FDate, V> loadValue = new Function<FDate, V>() {
                 @Override
                 public V apply(final FDate key) {
                     final V value = AHistoricalCache.this.loadValue(key);
@@ -87,7 +99,13 @@ public abstract class AHistoricalCache<V> {
                     return value;
                 }
 
-            }, getMaximumSize());
+            };
+            if (HistoricalCacheMemoryBudget.isEnabled() && isMemoryBudgeted()) {
+                return HistoricalCacheMemoryBudget
+                        .register(new WeightedHistoricalCacheValuesMap<V>(loadValue, newWeigher()));
+            } else {
+                return newLoadingCacheProvider(loadValue, getMaximumSize());
+            }
         }
     };
     private volatile boolean refreshRequested;
@@ -115,6 +133,24 @@ public abstract class AHistoricalCache<V> {
         return DEFAULT_MAXIMUM_SIZE;
     }
 
+    /**
+     * When the HistoricalCacheMemoryBudget is enabled, the values of this cache get weighed in bytes and evicted
+     * according to the global budget instead of by the maximum size. Increasing the maximum size then only affects the
+     * keys caches and the lookback cache. Per default only caches that are limited by their count participate, since
+     * unlimited caches are expected to hold everything and disabled caches hold nothing.
+     */
+    protected boolean isMemoryBudgeted() {
+        final Integer initialMaximumSize = getInitialMaximumSize();
+        return initialMaximumSize != null && initialMaximumSize > 0;
+    }
+
+    /**
+     * Override this to provide an exact weigher, the default estimates the size of samples via reflection.
+     */
+    protected IHistoricalCacheWeigher<V> newWeigher() {
+        return new SampledHistoricalCacheWeigher<V>();
+    }
+
     public final Integer getMaximumSize() {
         return maximumSize;
     }
@@ -210,8 +246,48 @@ public abstract class AHistoricalCache<V> {
         return true;
     }
 
+    /**
+     * Removes all cached values and previous/next keys at or after the given key while keeping the older history
+     * intact. This can be used by maybeRefresh() when new values only get appended at the end, instead of clearing
+     * everything. Dependent caches do not get notified, since their older values stay valid.
+     */
+    protected void clearFrom(final FDate fromKey) {
+        removeKeysFrom(getValuesMap(), fromKey);
+        if (shiftKeyProvider.getParent() == this) {
+            removeKeysFrom(shiftKeyProvider.getPreviousKeysCache(), fromKey);
+            removeKeysFrom(shiftKeyProvider.getNextKeysCache(), fromKey);
+        }
+        queryCore.clearFrom(fromKey);
+    }
+
+    private static <T> void removeKeysFrom(final ILoadingCache<FDate, T> cache, final FDate fromKey) {
+        //only remember the keys to be removed to not run into concurrent modifications, usually only a few at the end
+        List<FDate> removedKeys = null;
+        for (final FDate key : cache.keySet()) {
+            if (!key.isBefore(fromKey)) {
+                if (removedKeys == null) {
+                    removedKeys = new ArrayList<FDate>();
+                }
+                removedKeys.add(key);
+            }
+        }
+        if (removedKeys != null) {
+            for (int i = 0; i < removedKeys.size(); i++) {
+                cache.remove(removedKeys.get(i));
+            }
+        }
+    }
+
     protected abstract V loadValue(FDate key);
 
+    /**
+     * When this returns true, the bounded values and keys caches use a frequency aware admission policy, so that a
+     * single long scan (e.g. of a backtest) does not evict the recent values that are revisited often.
+     */
+    protected boolean isScanResistant() {
+        return false;
+    }
+
     protected <T> ILoadingCache<FDate, T> newLoadingCacheProvider(final Function<FDate, T> loadValue,
             final Integer maximumSize) {
         final ALoadingCache<FDate, T> loadingCache = new ALoadingCache<FDate, T>() {
@@ -226,6 +302,11 @@ public abstract class AHistoricalCache<V> {
                 return loadValue.apply(key);
             }
 
+            @Override
+            protected boolean isScanResistant() {
+                return AHistoricalCache.this.isScanResistant();
+            }
+
         };
         increaseMaximumSizeListeners.add(loadingCache);
         return loadingCache;
@@ -262,6 +343,25 @@ public abstract class AHistoricalCache<V> {
         return adjustKeyProvider.adjustKey(nextKey);
     }
 
+    /**
+     * When this returns true, previous/next entry queries first try to resolve a shift of n units via
+     * getIndexedShiftedEntry. This is only correct when the previous/next key of every value is its neighbor in the
+     * index, which is not the case when innerCalculatePreviousKey/innerCalculateNextKey are implemented with a fixed
+     * step that might skip or repeat values.
+     */
+    protected boolean isIndexedShift() {
+        return false;
+    }
+
+    /**
+     * Can be overridden to resolve a shift of n units via an ordinal index of already loaded keys instead of walking
+     * the previous/next keys one by one. Negative shiftUnits go back in time, positive ones go forward. Should return
+     * null when the index is unable to answer the request, then the query falls back to the walk.
+     */
+    protected Entry<FDate, V> getIndexedShiftedEntry(final FDate valueKey, final int shiftUnits) {
+        return null;
+    }
+
     public IHistoricalCacheShiftKeyProvider getShiftKeyProvider() {
         return shiftKeyProvider;
     }
@@ -421,6 +521,22 @@ public abstract class AHistoricalCache<V> {
         return onClearListeners;
     }
 
+    public Set<IHistoricalCacheOnValueAppendedListener> getOnValueAppendedListeners() {
+        return onValueAppendedListeners;
+    }
+
+    /**
+     * Should be called by subclasses after a value was appended live at the end of this cache, so that the lookback
+     * cache and dependent caches get updated incrementally instead of being cleared. Should not be called while
+     * holding a lock on this cache to prevent deadlocks with dependent caches.
+     */
+    protected void notifyValueAppended(final FDate key) {
+        queryCore.onValueAppended(key);
+        for (final IHistoricalCacheOnValueAppendedListener listener : onValueAppendedListeners) {
+            listener.onValueAppended(key);
+        }
+    }
+
     protected IHistoricalCacheRangeQueryInterceptor<V> getRangeQueryInterceptor() {
         return new HistoricalCacheRangeQueryInterceptorSupport<V>();
     }
@@ -509,6 +625,16 @@ public abstract class AHistoricalCache<V> {
             return AHistoricalCache.this.getShiftKeyProvider().newKeysQueryInterceptor();
         }
 
+        @Override
+        public boolean isIndexedShift() {
+            return AHistoricalCache.this.isIndexedShift();
+        }
+
+        @Override
+        public Entry<FDate, V> getIndexedShiftedEntry(final FDate valueKey, final int shiftUnits) {
+            return AHistoricalCache.this.getIndexedShiftedEntry(valueKey, shiftUnits);
+        }
+
         @Override
         public String toString() {
             return AHistoricalCache.this.toString();
@@ -0,0 +1,89 @@
+package de.invesdwin.util.collections.loadingcache.historical.internal;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import de.invesdwin.util.time.fdate.FDate;
+
+/**
+ * Sparse snapshots of values sorted by their key millis. Inserts are optimized for ascending keys, lookups use binary
+ * search. When the maximum size is exceeded the oldest half of the checkpoints gets removed.
+ */
+@NotThreadSafe
+public class HistoricalCacheCheckpoints<V> {
+
+    private final HistoricalCacheSortedEntries<V> entries = new HistoricalCacheSortedEntries<V>();
+    private final int maximumSize;
+
+    public HistoricalCacheCheckpoints(final int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize should be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    public void put(final FDate key, final V value) {
+        final long keyMillis = key.millisValue();
+        final int size = entries.size();
+        if (size == 0 || keyMillis > entries.getMillis(size - 1)) {
+            entries.add(key, value);
+        } else {
+            final int index = entries.binarySearch(keyMillis);
+            if (index >= 0) {
+                entries.set(index, key, value);
+                return;
+            }
+            entries.insert(-index - 1, key, value);
+        }
+        if (entries.size() > maximumSize) {
+            entries.removeFirst(entries.size() / 2);
+        }
+    }
+
+    public V get(final FDate key) {
+        if (entries.isEmpty()) {
+            return null;
+        }
+        final int index = entries.binarySearch(key.millisValue());
+        if (index < 0) {
+            return null;
+        }
+        return entries.getValue(index);
+    }
+
+    /**
+     * Returns the highest checkpoint key that is before or equal to the given key, or null if there is none.
+     */
+    public FDate floorKey(final FDate key) {
+        if (entries.isEmpty()) {
+            return null;
+        }
+        final int floorIndex = entries.floorIndex(key.millisValue());
+        if (floorIndex < 0) {
+            return null;
+        }
+        return entries.getKey(floorIndex);
+    }
+
+    /**
+     * Removes all checkpoints at or after the given key.
+     */
+    public void removeFrom(final FDate key) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        entries.truncate(entries.ceilingIndex(key.millisValue()));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+}
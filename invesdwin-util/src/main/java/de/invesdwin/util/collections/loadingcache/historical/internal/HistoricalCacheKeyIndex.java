@@ -0,0 +1,132 @@
+package de.invesdwin.util.collections.loadingcache.historical.internal;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import de.invesdwin.util.time.fdate.FDate;
+
+/**
+ * A dense ordinal index over a contiguous range of keys as they were loaded from the underlying data source. This
+ * allows shifting by n units via rank/select (binary search plus offset) instead of walking the previous/next keys one
+ * by one.
+ *
+ * Keys have to be appended in ascending order. Appending a key that is not after the last key truncates the index at
+ * that position, since the data source is then expected to deliver the same contiguous range again. The caller is
+ * responsible to clear the index when it can not guarantee that the next appended key is the immediate successor of
+ * the last one.
+ */
+@NotThreadSafe
+public class HistoricalCacheKeyIndex<V> {
+
+    private final HistoricalCacheSortedEntries<V> entries = new HistoricalCacheSortedEntries<V>();
+    /**
+     * null means unlimited and 0 means disabled
+     */
+    private Integer maximumSize;
+
+    public HistoricalCacheKeyIndex(final Integer maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public void setMaximumSize(final Integer maximumSize) {
+        this.maximumSize = maximumSize;
+        if (maximumSize != null && entries.size() > maximumSize) {
+            entries.removeFirst(entries.size() - maximumSize);
+        }
+    }
+
+    public Integer getMaximumSize() {
+        return maximumSize;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    public void append(final FDate key, final V value) {
+        if (maximumSize != null && maximumSize <= 0) {
+            return;
+        }
+        final long keyMillis = key.millisValue();
+        final int size = entries.size();
+        if (size > 0 && keyMillis <= entries.getMillis(size - 1)) {
+            entries.truncate(entries.ceilingIndex(keyMillis));
+        }
+        if (maximumSize != null && entries.size() >= maximumSize) {
+            //drop the older half so that the removal cost is amortized over many appends
+            entries.removeFirst(Math.max(1, entries.size() / 2));
+        }
+        entries.add(key, value);
+    }
+
+    /**
+     * Should be called when the data source starts delivering values again from the given key. If that key lies behind
+     * the last indexed key, we can not know whether values were skipped inbetween, thus the index gets cleared.
+     * Otherwise the index gets truncated so that the following appends continue the contiguous range.
+     */
+    public void reloadFrom(final FDate headKey) {
+        final int size = entries.size();
+        if (size == 0) {
+            return;
+        }
+        final long headMillis = headKey.millisValue();
+        if (headMillis > entries.getMillis(size - 1)) {
+            clear();
+        } else {
+            entries.truncate(entries.ceilingIndex(headMillis));
+        }
+    }
+
+    /**
+     * Returns the position of the given key or -1 if it is not indexed.
+     */
+    public int indexOf(final FDate key) {
+        if (entries.isEmpty()) {
+            return -1;
+        }
+        final int index = entries.binarySearch(key.millisValue());
+        if (index < 0) {
+            return -1;
+        } else {
+            return index;
+        }
+    }
+
+    public FDate getKey(final int index) {
+        assertIndex(index);
+        return entries.getKey(index);
+    }
+
+    public V getValue(final int index) {
+        assertIndex(index);
+        return entries.getValue(index);
+    }
+
+    public FDate getFirstKey() {
+        if (entries.isEmpty()) {
+            return null;
+        }
+        return entries.getKey(0);
+    }
+
+    public FDate getLastKey() {
+        if (entries.isEmpty()) {
+            return null;
+        }
+        return entries.getKey(entries.size() - 1);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private void assertIndex(final int index) {
+        if (index < 0 || index >= entries.size()) {
+            throw new IndexOutOfBoundsException("index [" + index + "] not in range [0," + entries.size() + ")");
+        }
+    }
+
+}
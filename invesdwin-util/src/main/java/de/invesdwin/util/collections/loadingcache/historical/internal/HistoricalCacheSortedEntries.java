@@ -0,0 +1,129 @@
+package de.invesdwin.util.collections.loadingcache.historical.internal;
+
+import java.util.Arrays;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import de.invesdwin.util.time.fdate.FDate;
+
+/**
+ * Parallel arrays of key millis, keys and values that are kept sorted by the key millis. The millis are stored
+ * separately so that binary searches do not need to dereference the keys. Callers are responsible for inserting at
+ * the correct positions.
+ */
+@NotThreadSafe
+class HistoricalCacheSortedEntries<V> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] millis = new long[INITIAL_CAPACITY];
+    private FDate[] keys = new FDate[INITIAL_CAPACITY];
+    private Object[] values = new Object[INITIAL_CAPACITY];
+    private int size = 0;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long getMillis(final int index) {
+        return millis[index];
+    }
+
+    public FDate getKey(final int index) {
+        return keys[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V getValue(final int index) {
+        return (V) values[index];
+    }
+
+    public void set(final int index, final FDate key, final V value) {
+        keys[index] = key;
+        values[index] = value;
+    }
+
+    public void add(final FDate key, final V value) {
+        insert(size, key, value);
+    }
+
+    public void insert(final int index, final FDate key, final V value) {
+        ensureCapacity(size + 1);
+        if (index < size) {
+            System.arraycopy(millis, index, millis, index + 1, size - index);
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(values, index, values, index + 1, size - index);
+        }
+        millis[index] = key.millisValue();
+        keys[index] = key;
+        values[index] = value;
+        size++;
+    }
+
+    /**
+     * Same contract as Arrays.binarySearch.
+     */
+    public int binarySearch(final long keyMillis) {
+        return Arrays.binarySearch(millis, 0, size, keyMillis);
+    }
+
+    /**
+     * Returns the first position whose key is greater or equal to the given millis.
+     */
+    public int ceilingIndex(final long keyMillis) {
+        final int index = binarySearch(keyMillis);
+        if (index < 0) {
+            return -index - 1;
+        } else {
+            return index;
+        }
+    }
+
+    /**
+     * Returns the last position whose key is less or equal to the given millis, or -1 if there is none.
+     */
+    public int floorIndex(final long keyMillis) {
+        final int index = binarySearch(keyMillis);
+        if (index < 0) {
+            return -index - 2;
+        } else {
+            return index;
+        }
+    }
+
+    public void truncate(final int newSize) {
+        if (newSize < size) {
+            Arrays.fill(keys, newSize, size, null);
+            Arrays.fill(values, newSize, size, null);
+            size = newSize;
+        }
+    }
+
+    public void removeFirst(final int count) {
+        final int remaining = size - count;
+        System.arraycopy(millis, count, millis, 0, remaining);
+        System.arraycopy(keys, count, keys, 0, remaining);
+        System.arraycopy(values, count, values, 0, remaining);
+        Arrays.fill(keys, remaining, size, null);
+        Arrays.fill(values, remaining, size, null);
+        size = remaining;
+    }
+
+    public void clear() {
+        truncate(0);
+    }
+
+    private void ensureCapacity(final int minCapacity) {
+        if (minCapacity > millis.length) {
+            final int newCapacity = Math.max(minCapacity, millis.length * 2);
+            millis = Arrays.copyOf(millis, newCapacity);
+            keys = Arrays.copyOf(keys, newCapacity);
+            values = Arrays.copyOf(values, newCapacity);
+        }
+    }
+
+}
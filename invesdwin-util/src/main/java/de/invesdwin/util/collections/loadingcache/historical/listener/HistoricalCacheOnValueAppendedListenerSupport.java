@@ -0,0 +1,13 @@
+package de.invesdwin.util.collections.loadingcache.historical.listener;
+
+import javax.annotation.concurrent.Immutable;
+
+import de.invesdwin.util.time.fdate.FDate;
+
+@Immutable
+public class HistoricalCacheOnValueAppendedListenerSupport implements IHistoricalCacheOnValueAppendedListener {
+
+    @Override
+    public void onValueAppended(final FDate key) {}
+
+}
@@ -0,0 +1,13 @@
+package de.invesdwin.util.collections.loadingcache.historical.listener;
+
+import de.invesdwin.util.time.fdate.FDate;
+
+/**
+ * Notified when a value was appended live at the end of a historical cache. Dependent caches can use this to only
+ * invalidate what is at or after the given key instead of being cleared completely.
+ */
+public interface IHistoricalCacheOnValueAppendedListener {
+
+    void onValueAppended(FDate key);
+
+}
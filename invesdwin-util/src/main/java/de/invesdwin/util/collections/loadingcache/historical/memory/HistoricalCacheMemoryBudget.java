@@ -0,0 +1,134 @@
+package de.invesdwin.util.collections.loadingcache.historical.memory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * A global memory budget in bytes for the values of all historical caches that are limited by their count (see
+ * AHistoricalCache.isMemoryBudgeted()). When this is enabled, those caches no longer grow their maximum size on
+ * repeated cache misses, instead entries are evicted across all caches by their cost to be reloaded in relation to
+ * their size as soon as the budget is exceeded.
+ * 
+ * The budget has to be enabled before the caches get instantiated, caches that were created before keep their entry
+ * count limit.
+ * 
+ * Only the values maps are charged. The auxiliary structures of the caches (the keys caches, the lookback cache of the
+ * query core and the furtherValues, lookback buffer and key index of AGapHistoricalCache) are excluded. They mostly
+ * reference the same values and can not be evicted by the budget, thus they stay limited by their own bounds (mostly
+ * the maximum size of their cache). Values that got evicted from a values map might still be held by those
+ * structures.
+ */
+@ThreadSafe
+public final class HistoricalCacheMemoryBudget {
+
+    private static final AtomicLong USED_BYTES = new AtomicLong();
+    private static final Set<WeightedHistoricalCacheValuesMap<?>> REGISTERED_MAPS;
+    private static volatile Long maximumBytes;
+    /**
+     * GreedyDual-Size inflation value, this is the priority of the last evicted entry. Only written while holding the
+     * class lock, but read by the maps without it.
+     */
+    private static volatile double inflation;
+
+    static {
+        final ConcurrentMap<WeightedHistoricalCacheValuesMap<?>, Boolean> map = CacheBuilder.newBuilder()
+                .weakKeys()
+                .<WeightedHistoricalCacheValuesMap<?>, Boolean> build()
+                .asMap();
+        REGISTERED_MAPS = Collections.newSetFromMap(map);
+    }
+
+    private HistoricalCacheMemoryBudget() {}
+
+    /**
+     * null disables the budget for caches that are created afterwards.
+     */
+    public static void setMaximumBytes(final Long maximumBytes) {
+        if (maximumBytes != null && maximumBytes <= 0) {
+            throw new IllegalArgumentException("maximumBytes should be positive: " + maximumBytes);
+        }
+        HistoricalCacheMemoryBudget.maximumBytes = maximumBytes;
+        maybeEvict();
+    }
+
+    public static Long getMaximumBytes() {
+        return maximumBytes;
+    }
+
+    public static boolean isEnabled() {
+        return maximumBytes != null;
+    }
+
+    /**
+     * This is the sum of the estimates given by the weighers.
+     */
+    public static long getUsedBytes() {
+        return USED_BYTES.get();
+    }
+
+    public static <V> WeightedHistoricalCacheValuesMap<V> register(final WeightedHistoricalCacheValuesMap<V> map) {
+        REGISTERED_MAPS.add(map);
+        return map;
+    }
+
+    static double getInflation() {
+        return inflation;
+    }
+
+    static void addUsedBytes(final long delta) {
+        USED_BYTES.addAndGet(delta);
+    }
+
+    /**
+     * Evicts the entries with the lowest priority over all registered maps until the budget is met again. Each map is
+     * only locked on its own, thus this may be called by a map after it released its lock.
+     */
+    public static void maybeEvict() {
+        if (!isOverBudget()) {
+            return;
+        }
+        synchronized (HistoricalCacheMemoryBudget.class) {
+            //maps that got garbage collected do not use any bytes anymore
+            final List<WeightedHistoricalCacheValuesMap<?>> maps = new ArrayList<WeightedHistoricalCacheValuesMap<?>>(
+                    REGISTERED_MAPS);
+            long usedBytes = 0;
+            for (int i = 0; i < maps.size(); i++) {
+                usedBytes += maps.get(i).getWeight();
+            }
+            USED_BYTES.set(usedBytes);
+            while (isOverBudget()) {
+                WeightedHistoricalCacheValuesMap<?> victim = null;
+                double victimPriority = Double.MAX_VALUE;
+                for (int i = 0; i < maps.size(); i++) {
+                    final WeightedHistoricalCacheValuesMap<?> map = maps.get(i);
+                    final Double priority = map.getEvictionCandidatePriority();
+                    if (priority != null && (victim == null || priority < victimPriority)) {
+                        victim = map;
+                        victimPriority = priority;
+                    }
+                }
+                if (victim == null) {
+                    break;
+                }
+                final Double evictedPriority = victim.evictCandidate();
+                if (evictedPriority != null && evictedPriority > inflation) {
+                    inflation = evictedPriority;
+                }
+            }
+        }
+    }
+
+    private static boolean isOverBudget() {
+        final Long maximumBytesCopy = maximumBytes;
+        return maximumBytesCopy != null && USED_BYTES.get() > maximumBytesCopy;
+    }
+
+}
@@ -0,0 +1,12 @@
+package de.invesdwin.util.collections.loadingcache.historical.memory;
+
+import de.invesdwin.util.time.fdate.FDate;
+
+public interface IHistoricalCacheWeigher<V> {
+
+    /**
+     * Returns the estimated number of bytes that are retained by this entry in the cache.
+     */
+    long weigh(FDate key, V value);
+
+}
@@ -0,0 +1,243 @@
+package de.invesdwin.util.collections.loadingcache.historical.memory;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.cache.CacheBuilder;
+
+import de.invesdwin.util.time.fdate.FDate;
+
+/**
+ * Estimates the retained size of values by walking their object graph via reflection. Since this is expensive, only
+ * the first values and then every n-th value get measured, all others are weighed with the running average of the
+ * samples. This works well for caches that contain values of a similar shape.
+ * 
+ * Objects that are shared between entries (e.g. a common instrument or config referenced by every value) are only
+ * counted by the first sample that reaches them. The following samples skip objects that were already reached by an
+ * earlier sample, which are remembered via weak references. Thus shared objects do not get counted once per entry.
+ */
+@ThreadSafe
+public class SampledHistoricalCacheWeigher<V> implements IHistoricalCacheWeigher<V> {
+
+    public static final int DEFAULT_WARMUP_SAMPLES = 16;
+    public static final int DEFAULT_SAMPLE_INTERVAL = 64;
+
+    private static final int OBJECT_HEADER_BYTES = 16;
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int REFERENCE_BYTES = 8;
+    private static final int ALIGNMENT_BYTES = 8;
+    /**
+     * the key is referenced by the cache map entry which also has a header and some references
+     */
+    private static final int MAP_ENTRY_BYTES = OBJECT_HEADER_BYTES + 4 * REFERENCE_BYTES;
+    private static final int MAX_VISITED_OBJECTS = 10000;
+    private static final int MAX_SAMPLED_OBJECTS = 100000;
+    private static final Map<Class<?>, Field[]> CLASS_REFERENCE_FIELDS = new ConcurrentHashMap<Class<?>, Field[]>();
+    private static final Map<Class<?>, Long> CLASS_SHALLOW_SIZES = new ConcurrentHashMap<Class<?>, Long>();
+
+    private final int warmupSamples;
+    private final int sampleInterval;
+    /**
+     * identity based because weak keys are compared by identity
+     */
+    @GuardedBy("this")
+    private final Set<Object> sampledObjects = Collections.newSetFromMap(CacheBuilder.newBuilder()
+            .weakKeys()
+            .maximumSize(MAX_SAMPLED_OBJECTS)
+            .<Object, Boolean> build()
+            .asMap());
+    @GuardedBy("this")
+    private long count;
+    @GuardedBy("this")
+    private long sampledCount;
+    @GuardedBy("this")
+    private long sampledBytes;
+
+    public SampledHistoricalCacheWeigher() {
+        this(DEFAULT_WARMUP_SAMPLES, DEFAULT_SAMPLE_INTERVAL);
+    }
+
+    public SampledHistoricalCacheWeigher(final int warmupSamples, final int sampleInterval) {
+        if (sampleInterval <= 0) {
+            throw new IllegalArgumentException("sampleInterval should be positive: " + sampleInterval);
+        }
+        this.warmupSamples = warmupSamples;
+        this.sampleInterval = sampleInterval;
+    }
+
+    @Override
+    public long weigh(final FDate key, final V value) {
+        final boolean sample;
+        final long average;
+        synchronized (this) {
+            count++;
+            sample = sampledCount < warmupSamples || count % sampleInterval == 0;
+            if (sampledCount > 0) {
+                average = sampledBytes / sampledCount;
+            } else {
+                average = 0;
+            }
+        }
+        if (!sample && average > 0) {
+            return average;
+        }
+        final Set<Object> visited = newVisitedSet();
+        final long bytes;
+        synchronized (this) {
+            //the key and value share the visited objects since they belong to the same entry
+            bytes = MAP_ENTRY_BYTES + estimateRetainedBytes(key, visited, sampledObjects)
+                    + estimateRetainedBytes(value, visited, sampledObjects);
+            sampledObjects.addAll(visited);
+            sampledCount++;
+            sampledBytes += bytes;
+        }
+        return bytes;
+    }
+
+    public static long estimateRetainedBytes(final Object root) {
+        return estimateRetainedBytes(root, newVisitedSet(), Collections.<Object> emptySet());
+    }
+
+    private static Set<Object> newVisitedSet() {
+        return Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+    }
+
+    /**
+     * Objects in the excluded set are not retained by this root alone, thus they are neither counted nor traversed.
+     */
+    private static long estimateRetainedBytes(final Object root, final Set<Object> visited,
+            final Set<Object> excluded) {
+        if (root == null) {
+            return 0;
+        }
+        final Deque<Object> pending = new ArrayDeque<Object>();
+        pending.add(root);
+        long bytes = 0;
+        while (!pending.isEmpty() && visited.size() < MAX_VISITED_OBJECTS) {
+            final Object obj = pending.poll();
+            if (excluded.contains(obj) || !visited.add(obj)) {
+                continue;
+            }
+            final Class<?> type = obj.getClass();
+            if (type.isArray()) {
+                bytes += addArray(obj, type, pending);
+            } else {
+                bytes += getShallowSize(type);
+                for (final Field field : getReferenceFields(type)) {
+                    final Object child;
+                    try {
+                        child = field.get(obj);
+                    } catch (final IllegalAccessException e) {
+                        continue;
+                    }
+                    if (isTraversable(child)) {
+                        pending.add(child);
+                    }
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private static long addArray(final Object array, final Class<?> type, final Deque<Object> pending) {
+        final int length = Array.getLength(array);
+        final Class<?> componentType = type.getComponentType();
+        if (componentType.isPrimitive()) {
+            return align(ARRAY_HEADER_BYTES + (long) length * getPrimitiveBytes(componentType));
+        }
+        for (int i = 0; i < length; i++) {
+            final Object child = Array.get(array, i);
+            if (isTraversable(child)) {
+                pending.add(child);
+            }
+        }
+        return align(ARRAY_HEADER_BYTES + (long) length * REFERENCE_BYTES);
+    }
+
+    /**
+     * Shared instances are not retained by the cache entry.
+     */
+    private static boolean isTraversable(final Object obj) {
+        return obj != null && !(obj instanceof Class) && !(obj instanceof Enum);
+    }
+
+    private static long getShallowSize(final Class<?> type) {
+        Long size = CLASS_SHALLOW_SIZES.get(type);
+        if (size == null) {
+            long bytes = OBJECT_HEADER_BYTES;
+            Class<?> cur = type;
+            while (cur != null) {
+                for (final Field field : cur.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    if (field.getType().isPrimitive()) {
+                        bytes += getPrimitiveBytes(field.getType());
+                    } else {
+                        bytes += REFERENCE_BYTES;
+                    }
+                }
+                cur = cur.getSuperclass();
+            }
+            size = align(bytes);
+            CLASS_SHALLOW_SIZES.put(type, size);
+        }
+        return size;
+    }
+
+    private static Field[] getReferenceFields(final Class<?> type) {
+        Field[] fields = CLASS_REFERENCE_FIELDS.get(type);
+        if (fields == null) {
+            final List<Field> list = new ArrayList<Field>();
+            Class<?> cur = type;
+            while (cur != null) {
+                for (final Field field : cur.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) || field.getType().isPrimitive()) {
+                        continue;
+                    }
+                    try {
+                        field.setAccessible(true);
+                        list.add(field);
+                    } catch (final RuntimeException e) {
+                        //not accessible (e.g. jdk internals), count only the reference itself
+                    }
+                }
+                cur = cur.getSuperclass();
+            }
+            fields = list.toArray(new Field[list.size()]);
+            CLASS_REFERENCE_FIELDS.put(type, fields);
+        }
+        return fields;
+    }
+
+    private static int getPrimitiveBytes(final Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        } else {
+            //byte, boolean
+            return 1;
+        }
+    }
+
+    private static long align(final long bytes) {
+        return (bytes + ALIGNMENT_BYTES - 1) / ALIGNMENT_BYTES * ALIGNMENT_BYTES;
+    }
+
+}
@@ -0,0 +1,270 @@
+package de.invesdwin.util.collections.loadingcache.historical.memory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import de.invesdwin.util.collections.loadingcache.ILoadingCache;
+import de.invesdwin.util.time.fdate.FDate;
+
+/**
+ * A values map that is not limited by its entry count, instead each entry is weighed in bytes and the
+ * HistoricalCacheMemoryBudget evicts entries across all registered maps when the global budget is exceeded.
+ * 
+ * The eviction priority of an entry follows GreedyDual-Size: the average time it takes this cache to load a value
+ * divided by the weight of the entry, plus the global inflation value at the time of the last access. Thus entries
+ * that are expensive to reload and small survive longer, while the inflation makes sure that entries which were not
+ * accessed for a while eventually get evicted regardless of their cost. Inside a map the entries are additionally
+ * kept ordered by their priority, so the eviction candidate is the entry with the lowest priority. Ties are broken by
+ * the least recently used entry.
+ */
+@ThreadSafe
+public class WeightedHistoricalCacheValuesMap<V> implements ILoadingCache<FDate, V> {
+
+    /**
+     * smoothing factor of the exponential moving average for the load time
+     */
+    private static final double LOAD_NANOS_SMOOTHING = 0.1D;
+    private static final LongSupplier SYSTEM_NANO_TIME = new LongSupplier() {
+        @Override
+        public long getAsLong() {
+            return System.nanoTime();
+        }
+    };
+
+    @GuardedBy("this")
+    private final Map<FDate, WeightedValue<V>> map = new LinkedHashMap<FDate, WeightedValue<V>>();
+    @GuardedBy("this")
+    private final TreeSet<WeightedValue<V>> priorityQueue = new TreeSet<WeightedValue<V>>(
+            new Comparator<WeightedValue<V>>() {
+                @Override
+                public int compare(final WeightedValue<V> o1, final WeightedValue<V> o2) {
+                    final int compare = Double.compare(o1.priority, o2.priority);
+                    if (compare != 0) {
+                        return compare;
+                    }
+                    return Long.compare(o1.accessSequence, o2.accessSequence);
+                }
+            });
+    private final Function<FDate, V> loadValue;
+    private final IHistoricalCacheWeigher<V> weigher;
+    private final LongSupplier nanoTime;
+    @GuardedBy("this")
+    private long weight;
+    @GuardedBy("this")
+    private long accessSequence;
+    /**
+     * 0 until the first load got measured
+     */
+    private volatile double averageLoadNanos;
+
+    public WeightedHistoricalCacheValuesMap(final Function<FDate, V> loadValue,
+            final IHistoricalCacheWeigher<V> weigher) {
+        this(loadValue, weigher, SYSTEM_NANO_TIME);
+    }
+
+    /**
+     * The nanoTime supplier is used to measure the load time, which can be replaced by a fake clock in tests.
+     */
+    public WeightedHistoricalCacheValuesMap(final Function<FDate, V> loadValue,
+            final IHistoricalCacheWeigher<V> weigher, final LongSupplier nanoTime) {
+        this.loadValue = loadValue;
+        this.weigher = weigher;
+        this.nanoTime = nanoTime;
+    }
+
+    @Override
+    public V get(final FDate key) {
+        synchronized (this) {
+            final WeightedValue<V> existing = map.get(key);
+            if (existing != null) {
+                priorityQueue.remove(existing);
+                existing.priority = newPriority(existing.weight);
+                existing.accessSequence = ++accessSequence;
+                priorityQueue.add(existing);
+                return existing.value;
+            }
+        }
+        //bad idea to synchronize in apply, this might cause deadlocks when threads are used inside of it
+        final long start = nanoTime.getAsLong();
+        final V value = loadValue.apply(key);
+        updateAverageLoadNanos(nanoTime.getAsLong() - start);
+        if (value == null) {
+            return null;
+        }
+        final V result;
+        synchronized (this) {
+            final WeightedValue<V> existing = map.get(key);
+            if (existing != null) {
+                result = existing.value;
+            } else {
+                innerPut(key, value);
+                result = value;
+            }
+        }
+        HistoricalCacheMemoryBudget.maybeEvict();
+        return result;
+    }
+
+    @Override
+    public void put(final FDate key, final V value) {
+        synchronized (this) {
+            innerPut(key, value);
+        }
+        HistoricalCacheMemoryBudget.maybeEvict();
+    }
+
+    @GuardedBy("this")
+    private void innerPut(final FDate key, final V value) {
+        final long valueWeight = Math.max(1, weigher.weigh(key, value));
+        final WeightedValue<V> added = new WeightedValue<V>(key, value, valueWeight, newPriority(valueWeight),
+                ++accessSequence);
+        final WeightedValue<V> removed = map.put(key, added);
+        long delta = valueWeight;
+        if (removed != null) {
+            priorityQueue.remove(removed);
+            delta -= removed.weight;
+        }
+        priorityQueue.add(added);
+        addWeight(delta);
+    }
+
+    @Override
+    public synchronized void remove(final FDate key) {
+        final WeightedValue<V> removed = map.remove(key);
+        if (removed != null) {
+            priorityQueue.remove(removed);
+            addWeight(-removed.weight);
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        map.clear();
+        priorityQueue.clear();
+        addWeight(-weight);
+    }
+
+    @GuardedBy("this")
+    private void addWeight(final long delta) {
+        weight += delta;
+        HistoricalCacheMemoryBudget.addUsedBytes(delta);
+    }
+
+    private double newPriority(final long valueWeight) {
+        return HistoricalCacheMemoryBudget.getInflation() + averageLoadNanos / valueWeight;
+    }
+
+    private void updateAverageLoadNanos(final long loadNanos) {
+        //races only lose a sample which is fine for an estimate
+        final double averageLoadNanosCopy = averageLoadNanos;
+        if (averageLoadNanosCopy == 0D) {
+            averageLoadNanos = loadNanos;
+        } else {
+            averageLoadNanos = averageLoadNanosCopy + (loadNanos - averageLoadNanosCopy) * LOAD_NANOS_SMOOTHING;
+        }
+    }
+
+    public double getAverageLoadNanos() {
+        return averageLoadNanos;
+    }
+
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    /**
+     * Returns the lowest priority or null if this map is empty.
+     */
+    synchronized Double getEvictionCandidatePriority() {
+        if (priorityQueue.isEmpty()) {
+            return null;
+        }
+        return priorityQueue.first().priority;
+    }
+
+    /**
+     * Removes the entry with the lowest priority and returns its priority or null if this map is empty.
+     */
+    synchronized Double evictCandidate() {
+        final WeightedValue<V> evicted = priorityQueue.pollFirst();
+        if (evicted == null) {
+            return null;
+        }
+        map.remove(evicted.key);
+        addWeight(-evicted.weight);
+        return evicted.priority;
+    }
+
+    @Override
+    public synchronized boolean containsKey(final FDate key) {
+        //not counted as access
+        return map.containsKey(key);
+    }
+
+    @Override
+    public synchronized Set<Entry<FDate, V>> entrySet() {
+        return asMap().entrySet();
+    }
+
+    @Override
+    public synchronized int size() {
+        return map.size();
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public synchronized Set<FDate> keySet() {
+        return Collections.unmodifiableSet(new LinkedHashSet<FDate>(map.keySet()));
+    }
+
+    @Override
+    public synchronized Collection<V> values() {
+        return asMap().values();
+    }
+
+    /**
+     * Returns a snapshot since the values are stored with their weights.
+     */
+    @Override
+    public synchronized Map<FDate, V> asMap() {
+        final Map<FDate, V> copy = new LinkedHashMap<FDate, V>(map.size());
+        for (final Entry<FDate, WeightedValue<V>> e : map.entrySet()) {
+            copy.put(e.getKey(), e.getValue().value);
+        }
+        return Collections.unmodifiableMap(copy);
+    }
+
+    private static final class WeightedValue<V> {
+        private final FDate key;
+        private final V value;
+        private final long weight;
+        private double priority;
+        private long accessSequence;
+
+        private WeightedValue(final FDate key, final V value, final long weight, final double priority,
+                final long accessSequence) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.priority = priority;
+            this.accessSequence = accessSequence;
+        }
+    }
+
+}
@@ -18,7 +18,9 @@ import de.invesdwin.util.collections.iterable.ICloseableIterator;
 import de.invesdwin.util.collections.iterable.WrapperCloseableIterable;
 import de.invesdwin.util.collections.loadingcache.ALoadingCache;
 import de.invesdwin.util.collections.loadingcache.historical.AHistoricalCache;
+import de.invesdwin.util.collections.loadingcache.historical.internal.HistoricalCacheCheckpoints;
 import de.invesdwin.util.collections.loadingcache.historical.listener.IHistoricalCacheOnClearListener;
+import de.invesdwin.util.collections.loadingcache.historical.listener.IHistoricalCacheOnValueAppendedListener;
 import de.invesdwin.util.math.Integers;
 import de.invesdwin.util.time.fdate.FDate;
 
@@ -28,6 +30,10 @@ import de.invesdwin.util.time.fdate.FDate;
  * 
  * For example useful when calculating an exponential moving average that needs access to its previous values.
  * 
+ * Results are remembered as checkpoints every few steps, so that after evictions only the steps since the nearest
+ * checkpoint need to be replayed. Continuing from the last result is done without any replay. A clear of the parent
+ * discards the checkpoints unless isCheckpointsValidAfterParentClear() is overridden.
+ * 
  * @param <V>
  */
 @ThreadSafe
@@ -45,6 +51,11 @@ public abstract class ARecursiveHistoricalCacheQuery<V> {
      * http://zorro-trader.com/manual/en/lookback.htm
      */
     private static final int MIN_RECURSION_COUNT = 40;
+    /**
+     * a random access will have to replay at most this many steps from the nearest checkpoint
+     */
+    static final int CHECKPOINT_INTERVAL = MIN_RECURSION_COUNT;
+    private static final int MAX_CHECKPOINTS_COUNT = 10000;
 
     private final AHistoricalCache<V> parent;
     private final int maxRecursionCount;
@@ -64,6 +75,15 @@ public abstract class ARecursiveHistoricalCacheQuery<V> {
     @GuardedBy("parent")
     //cache separately since the parent could encounter more evictions than this internal cache
     private final ALoadingCache<FDate, V> cachedRecursionResults;
+    @GuardedBy("parent")
+    private final HistoricalCacheCheckpoints<V> checkpoints = new HistoricalCacheCheckpoints<V>(
+            MAX_CHECKPOINTS_COUNT);
+    @GuardedBy("parent")
+    private int stepsSinceLastCheckpoint;
+    @GuardedBy("parent")
+    private FDate lastResultKey;
+    @GuardedBy("parent")
+    private V lastResultValue;
 
     private final IHistoricalCacheQuery<V> parentQuery;
     private final IHistoricalCacheQueryWithFuture<V> parentQueryWithFuture;
@@ -91,23 +111,79 @@ public abstract class ARecursiveHistoricalCacheQuery<V> {
             public void onClear() {
                 synchronized (parent) {
                     if (!recursionInProgress) {
-                        clear();
+                        if (isCheckpointsValidAfterParentClear()) {
+                            clearCachedResults();
+                        } else {
+                            clear();
+                        }
                     }
                 }
             }
 
         }));
+        Assertions.checkTrue(parent.getOnValueAppendedListeners().add(new IHistoricalCacheOnValueAppendedListener() {
+            @Override
+            public void onValueAppended(final FDate key) {
+                synchronized (parent) {
+                    if (!recursionInProgress) {
+                        clearFrom(key);
+                    }
+                }
+            }
+        }));
+    }
+
+    /**
+     * Only the results at or after an appended key might have been calculated with a value that got replaced now, thus
+     * the older results and checkpoints stay valid.
+     */
+    private void clearFrom(final FDate key) {
+        highestRecursionResultsAsc.tailMap(key, true).clear();
+        final List<FDate> removedKeys = new ArrayList<FDate>();
+        for (final FDate cachedKey : cachedRecursionResults.keySet()) {
+            if (!cachedKey.isBefore(key)) {
+                removedKeys.add(cachedKey);
+            }
+        }
+        for (int i = 0; i < removedKeys.size(); i++) {
+            cachedRecursionResults.remove(removedKeys.get(i));
+        }
+        checkpoints.removeFrom(key);
+        if (lastResultKey != null && !lastResultKey.isBefore(key)) {
+            lastResultKey = null;
+            lastResultValue = null;
+        }
+        if (firstAvailableKey != null && !firstAvailableKey.isBefore(key)) {
+            firstAvailableKey = null;
+        }
     }
 
     public void clear() {
         synchronized (parent) {
-            cachedRecursionResults.clear();
-            highestRecursionResultsAsc.clear();
-            firstAvailableKey = null;
-            shouldAppendHighestRecursionResults = false;
+            clearCachedResults();
+            checkpoints.clear();
+            stepsSinceLastCheckpoint = 0;
+            lastResultKey = null;
+            lastResultValue = null;
         }
     }
 
+    private void clearCachedResults() {
+        cachedRecursionResults.clear();
+        highestRecursionResultsAsc.clear();
+        firstAvailableKey = null;
+        shouldAppendHighestRecursionResults = false;
+    }
+
+    /**
+     * Per default a clear of the parent also discards the checkpoints and the last result, since the parent might have
+     * changed values in the past. Override this to return true if historical data is only ever appended at the end,
+     * then random access after a clear only replays the steps since the nearest checkpoint.
+     */
+    protected boolean isCheckpointsValidAfterParentClear() {
+        return false;
+    }
+
     public int getMaxRecursionCount() {
         return maxRecursionCount;
     }
@@ -116,6 +192,9 @@ public abstract class ARecursiveHistoricalCacheQuery<V> {
         final V previous;
         if (parent.containsKey(previousKey)) {
             previous = parentQuery.getValue(previousKey);
+            synchronized (parent) {
+                rememberResult(previousKey, previous);
+            }
         } else {
             previous = getPreviousValueByRecursion(key, previousKey);
         }
@@ -127,6 +206,11 @@ public abstract class ARecursiveHistoricalCacheQuery<V> {
             if (previousKey.isBeforeOrEqualTo(getFirstAvailableKey())) {
                 return getInitialValue(previousKey);
             }
+            final V rememberedResult = getRememberedResult(previousKey);
+            if (rememberedResult != null) {
+                //forward incremental or exactly on a checkpoint
+                return rememberedResult;
+            }
 
             if (recursionInProgress) {
                 final V highestRecursionResult = highestRecursionResultsAsc.get(previousKey);
@@ -146,7 +230,10 @@ public abstract class ARecursiveHistoricalCacheQuery<V> {
             }
             recursionInProgress = true;
             try {
-                return cachedRecursionResults.get(parentQueryWithFuture.getKey(previousKey));
+                final FDate actualPreviousKey = parentQueryWithFuture.getKey(previousKey);
+                final V result = cachedRecursionResults.get(actualPreviousKey);
+                rememberResult(actualPreviousKey, result);
+                return result;
             } finally {
                 recursionInProgress = false;
             }
@@ -161,6 +248,10 @@ public abstract class ARecursiveHistoricalCacheQuery<V> {
             if (highestRecursionResult != null) {
                 return highestRecursionResult;
             }
+            final V rememberedResult = getRememberedResult(lastRecursionKey);
+            if (rememberedResult != null) {
+                return rememberedResult;
+            }
             final Iterator<FDate> recursionKeysIterator = newRecursionKeysIterator(previousKey);
             try {
                 while (true) {
@@ -169,6 +260,7 @@ public abstract class ARecursiveHistoricalCacheQuery<V> {
                     final V value = parentQuery.getValue(recursiveKey);
                     appendHighestRecursionResult(recursiveKey, value);
                     cachedRecursionResults.put(recursiveKey, value);
+                    rememberResult(recursiveKey, value);
                 }
             } catch (final NoSuchElementException e) {
                 //ignore
@@ -183,6 +275,33 @@ public abstract class ARecursiveHistoricalCacheQuery<V> {
         }
     }
 
+    private V getRememberedResult(final FDate key) {
+        if (lastResultKey != null && lastResultKey.equals(key)) {
+            return lastResultValue;
+        }
+        return checkpoints.get(key);
+    }
+
+    private boolean hasRememberedResultBefore(final FDate key) {
+        if (lastResultKey != null && lastResultKey.isBefore(key)) {
+            return true;
+        }
+        return checkpoints.floorKey(key) != null;
+    }
+
+    private void rememberResult(final FDate key, final V value) {
+        if (value == null || key.equals(lastResultKey)) {
+            return;
+        }
+        lastResultKey = key;
+        lastResultValue = value;
+        stepsSinceLastCheckpoint++;
+        if (stepsSinceLastCheckpoint >= CHECKPOINT_INTERVAL) {
+            checkpoints.put(key, value);
+            stepsSinceLastCheckpoint = 0;
+        }
+    }
+
     private void appendHighestRecursionResult(final FDate key, final V value) {
         if (shouldAppendHighestRecursionResults) {
             if (!highestRecursionResultsAsc.isEmpty()) {
@@ -203,7 +322,7 @@ public abstract class ARecursiveHistoricalCacheQuery<V> {
         if (highestRecursionResultsAsc.isEmpty()) {
             shouldAppendHighestRecursionResults = true;
         }
-        if (cachedRecursionResults.isEmpty()) {
+        if (cachedRecursionResults.isEmpty() && !hasRememberedResultBefore(previousKey)) {
             //nothing here yet, have to go the full range
             return newFullRecursionKeysIterator(previousKey);
         }
@@ -221,7 +340,8 @@ public abstract class ARecursiveHistoricalCacheQuery<V> {
                 shouldAppendHighestRecursionResults = true;
                 //point to continue from reached
                 break;
-            } else if (parent.containsKey(newPreviousKey) || cachedRecursionResults.containsKey(newPreviousKey)) {
+            } else if (parent.containsKey(newPreviousKey) || cachedRecursionResults.containsKey(newPreviousKey)
+                    || getRememberedResult(newPreviousKey) != null) {
                 //point to continue from reached
                 break;
             } else {
@@ -1,5 +1,7 @@
 package de.invesdwin.util.collections.loadingcache.historical.query.internal;
 
+import java.util.Map.Entry;
+
 import de.invesdwin.util.collections.loadingcache.ILoadingCache;
 import de.invesdwin.util.collections.loadingcache.historical.interceptor.IHistoricalCachePreviousKeysQueryInterceptor;
 import de.invesdwin.util.collections.loadingcache.historical.interceptor.IHistoricalCacheRangeQueryInterceptor;
@@ -30,4 +32,8 @@ public interface IHistoricalCacheInternalMethods<V> {
 
     IHistoricalCacheQuery<?> newKeysQueryInterceptor();
 
+    boolean isIndexedShift();
+
+    Entry<FDate, V> getIndexedShiftedEntry(FDate valueKey, int shiftUnits);
+
 }
@@ -68,6 +68,10 @@ public class CachedHistoricalCacheQueryCore<V> implements IHistoricalCacheQueryC
         if (shiftBackUnits == 0) {
             return delegate.getPreviousEntry(query, key, 0);
         } else {
+            final Entry<FDate, V> indexedEntry = delegate.tryGetIndexedShiftedEntry(query, key, -shiftBackUnits);
+            if (indexedEntry != null) {
+                return indexedEntry;
+            }
             //use arraylist since we don't want to have the overhead of filtering duplicates
             final boolean filterDuplicateKeys = false;
             final int incrementedShiftBackUnits = shiftBackUnits + 1;
@@ -752,6 +756,31 @@ public class CachedHistoricalCacheQueryCore<V> implements IHistoricalCacheQueryC
         }
     }
 
+    /**
+     * Only the newest cached entries at or after the given key get discarded, so that the older ones can still be used
+     * as the lookback for following queries.
+     */
+    @Override
+    public synchronized void clearFrom(final FDate fromKey) {
+        if (cachedQueryActive || cachedPreviousEntriesKey == null || cachedPreviousEntriesKey.isBefore(fromKey)) {
+            return;
+        }
+        //the entries are sorted descending
+        int removeCount = 0;
+        while (removeCount < cachedPreviousEntries.size()
+                && !cachedPreviousEntries.get(removeCount).getKey().isBefore(fromKey)) {
+            removeCount++;
+        }
+        if (removeCount == cachedPreviousEntries.size()) {
+            resetForRetry();
+        } else {
+            cachedPreviousEntries.subList(0, removeCount).clear();
+            //the remaining entries are the previous entries of the newest one
+            cachedPreviousEntriesKey = cachedPreviousEntries.get(0).getKey();
+            resetCachedPreviousResult();
+        }
+    }
+
     private void resetForRetry() {
         delegate.clear();
         cachedPreviousEntries.clear();
@@ -764,6 +793,17 @@ public class CachedHistoricalCacheQueryCore<V> implements IHistoricalCacheQueryC
         this.maximumSize = maximumSize;
     }
 
+    /**
+     * When the cached entries were queried for a key before the appended one, the incremented key algorithm will pick
+     * up the new value on its own. Only results for keys at or after the appended key have to be discarded.
+     */
+    @Override
+    public synchronized void onValueAppended(final FDate key) {
+        if (!cachedQueryActive && cachedPreviousEntriesKey != null && !cachedPreviousEntriesKey.isBefore(key)) {
+            resetForRetry();
+        }
+    }
+
     @Override
     public V getValue(final IHistoricalCacheQueryInternalMethods<V> query, final FDate key,
             final HistoricalCacheAssertValue assertValue) {
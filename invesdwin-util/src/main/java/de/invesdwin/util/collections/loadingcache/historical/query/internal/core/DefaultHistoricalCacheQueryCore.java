@@ -69,6 +69,12 @@ public class DefaultHistoricalCacheQueryCore<V> implements IHistoricalCacheQuery
     @Override
     public Entry<FDate, V> getPreviousEntry(final IHistoricalCacheQueryInternalMethods<V> query, final FDate key,
             final int shiftBackUnits) {
+        if (shiftBackUnits > 0) {
+            final Entry<FDate, V> indexedEntry = tryGetIndexedShiftedEntry(query, key, -shiftBackUnits);
+            if (indexedEntry != null) {
+                return indexedEntry;
+            }
+        }
         final GetPreviousEntryQueryImpl<V> impl = new GetPreviousEntryQueryImpl<V>(this, query, key, shiftBackUnits);
         //CHECKSTYLE:OFF
         while (!impl.iterationFinished()) {
@@ -131,6 +137,12 @@ public class DefaultHistoricalCacheQueryCore<V> implements IHistoricalCacheQuery
     @Override
     public Entry<FDate, V> getNextEntry(final IHistoricalCacheQueryInternalMethods<V> query, final FDate key,
             final int shiftForwardUnits) {
+        if (shiftForwardUnits > 0) {
+            final Entry<FDate, V> indexedEntry = tryGetIndexedShiftedEntry(query, key, shiftForwardUnits);
+            if (indexedEntry != null) {
+                return indexedEntry;
+            }
+        }
         final GetNextEntryQueryImpl<V> impl = new GetNextEntryQueryImpl<V>(this, query, key, shiftForwardUnits);
         //CHECKSTYLE:OFF
         while (!impl.iterationFinished()) {
@@ -140,14 +152,50 @@ public class DefaultHistoricalCacheQueryCore<V> implements IHistoricalCacheQuery
         return impl.getResult();
     }
 
+    /**
+     * Resolves the value for the key like the first iteration of the previous/next walk does and then asks the parent
+     * to shift from there via its key index. Returns null if the index is unable to answer, so that the caller can
+     * fall back to the walk.
+     */
+    public Entry<FDate, V> tryGetIndexedShiftedEntry(final IHistoricalCacheQueryInternalMethods<V> query,
+            final FDate key, final int shiftUnits) {
+        if (!parent.isIndexedShift()) {
+            return null;
+        }
+        if (query.getElementFilter() != null) {
+            //the walk needs to check each element
+            return null;
+        }
+        final Entry<FDate, V> entry = query.getAssertValue().assertValue(parent, key, key,
+                getValue(query, key, HistoricalCacheAssertValue.ASSERT_VALUE_WITH_FUTURE));
+        if (entry == null) {
+            return null;
+        }
+        final Entry<FDate, V> shiftedEntry = parent.getIndexedShiftedEntry(entry.getKey(), shiftUnits);
+        if (shiftedEntry == null) {
+            return null;
+        }
+        return query.getAssertValue().assertValue(parent, key, shiftedEntry.getKey(), shiftedEntry.getValue());
+    }
+
     @Override
     public void clear() {
         //noop since not caching anything
     }
 
+    @Override
+    public void clearFrom(final FDate fromKey) {
+        //noop since not caching anything
+    }
+
     @Override
     public void increaseMaximumSize(final int maximumSize) {
         //noop since not caching anything
     }
 
+    @Override
+    public void onValueAppended(final FDate key) {
+        //noop since not caching anything
+    }
+
 }
@@ -18,8 +18,18 @@ public interface IHistoricalCacheQueryCore<V> {
 
     void clear();
 
+    /**
+     * Discards cached results at or after the given key, older ones stay valid.
+     */
+    void clearFrom(FDate fromKey);
+
     void increaseMaximumSize(int maximumSize);
 
+    /**
+     * A value was appended at the end of the parent, cached results that might have missed it need to be discarded.
+     */
+    void onValueAppended(FDate key);
+
     V getValue(IHistoricalCacheQueryInternalMethods<V> query, FDate key, HistoricalCacheAssertValue assertValue);
 
     Entry<FDate, V> getEntry(IHistoricalCacheQueryInternalMethods<V> query, FDate key,
@@ -0,0 +1,153 @@
+package de.invesdwin.util.collections.loadingcache.historical.warmup;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+import javax.annotation.concurrent.Immutable;
+
+import de.invesdwin.util.collections.loadingcache.historical.AHistoricalCache;
+import de.invesdwin.util.collections.loadingcache.historical.query.IHistoricalCacheQueryWithFuture;
+import de.invesdwin.util.collections.loadingcache.historical.query.internal.HistoricalCacheAssertValue;
+import de.invesdwin.util.concurrent.Executors;
+import de.invesdwin.util.concurrent.Futures;
+import de.invesdwin.util.concurrent.WrappedExecutorService;
+import de.invesdwin.util.time.Instant;
+import de.invesdwin.util.time.fdate.FDate;
+
+/**
+ * Preloads historical caches for a given time range before they get used. Caches that provide the shift keys or the
+ * adjusted keys for other caches are loaded first, caches that do not depend on each other are loaded in parallel.
+ * 
+ * Dependencies that are not part of the given caches are added automatically since they would be loaded anyway.
+ */
+@Immutable
+public final class HistoricalCacheWarmup {
+
+    private HistoricalCacheWarmup() {}
+
+    public static List<HistoricalCacheWarmupResult> warmup(final Collection<? extends AHistoricalCache<?>> caches,
+            final FDate from, final FDate to) throws InterruptedException {
+        final WrappedExecutorService executor = Executors.newFixedThreadPool(
+                HistoricalCacheWarmup.class.getSimpleName(), Executors.getCpuThreadPoolCount());
+        try {
+            return warmup(caches, from, to, executor);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * The executor should be bounded, it limits how many caches are loaded at the same time. Returns the results in
+     * dependency order.
+     */
+    public static List<HistoricalCacheWarmupResult> warmup(final Collection<? extends AHistoricalCache<?>> caches,
+            final FDate from, final FDate to, final ExecutorService executor) throws InterruptedException {
+        final List<List<AHistoricalCache<?>>> levels = newDependencyLevels(caches);
+        final List<HistoricalCacheWarmupResult> results = new ArrayList<HistoricalCacheWarmupResult>();
+        for (int level = 0; level < levels.size(); level++) {
+            final List<WarmupTask> tasks = new ArrayList<WarmupTask>();
+            for (final AHistoricalCache<?> cache : levels.get(level)) {
+                tasks.add(new WarmupTask(cache, level, from, to));
+            }
+            results.addAll(Futures.submitAndGetFailFast(executor, tasks));
+        }
+        return results;
+    }
+
+    /**
+     * Groups the caches by the length of their longest dependency chain, so that each group only depends on the
+     * previous groups.
+     */
+    static List<List<AHistoricalCache<?>>> newDependencyLevels(
+            final Collection<? extends AHistoricalCache<?>> caches) {
+        final Map<AHistoricalCache<?>, Integer> cacheLevels = new IdentityHashMap<AHistoricalCache<?>, Integer>();
+        final List<AHistoricalCache<?>> orderedCaches = new ArrayList<AHistoricalCache<?>>();
+        for (final AHistoricalCache<?> cache : caches) {
+            determineLevel(cache, cacheLevels, orderedCaches, new IdentityHashMap<AHistoricalCache<?>, Boolean>());
+        }
+        final List<List<AHistoricalCache<?>>> levels = new ArrayList<List<AHistoricalCache<?>>>();
+        for (final AHistoricalCache<?> cache : orderedCaches) {
+            final int level = cacheLevels.get(cache);
+            while (levels.size() <= level) {
+                levels.add(new ArrayList<AHistoricalCache<?>>());
+            }
+            levels.get(level).add(cache);
+        }
+        return levels;
+    }
+
+    private static int determineLevel(final AHistoricalCache<?> cache,
+            final Map<AHistoricalCache<?>, Integer> cacheLevels, final List<AHistoricalCache<?>> orderedCaches,
+            final Map<AHistoricalCache<?>, Boolean> inProgress) {
+        final Integer existingLevel = cacheLevels.get(cache);
+        if (existingLevel != null) {
+            return existingLevel;
+        }
+        if (inProgress.put(cache, Boolean.TRUE) != null) {
+            throw new IllegalStateException("Cyclic dependency between historical caches detected at: " + cache);
+        }
+        int level = 0;
+        final AHistoricalCache<?> shiftKeyParent = cache.getShiftKeyProvider().getParent();
+        if (shiftKeyParent != null && shiftKeyParent != cache) {
+            level = Math.max(level, determineLevel(shiftKeyParent, cacheLevels, orderedCaches, inProgress) + 1);
+        }
+        final AHistoricalCache<?> adjustKeyParent = cache.getAdjustKeyProvider().getParent();
+        if (adjustKeyParent != null && adjustKeyParent != cache) {
+            level = Math.max(level, determineLevel(adjustKeyParent, cacheLevels, orderedCaches, inProgress) + 1);
+        }
+        inProgress.remove(cache);
+        cacheLevels.put(cache, level);
+        orderedCaches.add(cache);
+        return level;
+    }
+
+    private static final class WarmupTask implements Callable<HistoricalCacheWarmupResult> {
+
+        private final AHistoricalCache<?> cache;
+        private final int level;
+        private final FDate from;
+        private final FDate to;
+
+        private WarmupTask(final AHistoricalCache<?> cache, final int level, final FDate from, final FDate to) {
+            this.cache = cache;
+            this.level = level;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public HistoricalCacheWarmupResult call() throws Exception {
+            final Instant start = new Instant();
+            final int loadedCount = walk(cache.query().withFuture());
+            return new HistoricalCacheWarmupResult(cache, level, loadedCount, start.toDuration());
+        }
+
+        /**
+         * Walks the range via the next entries instead of the range query, since a range query interceptor might
+         * bypass the cache.
+         */
+        private <V> int walk(final IHistoricalCacheQueryWithFuture<V> query) {
+            int loadedCount = 0;
+            FDate entryKey = HistoricalCacheAssertValue.unwrapEntryKey(query.getNextEntry(from, 0));
+            while (entryKey != null && !entryKey.isAfter(to)) {
+                loadedCount++;
+                if (Thread.currentThread().isInterrupted()) {
+                    break;
+                }
+                final FDate nextEntryKey = HistoricalCacheAssertValue.unwrapEntryKey(query.getNextEntry(entryKey, 1));
+                if (nextEntryKey == null || !nextEntryKey.isAfter(entryKey)) {
+                    break;
+                }
+                entryKey = nextEntryKey;
+            }
+            return loadedCount;
+        }
+
+    }
+
+}
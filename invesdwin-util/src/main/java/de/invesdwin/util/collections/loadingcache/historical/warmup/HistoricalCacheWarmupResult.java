@@ -0,0 +1,48 @@
+package de.invesdwin.util.collections.loadingcache.historical.warmup;
+
+import javax.annotation.concurrent.Immutable;
+
+import de.invesdwin.util.collections.loadingcache.historical.AHistoricalCache;
+import de.invesdwin.util.time.duration.Duration;
+
+@Immutable
+public class HistoricalCacheWarmupResult {
+
+    private final AHistoricalCache<?> cache;
+    private final int dependencyLevel;
+    private final int loadedCount;
+    private final Duration duration;
+
+    public HistoricalCacheWarmupResult(final AHistoricalCache<?> cache, final int dependencyLevel,
+            final int loadedCount, final Duration duration) {
+        this.cache = cache;
+        this.dependencyLevel = dependencyLevel;
+        this.loadedCount = loadedCount;
+        this.duration = duration;
+    }
+
+    public AHistoricalCache<?> getCache() {
+        return cache;
+    }
+
+    /**
+     * 0 means the cache does not depend on other caches, caches of the same level were warmed up in parallel.
+     */
+    public int getDependencyLevel() {
+        return dependencyLevel;
+    }
+
+    public int getLoadedCount() {
+        return loadedCount;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    @Override
+    public String toString() {
+        return cache + ": level [" + dependencyLevel + "] loaded [" + loadedCount + "] in [" + duration + "]";
+    }
+
+}
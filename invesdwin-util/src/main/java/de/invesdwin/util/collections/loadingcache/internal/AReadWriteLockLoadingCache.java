@@ -4,6 +4,7 @@ import java.util.Collection;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
@@ -22,15 +23,65 @@ public abstract class AReadWriteLockLoadingCache<K, V> implements ILoadingCache<
     private final WriteLock writeLock = lock.writeLock();
     private final ReadLock readLock = lock.readLock();
 
+    /**
+     * null when all loads are serialized via the write lock
+     */
+    private final SingleFlightLoader<K, V> singleFlight;
+    /**
+     * incremented on clear so that single flight loads which started before do not put stale values afterwards
+     */
+    private final AtomicLong clearCount = new AtomicLong();
+    private final Function<K, V> loadAndPut = new Function<K, V>() {
+        @Override
+        public V apply(final K key) {
+            final long clearCountBefore = clearCount.get();
+            final V existing = internalGet(key);
+            if (existing != null) {
+                //another flight finished just before this one started
+                return existing;
+            }
+            V v = loadValue.apply(key);
+            writeLock.lock();
+            try {
+                final V oldV = map.get(key);
+                if (oldV != null) {
+                    v = oldV;
+                } else if (clearCount.get() == clearCountBefore) {
+                    map.put(key, v);
+                }
+            } finally {
+                writeLock.unlock();
+            }
+            return v;
+        }
+    };
+
     public AReadWriteLockLoadingCache(final Function<K, V> loadValue, final Map<K, V> map) {
+        this(loadValue, map, false);
+    }
+
+    /**
+     * With singleFlight, the write lock is only held for the map mutation, loads of different keys run in parallel
+     * while concurrent requests for the same key share one load. Otherwise all loads are serialized by the write lock.
+     */
+    public AReadWriteLockLoadingCache(final Function<K, V> loadValue, final Map<K, V> map,
+            final boolean singleFlight) {
         this.loadValue = loadValue;
         this.map = map;
+        if (singleFlight) {
+            this.singleFlight = new SingleFlightLoader<K, V>();
+        } else {
+            this.singleFlight = null;
+        }
     }
 
     @Override
     public V get(final K key) {
         V v = internalGet(key);
         if (v == null) {
+            if (singleFlight != null) {
+                return singleFlight.load(key, loadAndPut);
+            }
             writeLock.lock();
             try {
                 v = loadValue.apply(key);
@@ -56,6 +107,7 @@ public abstract class AReadWriteLockLoadingCache<K, V> implements ILoadingCache<
         writeLock.lock();
         try {
             map.clear();
+            clearCount.incrementAndGet();
         } finally {
             writeLock.unlock();
         }
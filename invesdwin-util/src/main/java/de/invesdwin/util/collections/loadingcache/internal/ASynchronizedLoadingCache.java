@@ -18,12 +18,65 @@ public abstract class ASynchronizedLoadingCache<K, V> implements ILoadingCache<K
     @GuardedBy("this")
     protected final Map<K, V> map;
     private final Function<K, V> loadValue;
+    /**
+     * null when loads of the same key are allowed to run concurrently
+     */
+    private final SingleFlightLoader<K, V> singleFlight;
+    /**
+     * incremented on clear so that single flight loads which started before do not put stale values afterwards
+     */
+    @GuardedBy("this")
+    private long clearCount;
+    private final Function<K, V> loadAndPut = new Function<K, V>() {
+        @Override
+        public V apply(final K key) {
+            final long clearCountBefore;
+            synchronized (ASynchronizedLoadingCache.this) {
+                final V existing = map.get(key);
+                if (existing != null) {
+                    //another flight finished just before this one started
+                    return existing;
+                }
+                clearCountBefore = clearCount;
+            }
+            //bad idea to synchronize in apply, this might cause deadlocks when threads are used inside of it
+            V v = loadValue.apply(key);
+            if (v != null) {
+                synchronized (ASynchronizedLoadingCache.this) {
+                    final V oldV = map.get(key);
+                    if (oldV != null) {
+                        v = oldV;
+                    } else if (clearCount == clearCountBefore) {
+                        map.put(key, v);
+                    }
+                }
+            }
+            return v;
+        }
+    };
 
     public ASynchronizedLoadingCache(final Function<K, V> loadValue, final Map<K, V> map) {
+        this(loadValue, map, false);
+    }
+
+    /**
+     * With singleFlight, concurrent requests for the same key share one load. This must not be used when the loader
+     * acquires locks that are also held by other threads while they access this cache, since a thread waiting for a
+     * load would then block the thread that does the load.
+     */
+    public ASynchronizedLoadingCache(final Function<K, V> loadValue, final Map<K, V> map, final boolean singleFlight) {
         this.loadValue = loadValue;
         this.map = map;
+        if (singleFlight) {
+            this.singleFlight = new SingleFlightLoader<K, V>();
+        } else {
+            this.singleFlight = null;
+        }
     }
 
+    /**
+     * Loads happen outside of the lock.
+     */
     @Override
     public V get(final K key) {
         V v;
@@ -31,6 +84,9 @@ public abstract class ASynchronizedLoadingCache<K, V> implements ILoadingCache<K
             v = map.get(key);
         }
         if (v == null) {
+            if (singleFlight != null) {
+                return singleFlight.load(key, loadAndPut);
+            }
             //bad idea to synchronize in apply, this might cause deadlocks when threads are used inside of it
             v = loadValue.apply(key);
             if (v != null) {
@@ -50,6 +106,7 @@ public abstract class ASynchronizedLoadingCache<K, V> implements ILoadingCache<K
     @Override
     public synchronized void clear() {
         map.clear();
+        clearCount++;
     }
 
     @Override
@@ -0,0 +1,344 @@
+package de.invesdwin.util.collections.loadingcache.internal;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A bounded map with an approximated LRU policy. Entries are kept in a linked list by insertion order and a hit only
+ * marks the entry as referenced instead of relinking it. When an entry needs to be evicted, referenced entries at the
+ * head get a second chance by being moved to the tail with their mark cleared (CLOCK algorithm). Thus the relinking
+ * cost is only paid on eviction and get() stays a plain hash lookup.
+ *
+ * The hash table is sized for the maximum size upfront and gets rehashed when the maximum size is changed, so that
+ * bucket chains stay short after growing or shrinking the map.
+ */
+@NotThreadSafe
+public class BoundedLinkedHashMap<K, V> extends AbstractMap<K, V> {
+
+    private static final float LOAD_FACTOR = 0.75F;
+    private static final int MINIMUM_CAPACITY = 16;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private final Node<K, V> header = newSentinel();
+    private Node<K, V>[] table;
+    private int size;
+    private int maximumSize;
+    private int modCount;
+    private Set<Entry<K, V>> entrySet;
+
+    public BoundedLinkedHashMap(final int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize should be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.table = newTable(tableCapacityFor(maximumSize));
+    }
+
+    public int maxSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Can be used to grow and shrink the map, when shrinking the least recently used entries are evicted.
+     */
+    public void setMaximumSize(final int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize should be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        while (size > maximumSize) {
+            evictOne();
+        }
+        final int capacity = tableCapacityFor(maximumSize);
+        if (capacity != table.length) {
+            rehash(capacity);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return getNode(key) != null;
+    }
+
+    @Override
+    public V get(final Object key) {
+        final Node<K, V> node = getNode(key);
+        if (node == null) {
+            return null;
+        }
+        node.referenced = true;
+        return node.value;
+    }
+
+    @Override
+    public V put(final K key, final V value) {
+        final int hash = hash(key);
+        final int index = hash & (table.length - 1);
+        for (Node<K, V> node = table[index]; node != null; node = node.nextInBucket) {
+            if (node.hash == hash && equal(key, node.key)) {
+                final V oldValue = node.value;
+                node.value = value;
+                node.referenced = true;
+                return oldValue;
+            }
+        }
+        if (size >= maximumSize) {
+            evictOne();
+        }
+        final Node<K, V> node = new Node<K, V>(hash, key, value);
+        node.nextInBucket = table[index];
+        table[index] = node;
+        linkLast(node);
+        size++;
+        modCount++;
+        return null;
+    }
+
+    @Override
+    public V remove(final Object key) {
+        final Node<K, V> node = removeNode(key);
+        if (node == null) {
+            return null;
+        }
+        return node.value;
+    }
+
+    @Override
+    public void clear() {
+        if (size > 0) {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = null;
+            }
+            //help gc by breaking the links
+            Node<K, V> node = header.after;
+            while (node != header) {
+                final Node<K, V> next = node.after;
+                node.before = null;
+                node.after = null;
+                node.nextInBucket = null;
+                node = next;
+            }
+            header.before = header;
+            header.after = header;
+            size = 0;
+            modCount++;
+        }
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private Node<K, V> getNode(final Object key) {
+        final int hash = hash(key);
+        for (Node<K, V> node = table[hash & (table.length - 1)]; node != null; node = node.nextInBucket) {
+            if (node.hash == hash && equal(key, node.key)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private Node<K, V> removeNode(final Object key) {
+        final int hash = hash(key);
+        final int index = hash & (table.length - 1);
+        Node<K, V> prev = null;
+        for (Node<K, V> node = table[index]; node != null; node = node.nextInBucket) {
+            if (node.hash == hash && equal(key, node.key)) {
+                if (prev == null) {
+                    table[index] = node.nextInBucket;
+                } else {
+                    prev.nextInBucket = node.nextInBucket;
+                }
+                node.nextInBucket = null;
+                unlink(node);
+                size--;
+                modCount++;
+                return node;
+            }
+            prev = node;
+        }
+        return null;
+    }
+
+    private void evictOne() {
+        Node<K, V> candidate = header.after;
+        while (candidate.referenced) {
+            //second chance
+            candidate.referenced = false;
+            unlink(candidate);
+            linkLast(candidate);
+            candidate = header.after;
+        }
+        removeNode(candidate.key);
+    }
+
+    private void rehash(final int capacity) {
+        final Node<K, V>[] newTable = newTable(capacity);
+        final int mask = capacity - 1;
+        //iterate in list order so that bucket chains keep a stable order
+        for (Node<K, V> node = header.after; node != header; node = node.after) {
+            final int index = node.hash & mask;
+            node.nextInBucket = newTable[index];
+            newTable[index] = node;
+        }
+        table = newTable;
+    }
+
+    private void linkLast(final Node<K, V> node) {
+        final Node<K, V> last = header.before;
+        node.before = last;
+        node.after = header;
+        last.after = node;
+        header.before = node;
+    }
+
+    private static <K, V> void unlink(final Node<K, V> node) {
+        node.before.after = node.after;
+        node.after.before = node.before;
+        node.before = null;
+        node.after = null;
+    }
+
+    private static int tableCapacityFor(final int maximumSize) {
+        final long required = (long) Math.ceil(maximumSize / LOAD_FACTOR);
+        if (required >= MAXIMUM_CAPACITY) {
+            return MAXIMUM_CAPACITY;
+        }
+        int capacity = MINIMUM_CAPACITY;
+        while (capacity < required) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Node<K, V>[] newTable(final int capacity) {
+        return new Node[capacity];
+    }
+
+    private static int hash(final Object key) {
+        if (key == null) {
+            return 0;
+        }
+        final int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean equal(final Object key1, final Object key2) {
+        return key1 == key2 || (key1 != null && key1.equals(key2));
+    }
+
+    private static <K, V> Node<K, V> newSentinel() {
+        final Node<K, V> sentinel = new Node<K, V>(0, null, null);
+        sentinel.before = sentinel;
+        sentinel.after = sentinel;
+        return sentinel;
+    }
+
+    private static final class Node<K, V> implements Entry<K, V> {
+        private final int hash;
+        private final K key;
+        private V value;
+        private boolean referenced;
+        private Node<K, V> nextInBucket;
+        private Node<K, V> before;
+        private Node<K, V> after;
+
+        private Node(final int hash, final K key, final V value) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(final V value) {
+            final V oldValue = this.value;
+            this.value = value;
+            return oldValue;
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<K, V>> {
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new Iterator<Entry<K, V>>() {
+                private Node<K, V> next = header.after;
+                private Node<K, V> current;
+                private int expectedModCount = modCount;
+
+                @Override
+                public boolean hasNext() {
+                    return next != header;
+                }
+
+                @Override
+                public Entry<K, V> next() {
+                    if (modCount != expectedModCount) {
+                        throw new ConcurrentModificationException();
+                    }
+                    if (next == header) {
+                        throw new NoSuchElementException();
+                    }
+                    current = next;
+                    next = next.after;
+                    return current;
+                }
+
+                @Override
+                public void remove() {
+                    if (current == null) {
+                        throw new IllegalStateException();
+                    }
+                    if (modCount != expectedModCount) {
+                        throw new ConcurrentModificationException();
+                    }
+                    removeNode(current.key);
+                    current = null;
+                    expectedModCount = modCount;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            BoundedLinkedHashMap.this.clear();
+        }
+    }
+
+}
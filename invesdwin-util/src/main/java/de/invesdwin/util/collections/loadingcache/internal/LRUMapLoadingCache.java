@@ -1,29 +1,24 @@
 package de.invesdwin.util.collections.loadingcache.internal;
 
-import java.lang.reflect.Field;
 import java.util.function.Function;
 
 import javax.annotation.concurrent.ThreadSafe;
 
-import org.apache.commons.collections.map.LRUMap;
-
-import de.invesdwin.util.lang.Reflections;
-
 @ThreadSafe
 public class LRUMapLoadingCache<K, V> extends ASynchronizedLoadingCache<K, V> {
 
-    @SuppressWarnings("unchecked")
     public LRUMapLoadingCache(final Function<K, V> loadValue, final Integer maximumSize) {
-        //apache commons LRUMap is faster than adjusted LinkedHashMap!
-        super(loadValue, new LRUMap(maximumSize));
+        this(loadValue, maximumSize, false);
+    }
+
+    public LRUMapLoadingCache(final Function<K, V> loadValue, final Integer maximumSize, final boolean singleFlight) {
+        super(loadValue, new BoundedLinkedHashMap<K, V>(maximumSize), singleFlight);
     }
 
-    public void increaseMaximumSize(final int maximumSize) {
-        final LRUMap lru = (LRUMap) map;
+    public synchronized void increaseMaximumSize(final int maximumSize) {
+        final BoundedLinkedHashMap<K, V> lru = (BoundedLinkedHashMap<K, V>) map;
         if (lru.maxSize() < maximumSize) {
-            final Field field = Reflections.findField(LRUMap.class, "maxSize");
-            Reflections.makeAccessible(field);
-            Reflections.setField(field, map, maximumSize);
+            lru.setMaximumSize(maximumSize);
         } else {
             throw new IllegalArgumentException(
                     "maximumSize [" + maximumSize + "] needs to be greater than current [" + lru.maxSize() + "]");
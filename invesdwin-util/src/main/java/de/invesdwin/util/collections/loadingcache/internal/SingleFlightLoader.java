@@ -0,0 +1,92 @@
+package de.invesdwin.util.collections.loadingcache.internal;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Makes sure that concurrent loads of the same key are only executed once, all other threads wait for the result of
+ * the thread that started the load. Loads of different keys do not block each other. A thread that loads the same key
+ * recursively inside its own load does not wait for itself, instead the recursive load is executed directly.
+ */
+@ThreadSafe
+public class SingleFlightLoader<K, V> {
+
+    private final ConcurrentMap<K, Flight<V>> flights = new ConcurrentHashMap<K, Flight<V>>();
+
+    public V load(final K key, final Function<K, V> loader) {
+        if (key == null) {
+            return loader.apply(key);
+        }
+        final Flight<V> flight = new Flight<V>();
+        final Flight<V> existing = flights.putIfAbsent(key, flight);
+        if (existing != null) {
+            if (existing.leader == Thread.currentThread()) {
+                return loader.apply(key);
+            }
+            return existing.await();
+        }
+        try {
+            final V value = loader.apply(key);
+            flight.complete(value, null);
+            return value;
+        } catch (final RuntimeException e) {
+            flight.complete(null, e);
+            throw e;
+        } catch (final Error e) {
+            flight.complete(null, e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    public int getInflightCount() {
+        return flights.size();
+    }
+
+    private static final class Flight<V> {
+        private final Thread leader = Thread.currentThread();
+        @GuardedBy("this")
+        private boolean done;
+        @GuardedBy("this")
+        private V value;
+        @GuardedBy("this")
+        private Throwable error;
+
+        private synchronized void complete(final V value, final Throwable error) {
+            this.value = value;
+            this.error = error;
+            this.done = true;
+            notifyAll();
+        }
+
+        private synchronized V await() {
+            boolean interrupted = false;
+            try {
+                while (!done) {
+                    try {
+                        wait();
+                    } catch (final InterruptedException e) {
+                        //the result will arrive anyway, remember the interrupt for the caller
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (error instanceof RuntimeException) {
+                throw (RuntimeException) error;
+            } else if (error instanceof Error) {
+                throw (Error) error;
+            }
+            return value;
+        }
+    }
+
+}
@@ -0,0 +1,29 @@
+package de.invesdwin.util.collections.loadingcache.internal;
+
+import java.util.function.Function;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+@ThreadSafe
+public class TinyLfuLoadingCache<K, V> extends ASynchronizedLoadingCache<K, V> {
+
+    public TinyLfuLoadingCache(final Function<K, V> loadValue, final Integer maximumSize) {
+        this(loadValue, maximumSize, false);
+    }
+
+    public TinyLfuLoadingCache(final Function<K, V> loadValue, final Integer maximumSize,
+            final boolean singleFlight) {
+        super(loadValue, new TinyLfuMap<K, V>(maximumSize), singleFlight);
+    }
+
+    public synchronized void increaseMaximumSize(final int maximumSize) {
+        final TinyLfuMap<K, V> tinyLfu = (TinyLfuMap<K, V>) map;
+        if (tinyLfu.maxSize() < maximumSize) {
+            tinyLfu.setMaximumSize(maximumSize);
+        } else {
+            throw new IllegalArgumentException(
+                    "maximumSize [" + maximumSize + "] needs to be greater than current [" + tinyLfu.maxSize() + "]");
+        }
+    }
+
+}
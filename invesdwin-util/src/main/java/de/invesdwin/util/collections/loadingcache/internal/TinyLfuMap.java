@@ -0,0 +1,448 @@
+package de.invesdwin.util.collections.loadingcache.internal;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A bounded map that uses the W-TinyLFU policy: new entries go into a small LRU window, when they get evicted from
+ * there they are only admitted into the main segmented LRU if they were accessed more frequently than the entry that
+ * would have to make room for them. The frequencies are tracked approximately in a count-min sketch that gets aged
+ * periodically. Thus a long scan over entries that are accessed only once will not flush the working set, as would be
+ * the case with a plain LRU map.
+ */
+@NotThreadSafe
+public class TinyLfuMap<K, V> extends AbstractMap<K, V> {
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+    private static final double WINDOW_PERCENTAGE = 0.01D;
+    private static final double PROTECTED_PERCENTAGE = 0.8D;
+
+    private final Map<K, Node<K, V>> data;
+    private final Node<K, V> window = newSentinel();
+    private final Node<K, V> probation = newSentinel();
+    private final Node<K, V> protectedSegment = newSentinel();
+    private int windowSize;
+    private int protectedSize;
+    private int maximumSize;
+    private int maximumWindowSize;
+    private int maximumProtectedSize;
+    private FrequencySketch sketch;
+    private Set<Entry<K, V>> entrySet;
+
+    public TinyLfuMap(final int maximumSize) {
+        this.data = new HashMap<K, Node<K, V>>(Math.max(16, (int) (maximumSize / 0.75F) + 1));
+        setMaximumSize(maximumSize);
+    }
+
+    public int maxSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Can be used to grow and shrink the map, when shrinking the entries with the least value are evicted. The
+     * frequencies that were recorded so far are kept.
+     */
+    public void setMaximumSize(final int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize should be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.maximumWindowSize = Math.max(1, (int) (maximumSize * WINDOW_PERCENTAGE));
+        final int maximumMainSize = Math.max(0, maximumSize - maximumWindowSize);
+        this.maximumProtectedSize = (int) (maximumMainSize * PROTECTED_PERCENTAGE);
+        if (sketch == null) {
+            this.sketch = new FrequencySketch(maximumSize);
+        } else {
+            sketch.setMaximumSize(maximumSize);
+        }
+        while (protectedSize > maximumProtectedSize) {
+            demoteProtected();
+        }
+        while (data.size() > maximumSize) {
+            evictOne();
+        }
+        while (windowSize > maximumWindowSize) {
+            //make the window fit again by moving entries into the main space
+            final Node<K, V> candidate = window.next;
+            unlink(candidate);
+            windowSize--;
+            candidate.segment = PROBATION;
+            linkLast(probation, candidate);
+        }
+    }
+
+    /**
+     * The estimated number of recent accesses to the given key.
+     */
+    int frequency(final Object key) {
+        return sketch.frequency(key);
+    }
+
+    @Override
+    public int size() {
+        return data.size();
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return data.containsKey(key);
+    }
+
+    @Override
+    public V get(final Object key) {
+        final Node<K, V> node = data.get(key);
+        sketch.increment(key);
+        if (node == null) {
+            return null;
+        }
+        onHit(node);
+        return node.value;
+    }
+
+    @Override
+    public V put(final K key, final V value) {
+        final Node<K, V> existing = data.get(key);
+        if (existing != null) {
+            final V oldValue = existing.value;
+            existing.value = value;
+            onHit(existing);
+            return oldValue;
+        }
+        sketch.increment(key);
+        final Node<K, V> node = new Node<K, V>(key, value);
+        node.segment = WINDOW;
+        data.put(key, node);
+        linkLast(window, node);
+        windowSize++;
+        if (windowSize > maximumWindowSize) {
+            evictFromWindow();
+        }
+        return null;
+    }
+
+    @Override
+    public V remove(final Object key) {
+        final Node<K, V> node = data.remove(key);
+        if (node == null) {
+            return null;
+        }
+        unlinkFromSegment(node);
+        return node.value;
+    }
+
+    @Override
+    public void clear() {
+        data.clear();
+        window.prev = window;
+        window.next = window;
+        probation.prev = probation;
+        probation.next = probation;
+        protectedSegment.prev = protectedSegment;
+        protectedSegment.next = protectedSegment;
+        windowSize = 0;
+        protectedSize = 0;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private void onHit(final Node<K, V> node) {
+        switch (node.segment) {
+        case WINDOW:
+            moveToLast(window, node);
+            break;
+        case PROBATION:
+            unlink(node);
+            node.segment = PROTECTED;
+            linkLast(protectedSegment, node);
+            protectedSize++;
+            if (protectedSize > maximumProtectedSize) {
+                demoteProtected();
+            }
+            break;
+        case PROTECTED:
+            moveToLast(protectedSegment, node);
+            break;
+        default:
+            throw new IllegalStateException("Unknown segment: " + node.segment);
+        }
+    }
+
+    private void demoteProtected() {
+        final Node<K, V> demoted = protectedSegment.next;
+        unlink(demoted);
+        protectedSize--;
+        demoted.segment = PROBATION;
+        linkLast(probation, demoted);
+    }
+
+    private void evictFromWindow() {
+        final Node<K, V> candidate = window.next;
+        unlink(candidate);
+        windowSize--;
+        if (data.size() <= maximumSize) {
+            //there is still room in the main space
+            candidate.segment = PROBATION;
+            linkLast(probation, candidate);
+            return;
+        }
+        final Node<K, V> victim;
+        if (probation.next != probation) {
+            victim = probation.next;
+        } else if (protectedSegment.next != protectedSegment) {
+            victim = protectedSegment.next;
+        } else {
+            victim = null;
+        }
+        if (victim != null && sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+            data.remove(victim.key);
+            unlinkFromSegment(victim);
+            candidate.segment = PROBATION;
+            linkLast(probation, candidate);
+        } else {
+            data.remove(candidate.key);
+        }
+    }
+
+    private void evictOne() {
+        final Node<K, V> victim;
+        if (probation.next != probation) {
+            victim = probation.next;
+        } else if (protectedSegment.next != protectedSegment) {
+            victim = protectedSegment.next;
+        } else {
+            victim = window.next;
+        }
+        data.remove(victim.key);
+        unlinkFromSegment(victim);
+    }
+
+    private void unlinkFromSegment(final Node<K, V> node) {
+        unlink(node);
+        if (node.segment == WINDOW) {
+            windowSize--;
+        } else if (node.segment == PROTECTED) {
+            protectedSize--;
+        }
+    }
+
+    private static <K, V> Node<K, V> newSentinel() {
+        final Node<K, V> sentinel = new Node<K, V>(null, null);
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+        return sentinel;
+    }
+
+    private static <K, V> void linkLast(final Node<K, V> sentinel, final Node<K, V> node) {
+        final Node<K, V> last = sentinel.prev;
+        node.prev = last;
+        node.next = sentinel;
+        last.next = node;
+        sentinel.prev = node;
+    }
+
+    private static <K, V> void unlink(final Node<K, V> node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+    }
+
+    private static <K, V> void moveToLast(final Node<K, V> sentinel, final Node<K, V> node) {
+        if (sentinel.prev != node) {
+            unlink(node);
+            linkLast(sentinel, node);
+        }
+    }
+
+    private static final class Node<K, V> implements Entry<K, V> {
+        private final K key;
+        private V value;
+        private int segment;
+        private Node<K, V> prev;
+        private Node<K, V> next;
+
+        private Node(final K key, final V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(final V value) {
+            final V oldValue = this.value;
+            this.value = value;
+            return oldValue;
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<K, V>> {
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            final Iterator<Node<K, V>> delegate = data.values().iterator();
+            return new Iterator<Entry<K, V>>() {
+                private Node<K, V> current;
+
+                @Override
+                public boolean hasNext() {
+                    return delegate.hasNext();
+                }
+
+                @Override
+                public Entry<K, V> next() {
+                    current = delegate.next();
+                    return current;
+                }
+
+                @Override
+                public void remove() {
+                    delegate.remove();
+                    unlinkFromSegment(current);
+                    current = null;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return data.size();
+        }
+
+        @Override
+        public void clear() {
+            TinyLfuMap.this.clear();
+        }
+    }
+
+    /**
+     * A count-min sketch with 4 probes and counters that saturate at 15. After a sample of 10 times the maximum size
+     * all counters are halved, so that the frequencies reflect recent history.
+     */
+    private static final class FrequencySketch {
+        private static final int MAX_COUNT = 15;
+        private static final int PROBES = 4;
+        private static final int SAMPLE_MULTIPLIER = 10;
+        private static final int[] SEEDS = { 0x97cb3127, 0xb9b5c5a3, 0x7e5f5f6d, 0xc2b2ae35 };
+
+        private byte[] table;
+        private int mask;
+        private int sampleSize;
+        private int additions;
+
+        private FrequencySketch(final int maximumSize) {
+            final int capacity = newCapacity(maximumSize);
+            this.table = new byte[capacity];
+            this.mask = capacity - 1;
+            this.sampleSize = newSampleSize(maximumSize);
+        }
+
+        /**
+         * The index of a counter is the hash masked by the capacity, thus when the capacity changes the counters can be
+         * repeated (grow) or folded by their maximum (shrink) without losing the frequencies.
+         */
+        private void setMaximumSize(final int maximumSize) {
+            final int capacity = newCapacity(maximumSize);
+            if (capacity != table.length) {
+                final byte[] newTable = new byte[capacity];
+                if (capacity > table.length) {
+                    for (int i = 0; i < capacity; i++) {
+                        newTable[i] = table[i & mask];
+                    }
+                } else {
+                    final int newMask = capacity - 1;
+                    for (int i = 0; i < table.length; i++) {
+                        final int index = i & newMask;
+                        newTable[index] = (byte) Math.max(newTable[index], table[i]);
+                    }
+                }
+                this.table = newTable;
+                this.mask = capacity - 1;
+            }
+            this.sampleSize = newSampleSize(maximumSize);
+            if (additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        private static int newCapacity(final int maximumSize) {
+            return Integer.highestOneBit(Math.max(16, Math.min(1 << 28, maximumSize * 2)) - 1) << 1;
+        }
+
+        private static int newSampleSize(final int maximumSize) {
+            return (int) Math.min(Integer.MAX_VALUE, (long) maximumSize * SAMPLE_MULTIPLIER);
+        }
+
+        private int frequency(final Object key) {
+            final int hash = spread(key);
+            int frequency = MAX_COUNT;
+            for (int i = 0; i < PROBES; i++) {
+                frequency = Math.min(frequency, table[indexOf(hash, i)]);
+            }
+            return frequency;
+        }
+
+        private void increment(final Object key) {
+            final int hash = spread(key);
+            boolean added = false;
+            for (int i = 0; i < PROBES; i++) {
+                final int index = indexOf(hash, i);
+                if (table[index] < MAX_COUNT) {
+                    table[index]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (byte) (table[i] >>> 1);
+            }
+            additions /= 2;
+        }
+
+        private int indexOf(final int hash, final int probe) {
+            int h = (hash ^ SEEDS[probe]) * 0x9e3779b9;
+            h ^= h >>> 16;
+            return h & mask;
+        }
+
+        private static int spread(final Object key) {
+            int h = key == null ? 0 : key.hashCode();
+            h ^= h >>> 16;
+            h *= 0x85ebca6b;
+            h ^= h >>> 13;
+            return h;
+        }
+    }
+
+}
@@ -9,7 +9,11 @@ import javax.annotation.concurrent.ThreadSafe;
 public class UnlimitedCachingLoadingCache<K, V> extends ASynchronizedLoadingCache<K, V> {
 
     public UnlimitedCachingLoadingCache(final Function<K, V> loadValue) {
-        super(loadValue, new HashMap<K, V>());
+        this(loadValue, false);
+    }
+
+    public UnlimitedCachingLoadingCache(final Function<K, V> loadValue, final boolean singleFlight) {
+        super(loadValue, new HashMap<K, V>(), singleFlight);
     }
 
 }
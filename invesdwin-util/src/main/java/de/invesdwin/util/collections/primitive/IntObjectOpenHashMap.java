@@ -0,0 +1,223 @@
+package de.invesdwin.util.collections.primitive;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Set;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import de.invesdwin.util.error.FastNoSuchElementException;
+import de.invesdwin.util.lang.Objects;
+
+/**
+ * Open addressing map from primitive int keys to objects (e.g. ids). Keys and values are kept in dense
+ * arrays so that iteration via keyAt/valueAt is as fast as iterating over an array and does not allocate. Lookups
+ * neither box the key nor allocate nodes.
+ * 
+ * The java.util.Map methods are also implemented (with boxing) so that this can be used as a delegate for ADelegateMap
+ * and its subclasses.
+ */
+@NotThreadSafe
+public class IntObjectOpenHashMap<V> extends AbstractMap<Integer, V> {
+
+    private final IntOpenHashIndex index;
+    private Object[] values;
+    private final Set<Entry<Integer, V>> entrySet = new AbstractSet<Entry<Integer, V>>() {
+        @Override
+        public Iterator<Entry<Integer, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return IntObjectOpenHashMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            IntObjectOpenHashMap.this.clear();
+        }
+    };
+
+    public IntObjectOpenHashMap() {
+        this(IntOpenHashIndex.DEFAULT_EXPECTED_SIZE);
+    }
+
+    public IntObjectOpenHashMap(final int expectedSize) {
+        this.index = new IntOpenHashIndex(expectedSize);
+        this.values = new Object[index.capacity()];
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return index.size() == 0;
+    }
+
+    public boolean containsKey(final int key) {
+        return index.indexOf(key) >= 0;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return key instanceof Integer && containsKey(((Integer) key).intValue());
+    }
+
+    @Override
+    public boolean containsValue(final Object value) {
+        final int size = index.size();
+        for (int i = 0; i < size; i++) {
+            if (Objects.equals(values[i], value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(final int key) {
+        final int position = index.indexOf(key);
+        if (position < 0) {
+            return null;
+        }
+        return (V) values[position];
+    }
+
+    @Override
+    public V get(final Object key) {
+        if (key instanceof Integer) {
+            return get(((Integer) key).intValue());
+        } else {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(final int key, final V value) {
+        final int position = index.indexOf(key);
+        if (position >= 0) {
+            final V prev = (V) values[position];
+            values[position] = value;
+            return prev;
+        }
+        final int newPosition = index.append(key);
+        if (values.length < index.capacity()) {
+            values = Arrays.copyOf(values, index.capacity());
+        }
+        values[newPosition] = value;
+        return null;
+    }
+
+    @Override
+    public V put(final Integer key, final V value) {
+        return put(key.intValue(), value);
+    }
+
+    public V remove(final int key) {
+        final int position = index.indexOf(key);
+        if (position < 0) {
+            return null;
+        }
+        return removeAt(position);
+    }
+
+    @Override
+    public V remove(final Object key) {
+        if (key instanceof Integer) {
+            return remove(((Integer) key).intValue());
+        } else {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V removeAt(final int position) {
+        final V removed = (V) values[position];
+        final int moved = index.removeAt(position);
+        values[position] = values[moved];
+        values[moved] = null;
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, 0, index.size(), null);
+        index.clear();
+    }
+
+    /**
+     * Can be used for garbage free iteration in a loop from 0 to size. The order is not stable across removals.
+     */
+    public int keyAt(final int position) {
+        return index.keyAt(position);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V valueAt(final int position) {
+        return (V) values[position];
+    }
+
+    public int[] toKeyArray() {
+        return index.toKeyArray();
+    }
+
+    @Override
+    public Set<Entry<Integer, V>> entrySet() {
+        return entrySet;
+    }
+
+    private final class EntryIterator implements Iterator<Entry<Integer, V>> {
+
+        private int next = 0;
+        private int last = -1;
+
+        @Override
+        public boolean hasNext() {
+            return next < index.size();
+        }
+
+        @Override
+        public Entry<Integer, V> next() {
+            if (!hasNext()) {
+                throw new FastNoSuchElementException("IntObjectOpenHashMap: hasNext returned false");
+            }
+            last = next++;
+            return new WriteThroughEntry(index.keyAt(last), valueAt(last));
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException("next() has to be called before remove()");
+            }
+            removeAt(last);
+            //the last entry got moved into the removed position
+            next = last;
+            last = -1;
+        }
+
+    }
+
+    private final class WriteThroughEntry extends SimpleEntry<Integer, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        private WriteThroughEntry(final int key, final V value) {
+            super(key, value);
+        }
+
+        @Override
+        public V setValue(final V value) {
+            put(getKey(), value);
+            return super.setValue(value);
+        }
+
+    }
+
+}
@@ -0,0 +1,246 @@
+package de.invesdwin.util.collections.primitive;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Set;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import de.invesdwin.util.error.FastNoSuchElementException;
+
+/**
+ * Open addressing map from primitive long keys to primitive double values (e.g. prices by millis). Neither keys nor
+ * values get boxed when using the primitive methods. Missing values are signaled by Double.NaN, use containsKey if NaN
+ * is a valid value.
+ * 
+ * The java.util.Map methods are also implemented (with boxing) so that this can be used as a delegate for ADelegateMap
+ * and its subclasses.
+ */
+@NotThreadSafe
+public class LongDoubleOpenHashMap extends AbstractMap<Long, Double> {
+
+    public static final double MISSING_VALUE = Double.NaN;
+
+    private final LongOpenHashIndex index;
+    private double[] values;
+    private final Set<Entry<Long, Double>> entrySet = new AbstractSet<Entry<Long, Double>>() {
+        @Override
+        public Iterator<Entry<Long, Double>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return LongDoubleOpenHashMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            LongDoubleOpenHashMap.this.clear();
+        }
+    };
+
+    public LongDoubleOpenHashMap() {
+        this(LongOpenHashIndex.DEFAULT_EXPECTED_SIZE);
+    }
+
+    public LongDoubleOpenHashMap(final int expectedSize) {
+        this.index = new LongOpenHashIndex(expectedSize);
+        this.values = new double[index.capacity()];
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return index.size() == 0;
+    }
+
+    public boolean containsKey(final long key) {
+        return index.indexOf(key) >= 0;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return key instanceof Long && containsKey(((Long) key).longValue());
+    }
+
+    public boolean containsValue(final double value) {
+        final int size = index.size();
+        for (int i = 0; i < size; i++) {
+            if (Double.compare(values[i], value) == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean containsValue(final Object value) {
+        return value instanceof Double && containsValue(((Double) value).doubleValue());
+    }
+
+    public double get(final long key) {
+        return getOrDefault(key, MISSING_VALUE);
+    }
+
+    public double getOrDefault(final long key, final double defaultValue) {
+        final int position = index.indexOf(key);
+        if (position < 0) {
+            return defaultValue;
+        }
+        return values[position];
+    }
+
+    @Override
+    public Double get(final Object key) {
+        if (key instanceof Long) {
+            final int position = index.indexOf(((Long) key).longValue());
+            if (position >= 0) {
+                return values[position];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the previous value or Double.NaN if none existed.
+     */
+    public double put(final long key, final double value) {
+        final int position = index.indexOf(key);
+        if (position >= 0) {
+            final double prev = values[position];
+            values[position] = value;
+            return prev;
+        }
+        final int newPosition = index.append(key);
+        if (values.length < index.capacity()) {
+            values = Arrays.copyOf(values, index.capacity());
+        }
+        values[newPosition] = value;
+        return MISSING_VALUE;
+    }
+
+    @Override
+    public Double put(final Long key, final Double value) {
+        final boolean existed = containsKey(key.longValue());
+        final double prev = put(key.longValue(), value.doubleValue());
+        if (existed) {
+            return prev;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the removed value or Double.NaN if none existed.
+     */
+    public double remove(final long key) {
+        final int position = index.indexOf(key);
+        if (position < 0) {
+            return MISSING_VALUE;
+        }
+        return removeAt(position);
+    }
+
+    @Override
+    public Double remove(final Object key) {
+        if (key instanceof Long) {
+            final int position = index.indexOf(((Long) key).longValue());
+            if (position >= 0) {
+                return removeAt(position);
+            }
+        }
+        return null;
+    }
+
+    private double removeAt(final int position) {
+        final double removed = values[position];
+        final int moved = index.removeAt(position);
+        values[position] = values[moved];
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        index.clear();
+    }
+
+    /**
+     * Can be used for garbage free iteration in a loop from 0 to size. The order is not stable across removals.
+     */
+    public long keyAt(final int position) {
+        return index.keyAt(position);
+    }
+
+    public double valueAt(final int position) {
+        return values[position];
+    }
+
+    public long[] toKeyArray() {
+        return index.toKeyArray();
+    }
+
+    public double[] toValueArray() {
+        return Arrays.copyOf(values, index.size());
+    }
+
+    @Override
+    public Set<Entry<Long, Double>> entrySet() {
+        return entrySet;
+    }
+
+    private final class EntryIterator implements Iterator<Entry<Long, Double>> {
+
+        private int next = 0;
+        private int last = -1;
+
+        @Override
+        public boolean hasNext() {
+            return next < index.size();
+        }
+
+        @Override
+        public Entry<Long, Double> next() {
+            if (!hasNext()) {
+                throw new FastNoSuchElementException("LongDoubleOpenHashMap: hasNext returned false");
+            }
+            last = next++;
+            return new WriteThroughEntry(index.keyAt(last), values[last]);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException("next() has to be called before remove()");
+            }
+            removeAt(last);
+            //the last entry got moved into the removed position
+            next = last;
+            last = -1;
+        }
+
+    }
+
+    private final class WriteThroughEntry extends SimpleEntry<Long, Double> {
+
+        private static final long serialVersionUID = 1L;
+
+        private WriteThroughEntry(final long key, final double value) {
+            super(key, value);
+        }
+
+        @Override
+        public Double setValue(final Double value) {
+            put(getKey().longValue(), value.doubleValue());
+            return super.setValue(value);
+        }
+
+    }
+
+}
@@ -0,0 +1,169 @@
+package de.invesdwin.util.collections.primitive;
+
+import java.util.Arrays;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Open addressing hash index with linear probing over a dense array of keys. The hash table only stores positions into
+ * the dense array, so iteration over the keys (and the values kept in parallel arrays by the owner) is a plain array
+ * scan without any node allocation.
+ * 
+ * Removals use backward shift deletion (no tombstones) and move the last dense entry into the freed position. Thus the
+ * owner has to move its value from the returned position as well.
+ */
+@NotThreadSafe
+final class LongOpenHashIndex {
+
+    static final int DEFAULT_EXPECTED_SIZE = 16;
+    private static final int MAX_CAPACITY = 1 << 29;
+
+    private long[] keys;
+    //position + 1 of the key inside the dense array, 0 marks a free slot
+    private int[] table;
+    private int mask;
+    private int size;
+
+    LongOpenHashIndex(final int expectedSize) {
+        final int capacity = Math.max(1, expectedSize);
+        this.keys = new long[capacity];
+        this.table = new int[tableSizeFor(capacity)];
+        this.mask = table.length - 1;
+    }
+
+    /**
+     * Keeps the load factor of the table at or below 0.5, which is cheap since only ints are stored there.
+     */
+    private static int tableSizeFor(final int capacity) {
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalStateException("capacity [" + capacity + "] exceeds maximum [" + MAX_CAPACITY + "]");
+        }
+        return Integer.highestOneBit(capacity * 2 - 1) << 1;
+    }
+
+    static int hash(final long key) {
+        final long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return keys.length;
+    }
+
+    long keyAt(final int position) {
+        return keys[position];
+    }
+
+    long[] toKeyArray() {
+        return Arrays.copyOf(keys, size);
+    }
+
+    int indexOf(final long key) {
+        int slot = hash(key) & mask;
+        while (true) {
+            final int position = table[slot];
+            if (position == 0) {
+                return -1;
+            }
+            if (keys[position - 1] == key) {
+                return position - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * The key must not be contained yet. The owner has to grow its value arrays to at least capacity() afterwards.
+     */
+    int append(final long key) {
+        if (size == keys.length) {
+            grow();
+        }
+        final int position = size;
+        keys[position] = key;
+        insertSlot(position);
+        size++;
+        return position;
+    }
+
+    /**
+     * Returns the previous position of the entry that got moved into the given position. This is equal to the given
+     * position when the last entry was removed.
+     */
+    int removeAt(final int position) {
+        deleteSlot(slotOf(position));
+        final int last = size - 1;
+        if (position != last) {
+            table[slotOf(last)] = position + 1;
+            keys[position] = keys[last];
+        }
+        size--;
+        return last;
+    }
+
+    void clear() {
+        if (size > 0) {
+            Arrays.fill(table, 0);
+            size = 0;
+        }
+    }
+
+    private void grow() {
+        final int newCapacity = Math.max(DEFAULT_EXPECTED_SIZE, keys.length * 2);
+        keys = Arrays.copyOf(keys, newCapacity);
+        final int newTableSize = tableSizeFor(newCapacity);
+        if (newTableSize != table.length) {
+            table = new int[newTableSize];
+            mask = newTableSize - 1;
+            for (int position = 0; position < size; position++) {
+                insertSlot(position);
+            }
+        }
+    }
+
+    private void insertSlot(final int position) {
+        int slot = hash(keys[position]) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = position + 1;
+    }
+
+    private int slotOf(final int position) {
+        int slot = hash(keys[position]) & mask;
+        while (table[slot] != position + 1) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void deleteSlot(final int slot) {
+        int hole = slot;
+        int cur = (hole + 1) & mask;
+        while (true) {
+            final int position = table[cur];
+            if (position == 0) {
+                break;
+            }
+            final int ideal = hash(keys[position - 1]) & mask;
+            //only move the entry into the hole if the hole lies on its probe sequence
+            final boolean movable;
+            if (hole <= cur) {
+                movable = ideal <= hole || ideal > cur;
+            } else {
+                movable = ideal <= hole && ideal > cur;
+            }
+            if (movable) {
+                table[hole] = position;
+                hole = cur;
+            }
+            cur = (cur + 1) & mask;
+        }
+        table[hole] = 0;
+    }
+
+}
@@ -0,0 +1,126 @@
+package de.invesdwin.util.collections.primitive;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import de.invesdwin.util.error.FastNoSuchElementException;
+
+/**
+ * Open addressing set of primitive long values (e.g. millis of FDates). The values are kept in a dense array so that
+ * iteration via get(index) is as fast as iterating over an array and does not allocate.
+ * 
+ * The java.util.Set methods are also implemented (with boxing) so that this can be used as a delegate for ADelegateSet
+ * and its subclasses.
+ */
+@NotThreadSafe
+public class LongOpenHashSet extends AbstractSet<Long> {
+
+    private final LongOpenHashIndex index;
+
+    public LongOpenHashSet() {
+        this(LongOpenHashIndex.DEFAULT_EXPECTED_SIZE);
+    }
+
+    public LongOpenHashSet(final int expectedSize) {
+        this.index = new LongOpenHashIndex(expectedSize);
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return index.size() == 0;
+    }
+
+    public boolean contains(final long value) {
+        return index.indexOf(value) >= 0;
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        return o instanceof Long && contains(((Long) o).longValue());
+    }
+
+    public boolean add(final long value) {
+        if (index.indexOf(value) >= 0) {
+            return false;
+        }
+        index.append(value);
+        return true;
+    }
+
+    @Override
+    public boolean add(final Long e) {
+        return add(e.longValue());
+    }
+
+    public boolean remove(final long value) {
+        final int position = index.indexOf(value);
+        if (position < 0) {
+            return false;
+        }
+        index.removeAt(position);
+        return true;
+    }
+
+    @Override
+    public boolean remove(final Object o) {
+        return o instanceof Long && remove(((Long) o).longValue());
+    }
+
+    @Override
+    public void clear() {
+        index.clear();
+    }
+
+    /**
+     * Can be used for garbage free iteration in a loop from 0 to size. The order is not stable across removals.
+     */
+    public long get(final int position) {
+        return index.keyAt(position);
+    }
+
+    public long[] toLongArray() {
+        return index.toKeyArray();
+    }
+
+    @Override
+    public Iterator<Long> iterator() {
+        return new Iterator<Long>() {
+
+            private int next = 0;
+            private int last = -1;
+
+            @Override
+            public boolean hasNext() {
+                return next < index.size();
+            }
+
+            @Override
+            public Long next() {
+                if (!hasNext()) {
+                    throw new FastNoSuchElementException("LongOpenHashSet: hasNext returned false");
+                }
+                last = next++;
+                return index.keyAt(last);
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) {
+                    throw new IllegalStateException("next() has to be called before remove()");
+                }
+                index.removeAt(last);
+                //the last value got moved into the removed position
+                next = last;
+                last = -1;
+            }
+        };
+    }
+
+}
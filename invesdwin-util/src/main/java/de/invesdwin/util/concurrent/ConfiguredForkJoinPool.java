@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ManagedBlocker;
 import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.Future;
 import java.util.concurrent.RunnableFuture;
@@ -12,8 +13,10 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
 import javax.annotation.concurrent.ThreadSafe;
 
+import de.invesdwin.util.error.Throwables;
 import de.invesdwin.util.shutdown.IShutdownHook;
 import de.invesdwin.util.shutdown.ShutdownHookManager;
 
@@ -29,10 +32,25 @@ public class ConfiguredForkJoinPool extends ForkJoinPool {
 
     public ConfiguredForkJoinPool(@Nonnull final String name, final int parallelism, final boolean asyncMode) {
         super(parallelism, new ConfiguredForkJoinWorkerThreadFactory(name), Thread.getDefaultUncaughtExceptionHandler(),
-                false);
+                asyncMode);
         configure();
     }
 
+    /**
+     * Runs the given blocking task (e.g. a historical cache load from a database) so that the pool can spawn a
+     * compensation thread instead of starving while the current worker is blocked. When called from outside of a
+     * ForkJoinPool the task is just invoked directly.
+     */
+    public static <T> T managedBlock(final Callable<T> blockingTask) throws InterruptedException {
+        final CallableManagedBlocker<T> blocker = new CallableManagedBlocker<T>(blockingTask);
+        ForkJoinPool.managedBlock(blocker);
+        return blocker.getResult();
+    }
+
+    public static void managedBlock(final Runnable blockingTask) throws InterruptedException {
+        managedBlock(java.util.concurrent.Executors.callable(blockingTask));
+    }
+
     private void configure() {
         /*
          * All executors should be shutdown on application shutdown.
@@ -166,4 +184,42 @@ public class ConfiguredForkJoinPool extends ForkJoinPool {
         }
     }
 
+    @NotThreadSafe
+    private static final class CallableManagedBlocker<T> implements ManagedBlocker {
+
+        private final Callable<T> delegate;
+        private volatile boolean releasable;
+        private T result;
+
+        private CallableManagedBlocker(final Callable<T> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            if (!releasable) {
+                try {
+                    result = delegate.call();
+                } catch (final InterruptedException e) {
+                    throw e;
+                } catch (final Exception e) {
+                    throw Throwables.propagate(e);
+                } finally {
+                    releasable = true;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return releasable;
+        }
+
+        public T getResult() {
+            return result;
+        }
+
+    }
+
 }
@@ -79,12 +79,26 @@ public final class Executors {
         Executors.cpuThreadPoolCount = cpuThreadPoolCount;
     }
 
+    /**
+     * Uses LIFO scheduling which is suited for divide and conquer tasks that get joined.
+     */
     public static ConfiguredForkJoinPool newForkJoinPool(final String name, final int parallelism) {
         return new ConfiguredForkJoinPool(name, parallelism, false);
     }
 
+    public static ConfiguredForkJoinPool newForkJoinPool(final String name) {
+        return newForkJoinPool(name, getCpuThreadPoolCount());
+    }
+
+    /**
+     * Uses FIFO scheduling which is suited for event-style tasks that are submitted and never joined.
+     */
     public static ConfiguredForkJoinPool newAsyncForkJoinPool(final String name, final int parallelism) {
         return new ConfiguredForkJoinPool(name, parallelism, true);
     }
 
+    public static ConfiguredForkJoinPool newAsyncForkJoinPool(final String name) {
+        return newAsyncForkJoinPool(name, getCpuThreadPoolCount());
+    }
+
 }
@@ -2,20 +2,23 @@ package de.invesdwin.util.concurrent;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.concurrent.Callable;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
 import javax.annotation.concurrent.Immutable;
 
 import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.collections.iterable.ICloseableIterator;
+import de.invesdwin.util.collections.iterable.collection.ListCloseableIterator;
 import de.invesdwin.util.error.Throwables;
-import de.invesdwin.util.time.duration.Duration;
-import de.invesdwin.util.time.fdate.FDate;
-import de.invesdwin.util.time.fdate.FTimeUnit;
 
 @Immutable
 public final class Futures {
@@ -69,30 +72,92 @@ public final class Futures {
      */
     public static void submitAndWaitFailFast(final ExecutorService executor, final List<? extends Runnable> tasks)
             throws InterruptedException {
-        final List<Future<?>> futures = new CopyOnWriteArrayList<Future<?>>();
-
-        FDate lastFailFastCheck = FDate.MIN_DATE;
+        final List<Callable<Object>> callables = new ArrayList<Callable<Object>>(tasks.size());
         for (final Runnable task : tasks) {
-            futures.add(executor.submit(task));
-            if (new Duration(lastFailFastCheck, new FDate()).isGreaterThan(5, FTimeUnit.SECONDS)) {
-                //failfast on exceptions
-                for (final Future<?> future : futures) {
-                    if (future.isDone()) {
-                        futures.remove(future);
-                        try {
-                            Assertions.assertThat(get(future)).isNull();
-                        } catch (final Throwable t) {
-                            for (final Future<?> f : futures) {
-                                f.cancel(true);
-                            }
-                            throw Throwables.propagate(t);
-                        }
-                    }
+            callables.add(java.util.concurrent.Executors.callable(task));
+        }
+        submitAndGetFailFast(executor, callables);
+    }
+
+    /**
+     * Returns the results in the order of the tasks. Completed tasks are signaled via a completion queue instead of
+     * polling the futures, thus the first exception cancels the remaining tasks immediately.
+     */
+    public static <T> List<T> submitAndGetFailFast(final ExecutorService executor,
+            final List<? extends Callable<T>> tasks) throws InterruptedException {
+        return submitAndGetFailFast(executor, new ListCloseableIterator<Callable<T>>(tasks), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Only keeps up to maxConcurrency tasks in flight at once, a new task is only taken from the iterator when a
+     * previous one finished. Returns the results in the order of the tasks and cancels the remaining tasks on the
+     * first exception. The iterator gets closed in any case.
+     */
+    public static <T> List<T> submitAndGetFailFast(final ExecutorService executor,
+            final ICloseableIterator<? extends Callable<T>> tasks, final int maxConcurrency)
+            throws InterruptedException {
+        Assertions.assertThat(maxConcurrency).isGreaterThan(0);
+        final CompletionService<T> completion = new ExecutorCompletionService<T>(executor);
+        final Map<Future<T>, Integer> pendingFutureIndexes = new IdentityHashMap<Future<T>, Integer>();
+        final List<T> results = new ArrayList<T>();
+        boolean success = false;
+        try {
+            while (tasks.hasNext()) {
+                final Callable<T> task;
+                try {
+                    task = tasks.next();
+                } catch (final NoSuchElementException e) {
+                    break;
+                }
+                while (pendingFutureIndexes.size() >= maxConcurrency) {
+                    handleCompleted(completion.take(), pendingFutureIndexes, results);
+                }
+                pendingFutureIndexes.put(completion.submit(task), results.size());
+                results.add(null);
+                //failfast on exceptions of tasks that already finished (e.g. in caller runs executors)
+                Future<T> completed = completion.poll();
+                while (completed != null) {
+                    handleCompleted(completed, pendingFutureIndexes, results);
+                    completed = completion.poll();
+                }
+            }
+            while (!pendingFutureIndexes.isEmpty()) {
+                handleCompleted(completion.take(), pendingFutureIndexes, results);
+            }
+            success = true;
+            return results;
+        } finally {
+            tasks.close();
+            if (!success) {
+                for (final Future<T> future : pendingFutureIndexes.keySet()) {
+                    future.cancel(true);
                 }
-                lastFailFastCheck = new FDate();
             }
         }
-        wait(futures);
+    }
+
+    private static <T> void handleCompleted(final Future<T> completed,
+            final Map<Future<T>, Integer> pendingFutureIndexes, final List<T> results) throws InterruptedException {
+        final Integer index = pendingFutureIndexes.remove(completed);
+        results.set(index, get(completed));
+    }
+
+    /**
+     * Races the tasks against each other and returns the first successful result. All other tasks get cancelled. Only
+     * if all tasks fail, the last exception is thrown.
+     */
+    public static <T> T submitAndGetFirstSuccessful(final ExecutorService executor,
+            final List<? extends Callable<T>> tasks) throws InterruptedException {
+        try {
+            return executor.invokeAny(tasks);
+        } catch (final ExecutionException e) {
+            final InterruptedException iCause = Throwables.getCauseByType(e, InterruptedException.class);
+            if (iCause != null) {
+                throw iCause;
+            } else {
+                throw new RuntimeException(e);
+            }
+        }
     }
 
     public static <T> T submitAndGet(final ExecutorService executor, final Callable<T> task)
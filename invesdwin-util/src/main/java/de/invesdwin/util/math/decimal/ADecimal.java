@@ -48,6 +48,10 @@ public abstract class ADecimal<E extends ADecimal<E>> extends Number implements
 
     public abstract E fromDefaultValue(Decimal value);
 
+    public E fromDefaultValue(final double value) {
+        return fromDefaultValue(new Decimal(value));
+    }
+
     public List<E> fromDefaultValue(final List<Decimal> values) {
         if (values == null) {
             return null;
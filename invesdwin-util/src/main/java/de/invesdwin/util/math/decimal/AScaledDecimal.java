@@ -15,6 +15,15 @@ import de.invesdwin.util.math.decimal.internal.DummyDecimalAggregate;
 import de.invesdwin.util.math.decimal.internal.impl.ADecimalImpl;
 import de.invesdwin.util.math.decimal.scaled.IDecimalScale;
 
+/**
+ * Arithmetic, comparisons and double values are applied on the value in the default scale through the configured
+ * decimal impl, thus they do not need to convert between scales. Conversions to other scales only happen when the value
+ * is requested in that scale (e.g. for formatting).
+ *
+ * The default value is kept as an immutable Decimal instead of a primitive double so that the semantics of the
+ * configured decimal impl (e.g. FixedPointDecimalImplFactory) also apply to scaled decimals. Each operation thus
+ * allocates the resulting impl, its Decimal and the copy, but no delegate impls or values in other scales.
+ */
 @SuppressWarnings({ "rawtypes", "serial" })
 @ThreadSafe
 public abstract class AScaledDecimal<T extends AScaledDecimal<T, S>, S extends IDecimalScale<T, S>> extends ADecimal<T>
@@ -38,6 +47,9 @@ public abstract class AScaledDecimal<T extends AScaledDecimal<T, S>, S extends I
         this.scaledValue = Decimal.nullToZero(value);
         validateScale(scale);
         this.scale = scale;
+        if (defaultScale.equals(scale)) {
+            this.defaultValue = scaledValue;
+        }
     }
 
     protected void validateScale(final S scale) {}
@@ -57,6 +69,10 @@ public abstract class AScaledDecimal<T extends AScaledDecimal<T, S>, S extends I
         return newValueCopy(new Decimal(value), scale);
     }
 
+    /**
+     * Creates a copy with the same scale (and other fields of subclasses) that has the given value in the default
+     * scale.
+     */
     @SuppressWarnings("unchecked")
     @Override
     public final T fromDefaultValue(final Decimal value) {
@@ -73,6 +89,9 @@ public abstract class AScaledDecimal<T extends AScaledDecimal<T, S>, S extends I
         }
     }
 
+    /**
+     * Decimal is immutable, thus a racy lazy initialization only might compute the same value twice.
+     */
     @Override
     public final Decimal getDefaultValue() {
         if (defaultValue == null) {
@@ -81,6 +100,35 @@ public abstract class AScaledDecimal<T extends AScaledDecimal<T, S>, S extends I
         return defaultValue;
     }
 
+    /**
+     * The value in the default scale without rounding.
+     */
+    @Override
+    public final double doubleValueRaw() {
+        return getDefaultValue().doubleValueRaw();
+    }
+
+    @Override
+    public double doubleValue() {
+        return getDefaultValue().doubleValue();
+    }
+
+    @Override
+    public boolean isZero() {
+        if (isZero == null) {
+            isZero = getDefaultValue().isZero();
+        }
+        return isZero;
+    }
+
+    @Override
+    public boolean isPositive() {
+        if (isPositive == null) {
+            isPositive = getDefaultValue().isPositive();
+        }
+        return isPositive;
+    }
+
     public final Decimal getValue(final S scale) {
         if (defaultScale.equals(scale)) {
             return getDefaultValue();
@@ -94,16 +142,20 @@ public abstract class AScaledDecimal<T extends AScaledDecimal<T, S>, S extends I
         } else {
             validateScale(scale);
             if (scaledValue != null) {
-                return scale.convertValue(getGenericThis(), new Decimal(getImpl().getDelegate()), this.scale);
+                return scale.convertValue(getGenericThis(), scaledValue, this.scale);
             } else {
-                return scale.convertValue(getGenericThis(), defaultValue, defaultScale);
+                return scale.convertValue(getGenericThis(), getDefaultValue(), defaultScale);
             }
         }
     }
 
     private Decimal getScaledValue() {
         if (scaledValue == null) {
-            scaledValue = scale.convertValue(getGenericThis(), defaultValue, this.defaultScale);
+            if (defaultScale.equals(scale)) {
+                scaledValue = getDefaultValue();
+            } else {
+                scaledValue = scale.convertValue(getGenericThis(), getDefaultValue(), this.defaultScale);
+            }
         }
         return scaledValue;
     }
@@ -123,6 +175,11 @@ public abstract class AScaledDecimal<T extends AScaledDecimal<T, S>, S extends I
         }
     }
 
+    @Override
+    public int compareTo(final Object other) {
+        return getDefaultValue().compareTo(getComparableOther(other));
+    }
+
     public final S getScale() {
         return scale;
     }
@@ -167,29 +224,24 @@ public abstract class AScaledDecimal<T extends AScaledDecimal<T, S>, S extends I
         return newValueCopy(getValue(scale), scale);
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public T subtract(final ADecimal<T> subtrahend) {
         if (subtrahend == null) {
             return getGenericThis();
         }
-        final ADecimal<?> defaultScaledSubtrahend = maybeGetDefaultScaledNumber(subtrahend);
-        final ADecimalImpl newDefault = getDefaultValue().getImpl().subtract(defaultScaledSubtrahend);
+        final ADecimalImpl newDefault = getDefaultValue().getImpl().subtract(maybeGetDefaultScaledNumber(subtrahend));
         return fromDefaultValue(new Decimal(newDefault));
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public T add(final ADecimal<T> augend) {
         if (augend == null) {
             return getGenericThis();
         }
-        final ADecimal<?> defaultScaledAugend = maybeGetDefaultScaledNumber(augend);
-        final ADecimalImpl newDefault = getDefaultValue().getImpl().add(defaultScaledAugend);
+        final ADecimalImpl newDefault = getDefaultValue().getImpl().add(maybeGetDefaultScaledNumber(augend));
         return fromDefaultValue(new Decimal(newDefault));
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public T multiply(final ADecimal<T> multiplicant) {
         if (isZero()) {
@@ -197,13 +249,24 @@ public abstract class AScaledDecimal<T extends AScaledDecimal<T, S>, S extends I
         } else if (multiplicant == null) {
             return multiply(0);
         } else {
-            final ADecimal<?> defaultScaledMultiplicant = maybeGetDefaultScaledNumber(multiplicant);
-            final ADecimalImpl newDefault = getDefaultValue().getImpl().multiply(defaultScaledMultiplicant);
+            final ADecimalImpl newDefault = getDefaultValue().getImpl()
+                    .multiply(maybeGetDefaultScaledNumber(multiplicant));
             return fromDefaultValue(new Decimal(newDefault));
         }
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Scales only convert proportionally, thus this can be applied on the value in the default scale.
+     */
+    @Override
+    public T multiply(final Number multiplicant) {
+        if (isZero() || multiplicant == null || multiplicant instanceof AScaledDecimal) {
+            return super.multiply(multiplicant);
+        } else {
+            return fromDefaultValue(new Decimal(getDefaultValue().getImpl().multiply(multiplicant)));
+        }
+    }
+
     @Override
     public T divide(final ADecimal<T> divisor) {
         if (isZero()) {
@@ -212,13 +275,23 @@ public abstract class AScaledDecimal<T extends AScaledDecimal<T, S>, S extends I
         } else if (divisor == null || divisor.isZero()) {
             return divide(0);
         } else {
-            final ADecimal<?> defaultScaledDivisor = maybeGetDefaultScaledNumber(divisor);
-            final ADecimalImpl newDefault = getDefaultValue().getImpl().divide(defaultScaledDivisor);
+            final ADecimalImpl newDefault = getDefaultValue().getImpl().divide(maybeGetDefaultScaledNumber(divisor));
             return fromDefaultValue(new Decimal(newDefault));
         }
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Scales only convert proportionally, thus this can be applied on the value in the default scale.
+     */
+    @Override
+    public T divide(final Number divisor) {
+        if (isZero() || divisor == null || divisor.doubleValue() == 0D || divisor instanceof AScaledDecimal) {
+            return super.divide(divisor);
+        } else {
+            return fromDefaultValue(new Decimal(getDefaultValue().getImpl().divide(divisor)));
+        }
+    }
+
     @Override
     public T remainder(final ADecimal<T> divisor) {
         if (isZero()) {
@@ -226,13 +299,17 @@ public abstract class AScaledDecimal<T extends AScaledDecimal<T, S>, S extends I
         } else if (divisor == null || divisor.isZero()) {
             return remainder(0);
         } else {
-            final ADecimal<?> defaultScaledDivisor = maybeGetDefaultScaledNumber(divisor);
-            final ADecimalImpl newDefault = getDefaultValue().getImpl().remainder(defaultScaledDivisor);
+            final ADecimalImpl newDefault = getDefaultValue().getImpl().remainder(maybeGetDefaultScaledNumber(divisor));
             return fromDefaultValue(new Decimal(newDefault));
         }
     }
 
-    private ADecimal<?> maybeGetDefaultScaledNumber(final ADecimal<?> number) {
+    @Override
+    public T abs() {
+        return fromDefaultValue(new Decimal(getDefaultValue().getImpl().abs()));
+    }
+
+    private static ADecimal<?> maybeGetDefaultScaledNumber(final ADecimal<?> number) {
         if (number instanceof AScaledDecimal) {
             final AScaledDecimal<?, ?> scaledNumber = (AScaledDecimal<?, ?>) number;
             return scaledNumber.getDefaultValue();
@@ -241,6 +318,15 @@ public abstract class AScaledDecimal<T extends AScaledDecimal<T, S>, S extends I
         }
     }
 
+    private static Object getComparableOther(final Object other) {
+        if (other instanceof AScaledDecimal) {
+            final AScaledDecimal<?, ?> scaledOther = (AScaledDecimal<?, ?>) other;
+            return scaledOther.getDefaultValue();
+        } else {
+            return other;
+        }
+    }
+
     public static <D extends ADecimal<D>> IDecimalAggregate<D> valueOf(final D... values) {
         return valueOf(Arrays.asList(values));
     }
@@ -11,6 +11,7 @@ import java.util.function.Function;
 import javax.annotation.concurrent.Immutable;
 
 import de.invesdwin.util.lang.Strings;
+import de.invesdwin.util.math.decimal.format.FastDecimalFormat;
 import de.invesdwin.util.math.decimal.internal.DecimalAggregate;
 import de.invesdwin.util.math.decimal.internal.DummyDecimalAggregate;
 import de.invesdwin.util.math.decimal.internal.impl.ADecimalImpl;
@@ -51,7 +52,7 @@ public class Decimal extends ADecimal<Decimal> {
     static {
         /*
          * double is the fastest implementation, thus defaulting to that. The other ones are still there for comparison
-         * purposes.
+         * purposes. FixedPointDecimalImplFactory is the alternative when exact decimal arithmetic is needed.
          */
         DECIMAL_IMPL_FACTORY = new DoubleDecimalImplFactory();
         MINUS_THREE = new Decimal("-3");
@@ -230,13 +231,7 @@ public class Decimal extends ADecimal<Decimal> {
 
     @Override
     public String toFormattedString(final String format) {
-        final DecimalFormat dc = newDecimalFormatInstance(format);
-        final String str = dc.format(this);
-        if (str.startsWith("-0") && str.matches("-0([\\.,](0)*)?")) {
-            return Strings.removeStart(str, "-");
-        } else {
-            return str;
-        }
+        return FastDecimalFormat.getInstance(format).format(getImpl().numberValue());
     }
 
     public static String newDefaultDecimalFormat(final int decimalDigits) {
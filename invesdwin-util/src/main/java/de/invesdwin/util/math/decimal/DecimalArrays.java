@@ -0,0 +1,456 @@
+package de.invesdwin.util.math.decimal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Bulk arithmetic on double[] views of decimal sequences. The arrays contain the default values (see
+ * ADecimal.getDefaultValue()) and the operations follow the same double semantics as the default decimal
+ * implementation.
+ *
+ * The element wise operations are plain counted loops over the arrays without calls or object access inside, so that
+ * the JIT can unroll and auto-vectorize them. Reductions use multiple independent accumulators instead, since the JIT
+ * is not allowed to reorder floating point additions by itself. Thus reductions might differ in the last bits from a
+ * sequential summation.
+ *
+ * A destination of null creates a new array, passing the input array as the destination is allowed to calculate in
+ * place.
+ */
+@Immutable
+public final class DecimalArrays {
+
+    /**
+     * below this size insertion sort is faster than partitioning
+     */
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+    /**
+     * when more quantiles are requested, a single sort is cheaper than repeated selections
+     */
+    private static final int MAX_QUANTILES_SELECT = 8;
+    /**
+     * absolute values below this round to 0 at the default rounding scale, which is what ADecimal.isZero() checks
+     */
+    private static final double ZERO_THRESHOLD = 0.5D / Math.pow(10, ADecimal.DEFAULT_ROUNDING_SCALE);
+
+    private DecimalArrays() {}
+
+    public static double[] toDefaultValues(final List<? extends ADecimal<?>> values) {
+        return toDefaultValues(values, null);
+    }
+
+    /**
+     * Null values are not allowed here.
+     */
+    public static double[] toDefaultValues(final List<? extends ADecimal<?>> values, final double[] destination) {
+        final int length = values.size();
+        final double[] result = newDestination(destination, length);
+        for (int i = 0; i < length; i++) {
+            //scaled decimals return their default value here
+            result[i] = values.get(i).doubleValueRaw();
+        }
+        return result;
+    }
+
+    public static <E extends ADecimal<E>> List<E> fromDefaultValues(final double[] values, final E converter) {
+        final List<E> result = new ArrayList<E>(values.length);
+        for (int i = 0; i < values.length; i++) {
+            result.add(converter.fromDefaultValue(values[i]));
+        }
+        return result;
+    }
+
+    public static double[] add(final double[] values, final double[] augends, final double[] destination) {
+        final int length = values.length;
+        checkLength(augends, length);
+        final double[] result = newDestination(destination, length);
+        for (int i = 0; i < length; i++) {
+            result[i] = values[i] + augends[i];
+        }
+        return result;
+    }
+
+    public static double[] add(final double[] values, final double augend, final double[] destination) {
+        final int length = values.length;
+        final double[] result = newDestination(destination, length);
+        for (int i = 0; i < length; i++) {
+            result[i] = values[i] + augend;
+        }
+        return result;
+    }
+
+    public static double[] subtract(final double[] values, final double[] subtrahends, final double[] destination) {
+        final int length = values.length;
+        checkLength(subtrahends, length);
+        final double[] result = newDestination(destination, length);
+        for (int i = 0; i < length; i++) {
+            result[i] = values[i] - subtrahends[i];
+        }
+        return result;
+    }
+
+    public static double[] subtract(final double[] values, final double subtrahend, final double[] destination) {
+        final int length = values.length;
+        final double[] result = newDestination(destination, length);
+        for (int i = 0; i < length; i++) {
+            result[i] = values[i] - subtrahend;
+        }
+        return result;
+    }
+
+    public static double[] multiply(final double[] values, final double[] multiplicants,
+            final double[] destination) {
+        final int length = values.length;
+        checkLength(multiplicants, length);
+        final double[] result = newDestination(destination, length);
+        for (int i = 0; i < length; i++) {
+            result[i] = values[i] * multiplicants[i];
+        }
+        return result;
+    }
+
+    public static double[] multiply(final double[] values, final double multiplicant, final double[] destination) {
+        final int length = values.length;
+        final double[] result = newDestination(destination, length);
+        for (int i = 0; i < length; i++) {
+            result[i] = values[i] * multiplicant;
+        }
+        return result;
+    }
+
+    /**
+     * Like ADecimal.divide(ADecimal), values and divisors are zero when they round to 0 at the default rounding scale.
+     * A value of zero is returned as it is, otherwise a divisor of zero results in 0 for that element.
+     */
+    public static double[] divide(final double[] values, final double[] divisors, final double[] destination) {
+        final int length = values.length;
+        checkLength(divisors, length);
+        final double[] result = newDestination(destination, length);
+        for (int i = 0; i < length; i++) {
+            final double value = values[i];
+            final double divisor = divisors[i];
+            //conditional moves that do not prevent vectorization
+            final double quotient = Math.abs(divisor) < ZERO_THRESHOLD ? 0D : value / divisor;
+            result[i] = Math.abs(value) < ZERO_THRESHOLD ? value : quotient;
+        }
+        return result;
+    }
+
+    /**
+     * If the divisor is exactly 0, 0 is returned like ADecimal.divide(Number) does.
+     */
+    public static double[] divide(final double[] values, final double divisor, final double[] destination) {
+        if (divisor == 0D) {
+            return multiply(values, 0D, destination);
+        }
+        final int length = values.length;
+        final double[] result = newDestination(destination, length);
+        for (int i = 0; i < length; i++) {
+            result[i] = values[i] / divisor;
+        }
+        return result;
+    }
+
+    public static double sum(final double[] values) {
+        final int length = values.length;
+        final int unrolledLength = length & ~3;
+        double sum0 = 0D;
+        double sum1 = 0D;
+        double sum2 = 0D;
+        double sum3 = 0D;
+        int i = 0;
+        for (; i < unrolledLength; i += 4) {
+            sum0 += values[i];
+            sum1 += values[i + 1];
+            sum2 += values[i + 2];
+            sum3 += values[i + 3];
+        }
+        for (; i < length; i++) {
+            sum0 += values[i];
+        }
+        return (sum0 + sum1) + (sum2 + sum3);
+    }
+
+    /**
+     * Sum of the element wise products, e.g. the value of a portfolio from prices and position sizes.
+     */
+    public static double dot(final double[] values, final double[] others) {
+        final int length = values.length;
+        checkLength(others, length);
+        final int unrolledLength = length & ~3;
+        double sum0 = 0D;
+        double sum1 = 0D;
+        double sum2 = 0D;
+        double sum3 = 0D;
+        int i = 0;
+        for (; i < unrolledLength; i += 4) {
+            sum0 += values[i] * others[i];
+            sum1 += values[i + 1] * others[i + 1];
+            sum2 += values[i + 2] * others[i + 2];
+            sum3 += values[i + 3] * others[i + 3];
+        }
+        for (; i < length; i++) {
+            sum0 += values[i] * others[i];
+        }
+        return (sum0 + sum1) + (sum2 + sum3);
+    }
+
+    public static double[] cumulativeSum(final double[] values, final double[] destination) {
+        final int length = values.length;
+        final double[] result = newDestination(destination, length);
+        double sum = 0D;
+        for (int i = 0; i < length; i++) {
+            sum += values[i];
+            result[i] = sum;
+        }
+        return result;
+    }
+
+    public static double[] cumulativeProduct(final double[] values, final double[] destination) {
+        final int length = values.length;
+        final double[] result = newDestination(destination, length);
+        double product = 1D;
+        for (int i = 0; i < length; i++) {
+            product *= values[i];
+            result[i] = product;
+        }
+        return result;
+    }
+
+    /**
+     * The differences between consecutive values, the result has one element less than the input.
+     */
+    public static double[] absoluteChanges(final double[] values, final double[] destination) {
+        final int length = Math.max(0, values.length - 1);
+        final double[] result = newDestination(destination, length);
+        for (int i = 0; i < length; i++) {
+            result[i] = values[i + 1] - values[i];
+        }
+        return result;
+    }
+
+    /**
+     * The pairwise returns (next - previous) / |previous| like ADecimal.growthRate calculates them, the result has one
+     * element less than the input. If a previous value is 0, 0 is returned for that element.
+     */
+    public static double[] growthRates(final double[] values, final double[] destination) {
+        final int length = Math.max(0, values.length - 1);
+        final double[] result = newDestination(destination, length);
+        for (int i = 0; i < length; i++) {
+            final double previous = values[i];
+            final double divisor = Math.abs(previous);
+            result[i] = divisor == 0D ? 0D : (values[i + 1] - previous) / divisor;
+        }
+        return result;
+    }
+
+    public static double median(final double[] values) {
+        return quantile(values, 0.5D);
+    }
+
+    /**
+     * Calculates the quantile (in the range [0, 1]) by selecting the needed elements in O(n) instead of sorting. The
+     * estimation is the same as commons-math's Percentile uses per default (thus median() equals commons-math's
+     * Median), for an empty array NaN is returned.
+     *
+     * The values get reordered in place, so pass a copy if the order needs to be kept. NaN values are not supported.
+     */
+    public static double quantile(final double[] values, final double quantile) {
+        checkQuantile(quantile);
+        if (values.length == 0) {
+            return Double.NaN;
+        }
+        return selectQuantile(values, 0, quantile);
+    }
+
+    /**
+     * Calculates multiple quantiles at once, the selections reuse the partitioning of the previous ones. For many
+     * quantiles the values get sorted once instead and the quantiles are read from the sorted values directly.
+     *
+     * The values get reordered in place, so pass a copy if the order needs to be kept. NaN values are not supported.
+     */
+    public static double[] quantiles(final double[] values, final double[] quantiles, final double[] destination) {
+        final double[] result = newDestination(destination, quantiles.length);
+        for (int i = 0; i < quantiles.length; i++) {
+            checkQuantile(quantiles[i]);
+        }
+        if (values.length == 0) {
+            Arrays.fill(result, 0, quantiles.length, Double.NaN);
+            return result;
+        }
+        if (quantiles.length > MAX_QUANTILES_SELECT) {
+            Arrays.sort(values);
+            for (int i = 0; i < quantiles.length; i++) {
+                result[i] = sortedQuantile(values, quantiles[i]);
+            }
+            return result;
+        }
+        //process the quantiles in ascending order so that each selection only needs to look right of the previous one
+        final int[] order = new int[quantiles.length];
+        for (int i = 0; i < order.length; i++) {
+            int j = i;
+            while (j > 0 && quantiles[order[j - 1]] > quantiles[i]) {
+                order[j] = order[j - 1];
+                j--;
+            }
+            order[j] = i;
+        }
+        int from = 0;
+        for (int i = 0; i < order.length; i++) {
+            final double quantile = quantiles[order[i]];
+            result[order[i]] = selectQuantile(values, from, quantile);
+            from = getQuantileLowerIndex(values.length, quantile);
+        }
+        return result;
+    }
+
+    /**
+     * Requires all values left of from to be less or equal than all values starting at from.
+     */
+    private static double selectQuantile(final double[] values, final int from, final double quantile) {
+        final int length = values.length;
+        final int lowerIndex = getQuantileLowerIndex(length, quantile);
+        select(values, from, length, lowerIndex);
+        final double lower = values[lowerIndex];
+        final double dif = getQuantileInterpolation(length, quantile);
+        if (dif == 0D) {
+            return lower;
+        }
+        //everything right of the selected element is greater or equal, so the next element is the minimum there
+        double upper = values[lowerIndex + 1];
+        for (int i = lowerIndex + 2; i < length; i++) {
+            upper = Math.min(upper, values[i]);
+        }
+        return lower + dif * (upper - lower);
+    }
+
+    private static double sortedQuantile(final double[] sortedValues, final double quantile) {
+        final int lowerIndex = getQuantileLowerIndex(sortedValues.length, quantile);
+        final double lower = sortedValues[lowerIndex];
+        final double dif = getQuantileInterpolation(sortedValues.length, quantile);
+        if (dif == 0D) {
+            return lower;
+        }
+        return lower + dif * (sortedValues[lowerIndex + 1] - lower);
+    }
+
+    /**
+     * Returns the weight of the element after the lower index, 0 means that the lower element is the quantile.
+     */
+    private static double getQuantileInterpolation(final int length, final double quantile) {
+        final double pos = quantile * (length + 1);
+        if (pos < 1D || pos >= length) {
+            return 0D;
+        }
+        return pos - Math.floor(pos);
+    }
+
+    private static int getQuantileLowerIndex(final int length, final double quantile) {
+        final double pos = quantile * (length + 1);
+        if (pos < 1D) {
+            return 0;
+        } else if (pos >= length) {
+            return length - 1;
+        } else {
+            return (int) Math.floor(pos) - 1;
+        }
+    }
+
+    /**
+     * Introselect: moves the k-th smallest element of the range [from, to) to index k, with all smaller or equal
+     * elements left and all greater or equal elements right of it. Falls back to sorting the remaining range when the
+     * partitioning degenerates, so the worst case stays O(n log n).
+     */
+    private static void select(final double[] values, final int from, final int to, final int k) {
+        int left = from;
+        int right = to - 1;
+        int depthLimit = 2 * (Integer.SIZE - Integer.numberOfLeadingZeros(to - from));
+        while (right > left) {
+            if (right - left < INSERTION_SORT_THRESHOLD) {
+                insertionSort(values, left, right);
+                return;
+            }
+            if (depthLimit-- == 0) {
+                Arrays.sort(values, left, right + 1);
+                return;
+            }
+            //median of three as pivot, which also provides the sentinels for the partitioning loops
+            final int mid = (left + right) >>> 1;
+            if (values[mid] < values[left]) {
+                swap(values, mid, left);
+            }
+            if (values[right] < values[left]) {
+                swap(values, right, left);
+            }
+            if (values[right] < values[mid]) {
+                swap(values, right, mid);
+            }
+            final double pivot = values[mid];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (values[i] < pivot) {
+                    i++;
+                }
+                while (values[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(values, i, j);
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                //the elements between j and i are equal to the pivot
+                return;
+            }
+        }
+    }
+
+    private static void insertionSort(final double[] values, final int left, final int right) {
+        for (int i = left + 1; i <= right; i++) {
+            final double value = values[i];
+            int j = i - 1;
+            while (j >= left && values[j] > value) {
+                values[j + 1] = values[j];
+                j--;
+            }
+            values[j + 1] = value;
+        }
+    }
+
+    private static void swap(final double[] values, final int i, final int j) {
+        final double tmp = values[i];
+        values[i] = values[j];
+        values[j] = tmp;
+    }
+
+    private static void checkQuantile(final double quantile) {
+        if (!(quantile >= 0D && quantile <= 1D)) {
+            throw new IllegalArgumentException("quantile should be in the range [0, 1]: " + quantile);
+        }
+    }
+
+    private static double[] newDestination(final double[] destination, final int length) {
+        if (destination == null) {
+            return new double[length];
+        }
+        checkLength(destination, length);
+        return destination;
+    }
+
+    private static void checkLength(final double[] array, final int length) {
+        if (array.length < length) {
+            throw new IllegalArgumentException("array length [" + array.length + "] should be at least [" + length
+                    + "]");
+        }
+    }
+
+}
@@ -0,0 +1,271 @@
+package de.invesdwin.util.math.decimal;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import de.invesdwin.util.concurrent.ConfiguredForkJoinPool;
+import de.invesdwin.util.concurrent.Executors;
+
+/**
+ * Reductions over double[] views of decimal sequences (see DecimalArrays) that can run in parallel on a fork join
+ * pool. Sums use compensated (Neumaier) summation, so the rounding error does not grow with the number of values.
+ *
+ * The values are always reduced in blocks of a fixed size whose partial results get combined in a tree that only
+ * depends on the number of values. Parallel execution forks subtrees of that same tree, thus the results are bitwise
+ * identical regardless of the pool (or none at all) and its number of threads.
+ */
+@Immutable
+public final class DecimalReductions {
+
+    /**
+     * Below this number of values the overhead of forking is higher than the gain.
+     */
+    public static final int PARALLEL_THRESHOLD = 1 << 18;
+    private static final int BLOCK_SIZE = 1 << 12;
+    private static final int MIN_FORK_SIZE = 1 << 16;
+
+    private DecimalReductions() {}
+
+    /**
+     * Returns a shared pool for sizes above PARALLEL_THRESHOLD, otherwise null so that the calculation stays in the
+     * current thread.
+     */
+    public static ForkJoinPool getPool(final int size) {
+        if (size >= PARALLEL_THRESHOLD) {
+            return DefaultPoolHolder.INSTANCE;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Same as DecimalArrays.toDefaultValues(), but null values are converted to 0.
+     *
+     * @param pool
+     *            can be null to convert in the current thread
+     */
+    public static double[] toDefaultValues(final List<? extends ADecimal<?>> values, final ForkJoinPool pool) {
+        final double[] result = new double[values.size()];
+        if (pool == null || result.length < MIN_FORK_SIZE) {
+            toDefaultValues(values, result, 0, result.length);
+        } else {
+            pool.invoke(new ConversionTask(values, result, 0, result.length));
+        }
+        return result;
+    }
+
+    public static double sum(final double[] values, final ForkJoinPool pool) {
+        return reduce(new AReduction(values) {
+            @Override
+            protected void reduceBlock(final int from, final int to, final Partial partial) {
+                for (int i = from; i < to; i++) {
+                    partial.add(values[i]);
+                }
+            }
+        }, pool);
+    }
+
+    /**
+     * sum((i+1) * x_i), the weights used by IDecimalAggregate.avgWeightedAsc().
+     */
+    public static double weightedSumAsc(final double[] values, final ForkJoinPool pool) {
+        return reduce(new AReduction(values) {
+            @Override
+            protected void reduceBlock(final int from, final int to, final Partial partial) {
+                for (int i = from; i < to; i++) {
+                    partial.add(values[i] * (i + 1));
+                }
+            }
+        }, pool);
+    }
+
+    /**
+     * sum((x_i - mean)^2), the basis for variance and standard deviation.
+     */
+    public static double sumOfSquaredDeviations(final double[] values, final double mean, final ForkJoinPool pool) {
+        return reduce(new AReduction(values) {
+            @Override
+            protected void reduceBlock(final int from, final int to, final Partial partial) {
+                for (int i = from; i < to; i++) {
+                    final double deviation = values[i] - mean;
+                    partial.add(deviation * deviation);
+                }
+            }
+        }, pool);
+    }
+
+    public static double product(final double[] values, final ForkJoinPool pool) {
+        return reduce(new AReduction(values) {
+            @Override
+            protected Partial newPartial() {
+                final Partial partial = new Partial();
+                partial.sum = 1D;
+                return partial;
+            }
+
+            @Override
+            protected void reduceBlock(final int from, final int to, final Partial partial) {
+                double product = partial.sum;
+                for (int i = from; i < to; i++) {
+                    product *= values[i];
+                }
+                partial.sum = product;
+            }
+
+            @Override
+            protected Partial combine(final Partial left, final Partial right) {
+                left.sum *= right.sum;
+                return left;
+            }
+        }, pool);
+    }
+
+    private static double reduce(final AReduction reduction, final ForkJoinPool pool) {
+        final int length = reduction.values.length;
+        final Partial result;
+        if (pool == null || length < MIN_FORK_SIZE) {
+            result = reduction.reduce(0, length);
+        } else {
+            result = pool.invoke(new ReductionTask(reduction, 0, length));
+        }
+        return result.getResult();
+    }
+
+    /**
+     * Splits at a block boundary, so that the tree only depends on the range.
+     */
+    private static int split(final int from, final int to) {
+        final int blocks = (to - from + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        return from + blocks / 2 * BLOCK_SIZE;
+    }
+
+    private static void toDefaultValues(final List<? extends ADecimal<?>> values, final double[] result,
+            final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            final ADecimal<?> value = values.get(i);
+            if (value != null) {
+                result[i] = value.doubleValueRaw();
+            }
+        }
+    }
+
+    @NotThreadSafe
+    private static final class Partial {
+        private double sum;
+        private double compensation;
+
+        private void add(final double value) {
+            final double t = sum + value;
+            if (Math.abs(sum) >= Math.abs(value)) {
+                compensation += (sum - t) + value;
+            } else {
+                compensation += (value - t) + sum;
+            }
+            sum = t;
+        }
+
+        private double getResult() {
+            return sum + compensation;
+        }
+    }
+
+    private abstract static class AReduction {
+
+        protected final double[] values;
+
+        AReduction(final double[] values) {
+            this.values = values;
+        }
+
+        protected Partial newPartial() {
+            return new Partial();
+        }
+
+        protected abstract void reduceBlock(int from, int to, Partial partial);
+
+        protected Partial combine(final Partial left, final Partial right) {
+            left.add(right.sum);
+            left.compensation += right.compensation;
+            return left;
+        }
+
+        Partial reduce(final int from, final int to) {
+            if (to - from <= BLOCK_SIZE) {
+                final Partial partial = newPartial();
+                reduceBlock(from, to, partial);
+                return partial;
+            }
+            final int mid = split(from, to);
+            return combine(reduce(from, mid), reduce(mid, to));
+        }
+
+    }
+
+    @NotThreadSafe
+    private static final class ReductionTask extends RecursiveTask<Partial> {
+
+        private final AReduction reduction;
+        private final int from;
+        private final int to;
+
+        ReductionTask(final AReduction reduction, final int from, final int to) {
+            this.reduction = reduction;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from < MIN_FORK_SIZE) {
+                return reduction.reduce(from, to);
+            }
+            final int mid = split(from, to);
+            final ReductionTask left = new ReductionTask(reduction, from, mid);
+            left.fork();
+            final Partial right = new ReductionTask(reduction, mid, to).compute();
+            return reduction.combine(left.join(), right);
+        }
+
+    }
+
+    @NotThreadSafe
+    private static final class ConversionTask extends RecursiveAction {
+
+        private final List<? extends ADecimal<?>> values;
+        private final double[] result;
+        private final int from;
+        private final int to;
+
+        ConversionTask(final List<? extends ADecimal<?>> values, final double[] result, final int from,
+                final int to) {
+            this.values = values;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from < MIN_FORK_SIZE) {
+                toDefaultValues(values, result, from, to);
+            } else {
+                final int mid = split(from, to);
+                invokeAll(new ConversionTask(values, result, from, mid), new ConversionTask(values, result, mid, to));
+            }
+        }
+
+    }
+
+    private static final class DefaultPoolHolder {
+        private static final ConfiguredForkJoinPool INSTANCE = Executors
+                .newForkJoinPool(DecimalReductions.class.getSimpleName());
+
+        private DefaultPoolHolder() {}
+    }
+
+}
@@ -9,6 +9,8 @@ import org.apache.commons.math3.random.RandomGenerator;
 import de.invesdwin.util.math.decimal.config.BSplineInterpolationConfig;
 import de.invesdwin.util.math.decimal.config.InterpolationConfig;
 import de.invesdwin.util.math.decimal.config.LoessInterpolationConfig;
+import de.invesdwin.util.math.decimal.scaled.Percent;
+import de.invesdwin.util.math.decimal.stream.DecimalStreamSummary;
 
 public interface IDecimalAggregate<E extends ADecimal<E>> {
 
@@ -198,17 +200,33 @@ public interface IDecimalAggregate<E extends ADecimal<E>> {
      */
     Iterator<E> randomizeShuffle(RandomGenerator random);
 
+    /**
+     * Same as the iterator variant, but fills the default values of the resample into the destination (created when
+     * null), which avoids creating a decimal per value. For the same random sequence the resample is the same.
+     */
+    double[] randomizeShuffle(RandomGenerator random, double[] destination);
+
     /**
      * Randomized the values with replacement, thus can draw the same values multiple times
      */
     Iterator<E> randomizeBootstrap(RandomGenerator random);
 
+    /**
+     * Fills the default values of the resample into the destination (created when null).
+     */
+    double[] randomizeBootstrap(RandomGenerator random, double[] destination);
+
     /**
      * Randomize the values with replacement blockwise (for dependent data). Since the random generator is used less
      * often here (only per block), the actual performance here is better than that of the normal bootstrap.
      */
     Iterator<E> randomizeCircularBlockBootstrap(RandomGenerator random);
 
+    /**
+     * Fills the default values of the resample into the destination (created when null).
+     */
+    double[] randomizeCircularBlockBootstrap(RandomGenerator random, double[] destination);
+
     /**
      * Randomize the values with replacement blockwise with randomized block length (for time series). Since the random
      * generator is used less often here (only per block), the actual performance here is better than that of the normal
@@ -216,6 +234,11 @@ public interface IDecimalAggregate<E extends ADecimal<E>> {
      */
     Iterator<E> randomizeStationaryBootstrap(RandomGenerator random);
 
+    /**
+     * Fills the default values of the resample into the destination (created when null).
+     */
+    double[] randomizeStationaryBootstrap(RandomGenerator random, double[] destination);
+
     /**
      * Divides the given values into chunks (e.g. 1000 values in 4 chunks results in each chunk having 250 values).
      * These chunks will get an descending weight for being chosen as the basis for the next sample being taken (e.g.
@@ -225,6 +248,11 @@ public interface IDecimalAggregate<E extends ADecimal<E>> {
      */
     Iterator<E> randomizeWeightedChunksDescending(RandomGenerator random, int chunkCount);
 
+    /**
+     * Fills the default values of the resample into the destination (created when null).
+     */
+    double[] randomizeWeightedChunksDescending(RandomGenerator random, int chunkCount, double[] destination);
+
     /**
      * Divides the given values into chunks (e.g. 1000 values in 4 chunks results in each chunk having 250 values).
      * These chunks will get an ascending weight for being chosen as the basis for the next sample being taken (e.g.
@@ -234,8 +262,32 @@ public interface IDecimalAggregate<E extends ADecimal<E>> {
      */
     Iterator<E> randomizeWeightedChunksAscending(RandomGenerator random, int chunkCount);
 
+    /**
+     * Fills the default values of the resample into the destination (created when null).
+     */
+    double[] randomizeWeightedChunksAscending(RandomGenerator random, int chunkCount, double[] destination);
+
     E median();
 
+    /**
+     * Selects the quantile (e.g. 95% for p95) on a primitive copy of the values in O(n) instead of sorting them. The
+     * estimation is the same as for median(). For an approximation in bounded memory on streams, use
+     * DecimalStreamQuantiles.
+     */
+    E quantile(Percent quantile);
+
+    /**
+     * Same as quantile(), but reuses the partitioning for all given quantiles (in the order given).
+     */
+    List<E> quantiles(Percent... quantiles);
+
+    /**
+     * Collects count, sum, avg, min, max, variances and a quantile sketch in one pass. Summaries of different
+     * aggregates (e.g. one per worker thread) can be merged without concatenating the values. Null values are counted
+     * as zero like in sum() and avg().
+     */
+    DecimalStreamSummary<E> summary();
+
     IDecimalAggregate<E> sortAscending();
 
     IDecimalAggregate<E> sortDescending();
@@ -34,6 +34,9 @@ class ScaledDecimalDelegateImpl extends ADecimalImpl {
         return delegate;
     }
 
+    /**
+     * The default value is immutable, thus a racy lazy initialization only might resolve the same impl twice.
+     */
     private ADecimalImpl getDefaultScaledDelegate() {
         if (defaultScaledDelegate == null) {
             defaultScaledDelegate = parent.getDefaultValue().getImpl();
@@ -78,14 +81,12 @@ class ScaledDecimalDelegateImpl extends ADecimalImpl {
 
     @Override
     public boolean equals(final Object other) {
-        final Object comparableOther = getComparableOther(other);
-        return getDefaultScaledDelegate().equals(comparableOther);
+        return compareTo(other) == 0;
     }
 
     @Override
     public int compareTo(final Object other) {
-        final Object comparableOther = getComparableOther(other);
-        return getDefaultScaledDelegate().compareTo(comparableOther);
+        return parent.compareTo(other);
     }
 
     @Override
@@ -93,17 +94,6 @@ class ScaledDecimalDelegateImpl extends ADecimalImpl {
         throw new UnsupportedOperationException();
     }
 
-    private Object getComparableOther(final Object other) {
-        final Object comparableOther;
-        if (other instanceof AScaledDecimal) {
-            final AScaledDecimal<?, ?> cOther = (AScaledDecimal<?, ?>) other;
-            comparableOther = cOther.getDefaultValue();
-        } else {
-            comparableOther = other;
-        }
-        return comparableOther;
-    }
-
     @Override
     public String toString() {
         return getDelegate().toString();
@@ -273,12 +263,12 @@ class ScaledDecimalDelegateImpl extends ADecimalImpl {
 
     @Override
     public double doubleValue() {
-        return getDefaultScaledDelegate().doubleValue();
+        return parent.doubleValue();
     }
 
     @Override
     public double doubleValueRaw() {
-        return getDefaultScaledDelegate().doubleValueRaw();
+        return parent.doubleValueRaw();
     }
 
     @Override
@@ -1,16 +1,23 @@
 package de.invesdwin.util.math.decimal;
 
-import java.text.DecimalFormat;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.annotation.concurrent.NotThreadSafe;
 
-import de.invesdwin.util.lang.Strings;
+import de.invesdwin.util.math.decimal.format.FastDecimalFormat;
 import de.invesdwin.util.math.decimal.scaled.IDecimalScale;
 
 @NotThreadSafe
 public class ScaledDecimalToStringBuilder<T extends AScaledDecimal<T, S>, S extends IDecimalScale<T, S>> {
 
+    /**
+     * decimal digits that get a slot in the per scale format cache, others compile the format string each time
+     */
+    private static final int MAX_CACHED_DECIMAL_DIGITS = 16;
+    private static final int FORMAT_VARIANTS_PER_DECIMAL_DIGITS = 4;
+    private static final ConcurrentMap<IDecimalScale<?, ?>, FastDecimalFormat[]> SCALE_FORMATS = new ConcurrentHashMap<IDecimalScale<?, ?>, FastDecimalFormat[]>();
+
     private final T parent;
     private S scale;
     private boolean withSymbol = true;
@@ -70,18 +77,62 @@ public class ScaledDecimalToStringBuilder<T extends AScaledDecimal<T, S>, S exte
 
     @Override
     public String toString() {
-        return toString(getFormat());
+        return getFastFormat().format(getValueNumber());
+    }
+
+    public StringBuilder appendTo(final StringBuilder sb) {
+        return getFastFormat().format(getValueNumber(), sb);
     }
 
     public String getFormat() {
-        final int usedDecimalDigits;
+        final int usedDecimalDigits = getUsedDecimalDigits();
+        final String formatStr = scale.getFormat(parent, withSymbol, usedDecimalDigits, decimalDigitsOptional);
+        return formatStr;
+    }
+
+    private int getUsedDecimalDigits() {
         if (decimalDigits == null) {
-            usedDecimalDigits = getDefaultDecimalDigits();
+            return getDefaultDecimalDigits();
         } else {
-            usedDecimalDigits = decimalDigits;
+            return decimalDigits;
         }
-        final String formatStr = scale.getFormat(parent, withSymbol, usedDecimalDigits, decimalDigitsOptional);
-        return formatStr;
+    }
+
+    /**
+     * The compiled formats are cached per scale, thus IDecimalScale.getFormat should not depend on the value of the
+     * parent.
+     */
+    private FastDecimalFormat getFastFormat() {
+        final int usedDecimalDigits = getUsedDecimalDigits();
+        if (usedDecimalDigits < 0 || usedDecimalDigits >= MAX_CACHED_DECIMAL_DIGITS) {
+            return FastDecimalFormat.getInstance(getFormat());
+        }
+        FastDecimalFormat[] formats = SCALE_FORMATS.get(scale);
+        if (formats == null) {
+            formats = new FastDecimalFormat[MAX_CACHED_DECIMAL_DIGITS * FORMAT_VARIANTS_PER_DECIMAL_DIGITS];
+            final FastDecimalFormat[] existing = SCALE_FORMATS.putIfAbsent(scale, formats);
+            if (existing != null) {
+                formats = existing;
+            }
+        }
+        int index = usedDecimalDigits * FORMAT_VARIANTS_PER_DECIMAL_DIGITS;
+        if (withSymbol) {
+            index += 2;
+        }
+        if (decimalDigitsOptional) {
+            index++;
+        }
+        FastDecimalFormat format = formats[index];
+        if (format == null) {
+            //races are benign since the same format gets compiled
+            format = FastDecimalFormat.getInstance(getFormat());
+            formats[index] = format;
+        }
+        return format;
+    }
+
+    private Number getValueNumber() {
+        return parent.getValue(scale).getImpl().numberValue();
     }
 
     public int getDefaultDecimalDigits() {
@@ -89,18 +140,7 @@ public class ScaledDecimalToStringBuilder<T extends AScaledDecimal<T, S>, S exte
     }
 
     public String toString(final String format) {
-        final DecimalFormat formatter = Decimal.newDecimalFormatInstance(format);
-        final Number value = parent.getValue(scale).getImpl().numberValue();
-        final String str = formatter.format(value);
-        String negativeZeroMatchStr = "-0([\\.,](0)*)?";
-        if (withSymbol) {
-            negativeZeroMatchStr += Pattern.quote(scale.getSymbol());
-        }
-        if (str.startsWith("-0") && str.matches(negativeZeroMatchStr)) {
-            return Strings.removeStart(str, "-");
-        } else {
-            return str;
-        }
+        return FastDecimalFormat.getInstance(format).format(getValueNumber());
     }
 
 }
@@ -1,14 +1,19 @@
 package de.invesdwin.util.math.decimal.config;
 
+import java.util.concurrent.ForkJoinPool;
+
 import javax.annotation.concurrent.NotThreadSafe;
 
 import de.invesdwin.util.math.decimal.Decimal;
+import de.invesdwin.util.math.decimal.interpolation.LoessSmoother;
 import de.invesdwin.util.math.decimal.scaled.Percent;
 
 @NotThreadSafe
 public class LoessInterpolationConfig extends InterpolationConfig {
 
     private Percent smoothness = Percent.FIFTY_PERCENT;
+    private int robustnessIters = LoessSmoother.DEFAULT_ROBUSTNESS_ITERS;
+    private ForkJoinPool forkJoinPool = null;
 
     public Percent getSmoothness() {
         return smoothness;
@@ -19,6 +24,32 @@ public class LoessInterpolationConfig extends InterpolationConfig {
         return this;
     }
 
+    public int getRobustnessIters() {
+        return robustnessIters;
+    }
+
+    /**
+     * Robustness iterations reduce the influence of outliers, but require a full refit whenever points get appended.
+     * Use 0 together with DoubleInterpolations.newLoessSmoother(...) to smooth a growing series incrementally.
+     */
+    public LoessInterpolationConfig withRobustnessIters(final int robustnessIters) {
+        this.robustnessIters = robustnessIters;
+        return this;
+    }
+
+    public ForkJoinPool getForkJoinPool() {
+        return forkJoinPool;
+    }
+
+    /**
+     * For large series the local regressions can be calculated in parallel on the given pool, e.g. one from
+     * Executors.newForkJoinPool(...). Per default everything is calculated in the current thread.
+     */
+    public LoessInterpolationConfig withForkJoinPool(final ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
+        return this;
+    }
+
     @Override
     public LoessInterpolationConfig withPunishEdges(final boolean punishEdges, final boolean higherIsBetter) {
         return (LoessInterpolationConfig) super.withPunishEdges(punishEdges, higherIsBetter);
@@ -0,0 +1,181 @@
+package de.invesdwin.util.math.decimal.format;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Determines the shortest decimal representation of a double that parses back to the same double, without going
+ * through a String. The representation is stored as an unscaled long and a scale, so that digit counts can be derived
+ * arithmetically.
+ *
+ * Candidates are generated with increasing precision by a single scaling operation and verified by a round trip that
+ * only uses exactly representable powers of ten, thus both operations are correctly rounded by the FPU. Since two
+ * different decimals with at most 15 significant digits never map to the same double, a candidate that survives the
+ * round trip is the shortest representation. Values that need more significant digits or that are too small or too
+ * large for this fast path are rejected, so that the caller can fall back to the slow path.
+ *
+ * Instances can be reused to stay garbage free.
+ */
+@NotThreadSafe
+public class DoubleDigits {
+
+    static final int MAX_EXACT_POWER_OF_TEN = 22;
+    static final double[] POWERS_OF_TEN_DOUBLE = new double[MAX_EXACT_POWER_OF_TEN + 1];
+    static final long[] POWERS_OF_TEN_LONG = new long[19];
+    static final double MAX_EXACT_INTEGER = 1L << 53;
+    private static final double MAX_SIGNIFICANT_VALUE = 1E15;
+
+    static {
+        double pow = 1D;
+        for (int i = 0; i < POWERS_OF_TEN_DOUBLE.length; i++) {
+            POWERS_OF_TEN_DOUBLE[i] = pow;
+            pow *= 10D;
+        }
+        long powLong = 1L;
+        for (int i = 0; i < POWERS_OF_TEN_LONG.length; i++) {
+            POWERS_OF_TEN_LONG[i] = powLong;
+            powLong *= 10L;
+        }
+    }
+
+    private boolean negative;
+    private long unscaledValue;
+    private int scale;
+
+    /**
+     * Returns false if the value could not be handled by the fast path, the state of this instance is undefined then.
+     */
+    public boolean set(final double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return false;
+        }
+        negative = value < 0D || value == 0D && 1D / value < 0D;
+        final double abs = Math.abs(value);
+        if (abs == 0D) {
+            unscaledValue = 0L;
+            scale = 0;
+            return true;
+        }
+        if (abs >= MAX_EXACT_INTEGER) {
+            //older JDKs print all integer digits here instead of the shortest representation
+            return false;
+        }
+        final int exponent = (int) Math.floor(Math.log10(abs));
+        //the loop ends latest when the candidate would have more than 15 significant digits
+        for (int precision = 1;; precision++) {
+            final int candidateScale = precision - 1 - exponent;
+            if (candidateScale > MAX_EXACT_POWER_OF_TEN || candidateScale < -MAX_EXACT_POWER_OF_TEN) {
+                return false;
+            }
+            final double scaled;
+            if (candidateScale >= 0) {
+                scaled = abs * POWERS_OF_TEN_DOUBLE[candidateScale];
+            } else {
+                scaled = abs / POWERS_OF_TEN_DOUBLE[-candidateScale];
+            }
+            if (scaled >= MAX_SIGNIFICANT_VALUE) {
+                return false;
+            }
+            final long candidate = (long) Math.floor(scaled + 0.5D);
+            final double roundTrip;
+            if (candidateScale >= 0) {
+                roundTrip = candidate / POWERS_OF_TEN_DOUBLE[candidateScale];
+            } else {
+                roundTrip = candidate * POWERS_OF_TEN_DOUBLE[-candidateScale];
+            }
+            if (roundTrip == abs) {
+                long trimmed = candidate;
+                int trimmedScale = candidateScale;
+                while (trimmed != 0 && trimmed % 10L == 0L) {
+                    trimmed /= 10L;
+                    trimmedScale--;
+                }
+                unscaledValue = trimmed;
+                scale = trimmedScale;
+                return true;
+            }
+        }
+    }
+
+    public boolean isNegative() {
+        return negative;
+    }
+
+    /**
+     * The absolute digits without trailing zeros.
+     */
+    public long getUnscaledValue() {
+        return unscaledValue;
+    }
+
+    /**
+     * Can be negative for integers with trailing zeros.
+     */
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * Number of digits after the decimal point.
+     */
+    public int getDecimalDigits() {
+        return Math.max(0, scale);
+    }
+
+    /**
+     * Number of digits before the decimal point, at least one (for the leading zero).
+     */
+    public int getIntegerDigits() {
+        final int digits = countDigits(unscaledValue) - scale;
+        return Math.max(1, digits);
+    }
+
+    /**
+     * Appends the plain representation (no exponent, no grouping, '.' as decimal separator and '-' as minus sign).
+     */
+    public StringBuilder appendTo(final StringBuilder sb) {
+        if (negative) {
+            sb.append('-');
+        }
+        final int digits = countDigits(unscaledValue);
+        if (scale <= 0) {
+            sb.append(unscaledValue);
+            for (int i = 0; i < -scale; i++) {
+                sb.append('0');
+            }
+        } else if (scale >= digits) {
+            sb.append("0.");
+            for (int i = digits; i < scale; i++) {
+                sb.append('0');
+            }
+            sb.append(unscaledValue);
+        } else {
+            final long divisor = POWERS_OF_TEN_LONG[scale];
+            sb.append(unscaledValue / divisor);
+            sb.append('.');
+            final long fraction = unscaledValue % divisor;
+            for (int i = countDigits(fraction); i < scale; i++) {
+                sb.append('0');
+            }
+            sb.append(fraction);
+        }
+        return sb;
+    }
+
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder()).toString();
+    }
+
+    /**
+     * Counts the decimal digits of a non negative value, zero has one digit.
+     */
+    public static int countDigits(final long value) {
+        for (int i = 1; i < POWERS_OF_TEN_LONG.length; i++) {
+            if (value < POWERS_OF_TEN_LONG[i]) {
+                return i;
+            }
+        }
+        return POWERS_OF_TEN_LONG.length;
+    }
+
+}
@@ -0,0 +1,598 @@
+package de.invesdwin.util.math.decimal.format;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.ParseException;
+import java.util.Locale;
+
+import javax.annotation.concurrent.Immutable;
+
+import de.invesdwin.util.collections.loadingcache.ALoadingCache;
+import de.invesdwin.util.math.decimal.ADecimal;
+import de.invesdwin.util.math.decimal.Decimal;
+import io.netty.util.concurrent.FastThreadLocal;
+
+/**
+ * A compiled DecimalFormat pattern that formats doubles directly into a StringBuilder, char[] or byte[] without
+ * creating intermediate objects and that parses without creating a DecimalFormat. The output is the same as with
+ * {@link Decimal#newDecimalFormatInstance(String, DecimalFormatSymbols)}, except that negative values that round to
+ * zero are printed without the minus sign.
+ *
+ * Supported are patterns consisting of an optional quoted or plain prefix, integer digits with optional grouping,
+ * optional fraction digits and an optional quoted or plain suffix (e.g. "#,##0.00'%'"). Other patterns (exponents,
+ * unquoted percent signs, negative subpatterns, currency signs, ...) and values that do not fit the fast path are
+ * delegated to a thread local DecimalFormat.
+ */
+@Immutable
+public final class FastDecimalFormat {
+
+    private static final int MAX_FRACTION_DIGITS = 18;
+    private static final int MAX_NUMBER_LENGTH = 64;
+    private static final double MAX_FAST_SCALED_VALUE = 1L << 52;
+
+    private static final ALoadingCache<String, FastDecimalFormat> PATTERN_CACHE = new ALoadingCache<String, FastDecimalFormat>() {
+        @Override
+        protected Integer getInitialMaximumSize() {
+            return 1000;
+        }
+
+        @Override
+        protected FastDecimalFormat loadValue(final String key) {
+            return new FastDecimalFormat(key, Decimal.DEFAULT_DECIMAL_FORMAT_SYMBOLS);
+        }
+    };
+
+    private static final FastThreadLocal<char[]> CHAR_BUFFER = new FastThreadLocal<char[]>() {
+        @Override
+        protected char[] initialValue() {
+            return new char[MAX_NUMBER_LENGTH * 2];
+        }
+    };
+
+    private final String pattern;
+    private final DecimalFormatSymbols symbols;
+    private final FastThreadLocal<DecimalFormat> fallbackFormat;
+    private final RoundingMode roundingMode;
+    /**
+     * false if the pattern is not supported by the fast path
+     */
+    private final boolean compiled;
+    private final char[] prefix;
+    private final char[] suffix;
+    private final int minIntegerDigits;
+    private final int groupingSize;
+    private final int minFractionDigits;
+    private final int maxFractionDigits;
+    private final boolean decimalSeparatorAlwaysShown;
+    private final char decimalSeparator;
+    private final char groupingSeparator;
+    private final char minusSign;
+
+    private FastDecimalFormat(final String pattern, final DecimalFormatSymbols symbols) {
+        this.pattern = pattern;
+        this.symbols = symbols;
+        this.roundingMode = ADecimal.DEFAULT_ROUNDING_MODE;
+        this.fallbackFormat = new FastThreadLocal<DecimalFormat>() {
+            @Override
+            protected DecimalFormat initialValue() {
+                return Decimal.newDecimalFormatInstance(pattern, symbols);
+            }
+        };
+        //validate the pattern eagerly like DecimalFormat would
+        fallbackFormat.get();
+        this.decimalSeparator = symbols.getDecimalSeparator();
+        this.groupingSeparator = symbols.getGroupingSeparator();
+        this.minusSign = symbols.getMinusSign();
+
+        final StringBuilder prefixSb = new StringBuilder();
+        final StringBuilder suffixSb = new StringBuilder();
+        int minInteger = 0;
+        int integerDigits = 0;
+        int integerDigitsSinceGrouping = 0;
+        boolean grouping = false;
+        boolean afterDecimalSeparator = false;
+        int minFraction = 0;
+        int maxFraction = 0;
+        //0=prefix, 1=number, 2=suffix
+        int phase = 0;
+        boolean supported = symbols.getZeroDigit() == '0';
+        for (int i = 0; i < pattern.length() && supported; i++) {
+            final char c = pattern.charAt(i);
+            if (c == '\'') {
+                final StringBuilder literal = phase == 0 ? prefixSb : suffixSb;
+                if (phase == 1) {
+                    phase = 2;
+                }
+                if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '\'') {
+                    literal.append('\'');
+                    i++;
+                    continue;
+                }
+                i++;
+                while (true) {
+                    if (i >= pattern.length()) {
+                        //unterminated quote
+                        supported = false;
+                        break;
+                    }
+                    final char q = pattern.charAt(i);
+                    if (q == '\'') {
+                        if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '\'') {
+                            literal.append('\'');
+                            i += 2;
+                        } else {
+                            break;
+                        }
+                    } else {
+                        literal.append(q);
+                        i++;
+                    }
+                }
+            } else if (c == '#' || c == '0' || c == ',' || c == '.') {
+                if (phase == 2) {
+                    supported = false;
+                    break;
+                }
+                phase = 1;
+                if (c == '.') {
+                    if (afterDecimalSeparator) {
+                        supported = false;
+                    }
+                    afterDecimalSeparator = true;
+                } else if (c == ',') {
+                    if (afterDecimalSeparator) {
+                        supported = false;
+                    }
+                    grouping = true;
+                    integerDigitsSinceGrouping = 0;
+                } else if (afterDecimalSeparator) {
+                    if (c == '0') {
+                        if (maxFraction > minFraction) {
+                            //zero after optional digit is invalid
+                            supported = false;
+                        }
+                        minFraction++;
+                    }
+                    maxFraction++;
+                } else {
+                    if (c == '0') {
+                        minInteger++;
+                    } else if (minInteger > 0) {
+                        //optional digit after zero is invalid
+                        supported = false;
+                    }
+                    integerDigits++;
+                    integerDigitsSinceGrouping++;
+                }
+            } else if (c == '%' || c == '\u2030' || c == '\u00A4' || c == ';' || c == '-' || c == 'E' || c == '@'
+                    || c >= '1' && c <= '9') {
+                supported = false;
+            } else if (phase == 0) {
+                prefixSb.append(c);
+            } else {
+                phase = 2;
+                suffixSb.append(c);
+            }
+        }
+        if (minInteger == 0 && minFraction == 0 && afterDecimalSeparator) {
+            //DecimalFormat interprets "#.##" as "#0.##" and ".##" as ".0#"
+            if (integerDigits > 0) {
+                minInteger = 1;
+            } else if (maxFraction > 0) {
+                minFraction = 1;
+            }
+        }
+        if (phase == 0 || maxFraction > MAX_FRACTION_DIGITS || grouping && integerDigitsSinceGrouping == 0) {
+            supported = false;
+        }
+        this.compiled = supported;
+        this.prefix = prefixSb.toString().toCharArray();
+        this.suffix = suffixSb.toString().toCharArray();
+        this.minIntegerDigits = minInteger;
+        if (grouping) {
+            this.groupingSize = integerDigitsSinceGrouping;
+        } else {
+            this.groupingSize = 0;
+        }
+        this.minFractionDigits = minFraction;
+        this.maxFractionDigits = maxFraction;
+        this.decimalSeparatorAlwaysShown = afterDecimalSeparator && maxFraction == 0;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public DecimalFormatSymbols getSymbols() {
+        return symbols;
+    }
+
+    /**
+     * Returns false if every call gets delegated to a DecimalFormat because the pattern is not supported.
+     */
+    public boolean isCompiled() {
+        return compiled;
+    }
+
+    public int getMaximumFractionDigits() {
+        return maxFractionDigits;
+    }
+
+    public String format(final double value) {
+        final char[] buffer = getCharBuffer();
+        final int length = tryFormat(value, buffer, 0);
+        if (length >= 0) {
+            return new String(buffer, 0, length);
+        } else {
+            return fallbackFormat(value);
+        }
+    }
+
+    /**
+     * Doubles and integral values up to 2^53 use the fast path, other numbers (e.g. BigDecimal) are formatted exactly
+     * by the DecimalFormat.
+     */
+    public String format(final Number value) {
+        if (isFastPathNumber(value)) {
+            return format(value.doubleValue());
+        } else {
+            return fallbackFormat(value);
+        }
+    }
+
+    public StringBuilder format(final double value, final StringBuilder sb) {
+        final char[] buffer = getCharBuffer();
+        final int length = tryFormat(value, buffer, 0);
+        if (length >= 0) {
+            return sb.append(buffer, 0, length);
+        } else {
+            return sb.append(fallbackFormat(value));
+        }
+    }
+
+    public StringBuilder format(final Number value, final StringBuilder sb) {
+        if (isFastPathNumber(value)) {
+            return format(value.doubleValue(), sb);
+        } else {
+            return sb.append(fallbackFormat(value));
+        }
+    }
+
+    /**
+     * Writes the formatted value into the given buffer and returns the index after the last written char. The buffer
+     * needs room for {@link #getMaximumLength()} chars. Values that are too large for the fast path (e.g. 1E300) are
+     * formatted by the DecimalFormat and can be longer.
+     */
+    public int format(final double value, final char[] dst, final int offset) {
+        final int end = tryFormat(value, dst, offset);
+        if (end >= 0) {
+            return end;
+        }
+        final String str = fallbackFormat(value);
+        str.getChars(0, str.length(), dst, offset);
+        return offset + str.length();
+    }
+
+    /**
+     * Writes the formatted value UTF-8 encoded into the given buffer and returns the index after the last written
+     * byte. The buffer needs room for 3 times {@link #getMaximumLength()} bytes, with the same exception for large
+     * values as with chars.
+     */
+    public int format(final double value, final byte[] dst, final int offset) {
+        final char[] buffer = getCharBuffer();
+        final int length = tryFormat(value, buffer, 0);
+        if (length >= 0) {
+            return encodeUtf8(buffer, length, dst, offset);
+        } else {
+            final char[] chars = fallbackFormat(value).toCharArray();
+            return encodeUtf8(chars, chars.length, dst, offset);
+        }
+    }
+
+    private static int encodeUtf8(final char[] buffer, final int length, final byte[] dst, final int offset) {
+        int index = offset;
+        for (int i = 0; i < length; i++) {
+            final char c = buffer[i];
+            if (c < 0x80) {
+                dst[index++] = (byte) c;
+            } else if (c < 0x800) {
+                dst[index++] = (byte) (0xC0 | (c >> 6));
+                dst[index++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(buffer[i + 1])) {
+                final int codePoint = Character.toCodePoint(c, buffer[++i]);
+                dst[index++] = (byte) (0xF0 | (codePoint >> 18));
+                dst[index++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                dst[index++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                dst[index++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                dst[index++] = (byte) (0xE0 | (c >> 12));
+                dst[index++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                dst[index++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return index;
+    }
+
+    /**
+     * The maximum number of chars a value formatted by the fast path can have.
+     */
+    public int getMaximumLength() {
+        return prefix.length + suffix.length + MAX_NUMBER_LENGTH + minIntegerDigits * 2;
+    }
+
+    public double parse(final CharSequence source) throws ParseException {
+        return parse(source, 0, source.length());
+    }
+
+    /**
+     * Parses the given range which should only contain a value in this format. The prefix and suffix are optional.
+     */
+    public double parse(final CharSequence source, final int start, final int end) throws ParseException {
+        int i = start;
+        boolean negative = false;
+        if (i < end && source.charAt(i) == minusSign) {
+            negative = true;
+            i++;
+        }
+        if (regionMatches(source, i, end, prefix)) {
+            i += prefix.length;
+        }
+        final int numberStart = i;
+        long mantissa = 0L;
+        int fractionDigits = 0;
+        boolean digitFound = false;
+        boolean afterDecimalSeparator = false;
+        boolean overflow = false;
+        for (; i < end; i++) {
+            final char c = source.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digitFound = true;
+                if (mantissa >= (Long.MAX_VALUE - 9L) / 10L) {
+                    overflow = true;
+                } else {
+                    mantissa = mantissa * 10L + (c - '0');
+                    if (afterDecimalSeparator) {
+                        fractionDigits++;
+                    }
+                }
+            } else if (c == decimalSeparator && !afterDecimalSeparator) {
+                afterDecimalSeparator = true;
+            } else if (c == groupingSeparator && !afterDecimalSeparator) {
+                continue;
+            } else {
+                break;
+            }
+        }
+        final int numberEnd = i;
+        if (regionMatches(source, i, end, suffix)) {
+            i += suffix.length;
+        }
+        if (!digitFound || i != end) {
+            throw new ParseException("Unparseable number [" + source.subSequence(start, end) + "] for pattern ["
+                    + pattern + "]", i);
+        }
+        final double value;
+        if (!overflow && mantissa < DoubleDigits.MAX_EXACT_INTEGER
+                && fractionDigits <= DoubleDigits.MAX_EXACT_POWER_OF_TEN) {
+            //both operands are exact, thus the division is correctly rounded
+            value = mantissa / DoubleDigits.POWERS_OF_TEN_DOUBLE[fractionDigits];
+        } else {
+            value = parseSlow(source, numberStart, numberEnd);
+        }
+        if (negative) {
+            return -value;
+        } else {
+            return value;
+        }
+    }
+
+    /**
+     * Only looks at the number itself, since the prefix might contain digits or separators as well.
+     */
+    private double parseSlow(final CharSequence source, final int numberStart, final int numberEnd) {
+        final StringBuilder digits = new StringBuilder(numberEnd - numberStart);
+        for (int i = numberStart; i < numberEnd; i++) {
+            final char c = source.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            } else if (c == decimalSeparator) {
+                digits.append('.');
+            }
+        }
+        return Double.parseDouble(digits.toString());
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+
+    /**
+     * Returns the index after the last written char or -1 if the value needs to be formatted by the DecimalFormat.
+     */
+    private int tryFormat(final double value, final char[] dst, final int offset) {
+        if (!compiled) {
+            return -1;
+        }
+        final long unscaled = toUnscaledValue(Math.abs(value));
+        if (unscaled < 0L) {
+            return -1;
+        }
+        return write(value < 0D && unscaled != 0L, unscaled, dst, offset);
+    }
+
+    /**
+     * Returns the rounded absolute value scaled by the maximum fraction digits or -1 if the fast path can not handle
+     * it.
+     */
+    private long toUnscaledValue(final double abs) {
+        if (!(abs < Double.MAX_VALUE)) {
+            //NaN or Infinity
+            return -1L;
+        }
+        final double scaled = abs * DoubleDigits.POWERS_OF_TEN_DOUBLE[maxFractionDigits];
+        if (!(scaled < MAX_FAST_SCALED_VALUE)) {
+            /*
+             * DecimalFormat rounds the shortest representation of the double instead of the exact binary value, which
+             * makes a difference once the fraction digits exceed the precision of the double
+             */
+            return -1L;
+        }
+        final double floor = Math.floor(scaled);
+        final double remainder = scaled - floor;
+        /*
+         * The product is correctly rounded and ties are representable below 2^52, thus the product can only end up on
+         * the wrong side of a tie by landing exactly on it. In that case the exact binary value decides, as it does for
+         * DecimalFormat.
+         */
+        if (remainder != 0.5D && isHalfRoundingMode()) {
+            if (remainder > 0.5D) {
+                return (long) floor + 1L;
+            } else {
+                return (long) floor;
+            }
+        }
+        return new BigDecimal(abs).setScale(maxFractionDigits, roundingMode).unscaledValue().longValue();
+    }
+
+    private boolean isHalfRoundingMode() {
+        return roundingMode == RoundingMode.HALF_UP || roundingMode == RoundingMode.HALF_EVEN
+                || roundingMode == RoundingMode.HALF_DOWN;
+    }
+
+    private int write(final boolean negative, final long unscaled, final char[] dst, final int offset) {
+        long digits = unscaled;
+        int fractionDigits = maxFractionDigits;
+        while (fractionDigits > minFractionDigits && digits % 10L == 0L) {
+            digits /= 10L;
+            fractionDigits--;
+        }
+        final long divisor = DoubleDigits.POWERS_OF_TEN_LONG[fractionDigits];
+        final long integerPart = digits / divisor;
+        final long fractionPart = digits % divisor;
+
+        int index = offset;
+        if (negative) {
+            dst[index++] = minusSign;
+        }
+        System.arraycopy(prefix, 0, dst, index, prefix.length);
+        index += prefix.length;
+
+        int integerDigits;
+        if (integerPart == 0L) {
+            integerDigits = minIntegerDigits;
+            if (integerDigits == 0 && fractionDigits == 0) {
+                //DecimalFormat prints a zero when nothing else would be printed
+                integerDigits = 1;
+            }
+        } else {
+            integerDigits = Math.max(minIntegerDigits, DoubleDigits.countDigits(integerPart));
+        }
+        for (int position = integerDigits - 1; position >= 0; position--) {
+            final long digit;
+            if (position >= DoubleDigits.POWERS_OF_TEN_LONG.length) {
+                digit = 0L;
+            } else {
+                digit = integerPart / DoubleDigits.POWERS_OF_TEN_LONG[position] % 10L;
+            }
+            dst[index++] = (char) ('0' + digit);
+            if (groupingSize > 0 && position > 0 && position % groupingSize == 0) {
+                dst[index++] = groupingSeparator;
+            }
+        }
+
+        if (fractionDigits > 0 || decimalSeparatorAlwaysShown) {
+            dst[index++] = decimalSeparator;
+        }
+        for (int position = fractionDigits - 1; position >= 0; position--) {
+            dst[index++] = (char) ('0' + fractionPart / DoubleDigits.POWERS_OF_TEN_LONG[position] % 10L);
+        }
+
+        System.arraycopy(suffix, 0, dst, index, suffix.length);
+        index += suffix.length;
+        return index;
+    }
+
+    private String fallbackFormat(final Object value) {
+        final String str = fallbackFormat.get().format(value);
+        return removeNegativeZeroSign(str);
+    }
+
+    private String fallbackFormat(final double value) {
+        final String str = fallbackFormat.get().format(value);
+        return removeNegativeZeroSign(str);
+    }
+
+    private String removeNegativeZeroSign(final String str) {
+        final int minusIndex = str.indexOf(minusSign);
+        if (minusIndex < 0) {
+            return str;
+        }
+        for (int i = 0; i < str.length(); i++) {
+            final char c = str.charAt(i);
+            if (c >= '1' && c <= '9') {
+                return str;
+            }
+        }
+        return str.substring(0, minusIndex) + str.substring(minusIndex + 1);
+    }
+
+    private char[] getCharBuffer() {
+        final char[] buffer = CHAR_BUFFER.get();
+        if (buffer.length < getMaximumLength()) {
+            final char[] newBuffer = new char[getMaximumLength()];
+            CHAR_BUFFER.set(newBuffer);
+            return newBuffer;
+        }
+        return buffer;
+    }
+
+    private static boolean isFastPathNumber(final Number value) {
+        if (value instanceof Double || value instanceof Float || value instanceof Integer || value instanceof Short
+                || value instanceof Byte) {
+            return true;
+        }
+        if (value instanceof Long) {
+            final long longValue = value.longValue();
+            return longValue < DoubleDigits.MAX_EXACT_INTEGER && longValue > -DoubleDigits.MAX_EXACT_INTEGER;
+        }
+        return false;
+    }
+
+    private static boolean regionMatches(final CharSequence source, final int start, final int end,
+            final char[] literal) {
+        if (literal.length == 0 || end - start < literal.length) {
+            return false;
+        }
+        for (int i = 0; i < literal.length; i++) {
+            if (source.charAt(start + i) != literal[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a cached instance for the default decimal format symbols.
+     */
+    public static FastDecimalFormat getInstance(final String pattern) {
+        return PATTERN_CACHE.get(pattern);
+    }
+
+    public static FastDecimalFormat getInstance(final String pattern, final Locale locale) {
+        return getInstance(pattern, DecimalFormatSymbols.getInstance(locale));
+    }
+
+    /**
+     * Creates a new instance, callers should keep it for reuse.
+     */
+    public static FastDecimalFormat getInstance(final String pattern, final DecimalFormatSymbols symbols) {
+        if (symbols.equals(Decimal.DEFAULT_DECIMAL_FORMAT_SYMBOLS)) {
+            return getInstance(pattern);
+        }
+        return new FastDecimalFormat(pattern, symbols);
+    }
+
+}
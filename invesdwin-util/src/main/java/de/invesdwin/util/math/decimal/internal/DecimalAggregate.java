@@ -5,11 +5,12 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
+import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
 import org.apache.commons.math3.random.RandomGenerator;
-import org.apache.commons.math3.stat.descriptive.rank.Median;
 
 import de.invesdwin.util.assertions.Assertions;
 import de.invesdwin.util.collections.Lists;
@@ -17,18 +18,19 @@ import de.invesdwin.util.collections.iterable.ICloseableIterator;
 import de.invesdwin.util.collections.iterable.WrapperCloseableIterable;
 import de.invesdwin.util.math.decimal.ADecimal;
 import de.invesdwin.util.math.decimal.Decimal;
+import de.invesdwin.util.math.decimal.DecimalArrays;
+import de.invesdwin.util.math.decimal.DecimalReductions;
 import de.invesdwin.util.math.decimal.IDecimalAggregate;
 import de.invesdwin.util.math.decimal.config.BSplineInterpolationConfig;
 import de.invesdwin.util.math.decimal.config.InterpolationConfig;
 import de.invesdwin.util.math.decimal.config.LoessInterpolationConfig;
+import de.invesdwin.util.math.decimal.scaled.Percent;
 import de.invesdwin.util.math.decimal.stream.DecimalPoint;
-import de.invesdwin.util.math.decimal.stream.DecimalStreamAvg;
-import de.invesdwin.util.math.decimal.stream.DecimalStreamAvgWeightedAsc;
 import de.invesdwin.util.math.decimal.stream.DecimalStreamGeomAvg;
 import de.invesdwin.util.math.decimal.stream.DecimalStreamNormalization;
 import de.invesdwin.util.math.decimal.stream.DecimalStreamRelativeDetrending;
 import de.invesdwin.util.math.decimal.stream.DecimalStreamRemoveFlatSequences;
-import de.invesdwin.util.math.decimal.stream.DecimalStreamSum;
+import de.invesdwin.util.math.decimal.stream.DecimalStreamSummary;
 
 @ThreadSafe
 public class DecimalAggregate<E extends ADecimal<E>> implements IDecimalAggregate<E> {
@@ -36,6 +38,8 @@ public class DecimalAggregate<E extends ADecimal<E>> implements IDecimalAggregat
     private E converter;
     private final List<E> values;
     private final DecimalAggregateRandomizers<E> bootstraps = new DecimalAggregateRandomizers<E>(this);
+    @GuardedBy("this")
+    private double[] defaultValues;
 
     public DecimalAggregate(final List<? extends E> values, final E converter) {
         this.values = Collections.unmodifiableList(values);
@@ -62,27 +66,28 @@ public class DecimalAggregate<E extends ADecimal<E>> implements IDecimalAggregat
      */
     @Override
     public IDecimalAggregate<E> growthRates() {
-        final List<E> growthRates = new ArrayList<E>(size());
-        E previousValue = null;
-        for (final E value : values) {
-            if (previousValue != null) {
-                growthRates.add(previousValue.growthRate(value));
+        final double[] growthRates = DecimalArrays.growthRates(DecimalArrays.toDefaultValues(values), null);
+        final List<E> converted = new ArrayList<E>(growthRates.length);
+        for (int i = 0; i < growthRates.length; i++) {
+            final double growthRate;
+            if (values.get(i).isZero()) {
+                //0 might be represented by a value slightly different from 0
+                growthRate = 0D;
+            } else {
+                growthRate = growthRates[i];
             }
-            previousValue = value;
+            converted.add(values.get(i + 1).fromDefaultValue(growthRate));
         }
-        return new DecimalAggregate<E>(growthRates, getConverter());
+        return new DecimalAggregate<E>(converted, getConverter());
     }
 
     public IDecimalAggregate<E> absoluteChanges() {
-        final List<E> differences = new ArrayList<E>(size());
-        E previousValue = null;
-        for (final E value : values) {
-            if (previousValue != null) {
-                differences.add(value.subtract(previousValue));
-            }
-            previousValue = value;
+        final double[] differences = DecimalArrays.absoluteChanges(DecimalArrays.toDefaultValues(values), null);
+        final List<E> converted = new ArrayList<E>(differences.length);
+        for (int i = 0; i < differences.length; i++) {
+            converted.add(values.get(i + 1).fromDefaultValue(differences[i]));
         }
-        return new DecimalAggregate<E>(differences, getConverter());
+        return new DecimalAggregate<E>(converted, getConverter());
     }
 
     /**
@@ -111,11 +116,15 @@ public class DecimalAggregate<E extends ADecimal<E>> implements IDecimalAggregat
      */
     @Override
     public E avgWeightedAsc() {
-        final DecimalStreamAvgWeightedAsc<E> avgWeightedAsc = new DecimalStreamAvgWeightedAsc<E>(getConverter());
-        for (final E value : values) {
-            avgWeightedAsc.process(value);
+        final int size = size();
+        if (size == 0) {
+            return getConverter().zero();
         }
-        return avgWeightedAsc.getAvgWeightedAsc();
+        final ForkJoinPool pool = DecimalReductions.getPool(size);
+        final double weightedSum = DecimalReductions.weightedSumAsc(getDefaultValues(), pool);
+        //sum of the weights 1 to n
+        final double sumOfWeights = (double) size * (size + 1) / 2;
+        return getConverter().fromDefaultValue(new Decimal(weightedSum / sumOfWeights));
     }
 
     /**
@@ -135,11 +144,9 @@ public class DecimalAggregate<E extends ADecimal<E>> implements IDecimalAggregat
 
     @Override
     public E sum() {
-        final DecimalStreamSum<E> sum = new DecimalStreamSum<E>(getConverter());
-        for (final E value : values) {
-            sum.process(value);
-        }
-        return sum.getSum();
+        final ForkJoinPool pool = DecimalReductions.getPool(size());
+        final double sum = DecimalReductions.sum(getDefaultValues(), pool);
+        return getConverter().fromDefaultValue(new Decimal(sum));
     }
 
     /**
@@ -149,23 +156,50 @@ public class DecimalAggregate<E extends ADecimal<E>> implements IDecimalAggregat
      */
     @Override
     public E avg() {
-        final DecimalStreamAvg<E> sum = new DecimalStreamAvg<E>(getConverter());
-        for (final E value : values) {
-            sum.process(value);
+        final int size = size();
+        if (size == 0) {
+            return getConverter().fromDefaultValue(new Decimal(0D));
         }
-        return sum.getAvg();
+        final ForkJoinPool pool = DecimalReductions.getPool(size);
+        final double sum = DecimalReductions.sum(getDefaultValues(), pool);
+        return getConverter().fromDefaultValue(new Decimal(sum / size));
     }
 
     @Override
     public E median() {
-        final double[] doubleValues = new double[values.size()];
+        final double median = DecimalArrays.median(getDefaultValues().clone());
+        return getConverter().fromDefaultValue(new Decimal(median));
+    }
+
+    @Override
+    public E quantile(final Percent quantile) {
+        final double value = DecimalArrays.quantile(getDefaultValues().clone(),
+                quantile.getRate().doubleValueRaw());
+        return getConverter().fromDefaultValue(new Decimal(value));
+    }
+
+    @Override
+    public List<E> quantiles(final Percent... quantiles) {
+        final double[] rates = new double[quantiles.length];
+        for (int i = 0; i < quantiles.length; i++) {
+            rates[i] = quantiles[i].getRate().doubleValueRaw();
+        }
+        final double[] results = DecimalArrays.quantiles(getDefaultValues().clone(), rates, null);
+        final E converter = getConverter();
+        final List<E> converted = new ArrayList<E>(results.length);
+        for (int i = 0; i < results.length; i++) {
+            converted.add(converter.fromDefaultValue(new Decimal(results[i])));
+        }
+        return converted;
+    }
+
+    @Override
+    public DecimalStreamSummary<E> summary() {
+        final DecimalStreamSummary<E> summary = new DecimalStreamSummary<E>(getConverter());
         for (int i = 0; i < values.size(); i++) {
-            final E next = values.get(i);
-            doubleValues[i] = next.getDefaultValue().doubleValueRaw();
+            summary.process(values.get(i));
         }
-        final Median medianAlgo = new Median();
-        final double median = medianAlgo.evaluate(doubleValues);
-        return getConverter().fromDefaultValue(new Decimal(median));
+        return summary;
     }
 
     /**
@@ -175,11 +209,9 @@ public class DecimalAggregate<E extends ADecimal<E>> implements IDecimalAggregat
      */
     @Override
     public E product() {
-        Decimal product = Decimal.ONE;
-        for (final E value : values) {
-            product = product.multiply(value.getDefaultValue());
-        }
-        return getConverter().fromDefaultValue(product);
+        final ForkJoinPool pool = DecimalReductions.getPool(size());
+        final double product = DecimalReductions.product(getDefaultValues(), pool);
+        return getConverter().fromDefaultValue(new Decimal(product));
     }
 
     /**
@@ -245,12 +277,7 @@ public class DecimalAggregate<E extends ADecimal<E>> implements IDecimalAggregat
      */
     @Override
     public E sampleStandardDeviation() {
-        final E avg = avg();
-        Decimal sum = Decimal.ZERO;
-        for (final E value : values) {
-            sum = sum.add(value.subtract(avg).getDefaultValue().pow(2));
-        }
-        return getConverter().fromDefaultValue(sum.divide(size() - 1).sqrt());
+        return getConverter().fromDefaultValue(new Decimal(Math.sqrt(sumOfSquaredDeviations(size() - 1))));
     }
 
     /**
@@ -258,12 +285,7 @@ public class DecimalAggregate<E extends ADecimal<E>> implements IDecimalAggregat
      */
     @Override
     public E standardDeviation() {
-        final E avg = avg();
-        Decimal sum = Decimal.ZERO;
-        for (final E value : values) {
-            sum = sum.add(value.subtract(avg).getDefaultValue().pow(2));
-        }
-        return getConverter().fromDefaultValue(sum.divide(size()).sqrt());
+        return getConverter().fromDefaultValue(new Decimal(Math.sqrt(sumOfSquaredDeviations(size()))));
     }
 
     /**
@@ -271,12 +293,7 @@ public class DecimalAggregate<E extends ADecimal<E>> implements IDecimalAggregat
      */
     @Override
     public E variance() {
-        final E avg = avg();
-        Decimal sum = Decimal.ZERO;
-        for (final E value : values) {
-            sum = sum.add(value.subtract(avg).getDefaultValue().pow(2));
-        }
-        return getConverter().fromDefaultValue(sum.divide(size() - 1));
+        return getConverter().fromDefaultValue(new Decimal(sumOfSquaredDeviations(size() - 1)));
     }
 
     /**
@@ -286,12 +303,32 @@ public class DecimalAggregate<E extends ADecimal<E>> implements IDecimalAggregat
      */
     @Override
     public E sampleVariance() {
-        final E avg = avg();
-        Decimal sum = Decimal.ZERO;
-        for (final E value : values) {
-            sum = sum.add(value.subtract(avg).getDefaultValue().pow(2));
+        return getConverter().fromDefaultValue(new Decimal(sumOfSquaredDeviations(size())));
+    }
+
+    /**
+     * sum((x_i - x_quer)^2) / divisor, 0 if the divisor is not positive like a division by zero of decimals
+     */
+    private double sumOfSquaredDeviations(final int divisor) {
+        if (divisor <= 0) {
+            return 0D;
+        }
+        final int size = size();
+        final ForkJoinPool pool = DecimalReductions.getPool(size);
+        final double[] defaultValues = getDefaultValues();
+        final double avg = DecimalReductions.sum(defaultValues, pool) / size;
+        return DecimalReductions.sumOfSquaredDeviations(defaultValues, avg, pool) / divisor;
+    }
+
+    /**
+     * Converted once and shared by all reductions, null values are converted to 0. Selections reorder their values,
+     * thus they need to work on a copy.
+     */
+    private synchronized double[] getDefaultValues() {
+        if (defaultValues == null) {
+            defaultValues = DecimalReductions.toDefaultValues(values, DecimalReductions.getPool(values.size()));
         }
-        return getConverter().fromDefaultValue(sum.divide(size()));
+        return defaultValues;
     }
 
     @Override
@@ -435,38 +472,58 @@ public class DecimalAggregate<E extends ADecimal<E>> implements IDecimalAggregat
 
     @Override
     public IDecimalAggregate<E> addEach(final E augend) {
-        final List<E> added = new ArrayList<E>(size());
-        for (final E value : values) {
-            added.add(value.add(augend));
+        if (augend == null) {
+            return this;
         }
-        return new DecimalAggregate<E>(added, getConverter());
+        return fromDefaultValuesEach(
+                DecimalArrays.add(DecimalArrays.toDefaultValues(values), augend.doubleValueRaw(), null));
     }
 
     @Override
     public IDecimalAggregate<E> subtractEach(final E subtrahend) {
-        final List<E> subtracted = new ArrayList<E>(size());
-        for (final E value : values) {
-            subtracted.add(value.subtract(subtrahend));
+        if (subtrahend == null) {
+            return this;
         }
-        return new DecimalAggregate<E>(subtracted, getConverter());
+        return fromDefaultValuesEach(
+                DecimalArrays.subtract(DecimalArrays.toDefaultValues(values), subtrahend.doubleValueRaw(), null));
     }
 
     @Override
     public IDecimalAggregate<E> multiplyEach(final E multiplicant) {
-        final List<E> multiplied = new ArrayList<E>(size());
-        for (final E value : values) {
-            multiplied.add(value.add(multiplicant));
+        final double multiplicantValue;
+        if (multiplicant == null) {
+            multiplicantValue = 0D;
+        } else {
+            multiplicantValue = multiplicant.doubleValueRaw();
         }
-        return new DecimalAggregate<E>(multiplied, getConverter());
+        return fromDefaultValuesEach(
+                DecimalArrays.multiply(DecimalArrays.toDefaultValues(values), multiplicantValue, null));
     }
 
+    /**
+     * If the divisor is 0, 0 is returned for each value.
+     */
     @Override
     public IDecimalAggregate<E> divideEach(final E divisor) {
-        final List<E> divided = new ArrayList<E>(size());
-        for (final E value : values) {
-            divided.add(value.add(divisor));
+        final double divisorValue;
+        if (divisor == null || divisor.isZero()) {
+            divisorValue = 0D;
+        } else {
+            divisorValue = divisor.doubleValueRaw();
         }
-        return new DecimalAggregate<E>(divided, getConverter());
+        return fromDefaultValuesEach(
+                DecimalArrays.divide(DecimalArrays.toDefaultValues(values), divisorValue, null));
+    }
+
+    /**
+     * Each result keeps the type and scale of the value it was calculated from.
+     */
+    private IDecimalAggregate<E> fromDefaultValuesEach(final double[] defaultValues) {
+        final List<E> converted = new ArrayList<E>(defaultValues.length);
+        for (int i = 0; i < defaultValues.length; i++) {
+            converted.add(values.get(i).fromDefaultValue(defaultValues[i]));
+        }
+        return new DecimalAggregate<E>(converted, getConverter());
     }
 
     @Override
@@ -633,29 +690,61 @@ public class DecimalAggregate<E extends ADecimal<E>> implements IDecimalAggregat
         return bootstraps.randomizeShuffle(random);
     }
 
+    @Override
+    public double[] randomizeShuffle(final RandomGenerator random, final double[] destination) {
+        return bootstraps.randomizeShuffle(random, destination);
+    }
+
     @Override
     public Iterator<E> randomizeWeightedChunksAscending(final RandomGenerator random, final int chunkCount) {
         return bootstraps.randomizeWeightedChunksAscending(random, chunkCount);
     }
 
+    @Override
+    public double[] randomizeWeightedChunksAscending(final RandomGenerator random, final int chunkCount,
+            final double[] destination) {
+        return bootstraps.randomizeWeightedChunksAscending(random, chunkCount, destination);
+    }
+
     @Override
     public Iterator<E> randomizeWeightedChunksDescending(final RandomGenerator random, final int chunkCount) {
         return bootstraps.randomizeWeightedChunksDescending(random, chunkCount);
     }
 
+    @Override
+    public double[] randomizeWeightedChunksDescending(final RandomGenerator random, final int chunkCount,
+            final double[] destination) {
+        return bootstraps.randomizeWeightedChunksDescending(random, chunkCount, destination);
+    }
+
     @Override
     public Iterator<E> randomizeBootstrap(final RandomGenerator random) {
         return bootstraps.randomizeBootstrap(random);
     }
 
+    @Override
+    public double[] randomizeBootstrap(final RandomGenerator random, final double[] destination) {
+        return bootstraps.randomizeBootstrap(random, destination);
+    }
+
     @Override
     public Iterator<E> randomizeCircularBlockBootstrap(final RandomGenerator random) {
         return bootstraps.randomizeCircularBootstrap(random);
     }
 
+    @Override
+    public double[] randomizeCircularBlockBootstrap(final RandomGenerator random, final double[] destination) {
+        return bootstraps.randomizeCircularBootstrap(random, destination);
+    }
+
     @Override
     public Iterator<E> randomizeStationaryBootstrap(final RandomGenerator random) {
         return bootstraps.randomizeStationaryBootstrap(random);
     }
 
+    @Override
+    public double[] randomizeStationaryBootstrap(final RandomGenerator random, final double[] destination) {
+        return bootstraps.randomizeStationaryBootstrap(random, destination);
+    }
+
 }
@@ -1,13 +1,16 @@
 package de.invesdwin.util.math.decimal.internal;
 
 import java.util.Iterator;
+import java.util.List;
 
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
 import org.apache.commons.math3.random.RandomGenerator;
 
+import de.invesdwin.util.collections.primitive.IntObjectOpenHashMap;
 import de.invesdwin.util.math.decimal.ADecimal;
+import de.invesdwin.util.math.decimal.DecimalReductions;
 import de.invesdwin.util.math.decimal.IDecimalAggregate;
 import de.invesdwin.util.math.decimal.internal.randomize.BootstrapRandomizer;
 import de.invesdwin.util.math.decimal.internal.randomize.CircularBootstrapRandomizer;
@@ -20,35 +23,116 @@ public class DecimalAggregateRandomizers<E extends ADecimal<E>> {
 
     private final IDecimalAggregate<E> parent;
 
+    @GuardedBy("this")
+    private double[] defaultValues;
+    @GuardedBy("this")
+    private double[] reversedDefaultValues;
+    @GuardedBy("this")
+    private ShuffleRandomizer<E> shuffleRandomizer;
+    @GuardedBy("this")
+    private BootstrapRandomizer<E> bootstrapRandomizer;
     @GuardedBy("this")
     private CircularBootstrapRandomizer<E> circularBootstrapRandomizer;
     @GuardedBy("this")
     private StationaryBootstrapRandomizer<E> stationaryBootstrapRandomizer;
+    /**
+     * by chunkCount, usually only one or two different chunk counts are used per aggregate
+     */
+    @GuardedBy("this")
+    private IntObjectOpenHashMap<WeightedChunksAscendingRandomizer<E>> weightedChunksAscendingRandomizers;
+    @GuardedBy("this")
+    private IntObjectOpenHashMap<WeightedChunksAscendingRandomizer<E>> weightedChunksDescendingRandomizers;
 
     public DecimalAggregateRandomizers(final IDecimalAggregate<E> parent) {
         this.parent = parent;
     }
 
     public Iterator<E> randomizeShuffle(final RandomGenerator random) {
-        return new ShuffleRandomizer<E>(parent).randomize(random);
+        return getShuffleRandomizer().randomize(random);
+    }
+
+    public double[] randomizeShuffle(final RandomGenerator random, final double[] destination) {
+        return getShuffleRandomizer().randomize(random, getDefaultValues(), destination);
+    }
+
+    private synchronized ShuffleRandomizer<E> getShuffleRandomizer() {
+        if (shuffleRandomizer == null) {
+            shuffleRandomizer = new ShuffleRandomizer<E>(parent);
+        }
+        return shuffleRandomizer;
     }
 
     public Iterator<E> randomizeWeightedChunksAscending(final RandomGenerator random, final int chunkCount) {
-        return new WeightedChunksAscendingRandomizer<E>(parent, chunkCount).randomize(random);
+        return getWeightedChunksAscendingRandomizer(chunkCount).randomize(random);
+    }
+
+    public double[] randomizeWeightedChunksAscending(final RandomGenerator random, final int chunkCount,
+            final double[] destination) {
+        return getWeightedChunksAscendingRandomizer(chunkCount).randomize(random, getDefaultValues(), destination);
+    }
+
+    private synchronized WeightedChunksAscendingRandomizer<E> getWeightedChunksAscendingRandomizer(
+            final int chunkCount) {
+        if (weightedChunksAscendingRandomizers == null) {
+            weightedChunksAscendingRandomizers = new IntObjectOpenHashMap<WeightedChunksAscendingRandomizer<E>>(1);
+        }
+        WeightedChunksAscendingRandomizer<E> randomizer = weightedChunksAscendingRandomizers.get(chunkCount);
+        if (randomizer == null) {
+            randomizer = new WeightedChunksAscendingRandomizer<E>(parent, chunkCount);
+            weightedChunksAscendingRandomizers.put(chunkCount, randomizer);
+        }
+        return randomizer;
     }
 
     public Iterator<E> randomizeWeightedChunksDescending(final RandomGenerator random, final int chunkCount) {
-        return new WeightedChunksAscendingRandomizer<E>(parent.reverse(), chunkCount).randomize(random);
+        return getWeightedChunksDescendingRandomizer(chunkCount).randomize(random);
+    }
+
+    public double[] randomizeWeightedChunksDescending(final RandomGenerator random, final int chunkCount,
+            final double[] destination) {
+        return getWeightedChunksDescendingRandomizer(chunkCount).randomize(random, getReversedDefaultValues(),
+                destination);
+    }
+
+    /**
+     * The reversed parent is only needed once per chunkCount, since the randomizer keeps the chunks of it.
+     */
+    private synchronized WeightedChunksAscendingRandomizer<E> getWeightedChunksDescendingRandomizer(
+            final int chunkCount) {
+        if (weightedChunksDescendingRandomizers == null) {
+            weightedChunksDescendingRandomizers = new IntObjectOpenHashMap<WeightedChunksAscendingRandomizer<E>>(1);
+        }
+        WeightedChunksAscendingRandomizer<E> randomizer = weightedChunksDescendingRandomizers.get(chunkCount);
+        if (randomizer == null) {
+            randomizer = new WeightedChunksAscendingRandomizer<E>(parent.reverse(), chunkCount);
+            weightedChunksDescendingRandomizers.put(chunkCount, randomizer);
+        }
+        return randomizer;
     }
 
     public Iterator<E> randomizeBootstrap(final RandomGenerator random) {
-        return new BootstrapRandomizer<E>(parent).randomize(random);
+        return getBootstrapRandomizer().randomize(random);
+    }
+
+    public double[] randomizeBootstrap(final RandomGenerator random, final double[] destination) {
+        return getBootstrapRandomizer().randomize(random, getDefaultValues(), destination);
+    }
+
+    private synchronized BootstrapRandomizer<E> getBootstrapRandomizer() {
+        if (bootstrapRandomizer == null) {
+            bootstrapRandomizer = new BootstrapRandomizer<E>(parent);
+        }
+        return bootstrapRandomizer;
     }
 
     public Iterator<E> randomizeCircularBootstrap(final RandomGenerator random) {
         return getCircularBootstrapRandomizer().randomize(random);
     }
 
+    public double[] randomizeCircularBootstrap(final RandomGenerator random, final double[] destination) {
+        return getCircularBootstrapRandomizer().randomize(random, getDefaultValues(), destination);
+    }
+
     private synchronized CircularBootstrapRandomizer<E> getCircularBootstrapRandomizer() {
         if (circularBootstrapRandomizer == null) {
             circularBootstrapRandomizer = new CircularBootstrapRandomizer<E>(parent);
@@ -60,6 +144,10 @@ public class DecimalAggregateRandomizers<E extends ADecimal<E>> {
         return getStationaryBootstrapRandomizer().randomize(random);
     }
 
+    public double[] randomizeStationaryBootstrap(final RandomGenerator random, final double[] destination) {
+        return getStationaryBootstrapRandomizer().randomize(random, getDefaultValues(), destination);
+    }
+
     private synchronized StationaryBootstrapRandomizer<E> getStationaryBootstrapRandomizer() {
         if (stationaryBootstrapRandomizer == null) {
             stationaryBootstrapRandomizer = new StationaryBootstrapRandomizer<E>(parent);
@@ -67,4 +155,26 @@ public class DecimalAggregateRandomizers<E extends ADecimal<E>> {
         return stationaryBootstrapRandomizer;
     }
 
+    /**
+     * Converted once and shared by all resamples, null values are converted to 0.
+     */
+    private synchronized double[] getDefaultValues() {
+        if (defaultValues == null) {
+            final List<E> values = parent.values();
+            defaultValues = DecimalReductions.toDefaultValues(values, DecimalReductions.getPool(values.size()));
+        }
+        return defaultValues;
+    }
+
+    private synchronized double[] getReversedDefaultValues() {
+        if (reversedDefaultValues == null) {
+            final double[] values = getDefaultValues();
+            reversedDefaultValues = new double[values.length];
+            for (int i = 0; i < values.length; i++) {
+                reversedDefaultValues[i] = values[values.length - 1 - i];
+            }
+        }
+        return reversedDefaultValues;
+    }
+
 }
@@ -15,6 +15,8 @@ import de.invesdwin.util.math.decimal.IDecimalAggregate;
 import de.invesdwin.util.math.decimal.config.BSplineInterpolationConfig;
 import de.invesdwin.util.math.decimal.config.InterpolationConfig;
 import de.invesdwin.util.math.decimal.config.LoessInterpolationConfig;
+import de.invesdwin.util.math.decimal.scaled.Percent;
+import de.invesdwin.util.math.decimal.stream.DecimalStreamSummary;
 
 @Immutable
 public final class DummyDecimalAggregate<E extends ADecimal<E>> implements IDecimalAggregate<E> {
@@ -284,36 +286,83 @@ public final class DummyDecimalAggregate<E extends ADecimal<E>> implements IDeci
         return EmptyCloseableIterator.getInstance();
     }
 
+    @Override
+    public double[] randomizeShuffle(final RandomGenerator random, final double[] destination) {
+        return newEmptyDestination(destination);
+    }
+
     @Override
     public Iterator<E> randomizeBootstrap(final RandomGenerator random) {
         return EmptyCloseableIterator.getInstance();
     }
 
+    @Override
+    public double[] randomizeBootstrap(final RandomGenerator random, final double[] destination) {
+        return newEmptyDestination(destination);
+    }
+
     @Override
     public Iterator<E> randomizeCircularBlockBootstrap(final RandomGenerator random) {
         return EmptyCloseableIterator.getInstance();
     }
 
+    @Override
+    public double[] randomizeCircularBlockBootstrap(final RandomGenerator random, final double[] destination) {
+        return newEmptyDestination(destination);
+    }
+
     @Override
     public Iterator<E> randomizeStationaryBootstrap(final RandomGenerator random) {
         return EmptyCloseableIterator.getInstance();
     }
 
+    @Override
+    public double[] randomizeStationaryBootstrap(final RandomGenerator random, final double[] destination) {
+        return newEmptyDestination(destination);
+    }
+
     @Override
     public Iterator<E> randomizeWeightedChunksDescending(final RandomGenerator random, final int chunkCount) {
         return EmptyCloseableIterator.getInstance();
     }
 
+    @Override
+    public double[] randomizeWeightedChunksDescending(final RandomGenerator random, final int chunkCount,
+            final double[] destination) {
+        return newEmptyDestination(destination);
+    }
+
     @Override
     public Iterator<E> randomizeWeightedChunksAscending(final RandomGenerator random, final int chunkCount) {
         return EmptyCloseableIterator.getInstance();
     }
 
+    @Override
+    public double[] randomizeWeightedChunksAscending(final RandomGenerator random, final int chunkCount,
+            final double[] destination) {
+        return newEmptyDestination(destination);
+    }
+
     @Override
     public E median() {
         return null;
     }
 
+    @Override
+    public E quantile(final Percent quantile) {
+        return null;
+    }
+
+    @Override
+    public List<E> quantiles(final Percent... quantiles) {
+        return Collections.<E> nCopies(quantiles.length, null);
+    }
+
+    @Override
+    public DecimalStreamSummary<E> summary() {
+        return new DecimalStreamSummary<E>(null);
+    }
+
     @Override
     public IDecimalAggregate<E> sortAscending() {
         return this;
@@ -329,4 +378,11 @@ public final class DummyDecimalAggregate<E extends ADecimal<E>> implements IDeci
         return this;
     }
 
+    private static double[] newEmptyDestination(final double[] destination) {
+        if (destination == null) {
+            return new double[0];
+        }
+        return destination;
+    }
+
 }
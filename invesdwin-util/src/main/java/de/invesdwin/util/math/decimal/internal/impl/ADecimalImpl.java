@@ -57,58 +57,73 @@ public abstract class ADecimalImpl<E extends ADecimalImpl<E, V>, V>
 
     public int getWholeNumberDigits() {
         if (wholeNumberDigits == null) {
-            /*
-             * using string operations here because values get distorted even for BigDecimal when using
-             * scaleByPowerOfTen
-             */
-            final String s = toString();
-            final int indexOfDecimalPoint = s.indexOf(".");
-            if (indexOfDecimalPoint != -1) {
-                wholeNumberDigits = indexOfDecimalPoint;
-            } else {
-                wholeNumberDigits = Math.max(1, s.length());
-            }
+            wholeNumberDigits = internalGetWholeNumberDigits();
         }
         return wholeNumberDigits;
     }
 
+    /**
+     * The minus sign is counted as a digit here.
+     */
+    protected int internalGetWholeNumberDigits() {
+        /*
+         * using string operations here because values get distorted even for BigDecimal when using scaleByPowerOfTen
+         */
+        final String s = toString();
+        final int indexOfDecimalPoint = s.indexOf(".");
+        if (indexOfDecimalPoint != -1) {
+            return indexOfDecimalPoint;
+        } else {
+            return Math.max(1, s.length());
+        }
+    }
+
     /**
      * Returns the real scale without trailing zeros.
      */
     public int getDecimalDigits() {
         if (decimalDigits == null) {
-            /*
-             * using string operations here because values get distorted even for BigDecimal when using
-             * scaleByPowerOfTen
-             */
-            final String s = toString();
-            final int indexOfDecimalPoint = s.indexOf(".");
-            if (indexOfDecimalPoint != -1) {
-                decimalDigits = s.length() - indexOfDecimalPoint - 1;
-            } else {
-                decimalDigits = 0;
-            }
+            decimalDigits = internalGetDecimalDigits();
         }
         return decimalDigits;
     }
 
+    protected int internalGetDecimalDigits() {
+        /*
+         * using string operations here because values get distorted even for BigDecimal when using scaleByPowerOfTen
+         */
+        final String s = toString();
+        final int indexOfDecimalPoint = s.indexOf(".");
+        if (indexOfDecimalPoint != -1) {
+            return s.length() - indexOfDecimalPoint - 1;
+        } else {
+            return 0;
+        }
+    }
+
     public int getDigits() {
         if (digits == null) {
-            /*
-             * using string operations here because values get distorted even for BigDecimal when using
-             * scaleByPowerOfTen
-             */
-            final String s = toString();
-            final int indexOfDecimalPoint = s.indexOf(".");
-            if (indexOfDecimalPoint != -1) {
-                digits = s.length() - 1;
-            } else {
-                digits = Math.max(1, s.length());
-            }
+            digits = internalGetDigits();
         }
         return digits;
     }
 
+    /**
+     * The minus sign is counted as a digit here.
+     */
+    protected int internalGetDigits() {
+        /*
+         * using string operations here because values get distorted even for BigDecimal when using scaleByPowerOfTen
+         */
+        final String s = toString();
+        final int indexOfDecimalPoint = s.indexOf(".");
+        if (indexOfDecimalPoint != -1) {
+            return s.length() - 1;
+        } else {
+            return Math.max(1, s.length());
+        }
+    }
+
     public abstract boolean isZero();
 
     /**
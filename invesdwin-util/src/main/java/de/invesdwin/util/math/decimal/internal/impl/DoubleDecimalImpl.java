@@ -17,6 +17,8 @@ import de.invesdwin.util.error.UnknownArgumentException;
 import de.invesdwin.util.lang.Strings;
 import de.invesdwin.util.math.decimal.ADecimal;
 import de.invesdwin.util.math.decimal.Decimal;
+import de.invesdwin.util.math.decimal.format.DoubleDigits;
+import io.netty.util.concurrent.FastThreadLocal;
 
 @ThreadSafe
 public class DoubleDecimalImpl extends ADecimalImpl<DoubleDecimalImpl, Double> {
@@ -26,6 +28,12 @@ public class DoubleDecimalImpl extends ADecimalImpl<DoubleDecimalImpl, Double> {
     private static final Double ZERO = 0d;
     private static final Double NEGATIVE_ZERO = -0d;
     private static final DoubleDecimalImpl ZERO_IMPL = new DoubleDecimalImpl(ZERO, ZERO);
+    private static final FastThreadLocal<DoubleDigits> DOUBLE_DIGITS = new FastThreadLocal<DoubleDigits>() {
+        @Override
+        protected DoubleDigits initialValue() {
+            return new DoubleDigits();
+        }
+    };
 
     static {
         //ensure rounding performance fix uses correct scale
@@ -59,6 +67,10 @@ public class DoubleDecimalImpl extends ADecimalImpl<DoubleDecimalImpl, Double> {
 
     @Override
     public String internalToString() {
+        final DoubleDigits doubleDigits = getDoubleDigits();
+        if (doubleDigits != null) {
+            return doubleDigits.toString();
+        }
         final NumberFormat format = NumberFormat.getNumberInstance(Locale.ENGLISH);
         format.setMaximumFractionDigits(MathContext.DECIMAL128.getPrecision());
         format.setRoundingMode(Decimal.DEFAULT_ROUNDING_MODE);
@@ -66,6 +78,55 @@ public class DoubleDecimalImpl extends ADecimalImpl<DoubleDecimalImpl, Double> {
         return format.format(getDefaultRoundedValue());
     }
 
+    @Override
+    protected int internalGetWholeNumberDigits() {
+        final DoubleDigits doubleDigits = getDoubleDigits();
+        if (doubleDigits == null) {
+            return super.internalGetWholeNumberDigits();
+        }
+        return getWholeNumberDigits(doubleDigits);
+    }
+
+    @Override
+    protected int internalGetDecimalDigits() {
+        final DoubleDigits doubleDigits = getDoubleDigits();
+        if (doubleDigits == null) {
+            return super.internalGetDecimalDigits();
+        }
+        return doubleDigits.getDecimalDigits();
+    }
+
+    @Override
+    protected int internalGetDigits() {
+        final DoubleDigits doubleDigits = getDoubleDigits();
+        if (doubleDigits == null) {
+            return super.internalGetDigits();
+        }
+        return getWholeNumberDigits(doubleDigits) + doubleDigits.getDecimalDigits();
+    }
+
+    private static int getWholeNumberDigits(final DoubleDigits doubleDigits) {
+        if (doubleDigits.isNegative()) {
+            return doubleDigits.getIntegerDigits() + 1;
+        } else {
+            return doubleDigits.getIntegerDigits();
+        }
+    }
+
+    /**
+     * Returns null when the digits can not be determined without the string based implementation, which is also the
+     * case when the number format would have to round. The instance is thread local and thus only valid until the next
+     * call.
+     */
+    private DoubleDigits getDoubleDigits() {
+        final DoubleDigits doubleDigits = DOUBLE_DIGITS.get();
+        if (!doubleDigits.set(getDefaultRoundedValue())
+                || doubleDigits.getScale() > MathContext.DECIMAL128.getPrecision()) {
+            return null;
+        }
+        return doubleDigits;
+    }
+
     @Override
     protected int internalCompareTo(final ADecimal<?> decimalOther) {
         //improve compare performance by rounding less often
@@ -262,11 +323,33 @@ public class DoubleDecimalImpl extends ADecimalImpl<DoubleDecimalImpl, Double> {
 
     @Override
     protected Double internalRound(final Double value, final int scale, final RoundingMode roundingMode) {
+        return round(value, scale, roundingMode);
+    }
+
+    @Override
+    protected Double getZero() {
+        return ZERO;
+    }
+
+    @Override
+    protected DoubleDecimalImpl newValueCopy(final Double value, final Double defaultRoundedValue) {
+        return new DoubleDecimalImpl(value, defaultRoundedValue);
+    }
+
+    @Override
+    protected DoubleDecimalImpl getGenericThis() {
+        return this;
+    }
+
+    /**
+     * Rounds the same way as instances of this implementation do, without having to create one.
+     */
+    private static double round(final double value, final int scale, final RoundingMode roundingMode) {
         final long factor = (long) Math.pow(10, scale);
         final double toBeRoundedValue;
         if (scale < Decimal.DEFAULT_ROUNDING_SCALE && roundingMode != Decimal.DEFAULT_ROUNDING_MODE) {
             //fix 1 represented as 0.9999999 becoming 0 here instead of correctly being 1; for instance in FLOOR rounding mode
-            toBeRoundedValue = internalRound(value, scale + Decimal.DEFAULT_ROUNDING_SCALE,
+            toBeRoundedValue = round(value, scale + Decimal.DEFAULT_ROUNDING_SCALE,
                     Decimal.DEFAULT_ROUNDING_MODE) * factor;
         } else {
             toBeRoundedValue = value * factor;
@@ -325,19 +408,4 @@ public class DoubleDecimalImpl extends ADecimalImpl<DoubleDecimalImpl, Double> {
         return roundedValue / factor;
     }
 
-    @Override
-    protected Double getZero() {
-        return ZERO;
-    }
-
-    @Override
-    protected DoubleDecimalImpl newValueCopy(final Double value, final Double defaultRoundedValue) {
-        return new DoubleDecimalImpl(value, defaultRoundedValue);
-    }
-
-    @Override
-    protected DoubleDecimalImpl getGenericThis() {
-        return this;
-    }
-
 }
@@ -0,0 +1,631 @@
+package de.invesdwin.util.math.decimal.internal.impl;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.apache.commons.math3.dfp.Dfp;
+
+import de.invesdwin.util.error.UnknownArgumentException;
+import de.invesdwin.util.math.decimal.ADecimal;
+import de.invesdwin.util.math.decimal.Decimal;
+import de.invesdwin.util.math.decimal.format.DoubleDigits;
+import io.netty.util.concurrent.FastThreadLocal;
+
+/**
+ * Exact decimal arithmetic with a fixed scale of {@link Decimal#DEFAULT_ROUNDING_SCALE} digits. The value is either a
+ * Long mantissa (the decimal value multiplied by 10^9) or, when that would overflow, a BigDecimal with the same scale.
+ * Results of multiplications and divisions are rounded half up to the fixed scale, additions and subtractions are
+ * exact.
+ *
+ * Products and quotients of mantissas are estimated via double and then corrected with the exact remainder, which can
+ * be computed with wrapping long arithmetic since it is known to be small. Thus no 128 bit math or object allocation
+ * is needed unless the result does not fit into a long.
+ *
+ * Transcendental functions (log, exp, sqrt, pow, ...) are computed via double.
+ */
+@ThreadSafe
+public class FixedPointDecimalImpl extends ADecimalImpl<FixedPointDecimalImpl, Number> {
+
+    public static final int SCALE = Decimal.DEFAULT_ROUNDING_SCALE;
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+    private static final long FACTOR;
+    private static final double FACTOR_DOUBLE;
+    private static final Long ZERO = 0L;
+    /**
+     * the double estimate of a product or quotient needs to stay below this so that the remainder can be computed with
+     * wrapping long arithmetic
+     */
+    private static final double MAX_ESTIMATE = 1L << 62;
+    /**
+     * the error of the double estimate consists of up to four roundings, this is a conservative bound for that
+     */
+    private static final double ESTIMATE_RELATIVE_ERROR = 1D / (1L << 50);
+    private static final double MAX_EXACT_DOUBLE_MANTISSA = 1L << 53;
+    private static final FastThreadLocal<DoubleDigits> DOUBLE_DIGITS = new FastThreadLocal<DoubleDigits>() {
+        @Override
+        protected DoubleDigits initialValue() {
+            return new DoubleDigits();
+        }
+    };
+
+    static {
+        long pow = 1L;
+        for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = pow;
+            pow *= 10L;
+        }
+        FACTOR = POWERS_OF_TEN[SCALE];
+        FACTOR_DOUBLE = FACTOR;
+    }
+
+    public FixedPointDecimalImpl(final Number value, final Number defaultRoundedValue) {
+        super(value, defaultRoundedValue);
+    }
+
+    @Override
+    public boolean isZero() {
+        return signum(getValue()) == 0;
+    }
+
+    @Override
+    public boolean isPositive() {
+        return signum(getValue()) >= 0;
+    }
+
+    @Override
+    protected String internalToString() {
+        final Number value = getValue();
+        if (value instanceof Long) {
+            final long mantissa = (Long) value;
+            final StringBuilder sb = new StringBuilder(22);
+            if (mantissa < 0L) {
+                sb.append('-');
+            }
+            final long abs = Math.abs(mantissa);
+            sb.append(abs / FACTOR);
+            sb.append('.');
+            final long fraction = abs % FACTOR;
+            for (int i = SCALE - 1; i >= 0; i--) {
+                sb.append((char) ('0' + fraction / POWERS_OF_TEN[i] % 10L));
+            }
+            return sb.toString();
+        } else {
+            return ((BigDecimal) value).toPlainString();
+        }
+    }
+
+    @Override
+    protected int internalCompareTo(final ADecimal<?> decimalOther) {
+        return compare(getValue(), toFixedPoint(decimalOther));
+    }
+
+    @Override
+    public FixedPointDecimalImpl abs() {
+        if (signum(getValue()) >= 0) {
+            return this;
+        }
+        return negate();
+    }
+
+    private FixedPointDecimalImpl negate() {
+        final Number value = getValue();
+        if (value instanceof Long) {
+            //mantissas are never Long.MIN_VALUE
+            return newValueCopy(-(Long) value);
+        } else {
+            return newValueCopy(normalize(((BigDecimal) value).negate()));
+        }
+    }
+
+    @Override
+    public FixedPointDecimalImpl scaleByPowerOfTen(final int n) {
+        final Number value = getValue();
+        if (value instanceof Long && n != Integer.MIN_VALUE && Math.abs(n) < POWERS_OF_TEN.length) {
+            final long mantissa = (Long) value;
+            final long pow = POWERS_OF_TEN[Math.abs(n)];
+            if (n >= 0) {
+                if (Math.abs(mantissa) <= Long.MAX_VALUE / pow) {
+                    return newValueCopy(mantissa * pow);
+                }
+            } else {
+                return newValueCopy(divideRounded(mantissa, pow, Decimal.DEFAULT_ROUNDING_MODE));
+            }
+        }
+        return newValueCopy(normalize(toBigDecimal(value).scaleByPowerOfTen(n)));
+    }
+
+    @Override
+    public FixedPointDecimalImpl root(final Number n) {
+        final double log = Math.log(doubleValueRaw());
+        return newValueCopy(fromDouble(Math.exp(log / n.doubleValue())));
+    }
+
+    @Override
+    public FixedPointDecimalImpl root(final ADecimal<?> n) {
+        return root(n.doubleValueRaw());
+    }
+
+    @Override
+    public FixedPointDecimalImpl pow(final Number exponent) {
+        final double a = doubleValueRaw();
+        final double b = exponent.doubleValue();
+        double pow = Math.pow(a, b);
+        if (Double.isNaN(pow) && a < 0D) {
+            final double absA = Math.abs(a);
+            pow = -Math.pow(absA, b);
+        }
+        return newValueCopy(fromDouble(pow));
+    }
+
+    @Override
+    public FixedPointDecimalImpl pow(final ADecimal<?> exponent) {
+        return pow(exponent.doubleValueRaw());
+    }
+
+    @Override
+    public FixedPointDecimalImpl subtract(final ADecimal<?> subtrahend) {
+        return newValueCopy(subtract(getValue(), toFixedPoint(subtrahend)));
+    }
+
+    @Override
+    public FixedPointDecimalImpl add(final ADecimal<?> augend) {
+        return newValueCopy(add(getValue(), toFixedPoint(augend)));
+    }
+
+    @Override
+    public FixedPointDecimalImpl multiply(final Number multiplicant) {
+        return newValueCopy(multiply(getValue(), toFixedPoint(multiplicant)));
+    }
+
+    @Override
+    public FixedPointDecimalImpl multiply(final ADecimal<?> multiplicant) {
+        return newValueCopy(multiply(getValue(), toFixedPoint(multiplicant)));
+    }
+
+    @Override
+    public FixedPointDecimalImpl divide(final Number divisor) {
+        return newValueCopy(divide(getValue(), toFixedPoint(divisor)));
+    }
+
+    @Override
+    public FixedPointDecimalImpl divide(final ADecimal<?> divisor) {
+        return newValueCopy(divide(getValue(), toFixedPoint(divisor)));
+    }
+
+    @Override
+    public FixedPointDecimalImpl remainder(final Number divisor) {
+        return newValueCopy(remainder(getValue(), toFixedPoint(divisor)));
+    }
+
+    @Override
+    public FixedPointDecimalImpl remainder(final ADecimal<?> divisor) {
+        return newValueCopy(remainder(getValue(), toFixedPoint(divisor)));
+    }
+
+    @Override
+    protected Number internalRound(final Number value, final int scale, final RoundingMode roundingMode) {
+        if (scale >= SCALE) {
+            //already exact at this scale
+            return value;
+        }
+        final int digits = SCALE - scale;
+        if (value instanceof Long && digits < POWERS_OF_TEN.length) {
+            final long pow = POWERS_OF_TEN[digits];
+            final long quotient = divideRounded((Long) value, pow, roundingMode);
+            if (Math.abs(quotient) <= Long.MAX_VALUE / pow) {
+                return quotient * pow;
+            }
+        }
+        return normalize(toBigDecimal(value).setScale(scale, roundingMode));
+    }
+
+    @Override
+    protected Number getZero() {
+        return ZERO;
+    }
+
+    @Override
+    protected FixedPointDecimalImpl newValueCopy(final Number value, final Number defaultRoundedValue) {
+        return new FixedPointDecimalImpl(value, defaultRoundedValue);
+    }
+
+    @Override
+    protected FixedPointDecimalImpl getGenericThis() {
+        return this;
+    }
+
+    @Override
+    public FixedPointDecimalImpl sqrt() {
+        return newValueCopy(fromDouble(Math.sqrt(doubleValueRaw())));
+    }
+
+    @Override
+    public BigDecimal bigDecimalValue() {
+        return toBigDecimal(getValue());
+    }
+
+    @Override
+    public BigInteger bigIntegerValue() {
+        return bigDecimalValue().toBigInteger();
+    }
+
+    @Override
+    public int intValue() {
+        return (int) longValue();
+    }
+
+    @Override
+    public long longValue() {
+        final Number value = getValue();
+        if (value instanceof Long) {
+            return (Long) value / FACTOR;
+        } else {
+            return value.longValue();
+        }
+    }
+
+    @Override
+    public float floatValue() {
+        return (float) doubleValue();
+    }
+
+    @Override
+    public double doubleValue() {
+        return toDouble(getValue());
+    }
+
+    @Override
+    public double doubleValueRaw() {
+        return toDouble(getValue());
+    }
+
+    @Override
+    public byte byteValue() {
+        return (byte) longValue();
+    }
+
+    @Override
+    public short shortValue() {
+        return (short) longValue();
+    }
+
+    @Override
+    public Dfp dfpValue() {
+        return DfpDecimalImplFactory.toDfp(bigDecimalValue());
+    }
+
+    /**
+     * Returns a Double when it represents the value exactly enough for formatting, otherwise a BigDecimal.
+     */
+    @Override
+    public Number numberValue() {
+        final Number value = getValue();
+        if (value instanceof Long && Math.abs((Long) value) < MAX_EXACT_DOUBLE_MANTISSA) {
+            return toDouble(value);
+        } else {
+            return toBigDecimal(value);
+        }
+    }
+
+    @Override
+    public FixedPointDecimalImpl log() {
+        return newValueCopy(fromDouble(Math.log(doubleValueRaw())));
+    }
+
+    @Override
+    public FixedPointDecimalImpl exp() {
+        return newValueCopy(fromDouble(Math.exp(doubleValueRaw())));
+    }
+
+    @Override
+    public FixedPointDecimalImpl log10() {
+        return newValueCopy(fromDouble(Math.log10(doubleValueRaw())));
+    }
+
+    @Override
+    public FixedPointDecimalImpl exp10() {
+        return newValueCopy(fromDouble(Math.pow(10D, doubleValueRaw())));
+    }
+
+    @Override
+    public FixedPointDecimalImpl cos() {
+        return newValueCopy(fromDouble(Math.cos(doubleValueRaw())));
+    }
+
+    @Override
+    public FixedPointDecimalImpl sin() {
+        return newValueCopy(fromDouble(Math.sin(doubleValueRaw())));
+    }
+
+    private static Number toFixedPoint(final ADecimal<?> decimal) {
+        final ADecimalImpl<?, ?> impl = decimal.getImpl();
+        if (impl instanceof FixedPointDecimalImpl) {
+            return ((FixedPointDecimalImpl) impl).getValue();
+        } else {
+            return normalize(decimal.bigDecimalValue());
+        }
+    }
+
+    /**
+     * Converts any number into the Long mantissa or the BigDecimal with the fixed scale.
+     */
+    public static Number toFixedPoint(final Number number) {
+        if (number == null) {
+            return ZERO;
+        } else if (number instanceof Long || number instanceof Integer || number instanceof Short
+                || number instanceof Byte) {
+            return fromLong(number.longValue());
+        } else if (number instanceof Double || number instanceof Float) {
+            return fromDouble(number.doubleValue());
+        } else if (number instanceof ADecimal) {
+            return toFixedPoint((ADecimal<?>) number);
+        } else {
+            return normalize(BigDecimalDecimalImplFactory.toBigDecimal(number));
+        }
+    }
+
+    public static Number fromLong(final long value) {
+        if (Math.abs(value) <= Long.MAX_VALUE / FACTOR) {
+            return value * FACTOR;
+        } else {
+            return normalize(BigDecimal.valueOf(value));
+        }
+    }
+
+    /**
+     * Uses the shortest representation of the double like BigDecimal.valueOf(double) does, so that 0.1 becomes exactly
+     * 0.1.
+     */
+    public static Number fromDouble(final double value) {
+        if (Double.isNaN(value)) {
+            throw new IllegalArgumentException("NaN: " + value);
+        }
+        if (Double.isInfinite(value)) {
+            throw new IllegalArgumentException("Infinite: " + value);
+        }
+        final DoubleDigits digits = DOUBLE_DIGITS.get();
+        if (digits.set(value) && digits.getScale() <= SCALE) {
+            final int shift = SCALE - digits.getScale();
+            if (shift < POWERS_OF_TEN.length) {
+                final long pow = POWERS_OF_TEN[shift];
+                final long unscaled = digits.getUnscaledValue();
+                if (unscaled <= Long.MAX_VALUE / pow) {
+                    final long mantissa = unscaled * pow;
+                    if (digits.isNegative()) {
+                        return -mantissa;
+                    } else {
+                        return mantissa;
+                    }
+                }
+            }
+        }
+        return normalize(BigDecimal.valueOf(value));
+    }
+
+    /**
+     * Rounds to the fixed scale and returns a Long mantissa when it fits.
+     */
+    public static Number normalize(final BigDecimal value) {
+        final BigDecimal scaled = value.setScale(SCALE, Decimal.DEFAULT_ROUNDING_MODE);
+        final BigInteger unscaled = scaled.unscaledValue();
+        if (unscaled.bitLength() < Long.SIZE) {
+            final long mantissa = unscaled.longValue();
+            if (mantissa != Long.MIN_VALUE) {
+                return mantissa;
+            }
+        }
+        return scaled;
+    }
+
+    public static BigDecimal toBigDecimal(final Number fixedPoint) {
+        if (fixedPoint instanceof Long) {
+            return BigDecimal.valueOf((Long) fixedPoint, SCALE);
+        } else {
+            return (BigDecimal) fixedPoint;
+        }
+    }
+
+    private static double toDouble(final Number fixedPoint) {
+        if (fixedPoint instanceof Long) {
+            //correctly rounded for mantissas below 2^53 since both operands are exact
+            return (Long) fixedPoint / FACTOR_DOUBLE;
+        } else {
+            return fixedPoint.doubleValue();
+        }
+    }
+
+    private static int signum(final Number fixedPoint) {
+        if (fixedPoint instanceof Long) {
+            return Long.signum((Long) fixedPoint);
+        } else {
+            return ((BigDecimal) fixedPoint).signum();
+        }
+    }
+
+    static int compare(final Number a, final Number b) {
+        if (a instanceof Long && b instanceof Long) {
+            return Long.compare((Long) a, (Long) b);
+        } else {
+            return toBigDecimal(a).compareTo(toBigDecimal(b));
+        }
+    }
+
+    static Number add(final Number a, final Number b) {
+        if (a instanceof Long && b instanceof Long) {
+            final long x = (Long) a;
+            final long y = (Long) b;
+            final long result = x + y;
+            if (((x ^ result) & (y ^ result)) >= 0L && result != Long.MIN_VALUE) {
+                return result;
+            }
+        }
+        return normalize(toBigDecimal(a).add(toBigDecimal(b)));
+    }
+
+    static Number subtract(final Number a, final Number b) {
+        if (a instanceof Long && b instanceof Long) {
+            final long x = (Long) a;
+            final long y = (Long) b;
+            final long result = x - y;
+            if (((x ^ y) & (x ^ result)) >= 0L && result != Long.MIN_VALUE) {
+                return result;
+            }
+        }
+        return normalize(toBigDecimal(a).subtract(toBigDecimal(b)));
+    }
+
+    static Number multiply(final Number a, final Number b) {
+        if (a instanceof Long && b instanceof Long) {
+            final long result = multiplyMantissas((Long) a, (Long) b);
+            if (result != Long.MIN_VALUE) {
+                return result;
+            }
+        }
+        return normalize(toBigDecimal(a).multiply(toBigDecimal(b)));
+    }
+
+    static Number divide(final Number a, final Number b) {
+        if (signum(b) == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        if (a instanceof Long && b instanceof Long) {
+            final long result = divideMantissas((Long) a, (Long) b);
+            if (result != Long.MIN_VALUE) {
+                return result;
+            }
+        }
+        return normalize(toBigDecimal(a).divide(toBigDecimal(b), SCALE, Decimal.DEFAULT_ROUNDING_MODE));
+    }
+
+    static Number remainder(final Number a, final Number b) {
+        if (signum(b) == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        if (a instanceof Long && b instanceof Long) {
+            //both have the same scale, thus the remainder of the mantissas is exact
+            return (Long) a % (Long) b;
+        }
+        return normalize(toBigDecimal(a).remainder(toBigDecimal(b)));
+    }
+
+    /**
+     * Returns round(x * y / 10^9) or Long.MIN_VALUE if the result does not fit.
+     */
+    static long multiplyMantissas(final long x, final long y) {
+        if (x == 0L || y == 0L) {
+            return 0L;
+        }
+        final long absX = Math.abs(x);
+        final long absY = Math.abs(y);
+        final double estimate = (double) absX * (double) absY / FACTOR_DOUBLE;
+        if (!(estimate < MAX_ESTIMATE)) {
+            return Long.MIN_VALUE;
+        }
+        long quotient = (long) estimate;
+        //the products wrap around, but the true remainder is small enough that the difference is exact
+        long remainder = absX * absY - quotient * FACTOR;
+        final long correction = Math.floorDiv(remainder, FACTOR);
+        quotient += correction;
+        remainder -= correction * FACTOR;
+        if (remainder >= FACTOR - remainder) {
+            quotient++;
+        }
+        if ((x < 0L) != (y < 0L)) {
+            return -quotient;
+        } else {
+            return quotient;
+        }
+    }
+
+    /**
+     * Returns round(x * 10^9 / y) or Long.MIN_VALUE if the result does not fit or the remainder can not be computed
+     * exactly with long arithmetic.
+     */
+    static long divideMantissas(final long x, final long y) {
+        if (x == 0L) {
+            return 0L;
+        }
+        final long absX = Math.abs(x);
+        final long absY = Math.abs(y);
+        final double estimate = (double) absX / (double) absY * FACTOR_DOUBLE;
+        if (!(estimate < MAX_ESTIMATE)) {
+            return Long.MIN_VALUE;
+        }
+        if ((estimate * ESTIMATE_RELATIVE_ERROR + 2D) * absY >= MAX_ESTIMATE) {
+            return Long.MIN_VALUE;
+        }
+        long quotient = (long) estimate;
+        //the products wrap around, but the true remainder is small enough that the difference is exact
+        long remainder = absX * FACTOR - quotient * absY;
+        final long correction = Math.floorDiv(remainder, absY);
+        quotient += correction;
+        remainder -= correction * absY;
+        if (remainder >= absY - remainder) {
+            quotient++;
+        }
+        if ((x < 0L) != (y < 0L)) {
+            return -quotient;
+        } else {
+            return quotient;
+        }
+    }
+
+    /**
+     * Divides by a positive power of ten and applies the rounding mode.
+     */
+    static long divideRounded(final long value, final long divisor, final RoundingMode roundingMode) {
+        final long quotient = value / divisor;
+        final long remainder = value % divisor;
+        if (remainder == 0L) {
+            return quotient;
+        }
+        final long signum = Long.signum(value);
+        final long absRemainder = Math.abs(remainder);
+        final long otherHalf = divisor - absRemainder;
+        switch (roundingMode) {
+        case UP:
+            return quotient + signum;
+        case DOWN:
+            return quotient;
+        case CEILING:
+            if (signum > 0L) {
+                return quotient + 1L;
+            } else {
+                return quotient;
+            }
+        case FLOOR:
+            if (signum < 0L) {
+                return quotient - 1L;
+            } else {
+                return quotient;
+            }
+        case HALF_UP:
+            if (absRemainder >= otherHalf) {
+                return quotient + signum;
+            } else {
+                return quotient;
+            }
+        case HALF_DOWN:
+            if (absRemainder > otherHalf) {
+                return quotient + signum;
+            } else {
+                return quotient;
+            }
+        case HALF_EVEN:
+            if (absRemainder > otherHalf || absRemainder == otherHalf && (quotient & 1L) != 0L) {
+                return quotient + signum;
+            } else {
+                return quotient;
+            }
+        case UNNECESSARY:
+            throw new ArithmeticException("Rounding necessary");
+        default:
+            throw UnknownArgumentException.newInstance(RoundingMode.class, roundingMode);
+        }
+    }
+
+}
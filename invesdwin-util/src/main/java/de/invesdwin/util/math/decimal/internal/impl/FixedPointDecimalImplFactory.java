@@ -0,0 +1,32 @@
+package de.invesdwin.util.math.decimal.internal.impl;
+
+import java.math.BigDecimal;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Exact at the default rounding scale like BigDecimal, but calculates with long mantissas as long as the values fit
+ * into them. Useful for prices and money where rounding errors of double are not acceptable.
+ */
+@Immutable
+public class FixedPointDecimalImplFactory implements IDecimalImplFactory<FixedPointDecimalImpl> {
+
+    @Override
+    public FixedPointDecimalImpl valueOf(final Number value) {
+        final Number fixedPoint = FixedPointDecimalImpl.toFixedPoint(value);
+        return new FixedPointDecimalImpl(fixedPoint, fixedPoint);
+    }
+
+    @Override
+    public FixedPointDecimalImpl valueOf(final Double value) {
+        final Number fixedPoint = FixedPointDecimalImpl.fromDouble(value);
+        return new FixedPointDecimalImpl(fixedPoint, fixedPoint);
+    }
+
+    @Override
+    public FixedPointDecimalImpl valueOf(final String value) {
+        final Number fixedPoint = FixedPointDecimalImpl.normalize(new BigDecimal(value));
+        return new FixedPointDecimalImpl(fixedPoint, fixedPoint);
+    }
+
+}
@@ -0,0 +1,37 @@
+package de.invesdwin.util.math.decimal.internal.randomize;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import de.invesdwin.util.math.decimal.ADecimal;
+
+/**
+ * Each randomizer gathers the resample directly into the destination in randomize(RandomGenerator, double[],
+ * double[]), so that no index array needs to be allocated per resample.
+ */
+@ThreadSafe
+public abstract class ADecimalRandomizer<E extends ADecimal<E>> implements IDecimalRandomizer<E> {
+
+    protected static int[] newDestination(final int[] destination, final int length) {
+        if (destination == null) {
+            return new int[length];
+        }
+        checkLength(destination.length, length);
+        return destination;
+    }
+
+    protected static double[] newDestination(final double[] destination, final int length) {
+        if (destination == null) {
+            return new double[length];
+        }
+        checkLength(destination.length, length);
+        return destination;
+    }
+
+    protected static void checkLength(final int arrayLength, final int length) {
+        if (arrayLength < length) {
+            throw new IllegalArgumentException("array length [" + arrayLength + "] should be at least [" + length
+                    + "]");
+        }
+    }
+
+}
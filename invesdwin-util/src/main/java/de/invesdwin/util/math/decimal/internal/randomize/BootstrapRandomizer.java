@@ -11,7 +11,7 @@ import de.invesdwin.util.math.decimal.ADecimal;
 import de.invesdwin.util.math.decimal.IDecimalAggregate;
 
 @ThreadSafe
-public class BootstrapRandomizer<E extends ADecimal<E>> implements IDecimalRandomizer<E> {
+public class BootstrapRandomizer<E extends ADecimal<E>> extends ADecimalRandomizer<E> {
 
     private final List<? extends E> sample;
 
@@ -41,4 +41,25 @@ public class BootstrapRandomizer<E extends ADecimal<E>> implements IDecimalRando
         };
     }
 
+    @Override
+    public int[] randomizeIndexes(final RandomGenerator random, final int[] destination) {
+        final int size = sample.size();
+        final int[] result = newDestination(destination, size);
+        for (int i = 0; i < size; i++) {
+            result[i] = random.nextInt(size);
+        }
+        return result;
+    }
+
+    @Override
+    public double[] randomize(final RandomGenerator random, final double[] values, final double[] destination) {
+        final int size = sample.size();
+        checkLength(values.length, size);
+        final double[] result = newDestination(destination, size);
+        for (int i = 0; i < size; i++) {
+            result[i] = values[random.nextInt(size)];
+        }
+        return result;
+    }
+
 }
@@ -20,7 +20,7 @@ import de.invesdwin.util.math.decimal.internal.randomize.blocklength.CircularOpt
  * https://github.com/colintbowers/DependentBootstrap.jl
  */
 @ThreadSafe
-public class CircularBootstrapRandomizer<E extends ADecimal<E>> implements IDecimalRandomizer<E> {
+public class CircularBootstrapRandomizer<E extends ADecimal<E>> extends ADecimalRandomizer<E> {
 
     private final int blockLength;
     private final List<E> sample;
@@ -39,6 +39,17 @@ public class CircularBootstrapRandomizer<E extends ADecimal<E>> implements IDeci
                 public Iterator<E> randomize(final RandomGenerator random) {
                     return internalResample(random);
                 }
+
+                @Override
+                public int[] randomizeIndexes(final RandomGenerator random, final int[] destination) {
+                    return internalResampleIndexes(random, destination);
+                }
+
+                @Override
+                public double[] randomize(final RandomGenerator random, final double[] values,
+                        final double[] destination) {
+                    return internalResample(random, values, destination);
+                }
             };
         }
     }
@@ -52,6 +63,17 @@ public class CircularBootstrapRandomizer<E extends ADecimal<E>> implements IDeci
         return delegate.randomize(random);
     }
 
+    @Override
+    public final int[] randomizeIndexes(final RandomGenerator random, final int[] destination) {
+        return delegate.randomizeIndexes(random, destination);
+    }
+
+    @Override
+    public final double[] randomize(final RandomGenerator random, final double[] values,
+            final double[] destination) {
+        return delegate.randomize(random, values, destination);
+    }
+
     protected int nextBlockLength(final RandomGenerator random) {
         return blockLength;
     }
@@ -95,4 +117,44 @@ public class CircularBootstrapRandomizer<E extends ADecimal<E>> implements IDeci
         };
     }
 
-}
\ No newline at end of file
+    private int[] internalResampleIndexes(final RandomGenerator random, final int[] destination) {
+        final int size = sample.size();
+        final int[] result = newDestination(destination, size);
+        int resampleIdx = 0;
+        while (resampleIdx < size) {
+            final int startIdx = random.nextInt(size);
+            final int curBlockLength = Math.min(nextBlockLength(random), size - resampleIdx);
+            for (int i = 0; i < curBlockLength; i++) {
+                int valuesIndex = startIdx + i;
+                if (valuesIndex >= size) {
+                    valuesIndex -= size;
+                }
+                result[resampleIdx + i] = valuesIndex;
+            }
+            resampleIdx += curBlockLength;
+        }
+        return result;
+    }
+
+    /**
+     * Copies each block with at most two System.arraycopy calls (when the block wraps around the end of the values).
+     */
+    private double[] internalResample(final RandomGenerator random, final double[] values, final double[] destination) {
+        final int size = sample.size();
+        checkLength(values.length, size);
+        final double[] result = newDestination(destination, size);
+        int resampleIdx = 0;
+        while (resampleIdx < size) {
+            final int startIdx = random.nextInt(size);
+            final int curBlockLength = Math.min(nextBlockLength(random), size - resampleIdx);
+            final int untilEnd = Math.min(curBlockLength, size - startIdx);
+            System.arraycopy(values, startIdx, result, resampleIdx, untilEnd);
+            if (untilEnd < curBlockLength) {
+                System.arraycopy(values, 0, result, resampleIdx + untilEnd, curBlockLength - untilEnd);
+            }
+            resampleIdx += curBlockLength;
+        }
+        return result;
+    }
+
+}
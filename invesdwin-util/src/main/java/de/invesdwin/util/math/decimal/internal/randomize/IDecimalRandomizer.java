@@ -10,4 +10,17 @@ public interface IDecimalRandomizer<E extends ADecimal<E>> {
 
     Iterator<E> randomize(RandomGenerator random);
 
+    /**
+     * Fills the destination with the indexes into the sample that make up a resample. The destination is created when
+     * null. For the same random sequence the resample is the same as the one from the iterator.
+     */
+    int[] randomizeIndexes(RandomGenerator random, int[] destination);
+
+    /**
+     * Fills the destination with a resample of the given values, which need to be the default values of the sample
+     * (see DecimalArrays.toDefaultValues()). The destination is created when null and should not be the values array.
+     * This avoids boxing each value and allows to copy blocks of values at once.
+     */
+    double[] randomize(RandomGenerator random, double[] values, double[] destination);
+
 }
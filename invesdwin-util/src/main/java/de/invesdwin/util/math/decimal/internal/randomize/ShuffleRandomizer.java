@@ -14,7 +14,7 @@ import de.invesdwin.util.math.decimal.ADecimal;
 import de.invesdwin.util.math.decimal.IDecimalAggregate;
 
 @ThreadSafe
-public class ShuffleRandomizer<E extends ADecimal<E>> implements IDecimalRandomizer<E> {
+public class ShuffleRandomizer<E extends ADecimal<E>> extends ADecimalRandomizer<E> {
 
     private final List<E> sample;
 
@@ -29,4 +29,38 @@ public class ShuffleRandomizer<E extends ADecimal<E>> implements IDecimalRandomi
         return sampleCopy.iterator();
     }
 
+    /**
+     * Uses the same swaps as Collections.shuffle().
+     */
+    @Override
+    public int[] randomizeIndexes(final RandomGenerator random, final int[] destination) {
+        final int size = sample.size();
+        final int[] result = newDestination(destination, size);
+        for (int i = 0; i < size; i++) {
+            result[i] = i;
+        }
+        for (int i = size; i > 1; i--) {
+            final int j = random.nextInt(i);
+            final int tmp = result[i - 1];
+            result[i - 1] = result[j];
+            result[j] = tmp;
+        }
+        return result;
+    }
+
+    @Override
+    public double[] randomize(final RandomGenerator random, final double[] values, final double[] destination) {
+        final int size = sample.size();
+        checkLength(values.length, size);
+        final double[] result = newDestination(destination, size);
+        System.arraycopy(values, 0, result, 0, size);
+        for (int i = size; i > 1; i--) {
+            final int j = random.nextInt(i);
+            final double tmp = result[i - 1];
+            result[i - 1] = result[j];
+            result[j] = tmp;
+        }
+        return result;
+    }
+
 }
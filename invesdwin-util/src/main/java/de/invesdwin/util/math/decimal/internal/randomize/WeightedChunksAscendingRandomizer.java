@@ -13,15 +13,20 @@ import de.invesdwin.util.math.decimal.ADecimal;
 import de.invesdwin.util.math.decimal.IDecimalAggregate;
 
 @NotThreadSafe
-public class WeightedChunksAscendingRandomizer<E extends ADecimal<E>> implements IDecimalRandomizer<E> {
+public class WeightedChunksAscendingRandomizer<E extends ADecimal<E>> extends ADecimalRandomizer<E> {
 
     private final int sampleSize;
     private final Pair<Double, ? extends List<E>>[] threshold_chunk;
+    /**
+     * the chunks are filled round robin, thus value j of chunk i is at index i + j * chunkStride in the sample
+     */
+    private final int chunkStride;
 
     @SuppressWarnings("unchecked")
     public WeightedChunksAscendingRandomizer(final IDecimalAggregate<E> parent, final int chunkCount) {
         this.sampleSize = parent.values().size();
         final List<? extends List<E>> sampleChunks = Lists.splitIntoPackageCount(parent.values(), chunkCount);
+        this.chunkStride = sampleChunks.size();
         double chunkWeightsSum = 0D;
         for (double i = 1; i <= chunkCount; i++) {
             chunkWeightsSum += i;
@@ -50,7 +55,7 @@ public class WeightedChunksAscendingRandomizer<E extends ADecimal<E>> implements
 
             @Override
             public E next() {
-                final List<E> sampleChunk = getSampleChunk(random);
+                final List<E> sampleChunk = threshold_chunk[getSampleChunkIndex(random)].getSecond();
                 final int sourceIdx = random.nextInt(sampleChunk.size());
                 resampleIdx++;
                 return sampleChunk.get(sourceIdx);
@@ -59,13 +64,37 @@ public class WeightedChunksAscendingRandomizer<E extends ADecimal<E>> implements
         };
     }
 
-    private List<E> getSampleChunk(final RandomGenerator random) {
+    @Override
+    public int[] randomizeIndexes(final RandomGenerator random, final int[] destination) {
+        final int[] result = newDestination(destination, sampleSize);
+        for (int i = 0; i < sampleSize; i++) {
+            result[i] = nextIndex(random);
+        }
+        return result;
+    }
+
+    @Override
+    public double[] randomize(final RandomGenerator random, final double[] values, final double[] destination) {
+        checkLength(values.length, sampleSize);
+        final double[] result = newDestination(destination, sampleSize);
+        for (int i = 0; i < sampleSize; i++) {
+            result[i] = values[nextIndex(random)];
+        }
+        return result;
+    }
+
+    private int nextIndex(final RandomGenerator random) {
+        final int chunkIndex = getSampleChunkIndex(random);
+        final int sourceIdx = random.nextInt(threshold_chunk[chunkIndex].getSecond().size());
+        return chunkIndex + sourceIdx * chunkStride;
+    }
+
+    private int getSampleChunkIndex(final RandomGenerator random) {
         final double chunkThreshold = random.nextDouble();
         for (int i = 0; i < threshold_chunk.length; i++) {
-            final Pair<Double, ? extends List<E>> pair = threshold_chunk[i];
-            final double threshold = pair.getFirst();
+            final double threshold = threshold_chunk[i].getFirst();
             if (chunkThreshold <= threshold) {
-                return pair.getSecond();
+                return i;
             }
         }
         throw new IllegalStateException("No chunk found for threshold: " + chunkThreshold);
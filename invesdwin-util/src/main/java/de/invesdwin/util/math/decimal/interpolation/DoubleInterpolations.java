@@ -0,0 +1,301 @@
+package de.invesdwin.util.math.decimal.interpolation;
+
+import java.util.Arrays;
+
+import javax.annotation.concurrent.Immutable;
+
+import org.apache.commons.math3.analysis.UnivariateFunction;
+import org.apache.commons.math3.analysis.interpolation.SplineInterpolator;
+import org.apache.commons.math3.analysis.interpolation.UnivariateInterpolator;
+
+import com.graphbuilder.curve.BSpline;
+import com.graphbuilder.curve.BezierCurve;
+import com.graphbuilder.curve.ControlPath;
+import com.graphbuilder.curve.CubicBSpline;
+import com.graphbuilder.curve.Curve;
+import com.graphbuilder.curve.GroupIterator;
+import com.graphbuilder.curve.MultiPath;
+import com.graphbuilder.geom.PointFactory;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.bean.tuple.Pair;
+import de.invesdwin.util.math.Integers;
+import de.invesdwin.util.math.decimal.config.BSplineInterpolationConfig;
+import de.invesdwin.util.math.decimal.config.InterpolationConfig;
+import de.invesdwin.util.math.decimal.config.LoessInterpolationConfig;
+import de.invesdwin.util.math.decimal.scaled.PercentScale;
+
+/**
+ * The interpolations of IDecimalAggregate on primitive arrays. The values are interpreted as the y values for the x
+ * values 0 to n-1 and the result contains the interpolated y values for the same x values.
+ */
+@Immutable
+public final class DoubleInterpolations {
+
+    //actual limit is 1030, but we want to stay safe
+    private static final int BEZIER_CURVE_MAX_SIZE = 1000;
+    private static final double PUNISH_NEGATIVE_EDGE_FACTOR = 2;
+
+    private DoubleInterpolations() {}
+
+    public static double[] cubicBSplineInterpolation(final double[] values, final InterpolationConfig config) {
+        if (values.length < 4) {
+            return values.clone();
+        }
+
+        final Pair<double[], double[]> points = fillInterpolationPoints(values, config, null);
+
+        final ControlPath cp = newControlPath(points);
+        final GroupIterator gi = new GroupIterator("0:n-1", cp.numPoints());
+        final CubicBSpline curve = new CubicBSpline(cp, gi);
+        curve.setInterpolateEndpoints(true);
+        final Pair<double[], double[]> curvePoints = calculateCurve(curve);
+
+        return interpolate(values.length, config, curvePoints, new SplineInterpolator());
+    }
+
+    public static double[] bezierCurveInterpolation(final double[] values, final InterpolationConfig config) {
+        if (values.length == 0) {
+            return values.clone();
+        }
+
+        final Pair<double[], double[]> points = fillInterpolationPoints(values, config, BEZIER_CURVE_MAX_SIZE);
+
+        final ControlPath cp = newControlPath(points);
+        final GroupIterator gi = new GroupIterator("0:n-1", cp.numPoints());
+        final BezierCurve curve = new BezierCurve(cp, gi);
+        final Pair<double[], double[]> curvePoints = calculateCurve(curve);
+
+        return interpolate(values.length, config, curvePoints, new SplineInterpolator());
+    }
+
+    public static double[] bSplineInterpolation(final double[] values, final BSplineInterpolationConfig config) {
+        if (values.length == 0) {
+            return values.clone();
+        }
+
+        final Pair<double[], double[]> points = fillInterpolationPoints(values, config, null);
+
+        final ControlPath cp = newControlPath(points);
+        final GroupIterator gi = new GroupIterator("0:n-1", cp.numPoints());
+        final BSpline curve = new BSpline(cp, gi);
+        curve.setDegree(config.getDegree());
+        final int maxDegree = cp.numPoints() - 1;
+        if (curve.getDegree() > maxDegree) {
+            curve.setDegree(maxDegree);
+        }
+        final Pair<double[], double[]> curvePoints = calculateCurve(curve);
+
+        return interpolate(values.length, config, curvePoints, new SplineInterpolator());
+    }
+
+    public static double[] loessInterpolation(final double[] values, final LoessInterpolationConfig config) {
+        if (values.length < 3) {
+            return values.clone();
+        }
+
+        final Pair<double[], double[]> points = fillInterpolationPoints(values, config, null);
+        double bandwidth = getLoessBandwidth(config);
+        if (bandwidth * values.length < 2) {
+            bandwidth = 2D / values.length;
+        }
+        final double[] smoothed = LoessSmoother.smooth(points.getFirst(), points.getSecond(), bandwidth,
+                config.getRobustnessIters(), config.getForkJoinPool());
+        //same as LoessInterpolator.interpolate()
+        return interpolate(values.length, config, Pair.of(points.getFirst(), smoothed), new SplineInterpolator());
+    }
+
+    /**
+     * Creates a smoother that can be kept by the caller for a growing series of values. Append the values via
+     * LoessSmoother.add(y) and get the result via LoessSmoother.smooth(), which is the same as loessInterpolation()
+     * without max points, punished edges and value multiplicator. With 0 robustness iterations in the config only the
+     * local regressions near the appended values get refitted.
+     */
+    public static LoessSmoother newLoessSmoother(final LoessInterpolationConfig config) {
+        return new LoessSmoother(getLoessBandwidth(config), config.getRobustnessIters(), config.getForkJoinPool());
+    }
+
+    private static double getLoessBandwidth(final LoessInterpolationConfig config) {
+        return config.getSmoothness().getValue(PercentScale.RATE).doubleValue();
+    }
+
+    private static ControlPath newControlPath(final Pair<double[], double[]> points) {
+        final double[] xval = points.getFirst();
+        final double[] yval = points.getSecond();
+        final ControlPath cp = new ControlPath();
+        for (int i = 0; i < xval.length; i++) {
+            cp.addPoint(PointFactory.create(xval[i], yval[i]));
+        }
+        return cp;
+    }
+
+    /**
+     * CurvesAPI has been patched to be thread safe in this usage scenario
+     */
+    private static Pair<double[], double[]> calculateCurve(final Curve curve) {
+        final MultiPath mp = new MultiPath(2);
+        curve.appendTo(mp);
+        final int numPoints = mp.getNumPoints();
+        final double[] xval = new double[numPoints];
+        final double[] yval = new double[numPoints];
+        int size = 0;
+        for (int p = 0; p < numPoints; p++) {
+            final double[] point = mp.get(p);
+            Assertions.checkEquals(point.length, 3);
+            final double x = point[0];
+            if (size == 0 || x > xval[size - 1]) {
+                xval[size] = x;
+                yval[size] = point[1];
+                size++;
+            }
+        }
+        return Pair.of(Arrays.copyOf(xval, size), Arrays.copyOf(yval, size));
+    }
+
+    private static double[] interpolate(final int length, final InterpolationConfig config,
+            final Pair<double[], double[]> points, final UnivariateInterpolator interpolator) {
+        final UnivariateFunction interpolated = interpolator.interpolate(points.getFirst(), points.getSecond());
+        final double[] results = new double[length];
+        //splitting the loops for performance reasons
+        if (config.getValueMultiplicator() != null) {
+            final double multiplier = config.getValueMultiplicator().doubleValue();
+            for (int i = 0; i < length; i++) {
+                results[i] = interpolated.value(i) / multiplier;
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                results[i] = interpolated.value(i);
+            }
+        }
+        return results;
+    }
+
+    private static Pair<double[], double[]> fillInterpolationPoints(final double[] values,
+            final InterpolationConfig config, final Integer absoluteMaxSize) {
+        final int length = values.length;
+        double[] xval = new double[length];
+        double[] yval = new double[length];
+        fillAndMaybeApplyMultiplier(values, config, xval, yval);
+        final Integer maxSize = Integers.min(absoluteMaxSize, config.getMaxPoints());
+        if (maxSize != null) {
+            while (xval.length > maxSize) {
+                final Pair<double[], double[]> pair = makeHalfSize(xval, yval);
+                xval = pair.getFirst();
+                yval = pair.getSecond();
+            }
+        }
+        if (config.isPunishEdges() && length >= 5) {
+            double minValue = Double.POSITIVE_INFINITY;
+            double maxValue = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < yval.length; i++) {
+                final double y = yval[i];
+                minValue = Math.min(minValue, y);
+                maxValue = Math.max(maxValue, y);
+            }
+            final int size = xval.length;
+            final double[] punishedXval = new double[size + 2];
+            final double[] punishedYval = new double[size + 2];
+            System.arraycopy(xval, 0, punishedXval, 1, size);
+            System.arraycopy(yval, 0, punishedYval, 1, size);
+            punishedXval[0] = -1D;
+            punishedYval[0] = punishEdgeValue(yval[0], config, minValue, maxValue);
+            punishedXval[size + 1] = length;
+            punishedYval[size + 1] = punishEdgeValue(yval[size - 1], config, minValue, maxValue);
+            xval = punishedXval;
+            yval = punishedYval;
+        }
+        return Pair.of(xval, yval);
+    }
+
+    private static void fillAndMaybeApplyMultiplier(final double[] values, final InterpolationConfig config,
+            final double[] xval, final double[] yval) {
+        //splitting the loops for performance reasons
+        if (config.getValueMultiplicator() != null) {
+            final double multipier = config.getValueMultiplicator().doubleValue();
+            for (int i = 0; i < values.length; i++) {
+                xval[i] = i;
+                final double y = values[i] * multipier;
+                if (Double.isFinite(y)) {
+                    yval[i] = y;
+                } else {
+                    yval[i] = 0D;
+                }
+            }
+        } else {
+            for (int i = 0; i < values.length; i++) {
+                xval[i] = i;
+                final double y = values[i];
+                if (Double.isFinite(y)) {
+                    yval[i] = y;
+                } else {
+                    yval[i] = 0D;
+                }
+            }
+        }
+    }
+
+    private static double punishEdgeValue(final double value, final InterpolationConfig config,
+            final double minValue, final double maxValue) {
+        if (config.isHigherBetter()) {
+            if (value > 0) {
+                return 0d;
+            } else {
+                return Math.max(minValue, value * PUNISH_NEGATIVE_EDGE_FACTOR);
+            }
+        } else {
+            if (value > 0) {
+                return Math.min(maxValue, value * PUNISH_NEGATIVE_EDGE_FACTOR);
+            } else {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Reduce the amount of points by averaging two points together in the middle while keeping the edges as they are so
+     * that the interpolation still works
+     */
+    private static Pair<double[], double[]> makeHalfSize(final double[] xval, final double[] yval) {
+        Assertions.checkEquals(xval.length, yval.length);
+        final int length = xval.length;
+        final double[] newxval = new double[length];
+        final double[] newyval = new double[length];
+        int size = 0;
+        //keep first value as it is
+        newxval[size] = xval[0];
+        newyval[size] = yval[0];
+        size++;
+        if (length % 2 == 0) {
+            //we round number of elements, so we can just go from left to right
+            for (int i = 1; i < length - 3; i += 2) {
+                newxval[size] = (xval[i] + xval[i + 1]) / 2;
+                newyval[size] = (yval[i] + yval[i + 1]) / 2;
+                size++;
+            }
+        } else {
+            //keep the middle value as it is
+            final int middleIndex = length / 2;
+            for (int i = 1; i < middleIndex; i += 2) {
+                //make the middle values half the size
+                newxval[size] = (xval[i] + xval[i + 1]) / 2;
+                newyval[size] = (yval[i] + yval[i + 1]) / 2;
+                size++;
+            }
+            newxval[size] = xval[middleIndex];
+            newyval[size] = yval[middleIndex];
+            size++;
+            for (int i = middleIndex + 1; i < length - 3; i += 2) {
+                //make the middle values half the size
+                newxval[size] = (xval[i] + xval[i + 1]) / 2;
+                newyval[size] = (yval[i] + yval[i + 1]) / 2;
+                size++;
+            }
+        }
+        //keep last value as it is
+        newxval[size] = xval[length - 1];
+        newyval[size] = yval[length - 1];
+        size++;
+        return Pair.of(Arrays.copyOf(newxval, size), Arrays.copyOf(newyval, size));
+    }
+
+}
@@ -0,0 +1,411 @@
+package de.invesdwin.util.math.decimal.interpolation;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * LOESS smoothing with the same algorithm as commons-math's LoessInterpolator.smooth(), but working on a growing
+ * series of primitive values and keeping the fitted state between calls.
+ *
+ * When points are appended without robustness iterations and the bandwidth in points stays the same, only the local
+ * regressions whose neighborhood reached the previous end of the series are recalculated. Otherwise everything is
+ * refitted. Since a relative bandwidth grows with the series, use newFixedBandwidth() for a window that stays the same
+ * so that appending is always incremental. Since the local regressions are independent of each other, they get split
+ * over the given fork join pool for large series.
+ *
+ * Interpolating the smoothed values with a SplineInterpolator results in the same function that
+ * LoessInterpolator.interpolate() returns.
+ */
+@NotThreadSafe
+public class LoessSmoother {
+
+    public static final double DEFAULT_BANDWIDTH = 0.3;
+    public static final int DEFAULT_ROBUSTNESS_ITERS = 2;
+    public static final double DEFAULT_ACCURACY = 1E-12;
+    /**
+     * number of weighted points that a fork join task should at least process, below this the overhead of splitting
+     * is higher than the gain
+     */
+    private static final long MIN_TASK_WORK = 1 << 15;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final double ROBUSTNESS_RESIDUAL_FACTOR = 6D;
+
+    private final double bandwidth;
+    private final int fixedBandwidthInPoints;
+    private final int robustnessIters;
+    private final ForkJoinPool forkJoinPool;
+
+    private double[] xval = new double[INITIAL_CAPACITY];
+    private double[] yval = new double[INITIAL_CAPACITY];
+    private int size;
+
+    private double[] fitted = new double[INITIAL_CAPACITY];
+    private int[] lefts = new int[INITIAL_CAPACITY];
+    private int[] rights = new int[INITIAL_CAPACITY];
+    private int fittedSize;
+    private int fittedBandwidthInPoints;
+
+    public LoessSmoother() {
+        this(DEFAULT_BANDWIDTH, DEFAULT_ROBUSTNESS_ITERS);
+    }
+
+    public LoessSmoother(final double bandwidth, final int robustnessIters) {
+        this(bandwidth, robustnessIters, null);
+    }
+
+    /**
+     * @param forkJoinPool
+     *            can be null to always calculate in the current thread
+     */
+    public LoessSmoother(final double bandwidth, final int robustnessIters, final ForkJoinPool forkJoinPool) {
+        this(bandwidth, 0, robustnessIters, forkJoinPool);
+        if (!(bandwidth > 0D && bandwidth <= 1D)) {
+            throw new IllegalArgumentException("bandwidth should be in the range (0, 1]: " + bandwidth);
+        }
+    }
+
+    private LoessSmoother(final double bandwidth, final int fixedBandwidthInPoints, final int robustnessIters,
+            final ForkJoinPool forkJoinPool) {
+        if (robustnessIters < 0) {
+            throw new IllegalArgumentException("robustnessIters should not be negative: " + robustnessIters);
+        }
+        this.bandwidth = bandwidth;
+        this.fixedBandwidthInPoints = fixedBandwidthInPoints;
+        this.robustnessIters = robustnessIters;
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    /**
+     * Uses the given number of nearest points for each local regression instead of a fraction of the series size.
+     */
+    public static LoessSmoother newFixedBandwidth(final int bandwidthInPoints, final int robustnessIters,
+            final ForkJoinPool forkJoinPool) {
+        if (bandwidthInPoints < 2) {
+            throw new IllegalArgumentException("bandwidthInPoints should be at least 2: " + bandwidthInPoints);
+        }
+        return new LoessSmoother(Double.NaN, bandwidthInPoints, robustnessIters, forkJoinPool);
+    }
+
+    /**
+     * NaN when a fixed bandwidth in points is used.
+     */
+    public double getBandwidth() {
+        return bandwidth;
+    }
+
+    /**
+     * 0 when a relative bandwidth is used.
+     */
+    public int getFixedBandwidthInPoints() {
+        return fixedBandwidthInPoints;
+    }
+
+    public int getRobustnessIters() {
+        return robustnessIters;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Appends a point with x being the index of the point.
+     */
+    public void add(final double y) {
+        add(size, y);
+    }
+
+    /**
+     * The x values need to be strictly increasing.
+     */
+    public void add(final double x, final double y) {
+        if (Double.isNaN(x) || Double.isInfinite(x) || Double.isNaN(y) || Double.isInfinite(y)) {
+            throw new IllegalArgumentException("point should be finite: x=" + x + " y=" + y);
+        }
+        if (size > 0 && x <= xval[size - 1]) {
+            throw new IllegalArgumentException(
+                    "x should be strictly increasing: previous=" + xval[size - 1] + " next=" + x);
+        }
+        if (size == xval.length) {
+            final int capacity = size * 2;
+            xval = Arrays.copyOf(xval, capacity);
+            yval = Arrays.copyOf(yval, capacity);
+        }
+        xval[size] = x;
+        yval[size] = y;
+        size++;
+    }
+
+    public void addAll(final double[] x, final double[] y) {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("x length [" + x.length + "] != y length [" + y.length + "]");
+        }
+        for (int i = 0; i < x.length; i++) {
+            add(x[i], y[i]);
+        }
+    }
+
+    public void clear() {
+        size = 0;
+        fittedSize = 0;
+        fittedBandwidthInPoints = 0;
+    }
+
+    public double[] smooth() {
+        return smooth(null);
+    }
+
+    /**
+     * Returns the smoothed y values for all points in the order they were added.
+     */
+    public double[] smooth(final double[] destination) {
+        fit();
+        final double[] result;
+        if (destination == null) {
+            result = new double[size];
+        } else {
+            if (destination.length < size) {
+                throw new IllegalArgumentException(
+                        "destination length [" + destination.length + "] should be at least [" + size + "]");
+            }
+            result = destination;
+        }
+        System.arraycopy(fitted, 0, result, 0, size);
+        return result;
+    }
+
+    public double getSmoothed(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index [" + index + "] should be in the range [0, " + size + ")");
+        }
+        fit();
+        return fitted[index];
+    }
+
+    public static double[] smooth(final double[] x, final double[] y, final double bandwidth,
+            final int robustnessIters, final ForkJoinPool forkJoinPool) {
+        final LoessSmoother smoother = new LoessSmoother(bandwidth, robustnessIters, forkJoinPool);
+        smoother.addAll(x, y);
+        return smoother.smooth();
+    }
+
+    private void fit() {
+        final int n = size;
+        if (n == fittedSize) {
+            return;
+        }
+        ensureFittedCapacity(n);
+        if (n <= 2) {
+            System.arraycopy(yval, 0, fitted, 0, n);
+            fittedSize = n;
+            fittedBandwidthInPoints = 0;
+            return;
+        }
+        final int bandwidthInPoints = getBandwidthInPoints(n);
+        final int from;
+        if (robustnessIters == 0 && fittedSize > 2 && bandwidthInPoints == fittedBandwidthInPoints) {
+            from = getFirstIntervalReachingEnd(fittedSize);
+        } else {
+            from = 0;
+        }
+        updateBandwidthIntervals(from, n, bandwidthInPoints);
+        fitRange(from, n, bandwidthInPoints, null);
+        if (robustnessIters > 0) {
+            fitRobust(n, bandwidthInPoints);
+        }
+        fittedSize = n;
+        fittedBandwidthInPoints = bandwidthInPoints;
+    }
+
+    private int getBandwidthInPoints(final int n) {
+        if (fixedBandwidthInPoints > 0) {
+            return Math.min(n, fixedBandwidthInPoints);
+        } else {
+            //commons-math would throw an exception below 2, but we need a usable result while the series grows
+            return Math.min(n, Math.max(2, (int) (bandwidth * n)));
+        }
+    }
+
+    /**
+     * The bandwidth intervals only depend on the points up to their right edge, thus intervals that did not reach the
+     * previous end of the series stay the same when points are appended.
+     */
+    private int getFirstIntervalReachingEnd(final int previousSize) {
+        final int last = previousSize - 1;
+        int low = 0;
+        int high = last;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (rights[mid] < last) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void updateBandwidthIntervals(final int from, final int n, final int bandwidthInPoints) {
+        int left;
+        int right;
+        if (from == 0) {
+            left = 0;
+            right = bandwidthInPoints - 1;
+        } else {
+            left = lefts[from - 1];
+            right = rights[from - 1];
+        }
+        for (int i = from; i < n; i++) {
+            if (i > 0) {
+                //move the window by at most one point per step like commons-math does
+                final int nextRight = right + 1;
+                if (nextRight < n && xval[nextRight] - xval[i] < xval[i] - xval[left]) {
+                    left++;
+                    right = nextRight;
+                }
+            }
+            lefts[i] = left;
+            rights[i] = right;
+        }
+    }
+
+    private void fitRobust(final int n, final int bandwidthInPoints) {
+        final double[] residuals = new double[n];
+        final double[] sortedResiduals = new double[n];
+        final double[] robustnessWeights = new double[n];
+        for (int iter = 1; iter <= robustnessIters; iter++) {
+            for (int i = 0; i < n; i++) {
+                residuals[i] = Math.abs(yval[i] - fitted[i]);
+            }
+            System.arraycopy(residuals, 0, sortedResiduals, 0, n);
+            Arrays.sort(sortedResiduals);
+            final double medianResidual = sortedResiduals[n / 2];
+            if (Math.abs(medianResidual) < DEFAULT_ACCURACY) {
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                final double arg = residuals[i] / (ROBUSTNESS_RESIDUAL_FACTOR * medianResidual);
+                if (arg >= 1D) {
+                    robustnessWeights[i] = 0D;
+                } else {
+                    final double w = 1D - arg * arg;
+                    robustnessWeights[i] = w * w;
+                }
+            }
+            fitRange(0, n, bandwidthInPoints, robustnessWeights);
+        }
+    }
+
+    private void fitRange(final int from, final int to, final int bandwidthInPoints,
+            final double[] robustnessWeights) {
+        if (forkJoinPool != null && (long) (to - from) * bandwidthInPoints >= 2 * MIN_TASK_WORK) {
+            forkJoinPool.invoke(new FitTask(from, to, bandwidthInPoints, robustnessWeights));
+        } else {
+            for (int i = from; i < to; i++) {
+                fitted[i] = fitPoint(i, robustnessWeights);
+            }
+        }
+    }
+
+    private double fitPoint(final int i, final double[] robustnessWeights) {
+        final double x = xval[i];
+        final int left = lefts[i];
+        final int right = rights[i];
+        final int edge;
+        if (x - xval[left] > xval[right] - x) {
+            edge = left;
+        } else {
+            edge = right;
+        }
+        double sumWeights = 0D;
+        double sumX = 0D;
+        double sumXSquared = 0D;
+        double sumY = 0D;
+        double sumXY = 0D;
+        final double denom = Math.abs(1D / (xval[edge] - x));
+        for (int k = left; k <= right; k++) {
+            final double xk = xval[k];
+            final double yk = yval[k];
+            final double dist;
+            if (k < i) {
+                dist = x - xk;
+            } else {
+                dist = xk - x;
+            }
+            double w = tricube(dist * denom);
+            if (robustnessWeights != null) {
+                w *= robustnessWeights[k];
+            }
+            final double xkw = xk * w;
+            sumWeights += w;
+            sumX += xkw;
+            sumXSquared += xk * xkw;
+            sumY += yk * w;
+            sumXY += yk * xkw;
+        }
+        final double meanX = sumX / sumWeights;
+        final double meanY = sumY / sumWeights;
+        final double meanXY = sumXY / sumWeights;
+        final double meanXSquared = sumXSquared / sumWeights;
+        final double beta;
+        if (Math.sqrt(Math.abs(meanXSquared - meanX * meanX)) < DEFAULT_ACCURACY) {
+            beta = 0D;
+        } else {
+            beta = (meanXY - meanX * meanY) / (meanXSquared - meanX * meanX);
+        }
+        final double alpha = meanY - beta * meanX;
+        return beta * x + alpha;
+    }
+
+    private void ensureFittedCapacity(final int n) {
+        if (fitted.length < n) {
+            final int capacity = Math.max(n, fitted.length * 2);
+            fitted = Arrays.copyOf(fitted, capacity);
+            lefts = Arrays.copyOf(lefts, capacity);
+            rights = Arrays.copyOf(rights, capacity);
+        }
+    }
+
+    private static double tricube(final double x) {
+        final double absX = Math.abs(x);
+        if (absX >= 1D) {
+            return 0D;
+        }
+        final double tmp = 1D - absX * absX * absX;
+        return tmp * tmp * tmp;
+    }
+
+    private final class FitTask extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+        private final int bandwidthInPoints;
+        private final double[] robustnessWeights;
+
+        private FitTask(final int from, final int to, final int bandwidthInPoints,
+                final double[] robustnessWeights) {
+            this.from = from;
+            this.to = to;
+            this.bandwidthInPoints = bandwidthInPoints;
+            this.robustnessWeights = robustnessWeights;
+        }
+
+        @Override
+        protected void compute() {
+            if ((long) (to - from) * bandwidthInPoints < 2 * MIN_TASK_WORK) {
+                for (int i = from; i < to; i++) {
+                    fitted[i] = fitPoint(i, robustnessWeights);
+                }
+            } else {
+                final int mid = (from + to) >>> 1;
+                invokeAll(new FitTask(from, mid, bandwidthInPoints, robustnessWeights),
+                        new FitTask(mid, to, bandwidthInPoints, robustnessWeights));
+            }
+        }
+
+    }
+
+}
@@ -6,7 +6,8 @@ import de.invesdwin.util.math.decimal.ADecimal;
 import de.invesdwin.util.math.decimal.Decimal;
 
 @NotThreadSafe
-public class DecimalStreamAvg<E extends ADecimal<E>> implements IDecimalStreamAlgorithm<E, Void> {
+public class DecimalStreamAvg<E extends ADecimal<E>> implements IDecimalStreamAlgorithm<E, Void>,
+        IDecimalStreamMergeable<DecimalStreamAvg<E>> {
 
     private int count = 0;
     private double sum = 0;
@@ -25,6 +26,12 @@ public class DecimalStreamAvg<E extends ADecimal<E>> implements IDecimalStreamAl
         return null;
     }
 
+    @Override
+    public void merge(final DecimalStreamAvg<E> other) {
+        count += other.count;
+        sum += other.sum;
+    }
+
     public E getAvg() {
         final double doubleResult;
         if (count == 0) {
@@ -0,0 +1,123 @@
+package de.invesdwin.util.math.decimal.stream;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import de.invesdwin.util.math.decimal.ADecimal;
+import de.invesdwin.util.math.decimal.Decimal;
+
+/**
+ * Counts the values in equally sized bins between a fixed lower (inclusive) and upper (exclusive) bound, values
+ * outside are counted as underflow and overflow. Since the bins are fixed, histograms with the same bounds and bin
+ * count can be merged by adding the counts. Null values are counted as zero like in IDecimalAggregate.
+ */
+@NotThreadSafe
+public class DecimalStreamHistogram<E extends ADecimal<E>> implements IDecimalStreamAlgorithm<E, Void>,
+        IDecimalStreamMergeable<DecimalStreamHistogram<E>> {
+
+    private final E converter;
+    private final double lower;
+    private final double upper;
+    private final double binWidth;
+    private final long[] counts;
+    private long underflowCount;
+    private long overflowCount;
+
+    public DecimalStreamHistogram(final E lower, final E upper, final int binCount) {
+        this(lower, lower.getDefaultValue().doubleValueRaw(), upper.getDefaultValue().doubleValueRaw(), binCount);
+    }
+
+    private DecimalStreamHistogram(final E converter, final double lower, final double upper, final int binCount) {
+        if (binCount <= 0) {
+            throw new IllegalArgumentException("binCount should be positive: " + binCount);
+        }
+        if (!(lower < upper)) {
+            throw new IllegalArgumentException("lower [" + lower + "] should be less than upper [" + upper + "]");
+        }
+        this.converter = converter;
+        this.lower = lower;
+        this.upper = upper;
+        this.binWidth = (upper - lower) / binCount;
+        this.counts = new long[binCount];
+    }
+
+    @Override
+    public Void process(final E value) {
+        if (value != null) {
+            process(value.getDefaultValue().doubleValueRaw());
+        } else {
+            process(0D);
+        }
+        return null;
+    }
+
+    public void process(final double value) {
+        if (value < lower) {
+            underflowCount++;
+        } else if (value >= upper) {
+            overflowCount++;
+        } else {
+            //rounding might put a value just below upper into the next bin
+            final int bin = Math.min(counts.length - 1, (int) ((value - lower) / binWidth));
+            counts[bin]++;
+        }
+    }
+
+    @Override
+    public void merge(final DecimalStreamHistogram<E> other) {
+        if (other.lower != lower || other.upper != upper || other.counts.length != counts.length) {
+            throw new IllegalArgumentException("other histogram [" + other.lower + ", " + other.upper + ") with ["
+                    + other.counts.length + "] bins should match [" + lower + ", " + upper + ") with ["
+                    + counts.length + "] bins");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        underflowCount += other.underflowCount;
+        overflowCount += other.overflowCount;
+    }
+
+    public int getBinCount() {
+        return counts.length;
+    }
+
+    public long getCount(final int bin) {
+        return counts[bin];
+    }
+
+    /**
+     * The inclusive lower bound of the given bin.
+     */
+    public E getBinLower(final int bin) {
+        return converter.fromDefaultValue(new Decimal(lower + bin * binWidth));
+    }
+
+    /**
+     * The exclusive upper bound of the given bin.
+     */
+    public E getBinUpper(final int bin) {
+        if (bin == counts.length - 1) {
+            return converter.fromDefaultValue(new Decimal(upper));
+        }
+        return converter.fromDefaultValue(new Decimal(lower + (bin + 1) * binWidth));
+    }
+
+    public long getUnderflowCount() {
+        return underflowCount;
+    }
+
+    public long getOverflowCount() {
+        return overflowCount;
+    }
+
+    /**
+     * Including underflow and overflow.
+     */
+    public long getTotalCount() {
+        long total = underflowCount + overflowCount;
+        for (int i = 0; i < counts.length; i++) {
+            total += counts[i];
+        }
+        return total;
+    }
+
+}
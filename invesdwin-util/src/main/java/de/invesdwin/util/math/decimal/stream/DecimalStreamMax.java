@@ -6,7 +6,8 @@ import de.invesdwin.util.math.decimal.ADecimal;
 import de.invesdwin.util.math.decimal.Decimal;
 
 @NotThreadSafe
-public class DecimalStreamMax<E extends ADecimal<E>> implements IDecimalStreamAlgorithm<E, E> {
+public class DecimalStreamMax<E extends ADecimal<E>> implements IDecimalStreamAlgorithm<E, E>,
+        IDecimalStreamMergeable<DecimalStreamMax<E>> {
 
     private E max;
 
@@ -16,6 +17,11 @@ public class DecimalStreamMax<E extends ADecimal<E>> implements IDecimalStreamAl
         return max;
     }
 
+    @Override
+    public void merge(final DecimalStreamMax<E> other) {
+        process(other.max);
+    }
+
     public E getMax() {
         return max;
     }
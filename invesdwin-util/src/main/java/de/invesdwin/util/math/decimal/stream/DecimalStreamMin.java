@@ -6,7 +6,8 @@ import de.invesdwin.util.math.decimal.ADecimal;
 import de.invesdwin.util.math.decimal.Decimal;
 
 @NotThreadSafe
-public class DecimalStreamMin<E extends ADecimal<E>> implements IDecimalStreamAlgorithm<E, E> {
+public class DecimalStreamMin<E extends ADecimal<E>> implements IDecimalStreamAlgorithm<E, E>,
+        IDecimalStreamMergeable<DecimalStreamMin<E>> {
 
     private E min;
 
@@ -16,6 +17,11 @@ public class DecimalStreamMin<E extends ADecimal<E>> implements IDecimalStreamAl
         return min;
     }
 
+    @Override
+    public void merge(final DecimalStreamMin<E> other) {
+        process(other.min);
+    }
+
     public E getMin() {
         return min;
     }
@@ -5,7 +5,8 @@ import javax.annotation.concurrent.NotThreadSafe;
 import de.invesdwin.util.math.decimal.ADecimal;
 
 @NotThreadSafe
-public class DecimalStreamMinMax<E extends ADecimal<E>> implements IDecimalStreamAlgorithm<E, Void> {
+public class DecimalStreamMinMax<E extends ADecimal<E>> implements IDecimalStreamAlgorithm<E, Void>,
+        IDecimalStreamMergeable<DecimalStreamMinMax<E>> {
 
     private final DecimalStreamMin<E> minDelegate = new DecimalStreamMin<E>();;
     private final DecimalStreamMax<E> maxDelegate = new DecimalStreamMax<E>();
@@ -17,6 +18,12 @@ public class DecimalStreamMinMax<E extends ADecimal<E>> implements IDecimalStrea
         return null;
     }
 
+    @Override
+    public void merge(final DecimalStreamMinMax<E> other) {
+        minDelegate.merge(other.minDelegate);
+        maxDelegate.merge(other.maxDelegate);
+    }
+
     public E getMin() {
         return minDelegate.getMin();
     }
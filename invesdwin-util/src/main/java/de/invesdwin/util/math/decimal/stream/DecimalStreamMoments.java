@@ -0,0 +1,184 @@
+package de.invesdwin.util.math.decimal.stream;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import de.invesdwin.util.math.decimal.ADecimal;
+import de.invesdwin.util.math.decimal.Decimal;
+
+/**
+ * Count, sum, min, max and the central moments up to the fourth in a single pass. The moments are updated
+ * incrementally (Welford) instead of via sums of powers, which stays numerically stable for values with a large mean.
+ * Null values are counted as zero like in IDecimalAggregate, the getters return null when no values were processed.
+ *
+ * The variance naming follows IDecimalAggregate.
+ *
+ * @see <a href="https://www.osti.gov/biblio/1028931">Formulas for Robust, One-Pass Parallel Computation of Covariances
+ *      and Arbitrary-Order Statistical Moments</a>
+ */
+@NotThreadSafe
+public class DecimalStreamMoments<E extends ADecimal<E>> implements IDecimalStreamAlgorithm<E, Void>,
+        IDecimalStreamMergeable<DecimalStreamMoments<E>> {
+
+    private final E converter;
+    private long count = 0;
+    private double sum = 0D;
+    private double mean = 0D;
+    private double m2 = 0D;
+    private double m3 = 0D;
+    private double m4 = 0D;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public DecimalStreamMoments(final E converter) {
+        this.converter = converter;
+    }
+
+    @Override
+    public Void process(final E value) {
+        if (value != null) {
+            process(value.getDefaultValue().doubleValueRaw());
+        } else {
+            process(0D);
+        }
+        return null;
+    }
+
+    public void process(final double value) {
+        final long n1 = count;
+        count++;
+        final double n = count;
+        final double delta = value - mean;
+        final double deltaN = delta / n;
+        final double deltaN2 = deltaN * deltaN;
+        final double term1 = delta * deltaN * n1;
+        mean += deltaN;
+        m4 += term1 * deltaN2 * (n * n - 3 * n + 3) + 6 * deltaN2 * m2 - 4 * deltaN * m3;
+        m3 += term1 * deltaN * (n - 2) - 3 * deltaN * m2;
+        m2 += term1;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    @Override
+    public void merge(final DecimalStreamMoments<E> other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            count = other.count;
+            sum = other.sum;
+            mean = other.mean;
+            m2 = other.m2;
+            m3 = other.m3;
+            m4 = other.m4;
+            min = other.min;
+            max = other.max;
+            return;
+        }
+        final double na = count;
+        final double nb = other.count;
+        final double n = na + nb;
+        final double delta = other.mean - mean;
+        final double delta2 = delta * delta;
+        final double delta3 = delta2 * delta;
+        final double delta4 = delta2 * delta2;
+        final double newM2 = m2 + other.m2 + delta2 * na * nb / n;
+        final double newM3 = m3 + other.m3 + delta3 * na * nb * (na - nb) / (n * n)
+                + 3 * delta * (na * other.m2 - nb * m2) / n;
+        final double newM4 = m4 + other.m4 + delta4 * na * nb * (na * na - na * nb + nb * nb) / (n * n * n)
+                + 6 * delta2 * (na * na * other.m2 + nb * nb * m2) / (n * n)
+                + 4 * delta * (na * other.m3 - nb * m3) / n;
+        mean += delta * nb / n;
+        m2 = newM2;
+        m3 = newM3;
+        m4 = newM4;
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public E getSum() {
+        return fromDefaultValue(sum);
+    }
+
+    public E getAvg() {
+        return fromDefaultValue(mean);
+    }
+
+    public E getMin() {
+        return fromDefaultValue(min);
+    }
+
+    public E getMax() {
+        return fromDefaultValue(max);
+    }
+
+    /**
+     * s^2 = 1/(n-1) * sum((x_i - x_quer)^2)
+     */
+    public E getVariance() {
+        return fromDefaultValue(getVarianceDouble(count - 1));
+    }
+
+    /**
+     * s^2 = 1/(n) * sum((x_i - x_quer)^2)
+     */
+    public E getSampleVariance() {
+        return fromDefaultValue(getVarianceDouble(count));
+    }
+
+    /**
+     * s = (1/(n) * sum((x_i - x_quer)^2))^1/2
+     */
+    public E getStandardDeviation() {
+        return fromDefaultValue(Math.sqrt(getVarianceDouble(count)));
+    }
+
+    /**
+     * s = (1/(n-1) * sum((x_i - x_quer)^2))^1/2
+     */
+    public E getSampleStandardDeviation() {
+        return fromDefaultValue(Math.sqrt(getVarianceDouble(count - 1)));
+    }
+
+    /**
+     * The population skewness, 0 for less than two values or no variance.
+     */
+    public double getSkewness() {
+        if (count < 2 || m2 == 0D) {
+            return 0D;
+        }
+        return Math.sqrt(count) * m3 / Math.pow(m2, 1.5D);
+    }
+
+    /**
+     * The population excess kurtosis (0 for a normal distribution), 0 for less than two values or no variance.
+     */
+    public double getKurtosis() {
+        if (count < 2 || m2 == 0D) {
+            return 0D;
+        }
+        return count * m4 / (m2 * m2) - 3D;
+    }
+
+    private E fromDefaultValue(final double value) {
+        if (count == 0) {
+            return null;
+        }
+        return converter.fromDefaultValue(new Decimal(value));
+    }
+
+    private double getVarianceDouble(final long divisor) {
+        if (divisor <= 0) {
+            return 0D;
+        }
+        return m2 / divisor;
+    }
+
+}
@@ -0,0 +1,297 @@
+package de.invesdwin.util.math.decimal.stream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import de.invesdwin.util.math.decimal.ADecimal;
+import de.invesdwin.util.math.decimal.scaled.Percent;
+
+/**
+ * Approximates quantiles with a KLL sketch in bounded memory, for streams or samples that are too large to keep
+ * around. Use IDecimalAggregate.quantile() instead when the values are available anyway, since that is exact.
+ *
+ * Values are kept in levels of compactors, where a value on level h stands for 2^h original values. When the sketch
+ * gets full, the lowest full level is sorted and every second value is promoted to the next level. With k=200 the rank
+ * error is typically below 1% (independent of the number of values), while only about 3*k values are retained.
+ *
+ * Sketches with the same k can be merged, e.g. when each worker summarizes its own partition.
+ *
+ * @see <a href="https://arxiv.org/abs/1603.05346">Optimal Quantile Approximation in Streams</a>
+ */
+@NotThreadSafe
+public class DecimalStreamQuantiles<E extends ADecimal<E>> implements IDecimalStreamAlgorithm<E, Void>,
+        IDecimalStreamMergeable<DecimalStreamQuantiles<E>> {
+
+    public static final int DEFAULT_K = 200;
+    private static final double CAPACITY_DECAY = 2D / 3D;
+    private static final int MIN_LEVEL_CAPACITY = 2;
+
+    private final E converter;
+    private final int k;
+
+    private double[][] levels = new double[0][];
+    private int[] levelSizes = new int[0];
+    private int numLevels;
+    private int retained;
+    private int capacity;
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private boolean compactOddIndexes;
+
+    private double[] sortedValues;
+    private long[] cumulativeWeights;
+    private int sortedSize = -1;
+
+    public DecimalStreamQuantiles(final E converter) {
+        this(converter, DEFAULT_K);
+    }
+
+    /**
+     * A higher k gives a lower error but retains more values.
+     */
+    public DecimalStreamQuantiles(final E converter, final int k) {
+        if (k < MIN_LEVEL_CAPACITY) {
+            throw new IllegalArgumentException("k should be at least " + MIN_LEVEL_CAPACITY + ": " + k);
+        }
+        this.converter = converter;
+        this.k = k;
+        addLevel();
+    }
+
+    /**
+     * Null values are counted as zero like in IDecimalAggregate.
+     */
+    @Override
+    public Void process(final E value) {
+        if (value != null) {
+            process(value.getDefaultValue().doubleValueRaw());
+        } else {
+            process(0D);
+        }
+        return null;
+    }
+
+    public void process(final double value) {
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        append(0, value);
+        compress();
+    }
+
+    /**
+     * Both sketches need to use the same k.
+     */
+    @Override
+    public void merge(final DecimalStreamQuantiles<E> other) {
+        if (other.k != k) {
+            throw new IllegalArgumentException("k [" + other.k + "] of other sketch should be equal to [" + k + "]");
+        }
+        if (other.count == 0) {
+            return;
+        }
+        while (numLevels < other.numLevels) {
+            addLevel();
+        }
+        for (int h = 0; h < other.numLevels; h++) {
+            final double[] otherLevel = other.levels[h];
+            for (int i = 0; i < other.levelSizes[h]; i++) {
+                append(h, otherLevel[i]);
+            }
+        }
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        compress();
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * Returns null when no values were processed.
+     */
+    public E getQuantile(final Percent quantile) {
+        if (count == 0) {
+            return null;
+        }
+        return converter.fromDefaultValue(getQuantile(quantile.getRate().doubleValueRaw()));
+    }
+
+    public List<E> getQuantiles(final Percent... quantiles) {
+        final List<E> result = new ArrayList<E>(quantiles.length);
+        for (final Percent quantile : quantiles) {
+            result.add(getQuantile(quantile));
+        }
+        return result;
+    }
+
+    /**
+     * The quantile in the range [0, 1], NaN when no values were processed.
+     */
+    public double getQuantile(final double quantile) {
+        if (!(quantile >= 0D && quantile <= 1D)) {
+            throw new IllegalArgumentException("quantile should be in the range [0, 1]: " + quantile);
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (quantile == 0D) {
+            return min;
+        }
+        if (quantile == 1D) {
+            return max;
+        }
+        updateSortedView();
+        final double rank = quantile * count;
+        int low = 0;
+        int high = sortedSize - 1;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (cumulativeWeights[mid] < rank) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return sortedValues[low];
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    private void append(final int level, final double value) {
+        double[] array = levels[level];
+        final int size = levelSizes[level];
+        if (size == array.length) {
+            array = Arrays.copyOf(array, Math.max(MIN_LEVEL_CAPACITY, size * 2));
+            levels[level] = array;
+        }
+        array[size] = value;
+        levelSizes[level] = size + 1;
+        retained++;
+        sortedSize = -1;
+    }
+
+    private void compress() {
+        while (retained >= capacity) {
+            for (int h = 0; h < numLevels; h++) {
+                if (levelSizes[h] >= getLevelCapacity(h)) {
+                    compact(h);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Halves the given level by promoting every second value in sorted order to the next level, which keeps the total
+     * weight since each promoted value counts twice as much.
+     */
+    private void compact(final int level) {
+        if (level == numLevels - 1) {
+            addLevel();
+        }
+        final double[] array = levels[level];
+        final int size = levelSizes[level];
+        //an odd value stays on this level
+        final int start = size & 1;
+        Arrays.sort(array, start, size);
+        final int offset;
+        if (compactOddIndexes) {
+            offset = 1;
+        } else {
+            offset = 0;
+        }
+        compactOddIndexes = !compactOddIndexes;
+        for (int i = start + offset; i < size; i += 2) {
+            append(level + 1, array[i]);
+        }
+        levelSizes[level] = start;
+        retained -= size - start;
+    }
+
+    private void addLevel() {
+        levels = Arrays.copyOf(levels, numLevels + 1);
+        levelSizes = Arrays.copyOf(levelSizes, numLevels + 1);
+        levels[numLevels] = new double[0];
+        numLevels++;
+        capacity = 0;
+        for (int h = 0; h < numLevels; h++) {
+            capacity += getLevelCapacity(h);
+        }
+    }
+
+    private int getLevelCapacity(final int level) {
+        final int depth = numLevels - level - 1;
+        return Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+    }
+
+    private void updateSortedView() {
+        if (sortedSize == retained) {
+            return;
+        }
+        if (sortedValues == null || sortedValues.length < retained) {
+            sortedValues = new double[retained];
+            cumulativeWeights = new long[retained];
+        }
+        //merge the sorted levels into one sorted run with weights
+        final double[] mergeValues = new double[retained];
+        final long[] mergeWeights = new long[retained];
+        int size = 0;
+        for (int h = 0; h < numLevels; h++) {
+            final int levelSize = levelSizes[h];
+            if (levelSize == 0) {
+                continue;
+            }
+            final double[] level = levels[h];
+            Arrays.sort(level, 0, levelSize);
+            final long weight = 1L << h;
+            int i = size - 1;
+            int j = levelSize - 1;
+            int target = size + levelSize - 1;
+            while (j >= 0) {
+                if (i >= 0 && sortedValues[i] > level[j]) {
+                    mergeValues[target] = sortedValues[i];
+                    mergeWeights[target] = cumulativeWeights[i];
+                    i--;
+                } else {
+                    mergeValues[target] = level[j];
+                    mergeWeights[target] = weight;
+                    j--;
+                }
+                target--;
+            }
+            while (i >= 0) {
+                mergeValues[target] = sortedValues[i];
+                mergeWeights[target] = cumulativeWeights[i];
+                i--;
+                target--;
+            }
+            size += levelSize;
+            System.arraycopy(mergeValues, 0, sortedValues, 0, size);
+            System.arraycopy(mergeWeights, 0, cumulativeWeights, 0, size);
+        }
+        long cumulativeWeight = 0;
+        for (int i = 0; i < size; i++) {
+            cumulativeWeight += cumulativeWeights[i];
+            cumulativeWeights[i] = cumulativeWeight;
+        }
+        sortedSize = size;
+    }
+
+}
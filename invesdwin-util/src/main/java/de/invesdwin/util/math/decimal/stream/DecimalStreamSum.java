@@ -6,7 +6,8 @@ import de.invesdwin.util.math.decimal.ADecimal;
 import de.invesdwin.util.math.decimal.Decimal;
 
 @NotThreadSafe
-public class DecimalStreamSum<E extends ADecimal<E>> implements IDecimalStreamAlgorithm<E, Void> {
+public class DecimalStreamSum<E extends ADecimal<E>> implements IDecimalStreamAlgorithm<E, Void>,
+        IDecimalStreamMergeable<DecimalStreamSum<E>> {
 
     private double sum = 0;
     private final E converter;
@@ -23,6 +24,11 @@ public class DecimalStreamSum<E extends ADecimal<E>> implements IDecimalStreamAl
         return null;
     }
 
+    @Override
+    public void merge(final DecimalStreamSum<E> other) {
+        sum += other.sum;
+    }
+
     public E getSum() {
         return converter.fromDefaultValue(new Decimal(sum));
     }
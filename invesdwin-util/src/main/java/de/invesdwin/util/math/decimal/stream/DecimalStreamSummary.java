@@ -0,0 +1,112 @@
+package de.invesdwin.util.math.decimal.stream;
+
+import java.util.List;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import de.invesdwin.util.math.decimal.ADecimal;
+import de.invesdwin.util.math.decimal.scaled.Percent;
+
+/**
+ * Combines the moments and a quantile sketch, so that the usual statistics of a partition can be collected in one pass
+ * and merged with the summaries of other partitions. Quantiles are approximated, see DecimalStreamQuantiles. Null
+ * values are counted as zero like in IDecimalAggregate.
+ */
+@NotThreadSafe
+public class DecimalStreamSummary<E extends ADecimal<E>> implements IDecimalStreamAlgorithm<E, Void>,
+        IDecimalStreamMergeable<DecimalStreamSummary<E>> {
+
+    private final DecimalStreamMoments<E> moments;
+    private final DecimalStreamQuantiles<E> quantiles;
+
+    public DecimalStreamSummary(final E converter) {
+        this(converter, DecimalStreamQuantiles.DEFAULT_K);
+    }
+
+    /**
+     * @param k
+     *            see DecimalStreamQuantiles
+     */
+    public DecimalStreamSummary(final E converter, final int k) {
+        this.moments = new DecimalStreamMoments<E>(converter);
+        this.quantiles = new DecimalStreamQuantiles<E>(converter, k);
+    }
+
+    @Override
+    public Void process(final E value) {
+        if (value != null) {
+            process(value.getDefaultValue().doubleValueRaw());
+        } else {
+            process(0D);
+        }
+        return null;
+    }
+
+    public void process(final double value) {
+        moments.process(value);
+        quantiles.process(value);
+    }
+
+    @Override
+    public void merge(final DecimalStreamSummary<E> other) {
+        moments.merge(other.moments);
+        quantiles.merge(other.quantiles);
+    }
+
+    public DecimalStreamMoments<E> getMoments() {
+        return moments;
+    }
+
+    public DecimalStreamQuantiles<E> getQuantiles() {
+        return quantiles;
+    }
+
+    public long getCount() {
+        return moments.getCount();
+    }
+
+    public E getSum() {
+        return moments.getSum();
+    }
+
+    public E getAvg() {
+        return moments.getAvg();
+    }
+
+    public E getMin() {
+        return moments.getMin();
+    }
+
+    public E getMax() {
+        return moments.getMax();
+    }
+
+    public E getStandardDeviation() {
+        return moments.getStandardDeviation();
+    }
+
+    public E getSampleStandardDeviation() {
+        return moments.getSampleStandardDeviation();
+    }
+
+    public E getVariance() {
+        return moments.getVariance();
+    }
+
+    public E getSampleVariance() {
+        return moments.getSampleVariance();
+    }
+
+    public E getMedian() {
+        return quantiles.getQuantile(Percent.FIFTY_PERCENT);
+    }
+
+    public E getQuantile(final Percent quantile) {
+        return quantiles.getQuantile(quantile);
+    }
+
+    public List<E> getQuantiles(final Percent... quantiles) {
+        return this.quantiles.getQuantiles(quantiles);
+    }
+
+}
@@ -0,0 +1,14 @@
+package de.invesdwin.util.math.decimal.stream;
+
+/**
+ * Stream algorithms that can combine their state with another instance of the same type, so that partitions (e.g. one
+ * per worker thread or per instrument) can be summarized separately and merged at the end without the raw values.
+ */
+public interface IDecimalStreamMergeable<S> {
+
+    /**
+     * Adds the values summarized by the other instance to this one, the other instance stays unchanged.
+     */
+    void merge(S other);
+
+}
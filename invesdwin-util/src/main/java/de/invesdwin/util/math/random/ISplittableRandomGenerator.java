@@ -0,0 +1,43 @@
+package de.invesdwin.util.math.random;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+/**
+ * A random generator that can be split into independent generators, e.g. one per fork join task, so that parallel
+ * simulations stay reproducible for a given seed regardless of which thread runs which task.
+ */
+public interface ISplittableRandomGenerator extends RandomGenerator {
+
+    /**
+     * Returns a new generator whose sequence does not overlap with the one of this generator (at least for as many
+     * values as the implementation guarantees). The result only depends on the state of this generator, which gets
+     * advanced by this call.
+     */
+    ISplittableRandomGenerator split();
+
+    /**
+     * Fills the destination with uniformly distributed values in the range [0, 1).
+     */
+    void nextDouble(double[] destination);
+
+    /**
+     * Fills the destination with uniformly distributed values in the range [0, bound).
+     */
+    void nextInt(int[] destination, int bound);
+
+    /**
+     * Fills the destination with normally distributed values with mean 0 and standard deviation 1.
+     */
+    void nextGaussian(double[] destination);
+
+    /**
+     * Returns an exponentially distributed value with mean 1.
+     */
+    double nextExponential();
+
+    /**
+     * Fills the destination with exponentially distributed values with mean 1.
+     */
+    void nextExponential(double[] destination);
+
+}
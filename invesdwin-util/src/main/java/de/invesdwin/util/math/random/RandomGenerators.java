@@ -21,4 +21,15 @@ public final class RandomGenerators {
         return new XoRoShiRo128PlusRandomGenerator();
     }
 
+    public static ISplittableRandomGenerator newSplittableRandom() {
+        return new SplittableXoRoShiRo128PlusRandomGenerator();
+    }
+
+    /**
+     * Use split() to derive reproducible generators for parallel tasks from this one.
+     */
+    public static ISplittableRandomGenerator newSplittableRandom(final long seed) {
+        return new SplittableXoRoShiRo128PlusRandomGenerator(seed);
+    }
+
 }
@@ -0,0 +1,258 @@
+package de.invesdwin.util.math.random;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A xoroshiro128+ generator (with the 2018 parameters 24, 16, 37) that implements RandomGenerator directly, thus
+ * without the overhead of an adapter around java.util.Random. Each instance should only be used by one thread.
+ *
+ * For parallel simulations create one instance with a seed and split() it for each task in a deterministic order.
+ * Splitting jumps this generator 2^64 values ahead and hands out its previous state, thus the sequences of all split
+ * generators are guaranteed not to overlap as long as each of them draws less than 2^64 values. longJump() can be used
+ * to create up to 2^32 starting points for nested splits (e.g. one per simulation run, then one per task).
+ *
+ * @see <a href="http://prng.di.unimi.it/">xoshiro / xoroshiro generators and the PRNG shootout</a>
+ */
+@NotThreadSafe
+public class SplittableXoRoShiRo128PlusRandomGenerator implements ISplittableRandomGenerator {
+
+    private static final long[] JUMP = { 0xdf900294d8f554a5L, 0x170865df4b3201fcL };
+    private static final long[] LONG_JUMP = { 0xd2a98b26625eee7bL, 0xdddf9b1090aa7ac1L };
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final AtomicLong SEED_UNIQUIFIER = new AtomicLong(System.nanoTime());
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+    private static final float FLOAT_UNIT = 0x1.0p-24f;
+
+    private long s0;
+    private long s1;
+
+    /**
+     * Uses a different seed for each instance, even when created at the same time.
+     */
+    public SplittableXoRoShiRo128PlusRandomGenerator() {
+        this(SEED_UNIQUIFIER.addAndGet(GOLDEN_GAMMA) ^ System.nanoTime());
+    }
+
+    public SplittableXoRoShiRo128PlusRandomGenerator(final long seed) {
+        setSeed(seed);
+    }
+
+    private SplittableXoRoShiRo128PlusRandomGenerator(final long s0, final long s1) {
+        this.s0 = s0;
+        this.s1 = s1;
+    }
+
+    @Override
+    public void setSeed(final int seed) {
+        setSeed((long) seed);
+    }
+
+    @Override
+    public void setSeed(final int[] seed) {
+        // the following number is the largest prime that fits in 32 bits (it is 2^32 - 5)
+        final long prime = 4294967291L;
+
+        long combined = 0L;
+        for (final int s : seed) {
+            combined = combined * prime + s;
+        }
+        setSeed(combined);
+    }
+
+    /**
+     * The state is initialized with splitmix64 from the seed, so that similar seeds still result in unrelated
+     * sequences.
+     */
+    @Override
+    public void setSeed(final long seed) {
+        long x = seed;
+        x += GOLDEN_GAMMA;
+        s0 = mixSplitMix64(x);
+        x += GOLDEN_GAMMA;
+        s1 = mixSplitMix64(x);
+        if (s0 == 0L && s1 == 0L) {
+            //the all zero state would only produce zeros
+            s1 = 1L;
+        }
+    }
+
+    public SplittableXoRoShiRo128PlusRandomGenerator copy() {
+        return new SplittableXoRoShiRo128PlusRandomGenerator(s0, s1);
+    }
+
+    @Override
+    public SplittableXoRoShiRo128PlusRandomGenerator split() {
+        final SplittableXoRoShiRo128PlusRandomGenerator split = copy();
+        jump();
+        return split;
+    }
+
+    /**
+     * Advances the state as if nextLong() was called 2^64 times.
+     */
+    public void jump() {
+        jump(JUMP);
+    }
+
+    /**
+     * Advances the state as if nextLong() was called 2^96 times.
+     */
+    public void longJump() {
+        jump(LONG_JUMP);
+    }
+
+    private void jump(final long[] polynomial) {
+        long jumped0 = 0L;
+        long jumped1 = 0L;
+        for (int i = 0; i < polynomial.length; i++) {
+            for (int b = 0; b < Long.SIZE; b++) {
+                if ((polynomial[i] & (1L << b)) != 0) {
+                    jumped0 ^= s0;
+                    jumped1 ^= s1;
+                }
+                nextLong();
+            }
+        }
+        s0 = jumped0;
+        s1 = jumped1;
+    }
+
+    @Override
+    public long nextLong() {
+        final long state0 = s0;
+        long state1 = s1;
+        final long result = state0 + state1;
+        state1 ^= state0;
+        s0 = Long.rotateLeft(state0, 24) ^ state1 ^ (state1 << 16);
+        s1 = Long.rotateLeft(state1, 37);
+        return result;
+    }
+
+    /**
+     * Uses the upper bits, since the lowest bits of xoroshiro128+ have a low linear complexity.
+     */
+    @Override
+    public int nextInt() {
+        return (int) (nextLong() >>> 32);
+    }
+
+    @Override
+    public int nextInt(final int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n should be positive: " + n);
+        }
+        return nextIntBounded(n);
+    }
+
+    /**
+     * Same as java.util.Random.nextInt(int), but with 31 bits from nextLong().
+     */
+    private int nextIntBounded(final int bound) {
+        int u = (int) (nextLong() >>> 33);
+        final int m = bound - 1;
+        if ((bound & m) == 0) {
+            return (int) ((bound * (long) u) >> 31);
+        }
+        int r = u % bound;
+        while (u - r + m < 0) {
+            //reject values from the incomplete last range to stay unbiased
+            u = (int) (nextLong() >>> 33);
+            r = u % bound;
+        }
+        return r;
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return nextLong() < 0L;
+    }
+
+    @Override
+    public float nextFloat() {
+        return (nextLong() >>> 40) * FLOAT_UNIT;
+    }
+
+    @Override
+    public double nextDouble() {
+        return (nextLong() >>> 11) * DOUBLE_UNIT;
+    }
+
+    @Override
+    public void nextBytes(final byte[] bytes) {
+        int i = 0;
+        while (i < bytes.length) {
+            long random = nextLong();
+            final int count = Math.min(bytes.length - i, Long.SIZE / Byte.SIZE);
+            for (int j = 0; j < count; j++) {
+                bytes[i] = (byte) random;
+                random >>>= Byte.SIZE;
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Uses the ziggurat method, see ZigguratSamplers.
+     */
+    @Override
+    public double nextGaussian() {
+        return ZigguratSamplers.nextGaussian(this);
+    }
+
+    @Override
+    public double nextExponential() {
+        return ZigguratSamplers.nextExponential(this);
+    }
+
+    /**
+     * Keeps the state in local variables during the loop.
+     */
+    @Override
+    public void nextDouble(final double[] destination) {
+        long state0 = s0;
+        long state1 = s1;
+        for (int i = 0; i < destination.length; i++) {
+            final long result = state0 + state1;
+            state1 ^= state0;
+            state0 = Long.rotateLeft(state0, 24) ^ state1 ^ (state1 << 16);
+            state1 = Long.rotateLeft(state1, 37);
+            destination[i] = (result >>> 11) * DOUBLE_UNIT;
+        }
+        s0 = state0;
+        s1 = state1;
+    }
+
+    @Override
+    public void nextInt(final int[] destination, final int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound should be positive: " + bound);
+        }
+        for (int i = 0; i < destination.length; i++) {
+            destination[i] = nextIntBounded(bound);
+        }
+    }
+
+    @Override
+    public void nextGaussian(final double[] destination) {
+        for (int i = 0; i < destination.length; i++) {
+            destination[i] = ZigguratSamplers.nextGaussian(this);
+        }
+    }
+
+    @Override
+    public void nextExponential(final double[] destination) {
+        for (int i = 0; i < destination.length; i++) {
+            destination[i] = ZigguratSamplers.nextExponential(this);
+        }
+    }
+
+    private static long mixSplitMix64(final long value) {
+        long z = value;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+}
@@ -0,0 +1,176 @@
+package de.invesdwin.util.math.random;
+
+import javax.annotation.concurrent.Immutable;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+/**
+ * Normal and exponential samplers with the ziggurat method, which in most cases only needs one random long, a table
+ * lookup and a multiplication per value. This is a lot faster than the polar method of java.util.Random or the
+ * inversion used by commons-math distributions.
+ *
+ * The layer index is taken from bits 24 and above of the low half and the value from the high half of the random long,
+ * so that both are independent (the original algorithm reuses the same 32 bits for both, which correlates them). The
+ * lowest bits are skipped since they are the weakest ones of linear congruential generators like java.util.Random.
+ *
+ * @see <a href="https://www.jstatsoft.org/article/view/v005i08">Marsaglia, Tsang: The Ziggurat Method for Generating
+ *      Random Variables</a>
+ */
+@Immutable
+public final class ZigguratSamplers {
+
+    private static final int NORMAL_LAYERS = 128;
+    private static final int NORMAL_MASK = NORMAL_LAYERS - 1;
+    private static final double NORMAL_R = 3.442619855899D;
+    private static final double NORMAL_V = 9.91256303526217e-3D;
+    private static final long[] NORMAL_K = new long[NORMAL_LAYERS];
+    private static final double[] NORMAL_W = new double[NORMAL_LAYERS];
+    private static final double[] NORMAL_F = new double[NORMAL_LAYERS];
+
+    private static final int EXPONENTIAL_LAYERS = 256;
+    private static final int EXPONENTIAL_MASK = EXPONENTIAL_LAYERS - 1;
+    private static final double EXPONENTIAL_R = 7.697117470131487D;
+    private static final double EXPONENTIAL_V = 3.949659822581572e-3D;
+    private static final long[] EXPONENTIAL_K = new long[EXPONENTIAL_LAYERS];
+    private static final double[] EXPONENTIAL_W = new double[EXPONENTIAL_LAYERS];
+    private static final double[] EXPONENTIAL_F = new double[EXPONENTIAL_LAYERS];
+
+    private static final double TWO_POW_31 = 2147483648D;
+    private static final double TWO_POW_32 = 4294967296D;
+
+    static {
+        initNormalTables();
+        initExponentialTables();
+    }
+
+    private ZigguratSamplers() {}
+
+    /**
+     * Returns a normally distributed value with mean 0 and standard deviation 1.
+     */
+    public static double nextGaussian(final RandomGenerator random) {
+        final long bits = random.nextLong();
+        final int layer = (int) (bits >>> 24) & NORMAL_MASK;
+        final int value = (int) (bits >> 32);
+        if (Math.abs((long) value) < NORMAL_K[layer]) {
+            return value * NORMAL_W[layer];
+        }
+        return nextGaussianSlow(random, value, layer);
+    }
+
+    /**
+     * Returns an exponentially distributed value with mean 1.
+     */
+    public static double nextExponential(final RandomGenerator random) {
+        final long bits = random.nextLong();
+        final int layer = (int) (bits >>> 24) & EXPONENTIAL_MASK;
+        final long value = bits >>> 32;
+        if (value < EXPONENTIAL_K[layer]) {
+            return value * EXPONENTIAL_W[layer];
+        }
+        return nextExponentialSlow(random, value, layer);
+    }
+
+    private static double nextGaussianSlow(final RandomGenerator random, final int initialValue,
+            final int initialLayer) {
+        int value = initialValue;
+        int layer = initialLayer;
+        while (true) {
+            if (layer == 0) {
+                //sample from the tail beyond NORMAL_R
+                double x;
+                double y;
+                do {
+                    x = -Math.log(nextOpenUniform(random)) / NORMAL_R;
+                    y = -Math.log(nextOpenUniform(random));
+                } while (y + y < x * x);
+                if (value > 0) {
+                    return NORMAL_R + x;
+                } else {
+                    return -NORMAL_R - x;
+                }
+            }
+            final double x = value * NORMAL_W[layer];
+            final double f = NORMAL_F[layer] + random.nextDouble() * (NORMAL_F[layer - 1] - NORMAL_F[layer]);
+            if (f < Math.exp(-0.5D * x * x)) {
+                return x;
+            }
+            final long bits = random.nextLong();
+            layer = (int) (bits >>> 24) & NORMAL_MASK;
+            value = (int) (bits >> 32);
+            if (Math.abs((long) value) < NORMAL_K[layer]) {
+                return value * NORMAL_W[layer];
+            }
+        }
+    }
+
+    private static double nextExponentialSlow(final RandomGenerator random, final long initialValue,
+            final int initialLayer) {
+        long value = initialValue;
+        int layer = initialLayer;
+        while (true) {
+            if (layer == 0) {
+                //the tail beyond EXPONENTIAL_R is again exponentially distributed
+                return EXPONENTIAL_R - Math.log(nextOpenUniform(random));
+            }
+            final double x = value * EXPONENTIAL_W[layer];
+            final double f = EXPONENTIAL_F[layer]
+                    + random.nextDouble() * (EXPONENTIAL_F[layer - 1] - EXPONENTIAL_F[layer]);
+            if (f < Math.exp(-x)) {
+                return x;
+            }
+            final long bits = random.nextLong();
+            layer = (int) (bits >>> 24) & EXPONENTIAL_MASK;
+            value = bits >>> 32;
+            if (value < EXPONENTIAL_K[layer]) {
+                return value * EXPONENTIAL_W[layer];
+            }
+        }
+    }
+
+    /**
+     * A uniform value in the range (0, 1], so that it can be passed to Math.log().
+     */
+    private static double nextOpenUniform(final RandomGenerator random) {
+        return 1D - random.nextDouble();
+    }
+
+    private static void initNormalTables() {
+        double d = NORMAL_R;
+        double t = d;
+        final double q = NORMAL_V / Math.exp(-0.5D * d * d);
+        NORMAL_K[0] = (long) ((d / q) * TWO_POW_31);
+        NORMAL_K[1] = 0;
+        NORMAL_W[0] = q / TWO_POW_31;
+        NORMAL_W[NORMAL_LAYERS - 1] = d / TWO_POW_31;
+        NORMAL_F[0] = 1D;
+        NORMAL_F[NORMAL_LAYERS - 1] = Math.exp(-0.5D * d * d);
+        for (int i = NORMAL_LAYERS - 2; i >= 1; i--) {
+            d = Math.sqrt(-2D * Math.log(NORMAL_V / d + Math.exp(-0.5D * d * d)));
+            NORMAL_K[i + 1] = (long) ((d / t) * TWO_POW_31);
+            t = d;
+            NORMAL_F[i] = Math.exp(-0.5D * d * d);
+            NORMAL_W[i] = d / TWO_POW_31;
+        }
+    }
+
+    private static void initExponentialTables() {
+        double d = EXPONENTIAL_R;
+        double t = d;
+        final double q = EXPONENTIAL_V / Math.exp(-d);
+        EXPONENTIAL_K[0] = (long) ((d / q) * TWO_POW_32);
+        EXPONENTIAL_K[1] = 0;
+        EXPONENTIAL_W[0] = q / TWO_POW_32;
+        EXPONENTIAL_W[EXPONENTIAL_LAYERS - 1] = d / TWO_POW_32;
+        EXPONENTIAL_F[0] = 1D;
+        EXPONENTIAL_F[EXPONENTIAL_LAYERS - 1] = Math.exp(-d);
+        for (int i = EXPONENTIAL_LAYERS - 2; i >= 1; i--) {
+            d = -Math.log(EXPONENTIAL_V / d + Math.exp(-d));
+            EXPONENTIAL_K[i + 1] = (long) ((d / t) * TWO_POW_32);
+            t = d;
+            EXPONENTIAL_F[i] = Math.exp(-d);
+            EXPONENTIAL_W[i] = d / TWO_POW_32;
+        }
+    }
+
+}
@@ -0,0 +1,114 @@
+package de.invesdwin.util.collections.concurrent;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+
+@NotThreadSafe
+public class AFastIterableDelegateMapTest {
+
+    @Test
+    public void testModificationDuringIteration() {
+        final AFastIterableDelegateMap<Integer, String> map = newMap();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, String.valueOf(i));
+        }
+        int iterated = 0;
+        final Iterator<Entry<Integer, String>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Entry<Integer, String> next = iterator.next();
+            //the iterator works on a snapshot, thus neither removals, replacements nor additions are visible to it
+            Assertions.assertThat(next.getValue()).isEqualTo(String.valueOf(next.getKey()));
+            map.remove(next.getKey());
+            map.put(next.getKey() + 1000, "new");
+            map.put(next.getKey() + 1, "replaced");
+            iterated++;
+        }
+        Assertions.assertThat(iterated).isEqualTo(100);
+        Assertions.assertThat(map.size()).isEqualTo(101);
+        Assertions.assertThat(map.get(100)).isEqualTo("replaced");
+        int expected = 1000;
+        for (final Entry<Integer, String> entry : map.entrySet()) {
+            if (entry.getKey() == 100) {
+                continue;
+            }
+            Assertions.assertThat(entry.getKey()).isEqualTo(expected);
+            Assertions.assertThat(entry.getValue()).isEqualTo("new");
+            expected++;
+        }
+        Assertions.assertThat(expected).isEqualTo(1100);
+    }
+
+    @Test
+    public void testReplaceKeepsOrder() {
+        final AFastIterableDelegateMap<Integer, String> map = newMap();
+        for (int i = 0; i < 10; i++) {
+            map.put(i, "a");
+        }
+        //create the snapshot
+        Assertions.assertThat(map.keySet().iterator().next()).isEqualTo(0);
+        map.put(5, "b");
+        int expected = 0;
+        for (final Entry<Integer, String> entry : map.entrySet()) {
+            Assertions.assertThat(entry.getKey()).isEqualTo(expected);
+            if (expected == 5) {
+                Assertions.assertThat(entry.getValue()).isEqualTo("b");
+            } else {
+                Assertions.assertThat(entry.getValue()).isEqualTo("a");
+            }
+            expected++;
+        }
+        Assertions.assertThat(expected).isEqualTo(10);
+    }
+
+    @Test
+    public void testArraysAfterModifications() {
+        final AFastIterableDelegateMap<Integer, String> map = newMap();
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, String.valueOf(i));
+        }
+        final Integer[] keysBefore = map.asKeyArray(Integer.class);
+        Assertions.assertThat(keysBefore.length).isEqualTo(1000);
+        for (int i = 0; i < 1000; i += 2) {
+            map.remove(i);
+        }
+        map.put(1, "one");
+        Assertions.assertThat(map.size()).isEqualTo(500);
+        //arrays handed out before stay untouched
+        Assertions.assertThat(keysBefore.length).isEqualTo(1000);
+        Assertions.assertThat(keysBefore[0]).isEqualTo(0);
+        final Integer[] keys = map.asKeyArray(Integer.class);
+        final String[] values = map.asValueArray(String.class);
+        final Entry<Integer, String>[] entries = map.asEntryArray();
+        Assertions.assertThat(keys.length).isEqualTo(500);
+        Assertions.assertThat(values.length).isEqualTo(500);
+        Assertions.assertThat(entries.length).isEqualTo(500);
+        for (int i = 0; i < keys.length; i++) {
+            Assertions.assertThat(keys[i]).isEqualTo(i * 2 + 1);
+            Assertions.assertThat(entries[i].getKey()).isEqualTo(keys[i]);
+            Assertions.assertThat(entries[i].getValue()).isEqualTo(values[i]);
+        }
+        Assertions.assertThat(values[0]).isEqualTo("one");
+        map.clear();
+        Assertions.assertThat(map.isEmpty()).isTrue();
+        Assertions.assertThat(map.values().iterator().hasNext()).isFalse();
+        Assertions.assertThat(map.asEntryArray().length).isEqualTo(0);
+    }
+
+    private AFastIterableDelegateMap<Integer, String> newMap() {
+        return new AFastIterableDelegateMap<Integer, String>() {
+            @Override
+            protected Map<Integer, String> newDelegate() {
+                return new LinkedHashMap<Integer, String>();
+            }
+        };
+    }
+
+}
@@ -0,0 +1,73 @@
+package de.invesdwin.util.collections.concurrent;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.collections.iterable.ICloseableIterator;
+
+@NotThreadSafe
+public class AFastIterableDelegateSetTest {
+
+    @Test
+    public void testModificationDuringIteration() {
+        final AFastIterableDelegateSet<Integer> set = newSet();
+        for (int i = 0; i < 100; i++) {
+            set.add(i);
+        }
+        int iterated = 0;
+        final ICloseableIterator<Integer> iterator = set.iterator();
+        while (iterator.hasNext()) {
+            final Integer next = iterator.next();
+            //the iterator works on a snapshot, thus neither removals nor additions are visible to it
+            set.remove(next);
+            set.add(next + 1000);
+            iterated++;
+        }
+        Assertions.assertThat(iterated).isEqualTo(100);
+        Assertions.assertThat(set.size()).isEqualTo(100);
+        int expected = 1000;
+        for (final Integer value : set) {
+            Assertions.assertThat(value).isEqualTo(expected);
+            expected++;
+        }
+        Assertions.assertThat(expected).isEqualTo(1100);
+    }
+
+    @Test
+    public void testRemoveCompaction() {
+        final AFastIterableDelegateSet<Integer> set = newSet();
+        for (int i = 0; i < 1000; i++) {
+            set.add(i);
+        }
+        //create the snapshot
+        Assertions.assertThat(set.iterator().next()).isEqualTo(0);
+        for (int i = 0; i < 1000; i += 2) {
+            set.remove(i);
+        }
+        Assertions.assertThat(set.size()).isEqualTo(500);
+        final Integer[] array = set.asArray(Integer.class);
+        Assertions.assertThat(array.length).isEqualTo(500);
+        int expected = 1;
+        for (final Integer value : set) {
+            Assertions.assertThat(value).isEqualTo(expected);
+            expected += 2;
+        }
+        set.clear();
+        Assertions.assertThat(set.iterator().hasNext()).isFalse();
+    }
+
+    private AFastIterableDelegateSet<Integer> newSet() {
+        return new AFastIterableDelegateSet<Integer>() {
+            @Override
+            protected Set<Integer> newDelegate() {
+                return new LinkedHashSet<Integer>();
+            }
+        };
+    }
+
+}
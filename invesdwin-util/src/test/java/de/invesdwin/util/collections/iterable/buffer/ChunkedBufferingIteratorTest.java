@@ -0,0 +1,233 @@
+package de.invesdwin.util.collections.iterable.buffer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.collections.iterable.ICloseableIterator;
+
+@NotThreadSafe
+public class ChunkedBufferingIteratorTest {
+
+    @Test
+    public void testAddPrependNext() {
+        final ChunkedBufferingIterator<Integer> buffer = new ChunkedBufferingIterator<Integer>();
+        for (int i = 0; i < 5000; i++) {
+            buffer.add(i);
+        }
+        for (int i = -1; i >= -100; i--) {
+            buffer.prepend(i);
+        }
+        Assertions.assertThat(buffer.size()).isEqualTo(5100);
+        Assertions.assertThat(buffer.getHead()).isEqualTo(-100);
+        Assertions.assertThat(buffer.getTail()).isEqualTo(4999);
+        int expected = -100;
+        while (buffer.hasNext()) {
+            Assertions.assertThat(buffer.next()).isEqualTo(expected);
+            expected++;
+            if (expected % 7 == 0) {
+                //mix in adds while consuming to exercise chunk recycling
+                buffer.add(expected + 100000);
+                Assertions.assertThat(buffer.next()).isEqualTo(expected);
+                expected++;
+            }
+            if (expected >= 5000) {
+                break;
+            }
+        }
+        while (buffer.hasNext()) {
+            Assertions.assertThat(buffer.next()).isGreaterThanOrEqualTo(100000 - 100);
+        }
+        Assertions.assertThat(buffer.isEmpty()).isTrue();
+        Assertions.assertThat(buffer.getHead()).isNull();
+        Assertions.assertThat(buffer.getTail()).isNull();
+    }
+
+    @Test
+    public void testAddAllAndConsume() {
+        final List<Integer> list = new ArrayList<Integer>();
+        for (int i = 0; i < 3000; i++) {
+            list.add(i);
+        }
+        final ChunkedBufferingIterator<Integer> buffer = new ChunkedBufferingIterator<Integer>(list);
+        final ChunkedBufferingIterator<Integer> other = new ChunkedBufferingIterator<Integer>(list.iterator());
+        Assertions.assertThat(buffer.consume(other)).isTrue();
+        Assertions.assertThat(other.isEmpty()).isTrue();
+        Assertions.assertThat(buffer.size()).isEqualTo(6000);
+        final BufferingIterator<Integer> linked = new BufferingIterator<Integer>(list);
+        Assertions.assertThat(buffer.consume(linked)).isTrue();
+        Assertions.assertThat(linked.isEmpty()).isTrue();
+        Assertions.assertThat(buffer.size()).isEqualTo(9000);
+        int i = 0;
+        final ICloseableIterator<Integer> view = buffer.iterator();
+        while (view.hasNext()) {
+            Assertions.assertThat(view.next()).isEqualTo(i % 3000);
+            i++;
+        }
+        Assertions.assertThat(i).isEqualTo(9000);
+    }
+
+    @Test
+    public void testViewSurvivesConsumption() {
+        final ChunkedBufferingIterator<Integer> buffer = new ChunkedBufferingIterator<Integer>();
+        for (int i = 0; i < 5000; i++) {
+            buffer.add(i);
+        }
+        final ICloseableIterator<Integer> view = buffer.iterator();
+        while (buffer.hasNext()) {
+            buffer.next();
+        }
+        for (int i = 0; i < 5000; i++) {
+            buffer.add(-1);
+        }
+        for (int i = 0; i < 5000; i++) {
+            Assertions.assertThat(view.next()).isEqualTo(i);
+        }
+    }
+
+    @Test
+    public void testPrependAfterPartialDrain() {
+        final ChunkedBufferingIterator<Integer> buffer = new ChunkedBufferingIterator<Integer>();
+        for (int i = 0; i < 3000; i++) {
+            buffer.add(i);
+        }
+        for (int i = 0; i < 500; i++) {
+            Assertions.assertThat(buffer.next()).isEqualTo(i);
+        }
+        //reuses the consumed slots of the head chunk
+        for (int i = 499; i >= 400; i--) {
+            buffer.prepend(i);
+        }
+        Assertions.assertThat(buffer.size()).isEqualTo(2600);
+        Assertions.assertThat(buffer.getHead()).isEqualTo(400);
+        int expected = 400;
+        final ICloseableIterator<Integer> view = buffer.iterator();
+        while (view.hasNext()) {
+            Assertions.assertThat(view.next()).isEqualTo(expected);
+            expected++;
+        }
+        Assertions.assertThat(expected).isEqualTo(3000);
+        expected = 400;
+        while (buffer.hasNext()) {
+            Assertions.assertThat(buffer.next()).isEqualTo(expected);
+            expected++;
+        }
+        Assertions.assertThat(expected).isEqualTo(3000);
+        Assertions.assertThat(buffer.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void testPrependAfterPartialDrainKeepsViews() {
+        final ChunkedBufferingIterator<Integer> buffer = new ChunkedBufferingIterator<Integer>();
+        for (int i = 0; i < 100; i++) {
+            buffer.add(i);
+        }
+        final ICloseableIterator<Integer> view = buffer.iterator();
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertThat(buffer.next()).isEqualTo(i);
+        }
+        buffer.prepend(-1);
+        Assertions.assertThat(buffer.next()).isEqualTo(-1);
+        Assertions.assertThat(buffer.next()).isEqualTo(10);
+        //the view was created before the prepend, thus it should not see the prepended element
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertThat(view.next()).isEqualTo(i);
+        }
+        Assertions.assertThat(view.hasNext()).isFalse();
+    }
+
+    @Test
+    public void testConsumePartiallyDrained() {
+        final ChunkedBufferingIterator<String> other = new ChunkedBufferingIterator<String>();
+        other.add("a");
+        other.add("b");
+        Assertions.assertThat(other.next()).isEqualTo("a");
+        final ChunkedBufferingIterator<String> buffer = new ChunkedBufferingIterator<String>();
+        buffer.add("x");
+        Assertions.assertThat(buffer.consume(other)).isTrue();
+        Assertions.assertThat(toList(buffer.iterator())).containsExactly("x", "b");
+        Assertions.assertThat(buffer.size()).isEqualTo(2);
+
+        //the consumed head becomes the head of this instance
+        final ChunkedBufferingIterator<String> emptyBuffer = new ChunkedBufferingIterator<String>();
+        other.add("c");
+        other.add("d");
+        Assertions.assertThat(other.next()).isEqualTo("c");
+        Assertions.assertThat(emptyBuffer.consume(other)).isTrue();
+        Assertions.assertThat(toList(emptyBuffer.iterator())).containsExactly("d");
+    }
+
+    @Test
+    public void testConsumePartiallyDrainedWhileViewed() {
+        final ChunkedBufferingIterator<String> other = new ChunkedBufferingIterator<String>();
+        other.add("a");
+        other.add("b");
+        final ICloseableIterator<String> otherView = other.iterator();
+        Assertions.assertThat(other.next()).isEqualTo("a");
+        final ChunkedBufferingIterator<String> buffer = new ChunkedBufferingIterator<String>();
+        buffer.add("x");
+        Assertions.assertThat(buffer.consume(other)).isTrue();
+        Assertions.assertThat(toList(buffer.iterator())).containsExactly("x", "b");
+        //the view of the other instance still sees the element that was consumed after it was created
+        Assertions.assertThat(toList(otherView)).containsExactly("a", "b");
+        Assertions.assertThat(buffer.next()).isEqualTo("x");
+        Assertions.assertThat(buffer.next()).isEqualTo("b");
+        Assertions.assertThat(buffer.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void testPrependAfterPartialDrainWhileViewed() {
+        final ChunkedBufferingIterator<Integer> buffer = new ChunkedBufferingIterator<Integer>();
+        for (int i = 0; i < 5; i++) {
+            buffer.add(i);
+        }
+        final ICloseableIterator<Integer> view = buffer.iterator();
+        Assertions.assertThat(buffer.next()).isEqualTo(0);
+        Assertions.assertThat(buffer.next()).isEqualTo(1);
+        buffer.prepend(-1);
+        //views created later should neither see the consumed elements nor nulls
+        Assertions.assertThat(toList(buffer.iterator())).containsExactly(-1, 2, 3, 4);
+        Assertions.assertThat(toList(view)).containsExactly(0, 1, 2, 3, 4);
+    }
+
+    @Test
+    public void testFinishedViewsAllowNulling() {
+        final ChunkedBufferingIterator<Integer> buffer = new ChunkedBufferingIterator<Integer>();
+        for (int i = 0; i < 3000; i++) {
+            buffer.add(i);
+        }
+        //iterated to the end
+        Assertions.assertThat(toList(buffer.iterator()).size()).isEqualTo(3000);
+        //closed early
+        final ICloseableIterator<Integer> closedView = buffer.iterator();
+        Assertions.assertThat(closedView.next()).isEqualTo(0);
+        closedView.close();
+        Assertions.assertThat(closedView.hasNext()).isFalse();
+        for (int i = 0; i < 1000; i++) {
+            Assertions.assertThat(buffer.next()).isEqualTo(i);
+        }
+        //the consumed slots were nulled, thus a partially drained instance can be consumed without exposing them
+        final ChunkedBufferingIterator<Integer> consumer = new ChunkedBufferingIterator<Integer>();
+        consumer.add(-1);
+        Assertions.assertThat(consumer.consume(buffer)).isTrue();
+        final List<Integer> values = toList(consumer.iterator());
+        Assertions.assertThat(values.size()).isEqualTo(2001);
+        Assertions.assertThat(values.get(0)).isEqualTo(-1);
+        for (int i = 1; i < values.size(); i++) {
+            Assertions.assertThat(values.get(i)).isEqualTo(1000 + i - 1);
+        }
+    }
+
+    private static <T> List<T> toList(final ICloseableIterator<T> iterator) {
+        final List<T> list = new ArrayList<T>();
+        while (iterator.hasNext()) {
+            list.add(iterator.next());
+        }
+        return list;
+    }
+
+}
@@ -21,6 +21,7 @@ import de.invesdwin.util.collections.iterable.buffer.BufferingIterator;
 import de.invesdwin.util.collections.loadingcache.historical.key.APullingHistoricalCacheAdjustKeyProvider;
 import de.invesdwin.util.collections.loadingcache.historical.key.APushingHistoricalCacheAdjustKeyProvider;
 import de.invesdwin.util.collections.loadingcache.historical.key.IHistoricalCacheAdjustKeyProvider;
+import de.invesdwin.util.collections.loadingcache.historical.listener.IHistoricalCacheOnValueAppendedListener;
 import de.invesdwin.util.collections.loadingcache.historical.refresh.HistoricalCacheRefreshManager;
 import de.invesdwin.util.time.fdate.FDate;
 import de.invesdwin.util.time.fdate.FDateBuilder;
@@ -39,6 +40,11 @@ public class AGapHistoricalCacheTest {
     private boolean returnNullInReadNewestValueTo;
     private boolean returnAllInReadAllValuesAscendingFrom;
     private Integer returnMaxResults;
+    private boolean appendOnlyRefresh;
+    private boolean rangeQueryStreaming;
+    private boolean returnPreviousInReadAllValuesAscendingFrom;
+    private boolean indexedShift;
+    private Integer previousKeyStepYears;
     private final int testReturnMaxResultsValue = 2;
     private final TestGapHistoricalCache cache = new TestGapHistoricalCache();
 
@@ -283,6 +289,40 @@ public class AGapHistoricalCacheTest {
         Assertions.assertThat(countReadNewestValueTo).isEqualTo(2);
     }
 
+    @Test
+    public void testPreviousAndNextValueViaKeyIndex() {
+        indexedShift = true;
+        for (final FDate entity : entities) {
+            Assertions.assertThat(cache.query().getValue(entity)).isEqualTo(entity);
+        }
+        final int countReadAllValuesAscendingFromBefore = countReadAllValuesAscendingFrom;
+        final FDate lastEntity = entities.get(entities.size() - 1);
+        Assertions.assertThat(cache.query().getPreviousValue(lastEntity, 3))
+                .isEqualTo(entities.get(entities.size() - 4));
+        Assertions.assertThat(cache.query().withFuture().getNextValue(entities.get(0), 3)).isEqualTo(entities.get(3));
+        Assertions.assertThat(countReadAllValuesAscendingFrom).isEqualTo(countReadAllValuesAscendingFromBefore);
+    }
+
+    @Test
+    public void testPreviousValueWithFixedStepPreviousKey() {
+        previousKeyStepYears = 2;
+        for (final FDate entity : entities) {
+            Assertions.assertThat(cache.query().getValue(entity)).isEqualTo(entity);
+        }
+        //forget the links from loading so that innerCalculatePreviousKey defines the previous keys
+        cache.getShiftKeyProvider().getPreviousKeysCache().clear();
+        final FDate lastEntity = entities.get(entities.size() - 1);
+        Assertions.assertThat(cache.query().getPreviousValue(lastEntity, 1))
+                .isEqualTo(entities.get(entities.size() - 3));
+        Assertions.assertThat(cache.query().getPreviousValue(lastEntity, 2))
+                .isEqualTo(entities.get(entities.size() - 5));
+
+        //the key index steps through the loaded values instead, which is why it has to be enabled explicitly
+        indexedShift = true;
+        Assertions.assertThat(cache.query().getPreviousValue(lastEntity, 1))
+                .isEqualTo(entities.get(entities.size() - 2));
+    }
+
     @Test
     public void testPreviousValueWithoutDistance() {
         FDate previousValue = cache.query().getPreviousValue(entities.get(entities.size() - 1), entities.size());
@@ -429,6 +469,61 @@ public class AGapHistoricalCacheTest {
         Assertions.assertThat(countReadNewestValueTo).isEqualTo(2);
     }
 
+    @Test
+    public void testKeysWithRangeQueryStreaming() {
+        rangeQueryStreaming = true;
+        final List<FDate> keys = asList(cache.query().getKeys(FDate.MIN_DATE, FDate.MAX_DATE));
+        Assertions.assertThat(keys).isEqualTo(entities);
+        Assertions.assertThat(countReadAllValuesAscendingFrom).isEqualTo(1);
+        Assertions.assertThat(countReadNewestValueTo).isEqualTo(2);
+        //the cache got populated while streaming
+        Assertions.assertThat(cache.query().getPreviousValue(entities.get(entities.size() - 1), 1))
+                .isEqualTo(entities.get(entities.size() - 2));
+    }
+
+    @Test
+    public void testValuesWithRangeQueryStreamingAndReturnMaxResults() {
+        rangeQueryStreaming = true;
+        returnMaxResults = testReturnMaxResultsValue;
+        final List<FDate> values = asList(cache.query().getValues(entities.get(1), entities.get(4)));
+        Assertions.assertThat(values).isEqualTo(entities.subList(1, 5));
+    }
+
+    @Test
+    public void testRangeQueryStreamingPopulatesCache() {
+        rangeQueryStreaming = true;
+        returnMaxResults = testReturnMaxResultsValue;
+        final List<FDate> values = asList(cache.query().getValues(FDate.MIN_DATE, FDate.MAX_DATE));
+        Assertions.assertThat(values).isEqualTo(entities);
+        final int countReadAllValuesAscendingFromBefore = countReadAllValuesAscendingFrom;
+
+        //the streamed values and their links got cached, thus no second db read is needed
+        final List<FDate> valuesAgain = asList(cache.query().getValues(FDate.MIN_DATE, FDate.MAX_DATE));
+        Assertions.assertThat(valuesAgain).isEqualTo(entities);
+        for (int i = 1; i < entities.size(); i++) {
+            Assertions.assertThat(cache.query().getPreviousValue(entities.get(i), 1)).isEqualTo(entities.get(i - 1));
+        }
+        Assertions.assertThat(countReadAllValuesAscendingFrom).isEqualTo(countReadAllValuesAscendingFromBefore);
+    }
+
+    @Test
+    public void testRangeQueryStreamingAfterFurtherValuesExtendedWithDuplicates() {
+        rangeQueryStreaming = true;
+        appendOnlyRefresh = true;
+        returnPreviousInReadAllValuesAscendingFrom = true;
+        //leaves the remaining values in furtherValues
+        Assertions.assertThat(cache.query().getValue(entities.get(1))).isEqualTo(entities.get(1));
+        entities.add(FDateBuilder.newDate(1996, 1, 1));
+        entities.add(FDateBuilder.newDate(1997, 1, 1));
+        //appends the new values to furtherValues after skipping the duplicate of the previous last value
+        HistoricalCacheRefreshManager.refresh();
+        final List<FDate> values = asList(cache.query().getValues(FDate.MIN_DATE, FDate.MAX_DATE));
+        Assertions.assertThat(values).isEqualTo(entities);
+        for (final FDate entity : entities) {
+            Assertions.assertThat(cache.query().getValue(entity)).isEqualTo(entity);
+        }
+    }
+
     @Test
     public void testPreviousValuesWithDistance() {
         final Collection<FDate> previousValues = asList(cache.query().getPreviousValues(new FDate(), entities.size()));
@@ -750,6 +845,89 @@ public class AGapHistoricalCacheTest {
         Assertions.assertThat(correctValue).isEqualTo(newEntity);
     }
 
+    @Test
+    public void testNewEntityIncomingAfterAppendOnlyRefresh() {
+        appendOnlyRefresh = true;
+        for (final FDate entity : entities) {
+            Assertions.assertThat(cache.query().getValue(entity)).isEqualTo(entity);
+        }
+        final FDate newEntity = FDateBuilder.newDate(1996, 1, 1);
+        final FDate wrongValue = cache.query().getValue(newEntity);
+        Assertions.assertThat(wrongValue).isEqualTo(entities.get(entities.size() - 1));
+        entities.add(newEntity);
+        HistoricalCacheRefreshManager.refresh();
+        final FDate correctValue = cache.query().getValue(newEntity);
+        Assertions.assertThat(correctValue).isEqualTo(newEntity);
+        //older history stays warm
+        Assertions.assertThat(cache.containsKey(entities.get(0))).isTrue();
+        Assertions.assertThat(cache.query().getPreviousValue(newEntity, 1))
+                .isEqualTo(entities.get(entities.size() - 2));
+    }
+
+    @Test
+    public void testPreviousValuesAfterAppendOnlyRefresh() {
+        appendOnlyRefresh = true;
+        final FDate lastEntity = entities.get(entities.size() - 1);
+        Assertions.assertThat(asList(cache.query().getPreviousValues(lastEntity, entities.size())))
+                .isEqualTo(entities);
+        final FDate newEntity = FDateBuilder.newDate(1996, 1, 1);
+        //fills the lookback cache for a key beyond the old end
+        Assertions.assertThat(asList(cache.query().getPreviousValues(newEntity, entities.size())))
+                .isEqualTo(entities);
+        entities.add(newEntity);
+        HistoricalCacheRefreshManager.refresh();
+        //only the stale part of the lookback cache was discarded
+        Assertions.assertThat(asList(cache.query().getPreviousValues(newEntity, entities.size())))
+                .isEqualTo(entities);
+        Assertions.assertThat(asList(cache.query().getPreviousValues(lastEntity, entities.size() - 1)))
+                .isEqualTo(entities.subList(0, entities.size() - 1));
+    }
+
+    @Test
+    public void testNewEntityIncomingViaPushLiveValue() {
+        for (final FDate entity : entities) {
+            Assertions.assertThat(cache.query().getValue(entity)).isEqualTo(entity);
+        }
+        final FDate newEntity = FDateBuilder.newDate(1996, 1, 1);
+        final FDate wrongValue = cache.query().getValue(newEntity);
+        Assertions.assertThat(wrongValue).isEqualTo(entities.get(entities.size() - 1));
+        final List<FDate> appendedKeys = new ArrayList<FDate>();
+        cache.getOnValueAppendedListeners().add(new IHistoricalCacheOnValueAppendedListener() {
+            @Override
+            public void onValueAppended(final FDate key) {
+                appendedKeys.add(key);
+            }
+        });
+        entities.add(newEntity);
+        final int countReadAllValuesAscendingFromBefore = countReadAllValuesAscendingFrom;
+        cache.pushLiveValue(newEntity);
+        final FDate correctValue = cache.query().getValue(newEntity);
+        Assertions.assertThat(correctValue).isEqualTo(newEntity);
+        Assertions.assertThat(cache.query().getPreviousValue(newEntity, 1))
+                .isEqualTo(entities.get(entities.size() - 2));
+        Assertions.assertThat(cache.query().getNextValue(entities.get(entities.size() - 2), 1)).isEqualTo(newEntity);
+        Assertions.assertThat(countReadAllValuesAscendingFrom).isEqualTo(countReadAllValuesAscendingFromBefore);
+        Assertions.assertThat(appendedKeys).containsExactly(newEntity);
+    }
+
+    @Test
+    public void testPushLiveValueReplacesLastValue() {
+        for (final FDate entity : entities) {
+            Assertions.assertThat(cache.query().getValue(entity)).isEqualTo(entity);
+        }
+        final FDate lastEntity = entities.get(entities.size() - 1);
+        final FDate previousEntity = entities.get(entities.size() - 2);
+        //equal key, but a different instance to check that no old copy is handed out anymore
+        final FDate replacedEntity = new FDate(lastEntity.millisValue());
+        entities.set(entities.size() - 1, replacedEntity);
+        final int countReadAllValuesAscendingFromBefore = countReadAllValuesAscendingFrom;
+        cache.pushLiveValue(replacedEntity);
+        Assertions.assertThat(cache.query().getValue(lastEntity)).isSameAs(replacedEntity);
+        Assertions.assertThat(cache.query().getNextValue(previousEntity, 1)).isSameAs(replacedEntity);
+        Assertions.assertThat(cache.query().getPreviousValue(replacedEntity, 1)).isEqualTo(previousEntity);
+        Assertions.assertThat(countReadAllValuesAscendingFrom).isEqualTo(countReadAllValuesAscendingFromBefore);
+    }
+
     @Test
     public void testNewEntityIncomingPullingAdjustKeyProvider() {
         cache.setAdjustKeyProvider(new APullingHistoricalCacheAdjustKeyProvider(cache) {
@@ -1293,11 +1471,18 @@ public class AGapHistoricalCacheTest {
                 result = new ArrayList<FDate>(entities);
             } else {
                 final List<FDate> list = new ArrayList<FDate>();
+                FDate previous = null;
                 for (final FDate d : entities) {
                     if (!d.isBefore(key)) {
                         list.add(d);
+                    } else {
+                        previous = d;
                     }
                 }
+                if (returnPreviousInReadAllValuesAscendingFrom && previous != null) {
+                    //overlapping results should be skipped as duplicates
+                    list.add(0, previous);
+                }
                 result = list;
             }
             if (returnMaxResults != null && !result.isEmpty()) {
@@ -1334,8 +1519,26 @@ public class AGapHistoricalCacheTest {
             }
         }
 
+        @Override
+        protected boolean isAppendOnlyRefresh() {
+            return appendOnlyRefresh;
+        }
+
+        @Override
+        protected boolean isRangeQueryStreaming() {
+            return rangeQueryStreaming;
+        }
+
+        @Override
+        protected boolean isIndexedShift() {
+            return indexedShift;
+        }
+
         @Override
         protected FDate innerCalculatePreviousKey(final FDate key) {
+            if (previousKeyStepYears != null) {
+                return key.addYears(-previousKeyStepYears);
+            }
             return key.addDays(-1);
         }
 
@@ -0,0 +1,56 @@
+package de.invesdwin.util.collections.loadingcache.historical.internal;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.time.fdate.FDate;
+
+@NotThreadSafe
+public class HistoricalCacheCheckpointsTest {
+
+    @Test
+    public void testPutAndFloorKey() {
+        final HistoricalCacheCheckpoints<Integer> checkpoints = new HistoricalCacheCheckpoints<Integer>(100);
+        checkpoints.put(new FDate(100L), 1);
+        checkpoints.put(new FDate(300L), 3);
+        //random access inserts inbetween
+        checkpoints.put(new FDate(200L), 2);
+        checkpoints.put(new FDate(200L), 22);
+        Assertions.assertThat(checkpoints.size()).isEqualTo(3);
+        Assertions.assertThat(checkpoints.get(new FDate(200L))).isEqualTo(22);
+        Assertions.assertThat(checkpoints.get(new FDate(250L))).isNull();
+        Assertions.assertThat(checkpoints.floorKey(new FDate(250L))).isEqualTo(new FDate(200L));
+        Assertions.assertThat(checkpoints.floorKey(new FDate(300L))).isEqualTo(new FDate(300L));
+        Assertions.assertThat(checkpoints.floorKey(new FDate(99L))).isNull();
+    }
+
+    @Test
+    public void testRemoveFrom() {
+        final HistoricalCacheCheckpoints<Integer> checkpoints = new HistoricalCacheCheckpoints<Integer>(100);
+        for (int i = 1; i <= 5; i++) {
+            checkpoints.put(new FDate(i * 100L), i);
+        }
+        checkpoints.removeFrom(new FDate(350L));
+        Assertions.assertThat(checkpoints.size()).isEqualTo(3);
+        Assertions.assertThat(checkpoints.floorKey(new FDate(500L))).isEqualTo(new FDate(300L));
+        checkpoints.removeFrom(new FDate(300L));
+        Assertions.assertThat(checkpoints.size()).isEqualTo(2);
+        Assertions.assertThat(checkpoints.get(new FDate(300L))).isNull();
+        checkpoints.removeFrom(new FDate(1000L));
+        Assertions.assertThat(checkpoints.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void testMaximumSize() {
+        final HistoricalCacheCheckpoints<Integer> checkpoints = new HistoricalCacheCheckpoints<Integer>(10);
+        for (int i = 0; i < 100; i++) {
+            checkpoints.put(new FDate(i), i);
+            Assertions.assertThat(checkpoints.size()).isLessThanOrEqualTo(10);
+        }
+        Assertions.assertThat(checkpoints.get(new FDate(99L))).isEqualTo(99);
+        Assertions.assertThat(checkpoints.get(new FDate(0L))).isNull();
+    }
+
+}
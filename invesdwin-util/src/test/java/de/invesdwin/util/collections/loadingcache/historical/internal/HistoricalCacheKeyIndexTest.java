@@ -0,0 +1,71 @@
+package de.invesdwin.util.collections.loadingcache.historical.internal;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.time.fdate.FDate;
+
+@NotThreadSafe
+public class HistoricalCacheKeyIndexTest {
+
+    @Test
+    public void testAppendAndIndexOf() {
+        final HistoricalCacheKeyIndex<Integer> index = new HistoricalCacheKeyIndex<Integer>(null);
+        for (int i = 0; i < 100; i++) {
+            index.append(new FDate(i * 10L), i);
+        }
+        Assertions.assertThat(index.size()).isEqualTo(100);
+        Assertions.assertThat(index.indexOf(new FDate(500L))).isEqualTo(50);
+        Assertions.assertThat(index.indexOf(new FDate(505L))).isEqualTo(-1);
+        Assertions.assertThat(index.getValue(50 - 20)).isEqualTo(30);
+        Assertions.assertThat(index.getKey(99)).isEqualTo(new FDate(990L));
+    }
+
+    @Test
+    public void testAppendOverlappingTruncates() {
+        final HistoricalCacheKeyIndex<Integer> index = new HistoricalCacheKeyIndex<Integer>(null);
+        for (int i = 0; i < 10; i++) {
+            index.append(new FDate(i * 10L), i);
+        }
+        //data source delivers the same range again from 50
+        index.append(new FDate(50L), -5);
+        Assertions.assertThat(index.size()).isEqualTo(6);
+        Assertions.assertThat(index.getValue(5)).isEqualTo(-5);
+        Assertions.assertThat(index.getLastKey()).isEqualTo(new FDate(50L));
+    }
+
+    @Test
+    public void testReloadFrom() {
+        final HistoricalCacheKeyIndex<Integer> index = new HistoricalCacheKeyIndex<Integer>(null);
+        for (int i = 0; i < 10; i++) {
+            index.append(new FDate(i * 10L), i);
+        }
+        index.reloadFrom(new FDate(35L));
+        Assertions.assertThat(index.size()).isEqualTo(4);
+        Assertions.assertThat(index.getLastKey()).isEqualTo(new FDate(30L));
+        //a gap might exist, thus the index can not be continued
+        index.reloadFrom(new FDate(100L));
+        Assertions.assertThat(index.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void testMaximumSize() {
+        final HistoricalCacheKeyIndex<Integer> index = new HistoricalCacheKeyIndex<Integer>(10);
+        for (int i = 0; i < 100; i++) {
+            index.append(new FDate(i * 10L), i);
+            Assertions.assertThat(index.size()).isLessThanOrEqualTo(10);
+        }
+        Assertions.assertThat(index.getLastKey()).isEqualTo(new FDate(990L));
+        final int first = index.getValue(0);
+        for (int i = 0; i < index.size(); i++) {
+            Assertions.assertThat(index.getValue(i)).isEqualTo(first + i);
+        }
+        index.setMaximumSize(0);
+        Assertions.assertThat(index.isEmpty()).isTrue();
+        index.append(new FDate(1000L), 100);
+        Assertions.assertThat(index.isEmpty()).isTrue();
+    }
+
+}
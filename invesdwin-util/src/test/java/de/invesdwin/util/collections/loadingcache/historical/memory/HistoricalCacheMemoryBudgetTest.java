@@ -0,0 +1,126 @@
+package de.invesdwin.util.collections.loadingcache.historical.memory;
+
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.junit.After;
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.time.fdate.FDate;
+
+@NotThreadSafe
+public class HistoricalCacheMemoryBudgetTest {
+
+    private static final long ENTRY_BYTES = 100;
+    private static final long CHEAP_LOAD_NANOS = 1000;
+    private static final long EXPENSIVE_LOAD_NANOS = 5000000;
+
+    private final IHistoricalCacheWeigher<FDate> weigher = new IHistoricalCacheWeigher<FDate>() {
+        @Override
+        public long weigh(final FDate key, final FDate value) {
+            return ENTRY_BYTES;
+        }
+    };
+    private long fakeNanoTime;
+    private final LongSupplier fakeClock = new LongSupplier() {
+        @Override
+        public long getAsLong() {
+            return fakeNanoTime;
+        }
+    };
+
+    @After
+    public void after() {
+        HistoricalCacheMemoryBudget.setMaximumBytes(null);
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() {
+        HistoricalCacheMemoryBudget.setMaximumBytes(10 * ENTRY_BYTES);
+        final WeightedHistoricalCacheValuesMap<FDate> map = newMap(CHEAP_LOAD_NANOS);
+        try {
+            for (int i = 0; i < 20; i++) {
+                map.get(new FDate(i));
+                //keep the first one warm
+                map.get(new FDate(0));
+                Assertions.assertThat(map.getWeight()).isLessThanOrEqualTo(10 * ENTRY_BYTES);
+            }
+            Assertions.assertThat(map.size()).isEqualTo(10);
+            Assertions.assertThat(map.containsKey(new FDate(0))).isTrue();
+            Assertions.assertThat(map.containsKey(new FDate(19))).isTrue();
+            Assertions.assertThat(map.containsKey(new FDate(1))).isFalse();
+        } finally {
+            map.clear();
+        }
+    }
+
+    @Test
+    public void testEvictCheapToReloadFirst() {
+        HistoricalCacheMemoryBudget.setMaximumBytes(6 * ENTRY_BYTES);
+        final WeightedHistoricalCacheValuesMap<FDate> expensive = newMap(EXPENSIVE_LOAD_NANOS);
+        final WeightedHistoricalCacheValuesMap<FDate> cheap = newMap(CHEAP_LOAD_NANOS);
+        try {
+            for (int i = 0; i < 5; i++) {
+                expensive.get(new FDate(i));
+            }
+            for (int i = 0; i < 5; i++) {
+                cheap.get(new FDate(i));
+            }
+            Assertions.assertThat(HistoricalCacheMemoryBudget.getUsedBytes()).isLessThanOrEqualTo(6 * ENTRY_BYTES);
+            Assertions.assertThat(expensive.size()).isEqualTo(5);
+            Assertions.assertThat(cheap.size()).isEqualTo(1);
+            Assertions.assertThat(cheap.containsKey(new FDate(4))).isTrue();
+        } finally {
+            expensive.clear();
+            cheap.clear();
+        }
+    }
+
+    @Test
+    public void testEvictLargeBeforeLeastRecentlyUsed() {
+        HistoricalCacheMemoryBudget.setMaximumBytes(10 * ENTRY_BYTES);
+        final FDate largeKey = new FDate(5);
+        final IHistoricalCacheWeigher<FDate> largeWeigher = new IHistoricalCacheWeigher<FDate>() {
+            @Override
+            public long weigh(final FDate key, final FDate value) {
+                if (key.equals(largeKey)) {
+                    return 4 * ENTRY_BYTES;
+                } else {
+                    return ENTRY_BYTES;
+                }
+            }
+        };
+        final WeightedHistoricalCacheValuesMap<FDate> map = newMap(CHEAP_LOAD_NANOS, largeWeigher);
+        try {
+            for (int i = 0; i <= 7; i++) {
+                map.get(new FDate(i));
+            }
+            //the large entry is cheaper to reload per byte than the least recently used small one
+            Assertions.assertThat(map.containsKey(largeKey)).isFalse();
+            Assertions.assertThat(map.containsKey(new FDate(0))).isTrue();
+            Assertions.assertThat(map.size()).isEqualTo(7);
+        } finally {
+            map.clear();
+        }
+    }
+
+    private WeightedHistoricalCacheValuesMap<FDate> newMap(final long loadNanos) {
+        return newMap(loadNanos, weigher);
+    }
+
+    private WeightedHistoricalCacheValuesMap<FDate> newMap(final long loadNanos,
+            final IHistoricalCacheWeigher<FDate> mapWeigher) {
+        return HistoricalCacheMemoryBudget
+                .register(new WeightedHistoricalCacheValuesMap<FDate>(new Function<FDate, FDate>() {
+                    @Override
+                    public FDate apply(final FDate key) {
+                        fakeNanoTime += loadNanos;
+                        return key;
+                    }
+                }, mapWeigher, fakeClock));
+    }
+
+}
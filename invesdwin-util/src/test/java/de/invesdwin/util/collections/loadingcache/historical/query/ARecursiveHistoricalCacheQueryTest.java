@@ -0,0 +1,166 @@
+package de.invesdwin.util.collections.loadingcache.historical.query;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.collections.loadingcache.historical.AHistoricalCache;
+import de.invesdwin.util.collections.loadingcache.historical.AIterableGapHistoricalCache;
+import de.invesdwin.util.time.fdate.FDate;
+import de.invesdwin.util.time.fdate.FDateBuilder;
+
+@NotThreadSafe
+public class ARecursiveHistoricalCacheQueryTest {
+
+    private static final int ENTITIES_COUNT = 300;
+    private static final int MAX_RECURSION_COUNT = 1000;
+    private static final int RANDOM_ACCESS_INDEX = 250;
+
+    private final List<FDate> entities = new ArrayList<FDate>();
+    private final TestGapHistoricalCache baseCache = new TestGapHistoricalCache();
+
+    public ARecursiveHistoricalCacheQueryTest() {
+        final FDate start = FDateBuilder.newDate(1990, 1, 1);
+        for (int i = 0; i < ENTITIES_COUNT; i++) {
+            entities.add(start.addDays(i));
+        }
+    }
+
+    @Test
+    public void testRandomAccessAfterParentClearWithCheckpoints() {
+        final TestRecursiveHistoricalCache cache = new TestRecursiveHistoricalCache(true);
+        assertFullReplay(cache);
+
+        cache.clear();
+        cache.loadCount = 0;
+        final FDate key = entities.get(RANDOM_ACCESS_INDEX);
+        Assertions.assertThat(cache.query().getValue(key)).isEqualTo(RANDOM_ACCESS_INDEX);
+        //only the steps since the nearest checkpoint got replayed
+        Assertions.assertThat(cache.loadCount)
+                .isLessThanOrEqualTo(ARecursiveHistoricalCacheQuery.CHECKPOINT_INTERVAL + 1);
+
+        cache.clear();
+        assertFullReplay(cache);
+    }
+
+    @Test
+    public void testRandomAccessAfterParentClearWithoutCheckpoints() {
+        final TestRecursiveHistoricalCache cache = new TestRecursiveHistoricalCache(false);
+        assertFullReplay(cache);
+
+        //history changes in the past, thus the checkpoints would be wrong now
+        entities.remove(0);
+        baseCache.clear();
+        cache.clear();
+        cache.loadCount = 0;
+        final FDate key = entities.get(RANDOM_ACCESS_INDEX);
+        Assertions.assertThat(cache.query().getValue(key)).isEqualTo(RANDOM_ACCESS_INDEX);
+        //everything got replayed from the beginning of history
+        Assertions.assertThat(cache.loadCount).isGreaterThanOrEqualTo(RANDOM_ACCESS_INDEX);
+
+        cache.clear();
+        assertFullReplay(cache);
+    }
+
+    @Test
+    public void testValueAppendedInvalidatesRememberedResults() {
+        final TestRecursiveHistoricalCache cache = new TestRecursiveHistoricalCache(false);
+        assertFullReplay(cache);
+
+        //the previous key of the last one is the last remembered result now
+        final FDate replacedKey = entities.get(ENTITIES_COUNT - 2);
+        final FDate lastKey = entities.get(ENTITIES_COUNT - 1);
+        cache.pushLiveWeight(replacedKey, 2);
+        Assertions.assertThat(cache.query().getValue(lastKey)).isEqualTo(ENTITIES_COUNT);
+        Assertions.assertThat(cache.query().getValue(replacedKey)).isEqualTo(ENTITIES_COUNT - 1);
+        //older results stay valid
+        Assertions.assertThat(cache.query().getValue(entities.get(0))).isEqualTo(0);
+    }
+
+    private void assertFullReplay(final TestRecursiveHistoricalCache cache) {
+        for (int i = 0; i < entities.size(); i++) {
+            Assertions.assertThat(cache.query().getValue(entities.get(i))).isEqualTo(i);
+        }
+    }
+
+    private final class TestGapHistoricalCache extends AIterableGapHistoricalCache<FDate> {
+
+        @Override
+        protected Iterable<FDate> createDelegate() {
+            return entities;
+        }
+
+        @Override
+        protected FDate innerExtractKey(final FDate key, final FDate value) {
+            return value;
+        }
+
+    }
+
+    /**
+     * Counts the steps from the first key, which is exactly what a full replay from the beginning of history results
+     * in. Weights other than one can be pushed for single keys.
+     */
+    private final class TestRecursiveHistoricalCache extends AHistoricalCache<Integer> {
+
+        private final ARecursiveHistoricalCacheQuery<Integer> recursiveQuery;
+        private final Map<FDate, Integer> weights = new HashMap<FDate, Integer>();
+        private int loadCount;
+
+        private TestRecursiveHistoricalCache(final boolean checkpointsValidAfterParentClear) {
+            setShiftKeyDelegate(baseCache, true);
+            this.recursiveQuery = new ARecursiveHistoricalCacheQuery<Integer>(this, MAX_RECURSION_COUNT,
+                    ARecursiveHistoricalCacheQuery.CHECKPOINT_INTERVAL) {
+                @Override
+                protected Integer getInitialValue(final FDate previousKey) {
+                    return 0;
+                }
+
+                @Override
+                protected boolean isCheckpointsValidAfterParentClear() {
+                    return checkpointsValidAfterParentClear;
+                }
+            };
+        }
+
+        @Override
+        protected Integer loadValue(final FDate key) {
+            loadCount++;
+            final FDate previousKey = baseCache.query().getPreviousKey(key, 1);
+            if (previousKey == null || !previousKey.isBefore(key)) {
+                return 0;
+            }
+            return recursiveQuery.getPreviousValue(key, previousKey) + getWeight(key);
+        }
+
+        private int getWeight(final FDate key) {
+            final Integer weight = weights.get(key);
+            if (weight == null) {
+                return 1;
+            } else {
+                return weight;
+            }
+        }
+
+        /**
+         * Simulates a live push that replaces the value of the given key like AGapHistoricalCache.pushLiveValue does.
+         */
+        private void pushLiveWeight(final FDate key, final int weight) {
+            weights.put(key, weight);
+            for (final FDate entity : entities) {
+                if (!entity.isBefore(key)) {
+                    getValuesMap().remove(entity);
+                }
+            }
+            notifyValueAppended(key);
+        }
+
+    }
+
+}
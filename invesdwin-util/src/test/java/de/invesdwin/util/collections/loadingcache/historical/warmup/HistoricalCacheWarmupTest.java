@@ -0,0 +1,85 @@
+package de.invesdwin.util.collections.loadingcache.historical.warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.collections.loadingcache.historical.AHistoricalCache;
+import de.invesdwin.util.collections.loadingcache.historical.AIterableGapHistoricalCache;
+import de.invesdwin.util.time.fdate.FDate;
+import de.invesdwin.util.time.fdate.FDateBuilder;
+
+@NotThreadSafe
+public class HistoricalCacheWarmupTest {
+
+    private final List<FDate> entities = new ArrayList<FDate>();
+    private final TestGapHistoricalCache baseCache = new TestGapHistoricalCache();
+    private final TestDependentHistoricalCache firstDependentCache = new TestDependentHistoricalCache(baseCache);
+    private final TestDependentHistoricalCache secondDependentCache = new TestDependentHistoricalCache(
+            firstDependentCache);
+
+    public HistoricalCacheWarmupTest() {
+        for (int year = 1990; year < 2000; year++) {
+            entities.add(FDateBuilder.newDate(year, 1, 1));
+        }
+    }
+
+    @Test
+    public void testDependencyLevels() {
+        final List<List<AHistoricalCache<?>>> levels = HistoricalCacheWarmup
+                .newDependencyLevels(Arrays.<AHistoricalCache<?>> asList(secondDependentCache));
+        Assertions.assertThat(levels.size()).isEqualTo(3);
+        Assertions.assertThat(levels.get(0).get(0)).isSameAs(baseCache);
+        Assertions.assertThat(levels.get(1).get(0)).isSameAs(firstDependentCache);
+        Assertions.assertThat(levels.get(2).get(0)).isSameAs(secondDependentCache);
+    }
+
+    @Test
+    public void testWarmup() throws InterruptedException {
+        final List<HistoricalCacheWarmupResult> results = HistoricalCacheWarmup.warmup(
+                Arrays.<AHistoricalCache<?>> asList(baseCache, secondDependentCache), entities.get(0),
+                entities.get(entities.size() - 1));
+        Assertions.assertThat(results.size()).isEqualTo(3);
+        for (final HistoricalCacheWarmupResult result : results) {
+            Assertions.assertThat(result.getLoadedCount()).isEqualTo(entities.size());
+            Assertions.assertThat(result.getDuration()).isNotNull();
+        }
+        Assertions.assertThat(results.get(0).getCache()).isSameAs(baseCache);
+    }
+
+    private final class TestGapHistoricalCache extends AIterableGapHistoricalCache<FDate> {
+
+        @Override
+        protected Iterable<FDate> createDelegate() {
+            return entities;
+        }
+
+        @Override
+        protected FDate innerExtractKey(final FDate key, final FDate value) {
+            return value;
+        }
+
+    }
+
+    private static final class TestDependentHistoricalCache extends AHistoricalCache<FDate> {
+
+        private final AHistoricalCache<FDate> parent;
+
+        private TestDependentHistoricalCache(final AHistoricalCache<FDate> parent) {
+            this.parent = parent;
+            setShiftKeyDelegate(parent, true);
+        }
+
+        @Override
+        protected FDate loadValue(final FDate key) {
+            return parent.query().withFuture().getValue(key);
+        }
+
+    }
+
+}
@@ -0,0 +1,119 @@
+package de.invesdwin.util.collections.loadingcache.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+
+@NotThreadSafe
+public class AReadWriteLockLoadingCacheTest {
+
+    private static final int THREADS = 8;
+
+    @Test
+    public void testConcurrentLoadsOfSameKeyAreShared() throws InterruptedException {
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch loadStarted = new CountDownLatch(1);
+        final CountDownLatch releaseLoad = new CountDownLatch(1);
+        final TestReadWriteLockLoadingCache cache = new TestReadWriteLockLoadingCache(new Function<Integer, Integer>() {
+            @Override
+            public Integer apply(final Integer key) {
+                loads.incrementAndGet();
+                loadStarted.countDown();
+                await(releaseLoad);
+                return key * 2;
+            }
+        });
+        final List<Integer> results = new ArrayList<Integer>();
+        final List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < THREADS; i++) {
+            final Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    final Integer result = cache.get(21);
+                    synchronized (results) {
+                        results.add(result);
+                    }
+                }
+            };
+            threads.add(thread);
+            thread.start();
+        }
+        loadStarted.await();
+        //readers are not blocked by the running load
+        Assertions.assertThat(cache.containsKey(21)).isFalse();
+        //give the other threads time to join the flight
+        Thread.sleep(100);
+        releaseLoad.countDown();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        Assertions.assertThat(loads.get()).isEqualTo(1);
+        Assertions.assertThat(results.size()).isEqualTo(THREADS);
+        for (final Integer result : results) {
+            Assertions.assertThat(result).isEqualTo(42);
+        }
+        Assertions.assertThat(cache.get(21)).isEqualTo(42);
+        Assertions.assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testLoadsOfDifferentKeysDoNotBlock() throws InterruptedException {
+        final CountDownLatch bothStarted = new CountDownLatch(2);
+        final TestReadWriteLockLoadingCache cache = new TestReadWriteLockLoadingCache(new Function<Integer, Integer>() {
+            @Override
+            public Integer apply(final Integer key) {
+                bothStarted.countDown();
+                //would deadlock if loads were serialized by the write lock
+                await(bothStarted);
+                return key;
+            }
+        });
+        final Thread other = new Thread() {
+            @Override
+            public void run() {
+                cache.get(1);
+            }
+        };
+        other.start();
+        Assertions.assertThat(cache.get(2)).isEqualTo(2);
+        other.join();
+        Assertions.assertThat(cache.size()).isEqualTo(2);
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (final InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static final class TestReadWriteLockLoadingCache extends AReadWriteLockLoadingCache<Integer, Integer> {
+
+        private TestReadWriteLockLoadingCache(final Function<Integer, Integer> loadValue) {
+            super(loadValue, new HashMap<Integer, Integer>(), true);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size() == 0;
+        }
+
+        @Override
+        public Map<Integer, Integer> asMap() {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+}
@@ -0,0 +1,100 @@
+package de.invesdwin.util.collections.loadingcache.internal;
+
+import java.util.Iterator;
+import java.util.Map.Entry;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+
+@NotThreadSafe
+public class BoundedLinkedHashMapTest {
+
+    @Test
+    public void testMaximumSize() {
+        final BoundedLinkedHashMap<Integer, Integer> map = new BoundedLinkedHashMap<Integer, Integer>(100);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+            Assertions.assertThat(map.size()).isLessThanOrEqualTo(100);
+        }
+        Assertions.assertThat(map.size()).isEqualTo(100);
+        //without hits this behaves like a fifo
+        Assertions.assertThat(map.get(899)).isNull();
+        for (int i = 900; i < 1000; i++) {
+            Assertions.assertThat(map.get(i)).isEqualTo(i);
+        }
+    }
+
+    @Test
+    public void testRecentlyUsedEntriesSurvive() {
+        final BoundedLinkedHashMap<Integer, Integer> map = new BoundedLinkedHashMap<Integer, Integer>(10);
+        for (int i = 0; i < 10; i++) {
+            map.put(i, i);
+        }
+        map.get(0);
+        map.get(1);
+        for (int i = 10; i < 18; i++) {
+            map.put(i, i);
+        }
+        Assertions.assertThat(map.size()).isEqualTo(10);
+        Assertions.assertThat(map.get(0)).isEqualTo(0);
+        Assertions.assertThat(map.get(1)).isEqualTo(1);
+        Assertions.assertThat(map.get(2)).isNull();
+        Assertions.assertThat(map.get(9)).isNull();
+    }
+
+    @Test
+    public void testResize() {
+        final BoundedLinkedHashMap<Integer, Integer> map = new BoundedLinkedHashMap<Integer, Integer>(100);
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        map.setMaximumSize(10000);
+        Assertions.assertThat(map.size()).isEqualTo(100);
+        for (int i = 100; i < 10000; i++) {
+            map.put(i, i);
+        }
+        Assertions.assertThat(map.size()).isEqualTo(10000);
+        for (int i = 0; i < 10000; i++) {
+            Assertions.assertThat(map.get(i)).isEqualTo(i);
+        }
+        map.setMaximumSize(10);
+        Assertions.assertThat(map.size()).isEqualTo(10);
+        for (int i = 10000; i < 10100; i++) {
+            map.put(i, i);
+            Assertions.assertThat(map.size()).isLessThanOrEqualTo(10);
+        }
+        for (int i = 10090; i < 10100; i++) {
+            Assertions.assertThat(map.get(i)).isEqualTo(i);
+        }
+    }
+
+    @Test
+    public void testRemoveViaIterator() {
+        final BoundedLinkedHashMap<Integer, Integer> map = new BoundedLinkedHashMap<Integer, Integer>(10);
+        for (int i = 0; i < 10; i++) {
+            map.put(i, i);
+        }
+        final Iterator<Entry<Integer, Integer>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getKey() % 2 == 0) {
+                iterator.remove();
+            }
+        }
+        Assertions.assertThat(map.size()).isEqualTo(5);
+        Assertions.assertThat(map.remove(1)).isEqualTo(1);
+        Assertions.assertThat(map.get(1)).isNull();
+        Assertions.assertThat(map.put(3, 33)).isEqualTo(3);
+        for (int i = 10; i < 30; i++) {
+            map.put(i, i);
+        }
+        Assertions.assertThat(map.size()).isEqualTo(10);
+        map.clear();
+        Assertions.assertThat(map.isEmpty()).isTrue();
+        map.put(null, 1);
+        Assertions.assertThat(map.get(null)).isEqualTo(1);
+    }
+
+}
@@ -0,0 +1,99 @@
+package de.invesdwin.util.collections.loadingcache.internal;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import de.invesdwin.util.collections.loadingcache.ILoadingCache;
+import de.invesdwin.util.time.Instant;
+import de.invesdwin.util.time.fdate.FDate;
+
+/**
+ * Replays access traces that resemble backtests against bounded loading caches and compares the hit rates of plain LRU
+ * with W-TinyLFU.
+ */
+@NotThreadSafe
+@Ignore
+public class LoadingCacheEvictionPolicyPerformanceTest {
+
+    private static final int MAXIMUM_SIZE = 10000;
+    private static final int BARS = 1000000;
+    private static final long BAR_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    @Test
+    public void testStrategiesWithLookback() {
+        //multiple strategies walk forward and each looks back a few hundred bars on every step
+        final Trace trace = new Trace() {
+            @Override
+            public void replay(final ILoadingCache<FDate, FDate> cache) {
+                final Random random = new Random(1);
+                for (int bar = 0; bar < BARS / 10; bar++) {
+                    for (int strategy = 0; strategy < 4; strategy++) {
+                        final int lookback = 50 + strategy * 100;
+                        cache.get(newKey(Math.max(0, bar - random.nextInt(lookback))));
+                    }
+                }
+            }
+        };
+        compare("strategiesWithLookback", trace);
+    }
+
+    @Test
+    public void testHotRecentBarsWithLongScan() {
+        //a working set of recent bars gets revisited while another backtest scans over the whole history
+        final Trace trace = new Trace() {
+            @Override
+            public void replay(final ILoadingCache<FDate, FDate> cache) {
+                final Random random = new Random(1);
+                final int hotBars = MAXIMUM_SIZE / 2;
+                final int hotStart = BARS - hotBars;
+                for (int scan = 0; scan < BARS; scan++) {
+                    cache.get(newKey(scan));
+                    cache.get(newKey(hotStart + random.nextInt(hotBars)));
+                }
+            }
+        };
+        compare("hotRecentBarsWithLongScan", trace);
+    }
+
+    private void compare(final String name, final Trace trace) {
+        final AtomicLong lruMisses = new AtomicLong();
+        final Instant lruStart = new Instant();
+        trace.replay(new LRUMapLoadingCache<FDate, FDate>(newLoadValue(lruMisses), MAXIMUM_SIZE));
+        final long lruNanos = lruStart.longValue();
+
+        final AtomicLong tinyLfuMisses = new AtomicLong();
+        final Instant tinyLfuStart = new Instant();
+        trace.replay(new TinyLfuLoadingCache<FDate, FDate>(newLoadValue(tinyLfuMisses), MAXIMUM_SIZE));
+        final long tinyLfuNanos = tinyLfuStart.longValue();
+
+        System.out.println(String.format("%s: lru misses=%s in %sms, tinyLfu misses=%s in %sms", name, //SUPPRESS CHECKSTYLE single line
+                lruMisses.get(), TimeUnit.NANOSECONDS.toMillis(lruNanos), tinyLfuMisses.get(),
+                TimeUnit.NANOSECONDS.toMillis(tinyLfuNanos)));
+    }
+
+    private static Function<FDate, FDate> newLoadValue(final AtomicLong misses) {
+        return new Function<FDate, FDate>() {
+            @Override
+            public FDate apply(final FDate key) {
+                misses.incrementAndGet();
+                return key;
+            }
+        };
+    }
+
+    private static FDate newKey(final int bar) {
+        return new FDate(bar * BAR_MILLIS);
+    }
+
+    private interface Trace {
+        void replay(ILoadingCache<FDate, FDate> cache);
+    }
+
+}
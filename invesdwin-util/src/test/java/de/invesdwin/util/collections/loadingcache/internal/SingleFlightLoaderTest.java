@@ -0,0 +1,131 @@
+package de.invesdwin.util.collections.loadingcache.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+
+@NotThreadSafe
+public class SingleFlightLoaderTest {
+
+    private static final int THREADS = 8;
+
+    @Test
+    public void testConcurrentLoadsOfSameKeyAreShared() throws InterruptedException {
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch loadStarted = new CountDownLatch(1);
+        final CountDownLatch releaseLoad = new CountDownLatch(1);
+        final UnlimitedCachingLoadingCache<Integer, Integer> cache = new UnlimitedCachingLoadingCache<Integer, Integer>(
+                new Function<Integer, Integer>() {
+                    @Override
+                    public Integer apply(final Integer key) {
+                        loads.incrementAndGet();
+                        loadStarted.countDown();
+                        await(releaseLoad);
+                        return key * 2;
+                    }
+                }, true);
+        final List<Integer> results = new ArrayList<Integer>();
+        final List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < THREADS; i++) {
+            final Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    final Integer result = cache.get(21);
+                    synchronized (results) {
+                        results.add(result);
+                    }
+                }
+            };
+            threads.add(thread);
+            thread.start();
+        }
+        loadStarted.await();
+        //give the other threads time to join the flight
+        Thread.sleep(100);
+        releaseLoad.countDown();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        Assertions.assertThat(loads.get()).isEqualTo(1);
+        Assertions.assertThat(results.size()).isEqualTo(THREADS);
+        for (final Integer result : results) {
+            Assertions.assertThat(result).isEqualTo(42);
+        }
+    }
+
+    @Test
+    public void testLoadsOfDifferentKeysDoNotBlock() throws InterruptedException {
+        final CountDownLatch bothStarted = new CountDownLatch(2);
+        final UnlimitedCachingLoadingCache<Integer, Integer> cache = new UnlimitedCachingLoadingCache<Integer, Integer>(
+                new Function<Integer, Integer>() {
+                    @Override
+                    public Integer apply(final Integer key) {
+                        bothStarted.countDown();
+                        //would deadlock if loads were serialized
+                        await(bothStarted);
+                        return key;
+                    }
+                }, true);
+        final Thread other = new Thread() {
+            @Override
+            public void run() {
+                cache.get(1);
+            }
+        };
+        other.start();
+        Assertions.assertThat(cache.get(2)).isEqualTo(2);
+        other.join();
+        Assertions.assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void testRecursiveLoadOfSameKey() {
+        final SingleFlightLoader<Integer, Integer> loader = new SingleFlightLoader<Integer, Integer>();
+        final Integer result = loader.load(1, new Function<Integer, Integer>() {
+            private boolean recursed;
+
+            @Override
+            public Integer apply(final Integer key) {
+                if (!recursed) {
+                    recursed = true;
+                    return loader.load(key, this) + 1;
+                }
+                return key;
+            }
+        });
+        Assertions.assertThat(result).isEqualTo(2);
+        Assertions.assertThat(loader.getInflightCount()).isEqualTo(0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFailurePropagates() {
+        final SingleFlightLoader<Integer, Integer> loader = new SingleFlightLoader<Integer, Integer>();
+        try {
+            loader.load(1, new Function<Integer, Integer>() {
+                @Override
+                public Integer apply(final Integer key) {
+                    throw new IllegalStateException("failed");
+                }
+            });
+        } finally {
+            Assertions.assertThat(loader.getInflightCount()).isEqualTo(0);
+        }
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (final InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
@@ -0,0 +1,112 @@
+package de.invesdwin.util.collections.loadingcache.internal;
+
+import java.util.Iterator;
+import java.util.Map.Entry;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+
+@NotThreadSafe
+public class TinyLfuMapTest {
+
+    @Test
+    public void testMaximumSize() {
+        final TinyLfuMap<Integer, Integer> map = new TinyLfuMap<Integer, Integer>(100);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+            Assertions.assertThat(map.size()).isLessThanOrEqualTo(100);
+        }
+        Assertions.assertThat(map.size()).isEqualTo(100);
+        //the most recent entry is always in the window
+        Assertions.assertThat(map.get(999)).isEqualTo(999);
+    }
+
+    @Test
+    public void testScanDoesNotEvictWorkingSet() {
+        final TinyLfuMap<Integer, Integer> map = new TinyLfuMap<Integer, Integer>(100);
+        final int workingSetSize = 50;
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < workingSetSize; i++) {
+                if (map.get(i) == null) {
+                    map.put(i, i);
+                }
+            }
+        }
+        //one long scan over keys that are accessed only once while the working set is revisited inbetween
+        int workingSetMisses = 0;
+        for (int i = 1000; i < 11000; i++) {
+            if (map.get(i) == null) {
+                map.put(i, i);
+            }
+            if (i % 100 == 0) {
+                for (int w = 0; w < workingSetSize; w++) {
+                    if (map.get(w) == null) {
+                        workingSetMisses++;
+                        map.put(w, w);
+                    }
+                }
+            }
+        }
+        //a plain LRU map would miss the whole working set on each revisit
+        Assertions.assertThat(workingSetMisses).isEqualTo(0);
+    }
+
+    @Test
+    public void testResize() {
+        final TinyLfuMap<Integer, Integer> map = new TinyLfuMap<Integer, Integer>(100);
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        map.setMaximumSize(200);
+        for (int i = 100; i < 200; i++) {
+            map.put(i, i);
+        }
+        Assertions.assertThat(map.size()).isEqualTo(200);
+        map.setMaximumSize(10);
+        Assertions.assertThat(map.size()).isEqualTo(10);
+        for (int i = 200; i < 300; i++) {
+            map.put(i, i);
+            Assertions.assertThat(map.size()).isLessThanOrEqualTo(10);
+        }
+    }
+
+    @Test
+    public void testResizeKeepsFrequencies() {
+        final TinyLfuMap<Integer, Integer> map = new TinyLfuMap<Integer, Integer>(100);
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 10; i++) {
+                map.get(i);
+            }
+        }
+        Assertions.assertThat(map.frequency(0)).isGreaterThanOrEqualTo(5);
+        map.setMaximumSize(1000);
+        Assertions.assertThat(map.frequency(0)).isGreaterThanOrEqualTo(5);
+        map.setMaximumSize(10);
+        Assertions.assertThat(map.frequency(0)).isGreaterThanOrEqualTo(5);
+    }
+
+    @Test
+    public void testRemoveViaIterator() {
+        final TinyLfuMap<Integer, Integer> map = new TinyLfuMap<Integer, Integer>(10);
+        for (int i = 0; i < 10; i++) {
+            map.put(i, i);
+        }
+        final Iterator<Entry<Integer, Integer>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getKey() % 2 == 0) {
+                iterator.remove();
+            }
+        }
+        Assertions.assertThat(map.size()).isEqualTo(5);
+        Assertions.assertThat(map.remove(1)).isEqualTo(1);
+        Assertions.assertThat(map.get(1)).isNull();
+        for (int i = 10; i < 30; i++) {
+            map.put(i, i);
+        }
+        Assertions.assertThat(map.size()).isEqualTo(10);
+    }
+
+}
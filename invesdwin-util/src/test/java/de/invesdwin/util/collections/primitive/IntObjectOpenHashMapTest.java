@@ -0,0 +1,124 @@
+package de.invesdwin.util.collections.primitive;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+
+@NotThreadSafe
+public class IntObjectOpenHashMapTest {
+
+    @Test
+    public void testRandomOperationsAgainstHashMap() {
+        final Random random = new Random(1);
+        final IntObjectOpenHashMap<Integer> map = new IntObjectOpenHashMap<Integer>(1);
+        final Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+        for (int i = 0; i < 100000; i++) {
+            final int key = random.nextInt(1000) - 500;
+            final int operation = random.nextInt(3);
+            if (operation == 0) {
+                final Integer value = Integer.valueOf(random.nextInt());
+                Assertions.assertThat(map.put(key, value)).isEqualTo(expected.put(key, value));
+            } else if (operation == 1) {
+                Assertions.assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+            } else {
+                Assertions.assertThat(map.get(key)).isEqualTo(expected.get(key));
+                Assertions.assertThat(map.containsKey(key)).isEqualTo(expected.containsKey(key));
+            }
+            Assertions.assertThat(map.size()).isEqualTo(expected.size());
+        }
+        Assertions.assertThat(new HashMap<Integer, Integer>(map)).isEqualTo(expected);
+    }
+
+    @Test
+    public void testRehash() {
+        final IntObjectOpenHashMap<String> map = new IntObjectOpenHashMap<String>(1);
+        for (int i = 0; i < 10000; i++) {
+            Assertions.assertThat(map.put(i, String.valueOf(i))).isNull();
+        }
+        Assertions.assertThat(map.size()).isEqualTo(10000);
+        for (int i = 0; i < 10000; i += 2) {
+            Assertions.assertThat(map.remove(i)).isEqualTo(String.valueOf(i));
+        }
+        for (int i = 0; i < 10000; i++) {
+            if (i % 2 == 0) {
+                Assertions.assertThat(map.get(i)).isNull();
+            } else {
+                Assertions.assertThat(map.get(i)).isEqualTo(String.valueOf(i));
+            }
+        }
+        map.clear();
+        Assertions.assertThat(map.isEmpty()).isTrue();
+        Assertions.assertThat(map.get(1)).isNull();
+        Assertions.assertThat(map.put(1, "1")).isNull();
+        Assertions.assertThat(map.get(1)).isEqualTo("1");
+    }
+
+    @Test
+    public void testCollisions() {
+        //no growth happens below the expected size, thus the mask of the power of two table stays the same
+        final int expectedSize = 64;
+        final int mask = expectedSize * 2 - 1;
+        final IntObjectOpenHashMap<Integer> map = new IntObjectOpenHashMap<Integer>(expectedSize);
+        //the last slot makes the probe sequence wrap around
+        final int[] colliding = newCollidingKeys(mask, mask, 10);
+        for (int i = 0; i < colliding.length; i++) {
+            map.put(colliding[i], Integer.valueOf(i));
+        }
+        //removals in the middle of the probe sequence have to shift the following keys back
+        for (int i = 1; i < colliding.length; i += 3) {
+            Assertions.assertThat(map.remove(colliding[i])).isEqualTo(i);
+        }
+        for (int i = 0; i < colliding.length; i++) {
+            if (i % 3 == 1) {
+                Assertions.assertThat(map.containsKey(colliding[i])).isFalse();
+            } else {
+                Assertions.assertThat(map.get(colliding[i])).isEqualTo(i);
+            }
+        }
+        Assertions.assertThat(map.size()).isEqualTo(colliding.length - 3);
+    }
+
+    @Test
+    public void testIteratorRemoveAndSetValue() {
+        final IntObjectOpenHashMap<Integer> map = new IntObjectOpenHashMap<Integer>();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, Integer.valueOf(i));
+        }
+        final Iterator<Entry<Integer, Integer>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Entry<Integer, Integer> next = iterator.next();
+            if (next.getValue() % 2 == 0) {
+                iterator.remove();
+            } else {
+                next.setValue(-next.getValue());
+            }
+        }
+        Assertions.assertThat(map.size()).isEqualTo(50);
+        for (int i = 0; i < map.size(); i++) {
+            Assertions.assertThat(map.keyAt(i) % 2).isEqualTo(1);
+            Assertions.assertThat(map.valueAt(i)).isEqualTo(-map.keyAt(i));
+        }
+    }
+
+    private static int[] newCollidingKeys(final int slot, final int mask, final int count) {
+        final int[] keys = new int[count];
+        int size = 0;
+        int key = 0;
+        while (size < count) {
+            if ((IntOpenHashIndex.hash(key) & mask) == slot) {
+                keys[size++] = key;
+            }
+            key++;
+        }
+        return keys;
+    }
+
+}
@@ -0,0 +1,133 @@
+package de.invesdwin.util.collections.primitive;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+
+@NotThreadSafe
+public class LongDoubleOpenHashMapTest {
+
+    @Test
+    public void testRandomOperationsAgainstHashMap() {
+        final Random random = new Random(1);
+        final LongDoubleOpenHashMap map = new LongDoubleOpenHashMap(1);
+        final Map<Long, Double> expected = new HashMap<Long, Double>();
+        for (int i = 0; i < 100000; i++) {
+            final long key = random.nextInt(1000) * 60000L;
+            final int operation = random.nextInt(3);
+            if (operation == 0) {
+                final Double value = Double.valueOf(random.nextDouble());
+                Assertions.assertThat(map.put(Long.valueOf(key), value)).isEqualTo(expected.put(key, value));
+            } else if (operation == 1) {
+                Assertions.assertThat(map.remove(Long.valueOf(key))).isEqualTo(expected.remove(key));
+            } else {
+                Assertions.assertThat(map.get(Long.valueOf(key))).isEqualTo(expected.get(key));
+                Assertions.assertThat(map.containsKey(key)).isEqualTo(expected.containsKey(key));
+            }
+            Assertions.assertThat(map.size()).isEqualTo(expected.size());
+        }
+        Assertions.assertThat(new HashMap<Long, Double>(map)).isEqualTo(expected);
+    }
+
+    @Test
+    public void testRehash() {
+        final LongDoubleOpenHashMap map = new LongDoubleOpenHashMap(1);
+        for (int i = 0; i < 10000; i++) {
+            Assertions.assertThat(map.put(i, i)).isNaN();
+        }
+        Assertions.assertThat(map.size()).isEqualTo(10000);
+        for (int i = 0; i < 10000; i += 2) {
+            Assertions.assertThat(map.remove(i)).isEqualTo(i);
+        }
+        for (int i = 0; i < 10000; i++) {
+            if (i % 2 == 0) {
+                Assertions.assertThat(map.containsKey(i)).isFalse();
+            } else {
+                Assertions.assertThat(map.get(i)).isEqualTo(i);
+            }
+        }
+        Assertions.assertThat(map.toValueArray().length).isEqualTo(5000);
+        map.clear();
+        Assertions.assertThat(map.isEmpty()).isTrue();
+        Assertions.assertThat(map.containsKey(1)).isFalse();
+    }
+
+    @Test
+    public void testCollisions() {
+        //no growth happens below the expected size, thus the mask of the power of two table stays the same
+        final int expectedSize = 64;
+        final int mask = expectedSize * 2 - 1;
+        final LongDoubleOpenHashMap map = new LongDoubleOpenHashMap(expectedSize);
+        //the last slot makes the probe sequence wrap around
+        final long[] colliding = LongOpenHashSetTest.newCollidingKeys(mask, mask, 10);
+        for (int i = 0; i < colliding.length; i++) {
+            map.put(colliding[i], i);
+        }
+        //removals in the middle of the probe sequence have to shift the following keys back
+        for (int i = 1; i < colliding.length; i += 3) {
+            Assertions.assertThat(map.remove(colliding[i])).isEqualTo(i);
+        }
+        for (int i = 0; i < colliding.length; i++) {
+            if (i % 3 == 1) {
+                Assertions.assertThat(map.containsKey(colliding[i])).isFalse();
+            } else {
+                Assertions.assertThat(map.get(colliding[i])).isEqualTo(i);
+            }
+        }
+        Assertions.assertThat(map.size()).isEqualTo(colliding.length - 3);
+    }
+
+    @Test
+    public void testMissingValue() {
+        final LongDoubleOpenHashMap map = new LongDoubleOpenHashMap();
+        Assertions.assertThat(map.get(1)).isNaN();
+        Assertions.assertThat(map.getOrDefault(1, -1D)).isEqualTo(-1D);
+        Assertions.assertThat(map.get(Long.valueOf(1))).isNull();
+        Assertions.assertThat(map.remove(1)).isNaN();
+        Assertions.assertThat(map.remove(Long.valueOf(1))).isNull();
+        Assertions.assertThat(map.put(1, 2D)).isNaN();
+        Assertions.assertThat(map.put(1, 3D)).isEqualTo(2D);
+
+        //NaN can be stored as a value, only containsKey can tell it apart from a missing value
+        Assertions.assertThat(map.put(Long.valueOf(2), Double.valueOf(Double.NaN))).isNull();
+        Assertions.assertThat(map.containsKey(2)).isTrue();
+        Assertions.assertThat(map.get(2)).isNaN();
+        Assertions.assertThat(map.getOrDefault(2, -1D)).isNaN();
+        Assertions.assertThat(map.get(Long.valueOf(2))).isNaN();
+        Assertions.assertThat(map.containsValue(Double.NaN)).isTrue();
+        Assertions.assertThat(map.put(Long.valueOf(2), Double.valueOf(4D))).isNaN();
+        Assertions.assertThat(map.containsValue(Double.NaN)).isFalse();
+        Assertions.assertThat(map.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void testIteratorRemoveAndSetValue() {
+        final LongDoubleOpenHashMap map = new LongDoubleOpenHashMap();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        final Iterator<Entry<Long, Double>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Entry<Long, Double> next = iterator.next();
+            if (next.getKey() % 2 == 0) {
+                iterator.remove();
+            } else {
+                next.setValue(-next.getValue());
+            }
+        }
+        Assertions.assertThat(map.size()).isEqualTo(50);
+        for (int i = 0; i < map.size(); i++) {
+            Assertions.assertThat(map.keyAt(i) % 2).isEqualTo(1);
+            Assertions.assertThat(map.valueAt(i)).isEqualTo(-map.keyAt(i));
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+package de.invesdwin.util.collections.primitive;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+
+@NotThreadSafe
+public class LongObjectOpenHashMapTest {
+
+    @Test
+    public void testRandomOperationsAgainstHashMap() {
+        final Random random = new Random(1);
+        final LongObjectOpenHashMap<Integer> map = new LongObjectOpenHashMap<Integer>(1);
+        final Map<Long, Integer> expected = new HashMap<Long, Integer>();
+        for (int i = 0; i < 100000; i++) {
+            final long key = random.nextInt(1000) * 60000L;
+            final int operation = random.nextInt(3);
+            if (operation == 0) {
+                final Integer value = Integer.valueOf(random.nextInt());
+                Assertions.assertThat(map.put(key, value)).isEqualTo(expected.put(key, value));
+            } else if (operation == 1) {
+                Assertions.assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+            } else {
+                Assertions.assertThat(map.get(key)).isEqualTo(expected.get(key));
+            }
+            Assertions.assertThat(map.size()).isEqualTo(expected.size());
+        }
+        Assertions.assertThat(new HashMap<Long, Integer>(map)).isEqualTo(expected);
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        final LongObjectOpenHashMap<Integer> map = new LongObjectOpenHashMap<Integer>();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, Integer.valueOf(i));
+        }
+        final Iterator<Entry<Long, Integer>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getValue() % 2 == 0) {
+                iterator.remove();
+            }
+        }
+        Assertions.assertThat(map.size()).isEqualTo(50);
+        for (int i = 0; i < map.size(); i++) {
+            Assertions.assertThat(map.keyAt(i) % 2).isEqualTo(1);
+            Assertions.assertThat(map.get(map.keyAt(i))).isEqualTo((int) map.keyAt(i));
+        }
+    }
+
+}
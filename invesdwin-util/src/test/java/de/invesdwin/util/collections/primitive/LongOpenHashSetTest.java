@@ -0,0 +1,109 @@
+package de.invesdwin.util.collections.primitive;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Set;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+
+@NotThreadSafe
+public class LongOpenHashSetTest {
+
+    @Test
+    public void testRandomOperationsAgainstHashSet() {
+        final Random random = new Random(1);
+        final LongOpenHashSet set = new LongOpenHashSet(1);
+        final Set<Long> expected = new HashSet<Long>();
+        for (int i = 0; i < 100000; i++) {
+            final long value = random.nextInt(1000) * 60000L;
+            final int operation = random.nextInt(3);
+            if (operation == 0) {
+                Assertions.assertThat(set.add(value)).isEqualTo(expected.add(value));
+            } else if (operation == 1) {
+                Assertions.assertThat(set.remove(value)).isEqualTo(expected.remove(value));
+            } else {
+                Assertions.assertThat(set.contains(value)).isEqualTo(expected.contains(value));
+            }
+            Assertions.assertThat(set.size()).isEqualTo(expected.size());
+        }
+        Assertions.assertThat(new HashSet<Long>(set)).isEqualTo(expected);
+    }
+
+    @Test
+    public void testRehash() {
+        final LongOpenHashSet set = new LongOpenHashSet(1);
+        for (long i = 0; i < 10000; i++) {
+            Assertions.assertThat(set.add(i)).isTrue();
+        }
+        Assertions.assertThat(set.add(0L)).isFalse();
+        Assertions.assertThat(set.size()).isEqualTo(10000);
+        for (long i = 0; i < 10000; i += 2) {
+            Assertions.assertThat(set.remove(i)).isTrue();
+        }
+        for (long i = 0; i < 10000; i++) {
+            Assertions.assertThat(set.contains(i)).isEqualTo(i % 2 == 1);
+        }
+        Assertions.assertThat(set.toLongArray().length).isEqualTo(5000);
+        set.clear();
+        Assertions.assertThat(set.isEmpty()).isTrue();
+        Assertions.assertThat(set.contains(1L)).isFalse();
+    }
+
+    @Test
+    public void testCollisions() {
+        //no growth happens below the expected size, thus the mask of the power of two table stays the same
+        final int expectedSize = 64;
+        final int mask = expectedSize * 2 - 1;
+        final LongOpenHashSet set = new LongOpenHashSet(expectedSize);
+        //the last slot makes the probe sequence wrap around
+        final long[] colliding = newCollidingKeys(mask, mask, 10);
+        for (int i = 0; i < colliding.length; i++) {
+            Assertions.assertThat(set.add(colliding[i])).isTrue();
+        }
+        //removals in the middle of the probe sequence have to shift the following keys back
+        for (int i = 1; i < colliding.length; i += 3) {
+            Assertions.assertThat(set.remove(colliding[i])).isTrue();
+        }
+        for (int i = 0; i < colliding.length; i++) {
+            Assertions.assertThat(set.contains(colliding[i])).isEqualTo(i % 3 != 1);
+        }
+        Assertions.assertThat(set.size()).isEqualTo(colliding.length - 3);
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        final LongOpenHashSet set = new LongOpenHashSet();
+        for (long i = 0; i < 100; i++) {
+            set.add(i);
+        }
+        final Iterator<Long> iterator = set.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() % 2 == 0) {
+                iterator.remove();
+            }
+        }
+        Assertions.assertThat(set.size()).isEqualTo(50);
+        for (int i = 0; i < set.size(); i++) {
+            Assertions.assertThat(set.get(i) % 2).isEqualTo(1);
+        }
+    }
+
+    static long[] newCollidingKeys(final int slot, final int mask, final int count) {
+        final long[] keys = new long[count];
+        int size = 0;
+        long key = 0;
+        while (size < count) {
+            if ((LongOpenHashIndex.hash(key) & mask) == slot) {
+                keys[size++] = key;
+            }
+            key++;
+        }
+        return keys;
+    }
+
+}
@@ -13,6 +13,7 @@ import javax.annotation.concurrent.ThreadSafe;
 import org.junit.Test;
 
 import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.collections.iterable.collection.ListCloseableIterator;
 
 @ThreadSafe
 public class ExecutorsTest {
@@ -170,6 +171,73 @@ public class ExecutorsTest {
         executor.awaitTermination();
     }
 
+    @Test
+    public void testAsyncForkJoinPoolManagedBlock() throws InterruptedException {
+        final ConfiguredForkJoinPool executor = Executors.newAsyncForkJoinPool("testAsyncForkJoinPoolManagedBlock", 1);
+        Assertions.assertThat(executor.getAsyncMode()).isTrue();
+        final Future<Integer> future = executor.submit(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                return ConfiguredForkJoinPool.managedBlock(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        TimeUnit.MILLISECONDS.sleep(10);
+                        return 1;
+                    }
+                });
+            }
+        });
+        Assertions.assertThat(Futures.get(future)).isEqualTo(1);
+        executor.shutdown();
+        executor.awaitTermination();
+    }
+
+    @Test
+    public void testSubmitAndGetFailFastBounded() throws InterruptedException {
+        final WrappedExecutorService executor = Executors.newFixedThreadPool("testSubmitAndGetFailFastBounded", 4);
+        final List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+        for (int i = 0; i < 100; i++) {
+            final int index = i;
+            tasks.add(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    return index;
+                }
+            });
+        }
+        final List<Integer> results = Futures.submitAndGetFailFast(executor,
+                new ListCloseableIterator<Callable<Integer>>(tasks), 2);
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertThat(results.get(i)).isEqualTo(i);
+        }
+        executor.shutdown();
+        executor.awaitTermination();
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testSubmitAndGetFailFastException() throws InterruptedException {
+        final WrappedExecutorService executor = Executors.newFixedThreadPool("testSubmitAndGetFailFastException", 2);
+        final List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+        tasks.add(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                TimeUnit.DAYS.sleep(9999);
+                return 0;
+            }
+        });
+        tasks.add(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                throw new IllegalStateException("The Exception");
+            }
+        });
+        try {
+            Futures.submitAndGetFailFast(executor, tasks);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     private Runnable getWorker(final int i) {
         return new Thread() {
             @Override
@@ -0,0 +1,153 @@
+package de.invesdwin.util.math.decimal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.math.decimal.scaled.Percent;
+import de.invesdwin.util.math.decimal.scaled.PercentScale;
+
+@ThreadSafe
+public class DecimalArraysTest {
+
+    private static final double EPSILON = 1E-9;
+
+    @Test
+    public void testElementWise() {
+        final double[] values = { 1, 2, 3, 4, 5 };
+        final double[] others = { 2, 0, 1, 4, 10 };
+        Assertions.assertThat(DecimalArrays.add(values, others, null)).containsExactly(3, 2, 4, 8, 15);
+        Assertions.assertThat(DecimalArrays.subtract(values, others, null)).containsExactly(-1, 2, 2, 0, -5);
+        Assertions.assertThat(DecimalArrays.multiply(values, others, null)).containsExactly(2, 0, 3, 16, 50);
+        Assertions.assertThat(DecimalArrays.divide(values, others, null)).containsExactly(0.5, 0, 3, 1, 0.5);
+        Assertions.assertThat(DecimalArrays.add(values, 1, null)).containsExactly(2, 3, 4, 5, 6);
+        Assertions.assertThat(DecimalArrays.divide(values, 0, null)).containsExactly(0, 0, 0, 0, 0);
+        Assertions.assertThat(DecimalArrays.cumulativeSum(values, null)).containsExactly(1, 3, 6, 10, 15);
+        Assertions.assertThat(DecimalArrays.cumulativeProduct(values, null)).containsExactly(1, 2, 6, 24, 120);
+        Assertions.assertThat(DecimalArrays.absoluteChanges(others, null)).containsExactly(-2, 1, 3, 6);
+        Assertions.assertThat(DecimalArrays.growthRates(others, null)).containsExactly(-1, 0, 3, 1.5);
+
+        //in place
+        final double[] copy = values.clone();
+        Assertions.assertThat(DecimalArrays.multiply(copy, 2, copy)).isSameAs(copy).containsExactly(2, 4, 6, 8, 10);
+    }
+
+    @Test
+    public void testDivideTreatsRoundedZeroAsZero() {
+        final double[] values = { 1, 1, -1, 1E-10, 0 };
+        final double[] divisors = { 1E-10, -4E-10, 1E-8, 1E-10, 0 };
+        Assertions.assertThat(DecimalArrays.divide(values, divisors, null)).containsExactly(0, 0, -1E8, 1E-10, 0);
+    }
+
+    @Test
+    public void testReductions() {
+        final Random random = new Random(1);
+        for (int length = 0; length < 20; length++) {
+            final double[] values = new double[length];
+            final double[] others = new double[length];
+            double expectedSum = 0D;
+            double expectedDot = 0D;
+            for (int i = 0; i < length; i++) {
+                values[i] = random.nextInt(1000);
+                others[i] = random.nextInt(1000);
+                expectedSum += values[i];
+                expectedDot += values[i] * others[i];
+            }
+            Assertions.assertThat(DecimalArrays.sum(values)).isEqualTo(expectedSum);
+            Assertions.assertThat(DecimalArrays.dot(values, others)).isEqualTo(expectedDot);
+        }
+    }
+
+    @Test
+    public void testQuantiles() {
+        final Random random = new Random(1);
+        final double[] quantiles = { 0.05, 0.25, 0.5, 0.75, 0.95, 0, 1 };
+        //more quantiles than are selected, thus the values get sorted
+        final double[] manyQuantiles = { 0.9, 0.1, 0.2, 0.3, 0.4, 0.5, 0.6, 0.7, 0.8, 0.05, 0.95, 0, 1 };
+        for (int length = 1; length < 200; length++) {
+            final double[] values = new double[length];
+            for (int i = 0; i < length; i++) {
+                //duplicates need to be handled by the partitioning
+                values[i] = random.nextInt(length / 2 + 1);
+            }
+            final double[] sorted = values.clone();
+            Arrays.sort(sorted);
+            final double[] actual = DecimalArrays.quantiles(values.clone(), quantiles, null);
+            for (int i = 0; i < quantiles.length; i++) {
+                final double expected = sortedQuantile(sorted, quantiles[i]);
+                Assertions.assertThat(actual[i]).isEqualTo(expected);
+                Assertions.assertThat(DecimalArrays.quantile(values.clone(), quantiles[i])).isEqualTo(expected);
+            }
+            final double[] actualMany = DecimalArrays.quantiles(values.clone(), manyQuantiles, null);
+            for (int i = 0; i < manyQuantiles.length; i++) {
+                Assertions.assertThat(actualMany[i]).isEqualTo(sortedQuantile(sorted, manyQuantiles[i]));
+            }
+        }
+        Assertions.assertThat(DecimalArrays.median(new double[] { 5, 1, 4, 2 })).isEqualTo(3D);
+        Assertions.assertThat(DecimalArrays.median(new double[] { 5, 1, 4 })).isEqualTo(4D);
+        Assertions.assertThat(DecimalArrays.median(new double[0])).isNaN();
+    }
+
+    /**
+     * The default estimation of commons-math's Percentile.
+     */
+    private static double sortedQuantile(final double[] sorted, final double quantile) {
+        final double pos = quantile * (sorted.length + 1);
+        if (pos < 1) {
+            return sorted[0];
+        }
+        if (pos >= sorted.length) {
+            return sorted[sorted.length - 1];
+        }
+        final int index = (int) Math.floor(pos);
+        final double lower = sorted[index - 1];
+        final double upper = sorted[index];
+        return lower + (pos - index) * (upper - lower);
+    }
+
+    @Test
+    public void testAggregateMatchesSingleOperations() {
+        final Random random = new Random(1);
+        final List<Percent> values = new ArrayList<Percent>();
+        for (int i = 0; i < 100; i++) {
+            values.add(new Percent(new Decimal(random.nextGaussian()), PercentScale.PERCENT));
+        }
+        values.set(10, Percent.ZERO_PERCENT);
+        final Percent operand = new Percent(new Decimal("3"), PercentScale.PERCENT);
+        final IDecimalAggregate<Percent> aggregate = Percent.valueOf(values);
+
+        final List<Percent> added = aggregate.addEach(operand).values();
+        final List<Percent> multiplied = aggregate.multiplyEach(operand).values();
+        final List<Percent> divided = aggregate.divideEach(operand).values();
+        final List<Percent> growthRates = aggregate.growthRates().values();
+        for (int i = 0; i < values.size(); i++) {
+            final Percent value = values.get(i);
+            assertClose(added.get(i), value.add(operand));
+            assertClose(multiplied.get(i), value.multiply(operand));
+            assertClose(divided.get(i), value.divide(operand));
+            Assertions.assertThat(added.get(i).getScale()).isEqualTo(value.getScale());
+            if (i > 0) {
+                assertClose(growthRates.get(i - 1), values.get(i - 1).growthRate(value));
+            }
+        }
+        Assertions.assertThat(aggregate.divideEach(Percent.ZERO_PERCENT).values()).containsOnly(Percent.ZERO_PERCENT);
+
+        final Percent median = aggregate.median();
+        final List<Percent> quantiles = aggregate.quantiles(Percent.TWENTYFIVE_PERCENT, Percent.FIFTY_PERCENT);
+        assertClose(quantiles.get(1), median);
+        assertClose(aggregate.quantile(Percent.FIFTY_PERCENT), median);
+        assertClose(aggregate.quantile(Percent.TWENTYFIVE_PERCENT), quantiles.get(0));
+        Assertions.assertThat(median.getScale()).isEqualTo(PercentScale.PERCENT);
+    }
+
+    private void assertClose(final Percent actual, final Percent expected) {
+        Assertions.assertThat(Math.abs(actual.doubleValueRaw() - expected.doubleValueRaw())).isLessThan(EPSILON);
+    }
+
+}
@@ -0,0 +1,71 @@
+package de.invesdwin.util.math.decimal;
+
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.concurrent.Executors;
+
+@ThreadSafe
+public class DecimalReductionsTest {
+
+    @Test
+    public void testCompensatedSum() {
+        final int length = 300000;
+        final double[] values = new double[length];
+        for (int i = 0; i < length; i += 3) {
+            values[i] = 1E16;
+            values[i + 1] = 1D;
+            values[i + 2] = -1E16;
+        }
+        //a naive summation loses all the ones here
+        Assertions.assertThat(DecimalReductions.sum(values, null)).isEqualTo(length / 3);
+    }
+
+    @Test
+    public void testSameResultForAnyThreadCount() {
+        final Random random = new Random(1);
+        final double[] values = new double[DecimalReductions.PARALLEL_THRESHOLD * 3 + 7];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1D + random.nextGaussian() * 1E-6;
+        }
+        final double sum = DecimalReductions.sum(values, null);
+        final double weightedSum = DecimalReductions.weightedSumAsc(values, null);
+        final double squaredDeviations = DecimalReductions.sumOfSquaredDeviations(values, 1D, null);
+        final double product = DecimalReductions.product(values, null);
+        for (final int threads : new int[] { 1, 3, 8 }) {
+            final ForkJoinPool pool = Executors.newForkJoinPool(DecimalReductionsTest.class.getSimpleName(),
+                    threads);
+            try {
+                Assertions.assertThat(DecimalReductions.sum(values, pool)).isEqualTo(sum);
+                Assertions.assertThat(DecimalReductions.weightedSumAsc(values, pool)).isEqualTo(weightedSum);
+                Assertions.assertThat(DecimalReductions.sumOfSquaredDeviations(values, 1D, pool))
+                        .isEqualTo(squaredDeviations);
+                Assertions.assertThat(DecimalReductions.product(values, pool)).isEqualTo(product);
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    public void testAggregate() {
+        final IDecimalAggregate<Decimal> aggregate = Decimal.valueOf(new Decimal(1), new Decimal(2), new Decimal(3),
+                new Decimal(4));
+        Assertions.assertThat(aggregate.sum()).isEqualTo(new Decimal(10));
+        Assertions.assertThat(aggregate.avg()).isEqualTo(new Decimal("2.5"));
+        Assertions.assertThat(aggregate.product()).isEqualTo(new Decimal(24));
+        //(1*1 + 2*2 + 3*3 + 4*4) / (1 + 2 + 3 + 4)
+        Assertions.assertThat(aggregate.avgWeightedAsc()).isEqualTo(new Decimal(3));
+        Assertions.assertThat(aggregate.sampleVariance()).isEqualTo(new Decimal("1.25"));
+        Assertions.assertThat(aggregate.variance()).isEqualTo(new Decimal("5").divide(3));
+        Assertions.assertThat(Decimal.valueOf(Collections.singletonList(new Decimal(1))).variance())
+                .isEqualTo(Decimal.ZERO);
+    }
+
+}
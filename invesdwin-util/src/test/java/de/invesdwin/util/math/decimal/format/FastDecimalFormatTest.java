@@ -0,0 +1,123 @@
+package de.invesdwin.util.math.decimal.format;
+
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormat;
+import java.text.ParseException;
+import java.util.Random;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.math.decimal.Decimal;
+
+@NotThreadSafe
+public class FastDecimalFormatTest {
+
+    private static final String[] PATTERNS = { Decimal.DEFAULT_DECIMAL_FORMAT, Decimal.MONEY_DECIMAL_FORMAT,
+            Decimal.INTEGER_DECIMAL_FORMAT, ",##0.###'%'", "#.##", ".###", "000.0", "'USD '#,##0.00' x'",
+            "#,##0.000000000", "0.00E0", "#,##0%" };
+
+    @Test
+    public void testSameAsDecimalFormat() {
+        final Random random = new Random(1);
+        for (final String pattern : PATTERNS) {
+            final FastDecimalFormat fastFormat = FastDecimalFormat.getInstance(pattern);
+            final DecimalFormat decimalFormat = Decimal.newDecimalFormatInstance(pattern);
+            for (int i = 0; i < 10000; i++) {
+                final double value;
+                switch (i % 4) {
+                case 0:
+                    value = random.nextGaussian() * 1000;
+                    break;
+                case 1:
+                    value = Math.round(random.nextGaussian() * 1000000) / 1000D;
+                    break;
+                case 2:
+                    //ties
+                    value = (random.nextInt(2000000) - 1000000) / 1000D + 0.0005D;
+                    break;
+                default:
+                    value = random.nextDouble() * Math.pow(10, random.nextInt(40) - 20);
+                    break;
+                }
+                final String expected = removeNegativeZeroSign(decimalFormat.format(value));
+                Assertions.assertThat(fastFormat.format(value)).as("%s with %s", value, pattern).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    public void testNegativeZero() {
+        final FastDecimalFormat format = FastDecimalFormat.getInstance("#,##0.00'%'");
+        Assertions.assertThat(format.format(-0.001D)).isEqualTo("0.00%");
+        Assertions.assertThat(format.format(-0D)).isEqualTo("0.00%");
+        Assertions.assertThat(format.format(-0.005D)).isEqualTo("-0.01%");
+    }
+
+    @Test
+    public void testFormatIntoBuffers() {
+        final FastDecimalFormat format = FastDecimalFormat.getInstance("'\u20AC '#,##0.00");
+        Assertions.assertThat(format.isCompiled()).isTrue();
+        final StringBuilder sb = new StringBuilder("x=");
+        format.format(-1234567.891D, sb);
+        Assertions.assertThat(sb.toString()).isEqualTo("x=-\u20AC 1,234,567.89");
+        final char[] chars = new char[format.getMaximumLength()];
+        final int charsLength = format.format(1234.5D, chars, 0);
+        Assertions.assertThat(new String(chars, 0, charsLength)).isEqualTo("\u20AC 1,234.50");
+        final byte[] bytes = new byte[format.getMaximumLength() * 3];
+        final int bytesLength = format.format(1234.5D, bytes, 0);
+        Assertions.assertThat(new String(bytes, 0, bytesLength, StandardCharsets.UTF_8))
+                .isEqualTo("\u20AC 1,234.50");
+    }
+
+    @Test
+    public void testParse() throws ParseException {
+        final FastDecimalFormat format = FastDecimalFormat.getInstance(",##0.###'%'");
+        Assertions.assertThat(format.parse("1,234.567%")).isEqualTo(1234.567D);
+        Assertions.assertThat(format.parse("-0.5")).isEqualTo(-0.5D);
+        Assertions.assertThat(format.parse("12345678901234567890")).isEqualTo(12345678901234567890D);
+        try {
+            format.parse("1.2.3");
+            Assertions.failExceptionExpected();
+        } catch (final ParseException e) {
+            Assertions.assertThat(e.getMessage()).contains("1.2.3");
+        }
+    }
+
+    @Test
+    public void testParseIgnoresDigitsInPrefix() throws ParseException {
+        final FastDecimalFormat format = FastDecimalFormat.getInstance("'v1.2 '#,##0.###' 3s'");
+        Assertions.assertThat(format.parse("v1.2 1,234.567 3s")).isEqualTo(1234.567D);
+        //too many digits for the fast path
+        Assertions.assertThat(format.parse("v1.2 12345678901234567890 3s")).isEqualTo(12345678901234567890D);
+        Assertions.assertThat(format.parse("-v1.2 0.000000000000000000001234 3s")).isEqualTo(-1.234E-21D);
+    }
+
+    @Test
+    public void testDoubleDigits() {
+        final DoubleDigits digits = new DoubleDigits();
+        Assertions.assertThat(digits.set(-1234.5678D)).isTrue();
+        Assertions.assertThat(digits.toString()).isEqualTo("-1234.5678");
+        Assertions.assertThat(digits.getIntegerDigits()).isEqualTo(4);
+        Assertions.assertThat(digits.getDecimalDigits()).isEqualTo(4);
+        Assertions.assertThat(digits.set(0.000012D)).isTrue();
+        Assertions.assertThat(digits.toString()).isEqualTo("0.000012");
+        Assertions.assertThat(digits.getIntegerDigits()).isEqualTo(1);
+        Assertions.assertThat(digits.getDecimalDigits()).isEqualTo(6);
+        Assertions.assertThat(digits.set(1200D)).isTrue();
+        Assertions.assertThat(digits.toString()).isEqualTo("1200");
+        Assertions.assertThat(digits.getDecimalDigits()).isEqualTo(0);
+        //needs 17 significant digits
+        Assertions.assertThat(digits.set(0.1D + 0.2D)).isFalse();
+    }
+
+    private static String removeNegativeZeroSign(final String str) {
+        if (str.startsWith("-") && !str.matches(".*[1-9].*")) {
+            return str.substring(1);
+        }
+        return str;
+    }
+
+}
@@ -1,6 +1,7 @@
 package de.invesdwin.util.math.decimal.internal;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 import javax.annotation.concurrent.NotThreadSafe;
@@ -12,6 +13,7 @@ import de.invesdwin.util.collections.Lists;
 import de.invesdwin.util.math.decimal.Decimal;
 import de.invesdwin.util.math.decimal.IDecimalAggregate;
 import de.invesdwin.util.math.random.RandomGenerators;
+import it.unimi.dsi.util.XoRoShiRo128PlusRandomGenerator;
 
 @NotThreadSafe
 public class DecimalAggregateRandomizersTest {
@@ -78,4 +80,39 @@ public class DecimalAggregateRandomizersTest {
         }
     }
 
+    @Test
+    public void testRandomizeDefaultValues() {
+        final List<Decimal> values = new ArrayList<Decimal>();
+        for (int i = 0; i < 100000; i++) {
+            values.add(new Decimal(i));
+        }
+
+        final IDecimalAggregate<Decimal> agg = Decimal.valueOf(values);
+        final double[] destination = new double[values.size()];
+        for (int i = 0; i < REPEAT_COUNT; i++) {
+            //the same seed should result in the same resample
+            assertSameResample(agg.randomizeShuffle(new XoRoShiRo128PlusRandomGenerator(i)),
+                    agg.randomizeShuffle(new XoRoShiRo128PlusRandomGenerator(i), destination));
+            assertSameResample(agg.randomizeBootstrap(new XoRoShiRo128PlusRandomGenerator(i)),
+                    agg.randomizeBootstrap(new XoRoShiRo128PlusRandomGenerator(i), destination));
+            assertSameResample(agg.randomizeCircularBlockBootstrap(new XoRoShiRo128PlusRandomGenerator(i)),
+                    agg.randomizeCircularBlockBootstrap(new XoRoShiRo128PlusRandomGenerator(i), destination));
+            assertSameResample(agg.randomizeStationaryBootstrap(new XoRoShiRo128PlusRandomGenerator(i)),
+                    agg.randomizeStationaryBootstrap(new XoRoShiRo128PlusRandomGenerator(i), destination));
+            assertSameResample(agg.randomizeWeightedChunksAscending(new XoRoShiRo128PlusRandomGenerator(i), 4),
+                    agg.randomizeWeightedChunksAscending(new XoRoShiRo128PlusRandomGenerator(i), 4, destination));
+            assertSameResample(agg.randomizeWeightedChunksDescending(new XoRoShiRo128PlusRandomGenerator(i), 4),
+                    agg.randomizeWeightedChunksDescending(new XoRoShiRo128PlusRandomGenerator(i), 4, destination));
+        }
+    }
+
+    private void assertSameResample(final Iterator<Decimal> expected, final double[] actual) {
+        int i = 0;
+        while (expected.hasNext()) {
+            Assertions.assertThat(expected.next().doubleValue()).isEqualTo(actual[i]);
+            i++;
+        }
+        Assertions.assertThat(i).isEqualTo(actual.length);
+    }
+
 }
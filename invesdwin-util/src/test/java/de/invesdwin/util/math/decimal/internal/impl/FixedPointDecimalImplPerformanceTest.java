@@ -0,0 +1,63 @@
+package de.invesdwin.util.math.decimal.internal.impl;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import de.invesdwin.util.math.decimal.Decimal;
+import de.invesdwin.util.time.Instant;
+
+/**
+ * Compares the fixed point implementation with the double implementation on a typical price and money workload.
+ */
+@NotThreadSafe
+@Ignore
+public class FixedPointDecimalImplPerformanceTest {
+
+    private static final int TRADES = 1000000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    public void testNotionalAndAveragePrice() {
+        final String[] prices = new String[TRADES];
+        final String[] quantities = new String[TRADES];
+        final Random random = new Random(1);
+        for (int i = 0; i < TRADES; i++) {
+            prices[i] = String.valueOf((10000 + random.nextInt(10000)) / 100D);
+            quantities[i] = String.valueOf(1 + random.nextInt(1000));
+        }
+        for (int round = 0; round < ROUNDS; round++) {
+            final long doubleNanos = measure(new DoubleDecimalImplFactory(), prices, quantities);
+            final long fixedPointNanos = measure(new FixedPointDecimalImplFactory(), prices, quantities);
+            System.out.println(String.format("round %s: double=%sms fixedPoint=%sms", round, //SUPPRESS CHECKSTYLE single line
+                    TimeUnit.NANOSECONDS.toMillis(doubleNanos), TimeUnit.NANOSECONDS.toMillis(fixedPointNanos)));
+        }
+    }
+
+    private static <E extends ADecimalImpl<E, ?>> long measure(final IDecimalImplFactory<E> factory,
+            final String[] prices, final String[] quantities) {
+        final Decimal[] priceDecimals = new Decimal[prices.length];
+        final Decimal[] quantityDecimals = new Decimal[quantities.length];
+        for (int i = 0; i < prices.length; i++) {
+            priceDecimals[i] = new Decimal(factory.valueOf(prices[i]));
+            quantityDecimals[i] = new Decimal(factory.valueOf(quantities[i]));
+        }
+        final Instant start = new Instant();
+        Decimal notional = new Decimal(factory.valueOf(0D));
+        Decimal quantity = notional;
+        for (int i = 0; i < priceDecimals.length; i++) {
+            notional = notional.add(priceDecimals[i].multiply(quantityDecimals[i]));
+            quantity = quantity.add(quantityDecimals[i]);
+        }
+        final Decimal averagePrice = notional.divide(quantity).round(2);
+        final long nanos = start.longValue();
+        System.out.println(String.format("%s: notional=%s averagePrice=%s", factory.getClass().getSimpleName(), //SUPPRESS CHECKSTYLE single line
+                notional, averagePrice));
+        return nanos;
+    }
+
+}
@@ -0,0 +1,109 @@
+package de.invesdwin.util.math.decimal.internal.impl;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.math.decimal.Decimal;
+
+@ThreadSafe
+public class FixedPointDecimalImplTest {
+
+    private static final int ITERATIONS = 100000;
+    private static final RoundingMode[] ROUNDING_MODES = { RoundingMode.UP, RoundingMode.DOWN, RoundingMode.CEILING,
+            RoundingMode.FLOOR, RoundingMode.HALF_UP, RoundingMode.HALF_DOWN, RoundingMode.HALF_EVEN };
+
+    private final FixedPointDecimalImplFactory fixedPointFactory = new FixedPointDecimalImplFactory();
+    private final BigDecimalDecimalImplFactory bigDecimalFactory = new BigDecimalDecimalImplFactory();
+
+    @Test
+    public void testArithmeticAgainstBigDecimal() {
+        final Random random = new Random(1);
+        for (int i = 0; i < ITERATIONS; i++) {
+            final String a = randomValue(random);
+            final String b = randomValue(random);
+            final FixedPointDecimalImpl fixedA = fixedPointFactory.valueOf(a);
+            final Decimal fixedB = new Decimal(fixedPointFactory.valueOf(b));
+            final BigDecimalDecimalImpl bigA = bigDecimalFactory.valueOf(a);
+            final Decimal bigB = new Decimal(bigDecimalFactory.valueOf(b));
+
+            assertEquals(bigA.add(bigB), fixedA.add(fixedB));
+            assertEquals(bigA.subtract(bigB), fixedA.subtract(fixedB));
+            assertEquals(bigA.multiply(bigB), fixedA.multiply(fixedB));
+            if (!fixedB.isZero()) {
+                assertEquals(bigA.divide(bigB), fixedA.divide(fixedB));
+                assertEquals(bigA.remainder(bigB), fixedA.remainder(fixedB));
+            }
+            Assertions.assertThat(fixedA.compareTo(fixedB)).isEqualTo(bigA.compareTo(bigB));
+
+            final int scale = random.nextInt(Decimal.DEFAULT_ROUNDING_SCALE + 1);
+            final RoundingMode roundingMode = ROUNDING_MODES[random.nextInt(ROUNDING_MODES.length)];
+            assertEquals(bigA.round(scale, roundingMode), fixedA.round(scale, roundingMode));
+        }
+    }
+
+    @Test
+    public void testOverflowFallsBackToBigDecimal() {
+        final FixedPointDecimalImpl trillion = fixedPointFactory.valueOf(1E12);
+        final FixedPointDecimalImpl product = trillion.multiply(new Decimal(trillion));
+        Assertions.assertThat(product.getValue()).isInstanceOf(BigDecimal.class);
+        Assertions.assertThat(product.bigDecimalValue().compareTo(new BigDecimal("1E24"))).isEqualTo(0);
+
+        //going back into the long range should switch back to the fast path
+        final FixedPointDecimalImpl quotient = product.divide(new Decimal(trillion));
+        Assertions.assertThat(quotient.getValue()).isInstanceOf(Long.class);
+        Assertions.assertThat(quotient.compareTo(new Decimal(trillion))).isEqualTo(0);
+
+        final FixedPointDecimalImpl max = fixedPointFactory.valueOf(Long.MAX_VALUE);
+        final FixedPointDecimalImpl sum = max.add(new Decimal(max));
+        final BigDecimal expectedSum = BigDecimal.valueOf(Long.MAX_VALUE).multiply(BigDecimal.valueOf(2));
+        Assertions.assertThat(sum.bigDecimalValue().compareTo(expectedSum)).isEqualTo(0);
+    }
+
+    @Test
+    public void testExactDecimals() {
+        final FixedPointDecimalImpl tenth = fixedPointFactory.valueOf(0.1D);
+        final FixedPointDecimalImpl twoTenths = fixedPointFactory.valueOf(0.2D);
+        final FixedPointDecimalImpl sum = tenth.add(new Decimal(twoTenths));
+        Assertions.assertThat(sum.bigDecimalValue().compareTo(new BigDecimal("0.3"))).isEqualTo(0);
+        Assertions.assertThat(sum.toString()).isEqualTo("0.3");
+        Assertions.assertThat(fixedPointFactory.valueOf("-1.05").toString()).isEqualTo("-1.05");
+        Assertions.assertThat(fixedPointFactory.valueOf("1").divide(3).toString()).isEqualTo("0.333333333");
+        Assertions.assertThat(fixedPointFactory.valueOf("2").divide(3).toString()).isEqualTo("0.666666667");
+        Assertions.assertThat(fixedPointFactory.valueOf("-2").divide(3).toString()).isEqualTo("-0.666666667");
+    }
+
+    private String randomValue(final Random random) {
+        final int integerDigits = random.nextInt(12);
+        final int decimalDigits = random.nextInt(Decimal.DEFAULT_ROUNDING_SCALE + 1);
+        final StringBuilder sb = new StringBuilder();
+        if (random.nextBoolean()) {
+            sb.append('-');
+        }
+        sb.append(random.nextInt(10));
+        for (int i = 0; i < integerDigits; i++) {
+            sb.append(random.nextInt(10));
+        }
+        if (decimalDigits > 0) {
+            sb.append('.');
+            for (int i = 0; i < decimalDigits; i++) {
+                sb.append(random.nextInt(10));
+            }
+        }
+        return sb.toString();
+    }
+
+    private void assertEquals(final BigDecimalDecimalImpl expected, final FixedPointDecimalImpl actual) {
+        final BigDecimal expectedRounded = expected.round(Decimal.DEFAULT_ROUNDING_SCALE, Decimal.DEFAULT_ROUNDING_MODE)
+                .bigDecimalValue();
+        Assertions.assertThat(actual.bigDecimalValue().compareTo(expectedRounded))
+                .as("%s != %s", actual, expectedRounded)
+                .isEqualTo(0);
+    }
+
+}
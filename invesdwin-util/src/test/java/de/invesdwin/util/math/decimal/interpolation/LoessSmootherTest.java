@@ -0,0 +1,141 @@
+package de.invesdwin.util.math.decimal.interpolation;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.apache.commons.math3.analysis.interpolation.LoessInterpolator;
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.concurrent.Executors;
+import de.invesdwin.util.math.decimal.config.LoessInterpolationConfig;
+import de.invesdwin.util.math.decimal.scaled.Percent;
+
+@ThreadSafe
+public class LoessSmootherTest {
+
+    private static final double EPSILON = 1E-9;
+
+    @Test
+    public void testLinearIsUnchanged() {
+        final LoessSmoother smoother = new LoessSmoother(0.3, 2);
+        for (int i = 0; i < 100; i++) {
+            smoother.add(i, 3 * i - 7);
+        }
+        final double[] smoothed = smoother.smooth();
+        for (int i = 0; i < smoothed.length; i++) {
+            Assertions.assertThat(Math.abs(smoothed[i] - (3 * i - 7))).isLessThan(EPSILON);
+        }
+    }
+
+    @Test
+    public void testSameAsCommonsMath() {
+        final Random random = new Random(11);
+        final double[] x = new double[300];
+        for (int i = 0; i < x.length; i++) {
+            //unevenly spaced to also cover the movement of the bandwidth interval
+            x[i] = i + random.nextDouble() * 0.9;
+        }
+        final double[] y = randomWalk(random, x.length);
+        for (final int robustnessIters : new int[] { 0, 2 }) {
+            final double[] expected = new LoessInterpolator(0.3, robustnessIters).smooth(x, y);
+            final double[] actual = LoessSmoother.smooth(x, y, 0.3, robustnessIters, null);
+            Assertions.assertThat(actual.length).isEqualTo(expected.length);
+            for (int i = 0; i < actual.length; i++) {
+                Assertions.assertThat(Math.abs(actual[i] - expected[i])).isLessThan(EPSILON);
+            }
+        }
+    }
+
+    @Test
+    public void testNewLoessSmootherSameAsInterpolation() {
+        final double[] y = randomWalk(new Random(5), 200);
+        final LoessInterpolationConfig config = new LoessInterpolationConfig()
+                .withSmoothness(Percent.TWENTYFIVE_PERCENT)
+                .withRobustnessIters(0);
+        final LoessSmoother smoother = DoubleInterpolations.newLoessSmoother(config);
+        for (int i = 0; i < y.length; i++) {
+            smoother.add(y[i]);
+            if (i > 0 && i % 10 == 0) {
+                final double[] expected = DoubleInterpolations.loessInterpolation(Arrays.copyOf(y, i + 1), config);
+                final double[] actual = smoother.smooth();
+                for (int j = 0; j < actual.length; j++) {
+                    Assertions.assertThat(Math.abs(actual[j] - expected[j])).isLessThan(EPSILON);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testIncrementalEqualsFullRecalculation() {
+        final Random random = new Random(42);
+        final double[] y = randomWalk(random, 500);
+        for (final int robustnessIters : new int[] { 0, 2 }) {
+            final LoessSmoother incremental = new LoessSmoother(0.25, robustnessIters);
+            for (int i = 0; i < y.length; i++) {
+                incremental.add(y[i]);
+                if (i % 7 == 0 || i == y.length - 1) {
+                    final LoessSmoother full = new LoessSmoother(0.25, robustnessIters);
+                    for (int j = 0; j <= i; j++) {
+                        full.add(y[j]);
+                    }
+                    Assertions.assertThat(incremental.smooth()).containsExactly(full.smooth());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFixedBandwidthIncrementalEqualsFullRecalculation() {
+        final Random random = new Random(3);
+        final double[] y = randomWalk(random, 300);
+        final LoessSmoother incremental = LoessSmoother.newFixedBandwidth(40, 0, null);
+        for (int i = 0; i < y.length; i++) {
+            incremental.add(y[i]);
+            final LoessSmoother full = LoessSmoother.newFixedBandwidth(40, 0, null);
+            for (int j = 0; j <= i; j++) {
+                full.add(y[j]);
+            }
+            Assertions.assertThat(incremental.smooth()).containsExactly(full.smooth());
+        }
+    }
+
+    @Test
+    public void testParallelEqualsSequential() {
+        final Random random = new Random(7);
+        final double[] x = new double[5000];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = i;
+        }
+        final double[] y = randomWalk(random, x.length);
+        final ForkJoinPool pool = Executors.newForkJoinPool(LoessSmootherTest.class.getSimpleName(), 4);
+        try {
+            final double[] sequential = LoessSmoother.smooth(x, y, 0.3, 2, null);
+            final double[] parallel = LoessSmoother.smooth(x, y, 0.3, 2, pool);
+            Assertions.assertThat(parallel).containsExactly(sequential);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsortedIsRejected() {
+        final LoessSmoother smoother = new LoessSmoother();
+        smoother.add(1, 1);
+        smoother.add(1, 2);
+    }
+
+    private static double[] randomWalk(final Random random, final int length) {
+        final double[] y = new double[length];
+        double value = 0D;
+        for (int i = 0; i < length; i++) {
+            value += random.nextGaussian();
+            y[i] = value;
+        }
+        return y;
+    }
+
+}
@@ -62,4 +62,46 @@ public class PercentTest {
                         .toString())
                 .isEqualTo("0.01" + PercentScale.PERMILLE.getSymbol());
     }
+
+    @Test
+    public void testArithmeticKeepsScale() {
+        final Percent sum = Percent.TEN_PERCENT.add(Percent.FIVE_PERCENT);
+        Assertions.assertThat(sum.getScale()).isEqualTo(PercentScale.PERCENT);
+        Assertions.assertThat(sum.getValue(PercentScale.PERCENT)).isEqualTo(new Decimal("15"));
+        Assertions.assertThat(sum.getRate()).isEqualTo(new Decimal("0.15"));
+        Assertions.assertThat(sum.toString()).isEqualTo("15%");
+
+        final Percent difference = Percent.TEN_PERCENT.subtract(Percent.FIVE_PERCENT);
+        Assertions.assertThat(difference).isEqualTo(Percent.FIVE_PERCENT);
+        Assertions.assertThat(Percent.TEN_PERCENT.negate()).isEqualTo(Percent.MINUS_TEN_PERCENT);
+        Assertions.assertThat(Percent.MINUS_TEN_PERCENT.abs()).isEqualTo(Percent.TEN_PERCENT);
+
+        Assertions.assertThat(Percent.FIFTY_PERCENT.multiply(2)).isEqualTo(Percent.ONE_HUNDRED_PERCENT);
+        Assertions.assertThat(Percent.FIFTY_PERCENT.divide(Percent.TWENTYFIVE_PERCENT))
+                .isEqualTo(Percent.TWO_HUNDRED_PERCENT);
+        Assertions.assertThat(Percent.FIFTY_PERCENT.divide(0)).isEqualTo(Percent.ZERO_PERCENT);
+        Assertions.assertThat(Percent.ZERO_PERCENT.isZero()).isTrue();
+        Assertions.assertThat(Percent.MINUS_ONE_PERCENT.isPositive()).isFalse();
+
+        Assertions.assertThat(Percent.TEN_PERCENT.compareTo(Percent.FIVE_PERCENT)).isEqualTo(1);
+        Assertions.assertThat(Percent.TEN_PERCENT.compareTo(new Decimal("0.1"))).isEqualTo(0);
+        Assertions.assertThat(Percent.TEN_PERCENT.isLessThan(0.2D)).isTrue();
+    }
+
+    @Test
+    public void testArithmeticSameAsDefaultValue() {
+        //scaled decimals apply arithmetic through the configured decimal impl on the default value
+        final Percent a = new Percent(new Decimal("12.345"), PercentScale.PERCENT);
+        final Percent b = new Percent(new Decimal("3.21"), PercentScale.PERMILLE);
+        Assertions.assertThat(a.add(b).getRate()).isEqualTo(a.getRate().add(b.getRate()));
+        Assertions.assertThat(a.subtract(b).getRate()).isEqualTo(a.getRate().subtract(b.getRate()));
+        Assertions.assertThat(a.multiply(b).getRate()).isEqualTo(a.getRate().multiply(b.getRate()));
+        Assertions.assertThat(a.divide(b).getRate()).isEqualTo(a.getRate().divide(b.getRate()));
+        Assertions.assertThat(a.remainder(b).getRate()).isEqualTo(a.getRate().remainder(b.getRate()));
+        Assertions.assertThat(a.multiply(3).getRate()).isEqualTo(a.getRate().multiply(3));
+        Assertions.assertThat(a.divide(3).getRate()).isEqualTo(a.getRate().divide(3));
+        Assertions.assertThat(a.doubleValueRaw()).isEqualTo(a.getRate().doubleValueRaw());
+        Assertions.assertThat(a.compareTo(b)).isEqualTo(a.getRate().compareTo(b.getRate()));
+        Assertions.assertThat(a.fromDefaultValue(a.getRate()).getScale()).isEqualTo(PercentScale.PERCENT);
+    }
 }
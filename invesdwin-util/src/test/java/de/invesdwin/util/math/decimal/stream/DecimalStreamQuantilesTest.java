@@ -0,0 +1,71 @@
+package de.invesdwin.util.math.decimal.stream;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.math.decimal.Decimal;
+
+@ThreadSafe
+public class DecimalStreamQuantilesTest {
+
+    private static final double MAX_RANK_ERROR = 0.02;
+
+    @Test
+    public void testRankError() {
+        final Random random = new Random(1);
+        final int count = 500000;
+        final double[] values = new double[count];
+        final DecimalStreamQuantiles<Decimal> sketch = new DecimalStreamQuantiles<Decimal>(Decimal.ZERO);
+        final DecimalStreamQuantiles<Decimal> merged = new DecimalStreamQuantiles<Decimal>(Decimal.ZERO);
+        final DecimalStreamQuantiles<Decimal> partition = new DecimalStreamQuantiles<Decimal>(Decimal.ZERO);
+        for (int i = 0; i < count; i++) {
+            values[i] = random.nextGaussian();
+            sketch.process(values[i]);
+            if (i % 2 == 0) {
+                merged.process(values[i]);
+            } else {
+                partition.process(values[i]);
+            }
+        }
+        merged.merge(partition);
+        Assertions.assertThat(sketch.getCount()).isEqualTo(count);
+        Assertions.assertThat(merged.getCount()).isEqualTo(count);
+        Arrays.sort(values);
+        Assertions.assertThat(sketch.getQuantile(0D)).isEqualTo(values[0]);
+        Assertions.assertThat(merged.getQuantile(1D)).isEqualTo(values[count - 1]);
+        for (int q = 1; q < 100; q++) {
+            final double quantile = q / 100D;
+            assertRankError(values, quantile, sketch.getQuantile(quantile));
+            assertRankError(values, quantile, merged.getQuantile(quantile));
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        final DecimalStreamQuantiles<Decimal> sketch = new DecimalStreamQuantiles<Decimal>(Decimal.ZERO);
+        Assertions.assertThat(sketch.getQuantile(0.5D)).isNaN();
+    }
+
+    @Test
+    public void testNullCountedAsZero() {
+        final DecimalStreamQuantiles<Decimal> sketch = new DecimalStreamQuantiles<Decimal>(Decimal.ZERO);
+        sketch.process(new Decimal("2"));
+        sketch.process((Decimal) null);
+        sketch.process(new Decimal("4"));
+        Assertions.assertThat(sketch.getCount()).isEqualTo(3);
+        Assertions.assertThat(sketch.getQuantile(0D)).isEqualTo(0D);
+        Assertions.assertThat(sketch.getQuantile(0.5D)).isEqualTo(2D);
+    }
+
+    private void assertRankError(final double[] sorted, final double quantile, final double actual) {
+        final int index = Math.abs(Arrays.binarySearch(sorted, actual));
+        final double rank = (double) index / sorted.length;
+        Assertions.assertThat(Math.abs(rank - quantile)).isLessThan(MAX_RANK_ERROR);
+    }
+
+}
@@ -0,0 +1,119 @@
+package de.invesdwin.util.math.decimal.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.math.decimal.Decimal;
+import de.invesdwin.util.math.decimal.IDecimalAggregate;
+import de.invesdwin.util.math.decimal.scaled.Percent;
+
+@ThreadSafe
+public class DecimalStreamSummaryTest {
+
+    private static final double EPSILON = 1E-6;
+
+    @Test
+    public void testMergedPartitionsMatchAggregate() {
+        final Random random = new Random(1);
+        final List<Decimal> values = new ArrayList<Decimal>();
+        final List<DecimalStreamSummary<Decimal>> partitions = new ArrayList<DecimalStreamSummary<Decimal>>();
+        for (int p = 0; p < 4; p++) {
+            partitions.add(new DecimalStreamSummary<Decimal>(Decimal.ZERO));
+        }
+        for (int i = 0; i < 1000; i++) {
+            final Decimal value = new Decimal(100 + random.nextGaussian() * 10);
+            values.add(value);
+            //unequal partition sizes
+            partitions.get(random.nextInt(i % 3 + 1)).process(value);
+        }
+        final DecimalStreamSummary<Decimal> merged = new DecimalStreamSummary<Decimal>(Decimal.ZERO);
+        for (final DecimalStreamSummary<Decimal> partition : partitions) {
+            merged.merge(partition);
+        }
+
+        final IDecimalAggregate<Decimal> aggregate = Decimal.valueOf(values);
+        Assertions.assertThat(merged.getCount()).isEqualTo(values.size());
+        Assertions.assertThat(merged.getMin()).isEqualTo(aggregate.min());
+        Assertions.assertThat(merged.getMax()).isEqualTo(aggregate.max());
+        assertClose(merged.getSum(), aggregate.sum());
+        assertClose(merged.getAvg(), aggregate.avg());
+        assertClose(merged.getVariance(), aggregate.variance());
+        assertClose(merged.getSampleVariance(), aggregate.sampleVariance());
+        assertClose(merged.getStandardDeviation(), aggregate.standardDeviation());
+        assertClose(merged.getSampleStandardDeviation(), aggregate.sampleStandardDeviation());
+        assertClose(aggregate.summary().getVariance(), aggregate.variance());
+        //about one percent rank error, which is about 0.25 around the median here
+        Assertions.assertThat(Math.abs(merged.getMedian().doubleValue() - aggregate.median().doubleValue()))
+                .isLessThan(1D);
+    }
+
+    @Test
+    public void testNullValuesCountedAsZero() {
+        final List<Decimal> values = new ArrayList<Decimal>();
+        values.add(Decimal.ONE);
+        values.add(null);
+        values.add(Decimal.THREE);
+        values.add(null);
+        values.add(Decimal.FIVE);
+        final IDecimalAggregate<Decimal> aggregate = Decimal.valueOf(values);
+        final DecimalStreamSummary<Decimal> summary = aggregate.summary();
+        Assertions.assertThat(summary.getCount()).isEqualTo(aggregate.size());
+        assertClose(summary.getSum(), aggregate.sum());
+        assertClose(summary.getAvg(), aggregate.avg());
+        assertClose(summary.getAvg(), new Decimal("1.8"));
+        assertClose(summary.getVariance(), aggregate.variance());
+        assertClose(summary.getSampleVariance(), aggregate.sampleVariance());
+        assertClose(summary.getMin(), Decimal.ZERO);
+        assertClose(summary.getMedian(), aggregate.median());
+        assertClose(aggregate.median(), Decimal.ONE);
+        assertClose(aggregate.quantile(Percent.ZERO_PERCENT), Decimal.ZERO);
+
+        final DecimalStreamHistogram<Decimal> histogram = new DecimalStreamHistogram<Decimal>(Decimal.ZERO,
+                Decimal.TEN, 10);
+        for (final Decimal value : values) {
+            histogram.process(value);
+        }
+        Assertions.assertThat(histogram.getCount(0)).isEqualTo(2);
+        Assertions.assertThat(histogram.getTotalCount()).isEqualTo(values.size());
+    }
+
+    @Test
+    public void testEmpty() {
+        final DecimalStreamSummary<Decimal> summary = new DecimalStreamSummary<Decimal>(Decimal.ZERO);
+        summary.merge(new DecimalStreamSummary<Decimal>(Decimal.ZERO));
+        Assertions.assertThat(summary.getCount()).isEqualTo(0);
+        Assertions.assertThat(summary.getAvg()).isNull();
+        Assertions.assertThat(summary.getMedian()).isNull();
+    }
+
+    @Test
+    public void testHistogramMerge() {
+        final DecimalStreamHistogram<Decimal> histogram = new DecimalStreamHistogram<Decimal>(Decimal.ZERO,
+                Decimal.TEN, 10);
+        final DecimalStreamHistogram<Decimal> other = new DecimalStreamHistogram<Decimal>(Decimal.ZERO, Decimal.TEN,
+                10);
+        histogram.process(new Decimal("0.5"));
+        histogram.process(new Decimal("-1"));
+        other.process(new Decimal("0"));
+        other.process(new Decimal("9.99"));
+        other.process(Decimal.TEN);
+        histogram.merge(other);
+        Assertions.assertThat(histogram.getCount(0)).isEqualTo(2);
+        Assertions.assertThat(histogram.getCount(9)).isEqualTo(1);
+        Assertions.assertThat(histogram.getUnderflowCount()).isEqualTo(1);
+        Assertions.assertThat(histogram.getOverflowCount()).isEqualTo(1);
+        Assertions.assertThat(histogram.getTotalCount()).isEqualTo(5);
+        Assertions.assertThat(histogram.getBinUpper(9)).isEqualTo(Decimal.TEN);
+    }
+
+    private void assertClose(final Decimal actual, final Decimal expected) {
+        Assertions.assertThat(Math.abs(actual.doubleValue() - expected.doubleValue())).isLessThan(EPSILON);
+    }
+
+}
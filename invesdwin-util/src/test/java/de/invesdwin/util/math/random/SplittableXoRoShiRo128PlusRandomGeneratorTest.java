@@ -0,0 +1,107 @@
+package de.invesdwin.util.math.random;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+
+@NotThreadSafe
+public class SplittableXoRoShiRo128PlusRandomGeneratorTest {
+
+    private static final int COUNT = 1000000;
+    private static final double EPSILON = 0.01D;
+
+    @Test
+    public void testSameSeedSameSequence() {
+        final SplittableXoRoShiRo128PlusRandomGenerator random1 = new SplittableXoRoShiRo128PlusRandomGenerator(42);
+        final SplittableXoRoShiRo128PlusRandomGenerator random2 = new SplittableXoRoShiRo128PlusRandomGenerator(42);
+        for (int i = 0; i < 1000; i++) {
+            Assertions.assertThat(random1.nextLong()).isEqualTo(random2.nextLong());
+        }
+    }
+
+    @Test
+    public void testSplit() {
+        final SplittableXoRoShiRo128PlusRandomGenerator random = new SplittableXoRoShiRo128PlusRandomGenerator(42);
+        final SplittableXoRoShiRo128PlusRandomGenerator before = random.copy();
+        final SplittableXoRoShiRo128PlusRandomGenerator split = random.split();
+        //the split generator continues where this one was, while this one jumped ahead
+        final SplittableXoRoShiRo128PlusRandomGenerator jumped = before.copy();
+        jumped.jump();
+        for (int i = 0; i < 1000; i++) {
+            final long value = split.nextLong();
+            Assertions.assertThat(value).isEqualTo(before.nextLong());
+            Assertions.assertThat(random.nextLong()).isEqualTo(jumped.nextLong());
+        }
+    }
+
+    @Test
+    public void testBulkSameAsSingle() {
+        final SplittableXoRoShiRo128PlusRandomGenerator random = new SplittableXoRoShiRo128PlusRandomGenerator(42);
+        final SplittableXoRoShiRo128PlusRandomGenerator copy = random.copy();
+        final double[] doubles = new double[1000];
+        random.nextDouble(doubles);
+        for (int i = 0; i < doubles.length; i++) {
+            Assertions.assertThat(doubles[i]).isEqualTo(copy.nextDouble());
+        }
+        final int[] ints = new int[1000];
+        random.nextInt(ints, 7);
+        for (int i = 0; i < ints.length; i++) {
+            Assertions.assertThat(ints[i]).isEqualTo(copy.nextInt(7));
+        }
+        final double[] gaussians = new double[1000];
+        random.nextGaussian(gaussians);
+        for (int i = 0; i < gaussians.length; i++) {
+            Assertions.assertThat(gaussians[i]).isEqualTo(copy.nextGaussian());
+        }
+    }
+
+    @Test
+    public void testNextInt() {
+        final ISplittableRandomGenerator random = RandomGenerators.newSplittableRandom(42);
+        final int[] values = new int[COUNT];
+        random.nextInt(values, 10);
+        final int[] counts = new int[10];
+        for (int i = 0; i < values.length; i++) {
+            counts[values[i]]++;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            Assertions.assertThat(Math.abs(counts[i] / (double) COUNT - 0.1D)).isLessThan(EPSILON);
+        }
+    }
+
+    @Test
+    public void testNextGaussian() {
+        final ISplittableRandomGenerator random = RandomGenerators.newSplittableRandom(42);
+        final double[] values = new double[COUNT];
+        random.nextGaussian(values);
+        double sum = 0D;
+        double sumOfSquares = 0D;
+        for (int i = 0; i < values.length; i++) {
+            sum += values[i];
+            sumOfSquares += values[i] * values[i];
+        }
+        final double avg = sum / COUNT;
+        Assertions.assertThat(Math.abs(avg)).isLessThan(EPSILON);
+        Assertions.assertThat(Math.abs(sumOfSquares / COUNT - avg * avg - 1D)).isLessThan(EPSILON);
+    }
+
+    @Test
+    public void testNextExponential() {
+        final ISplittableRandomGenerator random = RandomGenerators.newSplittableRandom(42);
+        final double[] values = new double[COUNT];
+        random.nextExponential(values);
+        double sum = 0D;
+        double sumOfSquares = 0D;
+        for (int i = 0; i < values.length; i++) {
+            Assertions.assertThat(values[i]).isGreaterThanOrEqualTo(0D);
+            sum += values[i];
+            sumOfSquares += values[i] * values[i];
+        }
+        final double avg = sum / COUNT;
+        Assertions.assertThat(Math.abs(avg - 1D)).isLessThan(EPSILON);
+        Assertions.assertThat(Math.abs(sumOfSquares / COUNT - avg * avg - 1D)).isLessThan(EPSILON * 2);
+    }
+
+}